@@ -13,7 +13,8 @@ public class VocabularyContentModificationAspect {
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
-    @Pointcut("@annotation(cz.cvut.kbss.termit.asset.provenance.ModifiesData) && target(cz.cvut.kbss.termit.persistence.dao.TermDao)")
+    @Pointcut("@annotation(cz.cvut.kbss.termit.asset.provenance.ModifiesData) && " +
+            "(target(cz.cvut.kbss.termit.persistence.dao.TermDao) || target(cz.cvut.kbss.termit.persistence.dao.VocabularyDao))")
     public void vocabularyContentModificationOperation() {
     }
 
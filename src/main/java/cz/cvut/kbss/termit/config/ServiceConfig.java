@@ -37,21 +37,31 @@ import java.util.Arrays;
 @Configuration
 public class ServiceConfig {
 
+    /**
+     * Default maximum number of connections per route used by the HTTP client.
+     */
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 2;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
 
     @Bean
-    public RestTemplate restTemplate(@Qualifier("objectMapper") ObjectMapper objectMapper) {
+    public RestTemplate restTemplate(@Qualifier("objectMapper") ObjectMapper objectMapper,
+                                     cz.cvut.kbss.termit.util.Configuration config) {
         final RestTemplate restTemplate = new RestTemplate();
 
         // Using LaxRedirectStrategy to allow redirects of POST, PUT and DELETE requests
         // Introduced here because text analysis invocations (POST) were redirected and the resulting documents were
         // malformed (contained the redirect page instead of the result).
         final HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
+        // Allow as many connections to the text analysis service as there may be concurrent analysis requests
+        final int maxConnections = Math.max(config.getTextAnalysis().getParallelism(), DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
         final HttpClient httpClient = HttpClientBuilder.create()
                 .setRedirectStrategy(new LaxRedirectStrategy())
+                .setMaxConnPerRoute(maxConnections)
+                .setMaxConnTotal(maxConnections * 2)
                 .build();
         factory.setHttpClient(httpClient);
         restTemplate.setRequestFactory(factory);
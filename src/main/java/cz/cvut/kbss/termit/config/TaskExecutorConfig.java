@@ -0,0 +1,98 @@
+/**
+ * TermIt Copyright (C) 2019 Czech Technical University in Prague
+ * <p>
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Task executors dedicated to particular application features.
+ * <p>
+ * The executors are managed by the container, so they are shut down together with the application context. Their
+ * threads are named after the feature they serve.
+ * <p>
+ * Note that the default application task executor and task scheduler are declared in {@link AppConfig}, as Spring Boot
+ * does not create them when other executors exist.
+ */
+@Configuration
+public class TaskExecutorConfig {
+
+    /**
+     * Executes requests to the text analysis service.
+     */
+    public static final String TEXT_ANALYSIS_EXECUTOR = "textAnalysisExecutor";
+
+    /**
+     * Executes queued text analysis jobs of files.
+     */
+    public static final String TEXT_ANALYSIS_JOB_EXECUTOR = "textAnalysisJobExecutor";
+
+    /**
+     * Executes scheduled analyses of vocabularies.
+     */
+    public static final String VOCABULARY_ANALYSIS_SCHEDULER = "vocabularyAnalysisTaskScheduler";
+
+    /**
+     * Evaluates batches of export queries.
+     */
+    public static final String EXPORT_EXECUTOR = "exportExecutor";
+
+    @Bean(TEXT_ANALYSIS_EXECUTOR)
+    public ThreadPoolTaskExecutor textAnalysisExecutor(cz.cvut.kbss.termit.util.Configuration config) {
+        final cz.cvut.kbss.termit.util.Configuration.TextAnalysis taConfig = config.getTextAnalysis();
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(taConfig.getParallelism());
+        executor.setMaxPoolSize(taConfig.getParallelism());
+        executor.setQueueCapacity(taConfig.getQueueCapacity());
+        executor.setThreadNamePrefix("text-analysis-");
+        // When the queue is full, the submitting thread executes the analysis itself, which slows down submission
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    @Bean(TEXT_ANALYSIS_JOB_EXECUTOR)
+    public ThreadPoolTaskExecutor textAnalysisJobExecutor(cz.cvut.kbss.termit.util.Configuration config) {
+        final int workers = Math.max(config.getTextAnalysis().getJobWorkers(), 1);
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("text-analysis-job-");
+        // Queued and running jobs remain stored on shutdown, so they are resumed on the next startup
+        return executor;
+    }
+
+    @Bean(VOCABULARY_ANALYSIS_SCHEDULER)
+    public ThreadPoolTaskScheduler vocabularyAnalysisTaskScheduler(cz.cvut.kbss.termit.util.Configuration config) {
+        final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(config.getTextAnalysis().getParallelism(), 1));
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setThreadNamePrefix("vocabulary-analysis-");
+        return scheduler;
+    }
+
+    @Bean(EXPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor exportExecutor(cz.cvut.kbss.termit.util.Configuration config) {
+        final int parallelism = Math.max(config.getExport().getReferenceParallelism(), 1);
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("export-");
+        return executor;
+    }
+}
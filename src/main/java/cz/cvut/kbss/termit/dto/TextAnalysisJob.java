@@ -0,0 +1,152 @@
+package cz.cvut.kbss.termit.dto;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Asynchronously executed text analysis of a file.
+ * <p>
+ * Instances are updated by the worker executing the job and read concurrently by clients polling the job status, so
+ * all accessors of the mutable state are synchronized.
+ */
+public class TextAnalysisJob {
+
+    /**
+     * State of a text analysis job.
+     */
+    public enum Status {
+        /**
+         * The job is waiting for a free worker.
+         */
+        QUEUED,
+        /**
+         * The job is being executed.
+         */
+        RUNNING,
+        /**
+         * The analysis finished successfully.
+         */
+        FINISHED,
+        /**
+         * The analysis failed, see {@link #getError()}.
+         */
+        FAILED
+    }
+
+    private final String id;
+
+    private final URI resource;
+
+    private final Set<URI> vocabularies;
+
+    private final Instant created;
+
+    private Status status = Status.QUEUED;
+
+    private Instant started;
+
+    private Instant finished;
+
+    private String error;
+
+    public TextAnalysisJob(String id, URI resource, Set<URI> vocabularies, Instant created) {
+        this.id = Objects.requireNonNull(id);
+        this.resource = Objects.requireNonNull(resource);
+        this.vocabularies = Collections.unmodifiableSet(new HashSet<>(vocabularies));
+        this.created = Objects.requireNonNull(created);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Identifier of the analyzed file.
+     */
+    public URI getResource() {
+        return resource;
+    }
+
+    /**
+     * Identifiers of vocabulary contexts used as sources of terms for the analysis.
+     */
+    public Set<URI> getVocabularies() {
+        return vocabularies;
+    }
+
+    public Instant getCreated() {
+        return created;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Time when the latest execution of the job started, {@code null} if it has not started yet.
+     */
+    public synchronized Instant getStarted() {
+        return started;
+    }
+
+    /**
+     * Time when the job finished (successfully or not), {@code null} if it is still queued or running.
+     */
+    public synchronized Instant getFinished() {
+        return finished;
+    }
+
+    /**
+     * Message describing the failure of the job, {@code null} unless the job failed.
+     */
+    public synchronized String getError() {
+        return error;
+    }
+
+    public synchronized boolean isDone() {
+        return status == Status.FINISHED || status == Status.FAILED;
+    }
+
+    public synchronized void queued() {
+        this.status = Status.QUEUED;
+        this.started = null;
+    }
+
+    public synchronized void started(Instant time) {
+        this.status = Status.RUNNING;
+        this.started = time;
+    }
+
+    public synchronized void finished(Instant time) {
+        this.status = Status.FINISHED;
+        this.finished = time;
+    }
+
+    public synchronized void failed(Instant time, String error) {
+        this.status = Status.FAILED;
+        this.finished = time;
+        this.error = error;
+    }
+
+    /**
+     * Restores state of a job loaded from the job store.
+     */
+    public synchronized void restore(Status status, Instant started, Instant finished, String error) {
+        this.status = Objects.requireNonNull(status);
+        this.started = started;
+        this.finished = finished;
+        this.error = error;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TextAnalysisJob{" + id +
+                ", resource=<" + resource + ">" +
+                ", status=" + status +
+                '}';
+    }
+}
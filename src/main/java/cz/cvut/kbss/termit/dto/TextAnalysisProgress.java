@@ -0,0 +1,96 @@
+package cz.cvut.kbss.termit.dto;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Progress of text analysis of definitions of terms in a vocabulary.
+ * <p>
+ * Instances are updated concurrently by the analysis workers, so all accessors are synchronized.
+ */
+public class TextAnalysisProgress {
+
+    private final URI vocabulary;
+
+    private final int total;
+
+    private int processed;
+
+    private int failed;
+
+    private final Instant started;
+
+    private Instant finished;
+
+    public TextAnalysisProgress(URI vocabulary, int total) {
+        this.vocabulary = Objects.requireNonNull(vocabulary);
+        this.total = total;
+        this.started = Instant.now();
+    }
+
+    /**
+     * Identifier of the vocabulary whose term definitions are analyzed.
+     */
+    public URI getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Number of term definitions to analyze.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Number of term definitions whose analysis finished (successfully or not).
+     */
+    public synchronized int getProcessed() {
+        return processed;
+    }
+
+    /**
+     * Number of term definitions whose analysis failed.
+     */
+    public synchronized int getFailed() {
+        return failed;
+    }
+
+    public Instant getStarted() {
+        return started;
+    }
+
+    /**
+     * Time when the analysis finished, {@code null} if it is still running.
+     */
+    public synchronized Instant getFinished() {
+        return finished;
+    }
+
+    public synchronized boolean isFinished() {
+        return finished != null;
+    }
+
+    public synchronized void addProcessed(int count) {
+        this.processed += count;
+    }
+
+    public synchronized void addFailed(int count) {
+        this.processed += count;
+        this.failed += count;
+    }
+
+    public synchronized void finish() {
+        this.finished = Instant.now();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TextAnalysisProgress{" + vocabulary +
+                ", processed=" + processed + "/" + total +
+                ", failed=" + failed +
+                (finished != null ? ", finished" : "") +
+                '}';
+    }
+}
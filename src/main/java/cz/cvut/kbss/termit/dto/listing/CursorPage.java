@@ -0,0 +1,36 @@
+package cz.cvut.kbss.termit.dto.listing;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Page of results retrieved using keyset (cursor-based) paging.
+ *
+ * @param <T> Type of the page content
+ * @see PageCursor
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+
+    private final PageCursor nextCursor;
+
+    public CursorPage(List<T> content, PageCursor nextCursor) {
+        this.content = Objects.requireNonNull(content);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * Gets cursor pointing to the next page.
+     *
+     * @return Cursor of the next page, empty if this is the last page
+     */
+    public Optional<PageCursor> getNextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+}
@@ -0,0 +1,101 @@
+package cz.cvut.kbss.termit.dto.listing;
+
+import cz.cvut.kbss.termit.exception.InvalidParameterException;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position in a listing of terms ordered by label, used for keyset (cursor-based) paging.
+ * <p>
+ * The cursor identifies the last item of the previous page by its label sort key and identifier (the tie breaker),
+ * so that the next page can be retrieved by seeking past it instead of skipping a number of results.
+ * <p>
+ * Clients receive the cursor as an opaque token (see {@link #encode()}) and send it back to get the next page.
+ */
+public final class PageCursor {
+
+    /**
+     * Separates identifier and sort key in the token. IRIs cannot contain spaces.
+     */
+    private static final char SEPARATOR = ' ';
+
+    private final String sortKey;
+
+    private final URI term;
+
+    public PageCursor(String sortKey, URI term) {
+        this.sortKey = Objects.requireNonNull(sortKey);
+        this.term = Objects.requireNonNull(term);
+    }
+
+    /**
+     * Label sort key of the last item of the previous page.
+     */
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    /**
+     * Identifier of the last item of the previous page.
+     */
+    public URI getTerm() {
+        return term;
+    }
+
+    /**
+     * Encodes this cursor into an opaque URL-safe token.
+     *
+     * @return Cursor token
+     * @see #decode(String)
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                     .encodeToString((term.toString() + SEPARATOR + sortKey).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the specified token into a cursor.
+     *
+     * @param token Token previously created by {@link #encode()}
+     * @return Decoded cursor
+     * @throws InvalidParameterException If the token is not a valid cursor token
+     */
+    public static PageCursor decode(String token) {
+        Objects.requireNonNull(token);
+        try {
+            final String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            final int separatorIndex = value.indexOf(SEPARATOR);
+            if (separatorIndex < 1) {
+                throw new InvalidParameterException("Invalid page cursor " + token);
+            }
+            return new PageCursor(value.substring(separatorIndex + 1), URI.create(value.substring(0, separatorIndex)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Invalid page cursor " + token);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageCursor)) {
+            return false;
+        }
+        PageCursor that = (PageCursor) o;
+        return sortKey.equals(that.sortKey) && term.equals(that.term);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sortKey, term);
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{" + term + ", sortKey='" + sortKey + "'}";
+    }
+}
@@ -5,7 +5,8 @@ import org.springframework.context.ApplicationEvent;
 /**
  * Represents an event of modification of the content of a vocabulary.
  * <p>
- * This typically means a term is added, removed or modified. Modification of vocabulary metadata themselves is not considered here.
+ * This typically means a term is added, removed or modified. Modification of a vocabulary itself is reported as well,
+ * because it may change the content of the vocabulary as seen by its clients (e.g., via vocabulary imports).
  */
 public class VocabularyContentModified extends ApplicationEvent {
 
@@ -7,13 +7,16 @@ import cz.cvut.kbss.jopa.model.annotations.*;
 import cz.cvut.kbss.jopa.vocabulary.DC;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.jsonld.annotation.JsonLdAttributeOrder;
+import cz.cvut.kbss.jsonld.annotation.JsonLdProperty;
 import cz.cvut.kbss.termit.dto.TermInfo;
 import cz.cvut.kbss.termit.model.assignment.TermDefinitionSource;
 import cz.cvut.kbss.termit.model.changetracking.Audited;
+import cz.cvut.kbss.termit.model.changetracking.IgnoreChanges;
 import cz.cvut.kbss.termit.model.util.HasTypes;
 import cz.cvut.kbss.termit.model.util.SupportsSnapshots;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.CsvUtils;
+import cz.cvut.kbss.termit.util.SortKeyUtils;
 import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.apache.poi.ss.usermodel.Row;
@@ -110,6 +113,17 @@ public class Term extends AbstractTerm implements HasTypes, SupportsSnapshots {
     @OWLObjectProperty(iri = Vocabulary.s_p_ma_zdroj_definice_termu, fetch = FetchType.EAGER)
     private TermDefinitionSource definitionSource;
 
+    /**
+     * Locale-aware sort keys of the label, used to order terms in listings.
+     * <p>
+     * Computed from the label, see {@link SortKeyUtils}.
+     */
+    @IgnoreChanges
+    @JsonIgnore
+    @JsonLdProperty(access = JsonLdProperty.Access.WRITE_ONLY)
+    @OWLDataProperty(iri = Vocabulary.s_p_ma_klic_razeni)
+    private MultilingualString sortKey;
+
     @Properties(fetchType = FetchType.EAGER)
     private Map<String, Set<String>> properties;
 
@@ -317,6 +331,22 @@ public class Term extends AbstractTerm implements HasTypes, SupportsSnapshots {
         this.definitionSource = definitionSource;
     }
 
+    public MultilingualString getSortKey() {
+        return sortKey;
+    }
+
+    public void setSortKey(MultilingualString sortKey) {
+        this.sortKey = sortKey;
+    }
+
+    /**
+     * Recomputes {@link #getSortKey()} from the current label of this term.
+     */
+    @PrePersist
+    public void updateSortKey() {
+        this.sortKey = SortKeyUtils.sortKeys(getLabel());
+    }
+
     public Map<String, Set<String>> getProperties() {
         return properties;
     }
@@ -18,6 +18,8 @@ import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.persistence.dao.util.FullTextIndex;
+import cz.cvut.kbss.termit.persistence.dao.util.TermLabelIndex;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.util.Vocabulary;
@@ -25,13 +27,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Repository
 @Profile("!lucene")
@@ -39,23 +48,34 @@ public class SearchDao {
 
     private static final String FTS_QUERY_FILE = "fulltextsearch.rq";
 
+    private static final String FTS_TERMS_QUERY_FILE = "fulltextsearchterms.rq";
+
     private static final Logger LOG = LoggerFactory.getLogger(SearchDao.class);
 
     private final Configuration.Persistence config;
 
     protected String ftsQuery;
 
+    private String ftsTermsQuery;
+
     protected final EntityManager em;
 
+    private final FullTextIndex index;
+
+    private final TermLabelIndex labelIndex;
+
     @Autowired
-    public SearchDao(EntityManager em, Configuration config) {
+    public SearchDao(EntityManager em, Configuration config, FullTextIndex index, TermLabelIndex labelIndex) {
         this.em = em;
         this.config = config.getPersistence();
+        this.index = index;
+        this.labelIndex = labelIndex;
     }
 
     @PostConstruct
     private void loadQueries() {
         this.ftsQuery = Utils.loadQuery(FTS_QUERY_FILE);
+        this.ftsTermsQuery = Utils.loadQuery(FTS_TERMS_QUERY_FILE);
     }
 
     /**
@@ -64,6 +84,8 @@ public class SearchDao {
      * The search functionality depends on the underlying repository and the index it uses. But basically the search
      * looks for match in asset label, comment and SKOS definition (if exists).
      * <p>
+     * If the search can be resolved by the {@link FullTextIndex}, the repository is not queried at all.
+     * <p>
      * Note that this version of the search excludes asset snapshots from the results.
      *
      * @param searchString The string to search by
@@ -75,10 +97,67 @@ public class SearchDao {
         if (searchString.isBlank()) {
             return Collections.emptyList();
         }
+        final Optional<List<FullTextSearchResult>> indexed = index.search(searchString);
+        if (indexed.isPresent()) {
+            LOG.trace("Full text search for search string \"{}\" resolved using index.", searchString);
+            return indexed.get();
+        }
+        return fullTextSearchQuery(searchString).getResultList();
+    }
+
+    /**
+     * Finds the specified page of terms and vocabularies that match the specified search string.
+     * <p>
+     * Results are ordered by descending score, so that the best matches come first. Exact label matches rank before
+     * label prefix matches, which rank before other label matches and matches in other fields.
+     * <p>
+     * Only the requested page of results is read from the repository, so the total number of results is just an
+     * estimate in this case - if there are more results after the requested page, the total is one more than the number
+     * of results up to the end of the page. If the search is resolved by the {@link FullTextIndex}, the total is exact.
+     * <p>
+     * Note that this version of the search excludes asset snapshots from the results.
+     *
+     * @param searchString The string to search by
+     * @param pageSpec     Specification of the page to return
+     * @return Page of matching results
+     * @see #fullTextSearch(String)
+     */
+    public Page<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(pageSpec);
+        if (searchString.isBlank()) {
+            return Page.empty(pageSpec);
+        }
+        final Optional<List<FullTextSearchResult>> indexed = index.search(searchString);
+        if (indexed.isPresent()) {
+            LOG.trace("Full text search for search string \"{}\" resolved using index.", searchString);
+            final List<FullTextSearchResult> all = indexed.get();
+            final int from = (int) Math.min(pageSpec.getOffset(), all.size());
+            final int to = (int) Math.min((long) from + pageSpec.getPageSize(), all.size());
+            return new PageImpl<>(new ArrayList<>(all.subList(from, to)), pageSpec, all.size());
+        }
+        final int pageSize = pageSpec.getPageSize();
+        // Read one more result to find out whether there are any results after the page
+        final List<FullTextSearchResult> result = fullTextSearchQuery(searchString)
+                .setFirstResult((int) pageSpec.getOffset())
+                .setMaxResults(pageSize < Integer.MAX_VALUE ? pageSize + 1 : pageSize)
+                .getResultList();
+        if (result.size() > pageSize) {
+            return new PageImpl<>(result.subList(0, pageSize), pageSpec, pageSpec.getOffset() + pageSize + 1);
+        }
+        return new PageImpl<>(result, pageSpec, pageSpec.getOffset() + result.size());
+    }
+
+    /**
+     * Creates a full text search query excluding asset snapshots, with all the parameters set.
+     *
+     * @param searchString The string to search by
+     * @return Query ready for execution
+     */
+    protected Query fullTextSearchQuery(String searchString) {
         LOG.trace("Running full text search for search string \"{}\".", searchString);
         return setCommonQueryParams(em.createNativeQuery(ftsQuery, "FullTextSearchResult"), searchString)
-                .setParameter("snapshot", URI.create(Vocabulary.s_c_verze_objektu))
-                .getResultList();
+                .setParameter("snapshot", URI.create(Vocabulary.s_c_verze_objektu));
     }
 
     /**
@@ -103,6 +182,70 @@ public class SearchDao {
                                     searchString).getResultList();
     }
 
+    /**
+     * Finds terms from the specified vocabularies that match the specified search string.
+     * <p>
+     * The vocabularies and the term type are bound in the query, so that assets from other vocabularies are not
+     * searched at all. Since the specified vocabularies may be snapshots, snapshots are not excluded by this search.
+     *
+     * @param searchString The string to search by
+     * @param vocabularies Identifiers of vocabularies to search in
+     * @param limit        Maximum number of results to return
+     * @return List of matching terms, at most {@code limit} long
+     */
+    public List<FullTextSearchResult> fullTextSearchOfTerms(String searchString, Set<URI> vocabularies, int limit) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(vocabularies);
+        if (searchString.isBlank() || vocabularies.isEmpty()) {
+            return Collections.emptyList();
+        }
+        LOG.trace("Running full text search of terms in vocabularies {} for search string \"{}\".", vocabularies,
+                  searchString);
+        // This string has to match the VALUES clause in the query
+        final String query = ftsTermsQuery.replace("VALUES ?vocabularyUri {}",
+                                                   "VALUES ?vocabularyUri { " + vocabularyValues(vocabularies) + " }");
+        return em.createNativeQuery(withLimit(query, limit), "FullTextSearchResult")
+                 .setParameter("term", URI.create(SKOS.CONCEPT))
+                 .setParameter("inVocabulary", URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                 .setParameter("isDraft", URI.create(Vocabulary.s_p_je_draft))
+                 .setParameter("langTag", config.getLanguage(), null)
+                 .setParameter("searchString", searchString, null)
+                 .getResultList();
+    }
+
+    /**
+     * Finds terms from the specified vocabularies whose label or alternative label starts with the specified prefix.
+     * <p>
+     * This search is intended for autocomplete, so it is resolved using the {@link TermLabelIndex}. If the index is
+     * not available, terms with labels (in the persistence language) containing the prefix are found in the
+     * repository.
+     *
+     * @param prefix       Label prefix to search by
+     * @param language     Language of the labels to search
+     * @param vocabularies Identifiers of vocabularies to search in
+     * @param limit        Maximum number of results to return
+     * @return List of matching terms, at most {@code limit} long
+     * @see #fullTextSearchOfTerms(String, Set, int)
+     */
+    public List<FullTextSearchResult> findTermsByLabelPrefix(String prefix, String language, Set<URI> vocabularies,
+                                                             int limit) {
+        Objects.requireNonNull(prefix);
+        Objects.requireNonNull(vocabularies);
+        if (prefix.isBlank() || vocabularies.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return labelIndex.findByLabelPrefix(prefix, language, vocabularies, limit)
+                         .orElseGet(() -> fullTextSearchOfTerms(prefix, vocabularies, limit));
+    }
+
+    private static String vocabularyValues(Set<URI> vocabularies) {
+        return vocabularies.stream().map(Utils::uriToString).collect(Collectors.joining(" "));
+    }
+
+    protected static String withLimit(String query, int limit) {
+        return query + " LIMIT " + limit;
+    }
+
     protected Query setCommonQueryParams(Query q, String searchString) {
         return q.setParameter("term", URI.create(SKOS.CONCEPT))
                 .setParameter("vocabulary", URI.create(Vocabulary.s_c_slovnik))
@@ -17,9 +17,12 @@ package cz.cvut.kbss.termit.persistence.dao;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.query.TypedQuery;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.ontodriver.model.LangString;
 import cz.cvut.kbss.termit.asset.provenance.ModifiesData;
 import cz.cvut.kbss.termit.dto.Snapshot;
 import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.listing.CursorPage;
+import cz.cvut.kbss.termit.dto.listing.PageCursor;
 import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.exception.PersistenceException;
 import cz.cvut.kbss.termit.model.AbstractTerm;
@@ -29,13 +32,20 @@ import cz.cvut.kbss.termit.model.util.HasIdentifier;
 import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
 import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
 import cz.cvut.kbss.termit.persistence.dao.util.Cache;
+import cz.cvut.kbss.termit.persistence.dao.util.SparqlResultToTermInfoMapper;
+import cz.cvut.kbss.termit.persistence.dao.util.TermBulkLoader;
+import cz.cvut.kbss.termit.persistence.dao.util.FullTextIndex;
+import cz.cvut.kbss.termit.persistence.dao.util.TermHierarchyIndex;
+import cz.cvut.kbss.termit.persistence.dao.util.TermLabelIndex;
 import cz.cvut.kbss.termit.persistence.snapshot.AssetSnapshotLoader;
 import cz.cvut.kbss.termit.service.snapshot.SnapshotProvider;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.SortKeyUtils;
 import cz.cvut.kbss.termit.util.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URI;
 import java.time.Instant;
@@ -47,19 +57,70 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
 
     private static final URI LABEL_PROP = URI.create(SKOS.PREF_LABEL);
 
+    private static final URI SORT_KEY_PROP = URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_klic_razeni);
+
+    /**
+     * Records version of the stored sort keys, see {@link SortKeyUtils#keyVersion()}. Also used as its context.
+     */
+    private static final URI SORT_KEYS_MARKER = URI.create(
+            cz.cvut.kbss.termit.util.Vocabulary.ONTOLOGY_IRI_termit + "/sort-keys");
+    private static final URI SORT_KEY_VERSION_PROP = URI.create(
+            cz.cvut.kbss.termit.util.Vocabulary.ONTOLOGY_IRI_termit + "/sort-key-version");
+
+    /**
+     * Binds sort key of the term label (see {@link Term#getSortKey()}) to the {@code ?sortKey} variable.
+     * <p>
+     * Sort keys are literals precomputed in the label's language, so ordering by them is a plain string comparison.
+     */
+    private static final String SORT_KEY_PATTERN = " OPTIONAL { ?term " + Utils.uriToString(SORT_KEY_PROP) +
+            " ?sortKey . FILTER (lang(?sortKey) = lang(?label)) } ";
+
+    /**
+     * Orders results by label sort key. Label is used for terms which do not have the sort key (yet).
+     */
+    private static final String SORT_KEY_ORDER = "str(?sortKey) lcase(str(?label))";
+
+    /**
+     * Sort key used by keyset paging. Terms without a sort key are given an empty one, so that they have a defined
+     * position both in the ordering and in the cursor filter.
+     */
+    private static final String KEYSET_KEY = "COALESCE(str(?sortKey), \"\")";
+
+    /**
+     * Maximum number of parent terms whose sub-terms are loaded by a single query.
+     */
+    private static final int SUB_TERMS_BATCH_SIZE = 100;
+
+    private static final int SORT_KEYS_BATCH_SIZE = 500;
+
+    /**
+     * Maximum number of term identifiers whose existence is checked by a single query.
+     */
+    private static final int EXISTENCE_CHECK_BATCH_SIZE = 1000;
+
     private final Cache<URI, Set<TermInfo>> subTermsCache;
 
     private final Comparator<TermInfo> termInfoComparator;
 
     private final VocabularyContextMapper contextMapper;
 
+    private final TermHierarchyIndex hierarchyIndex;
+
+    private final FullTextIndex fullTextIndex;
+
+    private final TermLabelIndex labelIndex;
+
     @Autowired
     public TermDao(EntityManager em, Configuration config, DescriptorFactory descriptorFactory,
-                   Cache<URI, Set<TermInfo>> subTermsCache, VocabularyContextMapper contextMapper) {
+                   Cache<URI, Set<TermInfo>> subTermsCache, VocabularyContextMapper contextMapper,
+                   TermHierarchyIndex hierarchyIndex, FullTextIndex fullTextIndex, TermLabelIndex labelIndex) {
         super(Term.class, em, config.getPersistence(), descriptorFactory);
         this.subTermsCache = subTermsCache;
         this.termInfoComparator = Comparator.comparing(t -> t.getLabel().get(config.getPersistence().getLanguage()));
         this.contextMapper = contextMapper;
+        this.hierarchyIndex = hierarchyIndex;
+        this.fullTextIndex = fullTextIndex;
+        this.labelIndex = labelIndex;
     }
 
     @Override
@@ -161,6 +222,9 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
             entity.setVocabulary(null); // This is inferred
             em.persist(entity, descriptorFactory.termDescriptor(vocabulary));
             evictCachedSubTerms(Collections.emptySet(), entity.getParentTerms());
+            hierarchyIndex.onTermAdded(entity, vocabulary.getUri(), entity.getParentTerms());
+            fullTextIndex.onTermChanged(entity, vocabulary.getUri());
+            labelIndex.onTermChanged(entity, vocabulary.getUri());
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -178,8 +242,14 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
             em.getEntityManagerFactory().getCache().evict(TermDto.class, entity.getUri(), null);
             final Term original = em.find(Term.class, entity.getUri(), descriptorFactory.termDescriptor(entity));
             entity.setDefinitionSource(original.getDefinitionSource());
+            entity.updateSortKey();
             evictCachedSubTerms(original.getParentTerms(), entity.getParentTerms());
-            return em.merge(entity, descriptorFactory.termDescriptor(entity));
+            final Term result = em.merge(entity, descriptorFactory.termDescriptor(entity));
+            // Indexes apply the changes once the transaction commits
+            hierarchyIndex.onTermUpdated(entity, original.getParentTerms(), entity.getParentTerms());
+            fullTextIndex.onTermChanged(entity, entity.getVocabulary());
+            labelIndex.onTermChanged(entity, entity.getVocabulary());
+            return result;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -190,6 +260,7 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
      *
      * @param term Term to mark as draft
      */
+    @ModifiesData
     public void setAsDraft(Term term) {
         Objects.requireNonNull(term);
         setTermDraftStatusTo(term, true);
@@ -213,6 +284,99 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
           .setParameter("hasStatus", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_draft))
           .setParameter("inScheme", URI.create(SKOS.IN_SCHEME))
           .setParameter("newDraft", draft).executeUpdate();
+        fullTextIndex.onTermDraftStatusChanged(term.getUri(), draft);
+        labelIndex.onTermDraftStatusChanged(term.getUri(), draft);
+    }
+
+    /**
+     * Brings label sort keys (see {@link Term#getSortKey()}) of all terms up to date.
+     * <p>
+     * Version of the stored sort keys is recorded in the repository. If it differs from the current version (see
+     * {@link SortKeyUtils#keyVersion()}) or it is not known, all the sort keys are regenerated. Otherwise, nothing is
+     * done, as sort keys are kept up to date when terms are persisted, updated or imported.
+     *
+     * @return Number of generated sort keys
+     */
+    @Transactional
+    public int updateSortKeys() {
+        final String version = SortKeyUtils.keyVersion();
+        try {
+            final List<String> stored = em.createNativeQuery("SELECT ?version WHERE {" +
+                                                                     "GRAPH ?marker { ?marker ?hasVersion ?version . }" +
+                                                                     "}", String.class)
+                                          .setParameter("marker", SORT_KEYS_MARKER)
+                                          .setParameter("hasVersion", SORT_KEY_VERSION_PROP)
+                                          .getResultList();
+            if (stored.equals(Collections.singletonList(version))) {
+                return 0;
+            }
+            em.createNativeQuery("DELETE { GRAPH ?context { ?term ?hasSortKey ?sortKey . } } WHERE {" +
+                                         "GRAPH ?context { ?term a ?type ; ?hasSortKey ?sortKey . }" +
+                                         "}")
+              .setParameter("type", typeUri)
+              .setParameter("hasSortKey", SORT_KEY_PROP)
+              .executeUpdate();
+            final int count = generateMissingSortKeys();
+            em.createNativeQuery("DELETE WHERE { GRAPH ?marker { ?marker ?hasVersion ?version . } }")
+              .setParameter("marker", SORT_KEYS_MARKER)
+              .setParameter("hasVersion", SORT_KEY_VERSION_PROP)
+              .executeUpdate();
+            final String marker = Utils.uriToString(SORT_KEYS_MARKER);
+            em.createNativeQuery("INSERT DATA { GRAPH " + marker + " { " + marker + " " +
+                                         Utils.uriToString(SORT_KEY_VERSION_PROP) + " \"" + version + "\" . } }")
+              .executeUpdate();
+            return count;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Generates missing label sort keys (see {@link Term#getSortKey()}).
+     * <p>
+     * Sort keys are computed when a term is persisted or updated via this DAO. This method generates them for terms
+     * which were created by other means, e.g., by vocabulary import or before sort keys were introduced.
+     *
+     * @return Number of generated sort keys
+     */
+    @Transactional
+    public int generateMissingSortKeys() {
+        try {
+            final List<?> rows = em.createNativeQuery("SELECT ?term ?label ?context WHERE {" +
+                                                              "GRAPH ?context {" +
+                                                              "?term a ?type ;" +
+                                                              "?hasLabel ?label ." +
+                                                              "FILTER NOT EXISTS { ?term ?hasSortKey ?sortKey . " +
+                                                              "FILTER (lang(?sortKey) = lang(?label)) }" +
+                                                              "}}")
+                                   .setParameter("type", typeUri)
+                                   .setParameter("hasLabel", LABEL_PROP)
+                                   .setParameter("hasSortKey", SORT_KEY_PROP)
+                                   .getResultList();
+            for (int i = 0; i < rows.size(); i += SORT_KEYS_BATCH_SIZE) {
+                final StringBuilder update = new StringBuilder("INSERT DATA {");
+                rows.subList(i, Math.min(i + SORT_KEYS_BATCH_SIZE, rows.size())).forEach(r -> {
+                    final Object[] row = (Object[]) r;
+                    final String language = row[1] instanceof LangString ?
+                                            ((LangString) row[1]).getLanguage().orElse(null) : null;
+                    final String label = row[1] instanceof LangString ? ((LangString) row[1]).getValue() :
+                                         row[1].toString();
+                    update.append(" GRAPH ").append(Utils.uriToString((URI) row[2])).append(" { ")
+                          .append(Utils.uriToString((URI) row[0])).append(' ')
+                          .append(Utils.uriToString(SORT_KEY_PROP)).append(" \"")
+                          .append(SortKeyUtils.sortKey(label, language)).append('"');
+                    if (language != null) {
+                        update.append('@').append(language);
+                    }
+                    update.append(" . }");
+                });
+                em.createNativeQuery(update.append(" }").toString()).executeUpdate();
+            }
+            em.getEntityManagerFactory().getCache().evict(Term.class);
+            return rows.size();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
     }
 
     /**
@@ -220,6 +384,7 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
      *
      * @param term Term to mark as confirmed
      */
+    @ModifiesData
     public void setAsConfirmed(Term term) {
         Objects.requireNonNull(term);
         setTermDraftStatusTo(term, false);
@@ -245,7 +410,7 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
                                                                             "FILTER (lang(?label) = ?labelLang) ." +
                                                                             "}" +
                                                                             "?term ?inVocabulary ?vocabulary ." +
-                                                                            " } ORDER BY " + orderSentence("?label"),
+                                                                            SORT_KEY_PATTERN + "} ORDER BY " + SORT_KEY_ORDER,
                                                                     TermDto.class)
                                                  .setParameter("context", context(vocabulary))
                                                  .setParameter("type", typeUri)
@@ -268,38 +433,124 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
      * Gets all terms on the specified vocabulary.
      * <p>
      * No differences are made between root terms and terms with parents.
+     * <p>
+     * The terms are loaded in bulk and are not managed, see {@link TermBulkLoader} for details.
      *
      * @param vocabulary Vocabulary whose terms should be returned
      * @return Matching terms, ordered by label
      */
+    @Transactional(readOnly = true)
     public List<Term> findAllFull(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
         try {
-            // Load terms one by one. This works around the issue of terms being loaded in the persistence context
-            // as Term and TermInfo, which results in IndividualAlreadyManagedExceptions from JOPA
-            // The workaround relies on clearing the EntityManager after loading each term
-            // The price for this solution is that this method performs very poorly for larger vocabularies (hundreds of terms)
-            final List<URI> termIris = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                    "GRAPH ?context { " +
-                                                                    "?term a ?type ;" +
-                                                                    "?hasLabel ?label ;" +
-                                                                    "FILTER (lang(?label) = ?labelLang) ." +
-                                                                    "}" +
-                                                                    "?term ?inVocabulary ?vocabulary ." +
-                                                                    " } ORDER BY " + orderSentence("?label"), URI.class)
-                                         .setParameter("type", typeUri)
-                                         .setParameter("context", context(vocabulary))
-                                         .setParameter("vocabulary", vocabulary.getUri())
-                                         .setParameter("hasLabel", LABEL_PROP)
-                                         .setParameter("inVocabulary",
-                                                       URI.create(
-                                                               cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                         .setParameter("labelLang", config.getLanguage()).getResultList();
-            return termIris.stream().map(ti -> {
-                final Term t = find(ti).get();
-                em.clear();
-                return t;
-            }).collect(Collectors.toList());
+            // Terms are not loaded through the persistence context, because that would require loading them one by one
+            // (to prevent IndividualAlreadyManagedExceptions caused by terms being loaded both as Term and TermInfo),
+            // which performs very poorly for larger vocabularies. Instead, they are reconstructed from the vocabulary
+            // context statements retrieved in bulk
+            final List<Term> result = new TermBulkLoader(em, termInfoComparator)
+                    .loadTerms(findAllIdentifiers(vocabulary), vocabulary.getUri(), context(vocabulary));
+            final Map<URI, Set<TermInfo>> subTerms = getSubTerms(result);
+            result.forEach(t -> t.setSubTerms(subTerms.get(t.getUri())));
+            return result;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Gets identifiers of all terms in the specified vocabulary.
+     * <p>
+     * This allows to process the terms of large vocabularies in chunks, see {@link #findAllFull(Vocabulary, List)}.
+     *
+     * @param vocabulary Vocabulary whose terms should be returned
+     * @return Term identifiers, ordered by label
+     */
+    @Transactional(readOnly = true)
+    public List<URI> findAllIdentifiers(Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        try {
+            return em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                                "GRAPH ?context { " +
+                                                "?term a ?type ;" +
+                                                "?hasLabel ?label ;" +
+                                                "FILTER (lang(?label) = ?labelLang) ." +
+                                                "}" +
+                                                "?term ?inVocabulary ?vocabulary ." +
+                                                SORT_KEY_PATTERN + "} ORDER BY " + SORT_KEY_ORDER, URI.class)
+                     .setParameter("type", typeUri)
+                     .setParameter("context", context(vocabulary))
+                     .setParameter("vocabulary", vocabulary.getUri())
+                     .setParameter("hasLabel", LABEL_PROP)
+                     .setParameter("inVocabulary",
+                                   URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                     .setParameter("labelLang", config.getLanguage()).getResultList();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Gets all terms in the specified vocabulary, with only their identifiers and parent terms loaded.
+     * <p>
+     * As opposed to {@link #findAllFull(Vocabulary)}, the terms are resolved within the current transaction, so they
+     * reflect its uncommitted changes. This is intended for removing the terms, see {@link #remove(Term)}. The terms
+     * are not managed.
+     *
+     * @param vocabulary Vocabulary whose terms should be returned
+     * @return Terms with identifiers and parent terms, in no particular order
+     */
+    public List<Term> findAllWithParents(Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        try {
+            final List<?> rows = em.createNativeQuery("SELECT ?term ?parent WHERE {" +
+                                                              "GRAPH ?context { " +
+                                                              "?term a ?type ." +
+                                                              "OPTIONAL { ?term ?broader ?parent . }" +
+                                                              "}}")
+                                   .setParameter("type", typeUri)
+                                   .setParameter("context", context(vocabulary))
+                                   .setParameter("broader", URI.create(SKOS.BROADER))
+                                   .getResultList();
+            final Map<URI, Term> terms = new LinkedHashMap<>();
+            rows.forEach(r -> {
+                final Object[] row = (Object[]) r;
+                final Term term = terms.computeIfAbsent((URI) row[0], uri -> {
+                    final Term t = new Term(uri);
+                    t.setVocabulary(vocabulary.getUri());
+                    t.setParentTerms(new HashSet<>());
+                    return t;
+                });
+                if (row[1] instanceof URI) {
+                    term.getParentTerms().add(new Term((URI) row[1]));
+                }
+            });
+            return new ArrayList<>(terms.values());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Gets the specified terms from the specified vocabulary.
+     * <p>
+     * In contrast to {@link #findAllFull(Vocabulary)}, only data of the specified terms are retrieved from the
+     * repository. The terms are loaded in bulk and are not managed, see {@link TermBulkLoader} for details.
+     *
+     * @param vocabulary Vocabulary the terms belong to
+     * @param termIris   Identifiers of terms to load
+     * @return Matching terms, in the same order as the specified identifiers
+     * @see #findAllIdentifiers(Vocabulary)
+     */
+    @Transactional(readOnly = true)
+    public List<Term> findAllFull(Vocabulary vocabulary, List<URI> termIris) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(termIris);
+        try {
+            final List<Term> result = new TermBulkLoader(em, termInfoComparator)
+                    .loadTermsSubset(termIris, vocabulary.getUri(), context(vocabulary));
+            final Map<URI, Set<TermInfo>> subTerms = getSubTerms(result);
+            result.forEach(t -> t.setSubTerms(subTerms.get(t.getUri())));
+            return result;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -314,18 +565,98 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         // transactions, this is probably the only way to prevent the aforementioned exceptions from appearing
         final List<T> result = query.getResultList();
         em.clear();
-        result.forEach(t -> t.setSubTerms(getSubTerms(t)));
+        setSubTerms(result);
         return result;
     }
 
+    private void setSubTerms(Collection<? extends AbstractTerm> terms) {
+        final Map<URI, Set<TermInfo>> subTerms = getSubTerms(terms);
+        terms.forEach(t -> t.setSubTerms(subTerms.get(t.getUri())));
+    }
+
     /**
      * Gets sub-term info for the specified parent term.
      *
      * @param parent Parent term
      */
-    private Set<TermInfo> getSubTerms(HasIdentifier parent) {
-        return subTermsCache.getOrCompute(parent.getUri(),
-                                          (k) -> loadInverseTermInfo(parent, SKOS.BROADER, Collections.emptySet()));
+    private Set<TermInfo> getSubTerms(AbstractTerm parent) {
+        return getSubTerms(Collections.singleton(parent)).get(parent.getUri());
+    }
+
+    /**
+     * Gets sub-term info for all the specified parent terms.
+     * <p>
+     * Sub-terms are resolved using the term hierarchy index if possible. Sub-terms of the remaining parents not present
+     * in the cache are loaded in batches, see {@link #loadSubTerms(Collection)}.
+     *
+     * @param parents Parent terms
+     * @return Map of parent term identifiers to their sub-terms
+     */
+    private Map<URI, Set<TermInfo>> getSubTerms(Collection<? extends AbstractTerm> parents) {
+        final Map<URI, Set<TermInfo>> result = new HashMap<>(parents.size());
+        final Set<URI> notIndexed = new LinkedHashSet<>();
+        for (AbstractTerm parent : parents) {
+            final Optional<List<TermInfo>> indexed = parent.getVocabulary() != null ?
+                                                     hierarchyIndex.findSubTerms(parent.getVocabulary(),
+                                                                                 parent.getUri()) : Optional.empty();
+            if (indexed.isPresent()) {
+                final List<TermInfo> subTerms = indexed.get();
+                subTerms.sort(termInfoComparator);
+                result.put(parent.getUri(), new LinkedHashSet<>(subTerms));
+            } else {
+                notIndexed.add(parent.getUri());
+            }
+        }
+        result.putAll(subTermsCache.getOrComputeAll(notIndexed, this::loadSubTerms));
+        return result;
+    }
+
+    /**
+     * Loads sub-terms of the specified parent terms.
+     * <p>
+     * Instead of executing one query per parent, parents are bound in batches via a VALUES clause, so that the number
+     * of queries is proportional to the number of batches.
+     *
+     * @param parents Identifiers of parent terms
+     * @return Map of parent identifiers to their sub-terms (sorted by label). Contains an entry for every parent
+     */
+    private Map<URI, Set<TermInfo>> loadSubTerms(Collection<URI> parents) {
+        final Map<URI, Set<TermInfo>> result = new HashMap<>(parents.size());
+        final List<URI> parentList = new ArrayList<>(parents);
+        for (int i = 0; i < parentList.size(); i += SUB_TERMS_BATCH_SIZE) {
+            final List<URI> batch = parentList.subList(i, Math.min(i + SUB_TERMS_BATCH_SIZE, parentList.size()));
+            final Map<URI, List<Object[]>> rows = new HashMap<>(batch.size());
+            final List<?> batchResult = em.createNativeQuery("SELECT ?parent ?term ?label ?vocabulary ?termType " +
+                                                                     "WHERE {" +
+                                                                     "VALUES ?parent { " +
+                                                                     batch.stream().map(Utils::uriToString)
+                                                                          .collect(Collectors.joining(" ")) + " }" +
+                                                                     "?term ?broader ?parent ;" +
+                                                                     "a ?type ;" +
+                                                                     "?hasLabel ?label ." +
+                                                                     "OPTIONAL { ?term ?inVocabulary ?vocabulary . }" +
+                                                                     "OPTIONAL { ?term a ?termType . " +
+                                                                     "FILTER (?termType != ?type) }" +
+                                                                     "}")
+                                          .setParameter("broader", URI.create(SKOS.BROADER))
+                                          .setParameter("type", typeUri)
+                                          .setParameter("hasLabel", LABEL_PROP)
+                                          .setParameter("inVocabulary", URI.create(
+                                                  cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                                          .getResultList();
+            for (Object r : batchResult) {
+                final Object[] row = (Object[]) r;
+                rows.computeIfAbsent((URI) row[0], k -> new ArrayList<>())
+                    .add(Arrays.copyOfRange(row, 1, row.length));
+            }
+            batch.forEach(parent -> {
+                final List<TermInfo> subTerms = new SparqlResultToTermInfoMapper()
+                        .map(rows.getOrDefault(parent, Collections.emptyList()));
+                subTerms.sort(termInfoComparator);
+                result.put(parent, new LinkedHashSet<>(subTerms));
+            });
+        }
+        return result;
     }
 
     /**
@@ -344,7 +675,7 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
                                                                  "?inVocabulary ?parent ." +
                                                                  "?vocabulary ?imports* ?parent ." +
                                                                  "FILTER (lang(?label) = ?labelLang) ." +
-                                                                 "} ORDER BY " + orderSentence("?label"), TermDto.class)
+                                                                 SORT_KEY_PATTERN + "} ORDER BY " + SORT_KEY_ORDER, TermDto.class)
                                       .setParameter("type", typeUri)
                                       .setParameter("hasLabel", LABEL_PROP)
                                       .setParameter("inVocabulary",
@@ -370,24 +701,11 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     public List<TermDto> findAllRoots(Vocabulary vocabulary, Pageable pageSpec, Collection<URI> includeTerms) {
         Objects.requireNonNull(vocabulary);
         Objects.requireNonNull(pageSpec);
-        TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                 "GRAPH ?context { " +
-                                                                 "?term a ?type ;" +
-                                                                 "?hasLabel ?label ." +
-                                                                 "?vocabulary ?hasGlossary/?hasTerm ?term ." +
-                                                                 "FILTER (lang(?label) = ?labelLang) ." +
-                                                                 "FILTER (?term NOT IN (?included))" +
-                                                                 "}} ORDER BY " + orderSentence("?label"),
-                                                         TermDto.class);
-        query = setCommonFindAllRootsQueryParams(query, false);
         try {
             final List<TermDto> result = executeQueryAndLoadSubTerms(
-                    query.setParameter("context", context(vocabulary))
-                         .setParameter("vocabulary", vocabulary.getUri())
-                         .setParameter("labelLang", config.getLanguage())
-                         .setParameter("included", includeTerms)
-                         .setMaxResults(pageSpec.getPageSize())
-                         .setFirstResult((int) pageSpec.getOffset()));
+                    createFindAllRootsQuery(vocabulary, null, includeTerms)
+                            .setMaxResults(pageSpec.getPageSize())
+                            .setFirstResult((int) pageSpec.getOffset()));
             result.addAll(loadIncludedTerms(includeTerms));
             return result;
         } catch (RuntimeException e) {
@@ -395,30 +713,108 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         }
     }
 
-    private String orderSentence(String var) {
-        if (Objects.equals(config.getLanguage(), "cs")) {
-            return
-                    r(r(r(r(r(r(r(r(r(r(r(r(r(r("lcase(" + var + ")",
-                                                "'á'", "'azz'"),
-                                              "'č'", "'czz'"),
-                                            "'ď'", "'dzz'"),
-                                          "'é'", "'ezz'"),
-                                        "'ě'", "'ezz'"),
-                                      "'í'", "'izz'"),
-                                    "'ň'", "'nzz'"),
-                                  "'ó'", "'ozz'"),
-                                "'ř'", "'rzz'"),
-                              "'š'", "'szz'"),
-                            "'ť'", "'tzz'"),
-                          "'ú'", "'uzz'"),
-                        "'ý'", "'yzz'"),
-                      "'ž'", "'zzz'");
+    /**
+     * Loads a page of root terms (terms without a parent) contained in the specified vocabulary.
+     * <p>
+     * As opposed to {@link #findAllRoots(Vocabulary, Pageable, Collection)}, this method uses keyset paging, i.e., it
+     * seeks past the specified cursor instead of skipping a number of results. Its cost thus does not depend on the
+     * position of the page.
+     *
+     * @param vocabulary   Vocabulary whose root terms should be returned
+     * @param after        Cursor pointing to the last item of the previous page, {@code null} to get the first page
+     * @param pageSize     Maximum number of terms in the page
+     * @param includeTerms Identifiers of terms which should be a part of the result. Optional
+     * @return Page of matching terms, ordered by their label
+     */
+    public CursorPage<TermDto> findAllRoots(Vocabulary vocabulary, PageCursor after, int pageSize,
+                                            Collection<URI> includeTerms) {
+        Objects.requireNonNull(vocabulary);
+        return findRootsPage(createFindAllRootsQuery(vocabulary, after, includeTerms), after, pageSize, includeTerms);
+    }
+
+    private TypedQuery<TermDto> createFindAllRootsQuery(Vocabulary vocabulary, PageCursor after,
+                                                        Collection<URI> includeTerms) {
+        final TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                                                       "GRAPH ?context { " +
+                                                                       "?term a ?type ;" +
+                                                                       "?hasLabel ?label ." +
+                                                                       "?vocabulary ?hasGlossary/?hasTerm ?term ." +
+                                                                       "FILTER (lang(?label) = ?labelLang) ." +
+                                                                       "FILTER (?term NOT IN (?included))" +
+                                                                       "}" + SORT_KEY_PATTERN + keysetFilter(after) +
+                                                                       "} ORDER BY " + keysetOrder(),
+                                                               TermDto.class);
+        return setCommonFindAllRootsQueryParams(query, false)
+                .setParameter("context", context(vocabulary))
+                .setParameter("vocabulary", vocabulary.getUri())
+                .setParameter("labelLang", config.getLanguage())
+                .setParameter("included", includeTerms);
+    }
+
+    /**
+     * Filter selecting only results following the specified cursor in the order given by {@link #keysetOrder()}.
+     * <p>
+     * The cursor values are bound using {@link #setKeysetParams(TypedQuery, PageCursor)}.
+     */
+    private static String keysetFilter(PageCursor after) {
+        if (after == null) {
+            return "";
+        }
+        return "FILTER (" + KEYSET_KEY + " > ?lastKey || (" + KEYSET_KEY + " = ?lastKey && str(?term) > ?lastTerm))";
+    }
+
+    /**
+     * Total order of root terms used by paging. Term identifier is used to order terms with the same label.
+     */
+    private static String keysetOrder() {
+        return KEYSET_KEY + " str(?term)";
+    }
+
+    private static <T> TypedQuery<T> setKeysetParams(TypedQuery<T> query, PageCursor after) {
+        if (after == null) {
+            return query;
+        }
+        return query.setParameter("lastKey", after.getSortKey(), null)
+                    .setParameter("lastTerm", after.getTerm().toString());
+    }
+
+    private CursorPage<TermDto> findRootsPage(TypedQuery<TermDto> query, PageCursor after, int pageSize,
+                                              Collection<URI> includeTerms) {
+        try {
+            // Fetch one more result to find out whether there is a next page
+            final int limit = pageSize < Integer.MAX_VALUE ? pageSize + 1 : pageSize;
+            List<TermDto> result = setKeysetParams(query, after).setMaxResults(limit).getResultList();
+            em.clear();
+            final boolean hasNext = result.size() > pageSize;
+            if (hasNext) {
+                result = new ArrayList<>(result.subList(0, pageSize));
+            }
+            setSubTerms(result);
+            final PageCursor next = hasNext ? createCursor(result.get(result.size() - 1)) : null;
+            result.addAll(loadIncludedTerms(includeTerms));
+            return new CursorPage<>(result, next);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
         }
-        return "lcase(" + var + ")";
     }
 
-    private static String r(String string, String from, String to) {
-        return "replace(" + string + ", " + from + ", " + to + ")";
+    /**
+     * Creates cursor pointing to the specified term.
+     * <p>
+     * The sort key is read from the repository using the same expression as the paging query, so that the cursor
+     * matches the stored value exactly.
+     */
+    private PageCursor createCursor(TermDto last) {
+        final List<String> keys = em.createNativeQuery("SELECT ?key WHERE {" +
+                                                               "OPTIONAL { ?term ?hasSortKey ?sortKey . " +
+                                                               "FILTER (lang(?sortKey) = ?labelLang) } " +
+                                                               "BIND (" + KEYSET_KEY + " AS ?key)" +
+                                                               "} ORDER BY ?key", String.class)
+                                    .setParameter("term", last.getUri())
+                                    .setParameter("hasSortKey", SORT_KEY_PROP)
+                                    .setParameter("labelLang", config.getLanguage())
+                                    .getResultList();
+        return new PageCursor(keys.isEmpty() ? "" : keys.get(0), last.getUri());
     }
 
     /**
@@ -431,23 +827,11 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
      */
     public List<TermDto> findAllRoots(Pageable pageSpec, Collection<URI> includeTerms) {
         Objects.requireNonNull(pageSpec);
-        TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                 "?term a ?type ; " +
-                                                                 "?hasLabel ?label . " +
-                                                                 "?vocabulary ?hasGlossary/?hasTerm ?term . " +
-                                                                 "FILTER (lang(?label) = ?labelLang) . " +
-                                                                 "FILTER (?term NOT IN (?included)) . " +
-                                                                 "FILTER NOT EXISTS {?term a ?snapshot .} " +
-                                                                 "} ORDER BY " + orderSentence("?label"),
-                                                         TermDto.class);
-        query = setCommonFindAllRootsQueryParams(query, false);
         try {
             final List<TermDto> result = executeQueryAndLoadSubTerms(
-                    query.setParameter("labelLang", config.getLanguage())
-                         .setParameter("included", includeTerms)
-                         .setParameter("snapshot", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu))
-                         .setMaxResults(pageSpec.getPageSize())
-                         .setFirstResult((int) pageSpec.getOffset()));
+                    createFindAllRootsQuery(null, includeTerms)
+                            .setMaxResults(pageSpec.getPageSize())
+                            .setFirstResult((int) pageSpec.getOffset()));
             result.addAll(loadIncludedTerms(includeTerms));
             return result;
         } catch (RuntimeException e) {
@@ -455,6 +839,36 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         }
     }
 
+    /**
+     * Loads a page of root terms (terms without a parent) using keyset paging.
+     *
+     * @param after        Cursor pointing to the last item of the previous page, {@code null} to get the first page
+     * @param pageSize     Maximum number of terms in the page
+     * @param includeTerms Identifiers of terms which should be a part of the result. Optional
+     * @return Page of matching terms, ordered by their label
+     * @see #findAllRoots(Vocabulary, PageCursor, int, Collection)
+     */
+    public CursorPage<TermDto> findAllRoots(PageCursor after, int pageSize, Collection<URI> includeTerms) {
+        return findRootsPage(createFindAllRootsQuery(after, includeTerms), after, pageSize, includeTerms);
+    }
+
+    private TypedQuery<TermDto> createFindAllRootsQuery(PageCursor after, Collection<URI> includeTerms) {
+        final TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                                                       "?term a ?type ; " +
+                                                                       "?hasLabel ?label . " +
+                                                                       "?vocabulary ?hasGlossary/?hasTerm ?term . " +
+                                                                       "FILTER (lang(?label) = ?labelLang) . " +
+                                                                       "FILTER (?term NOT IN (?included)) . " +
+                                                                       "FILTER NOT EXISTS {?term a ?snapshot .} " +
+                                                                       SORT_KEY_PATTERN + keysetFilter(after) +
+                                                                       "} ORDER BY " + keysetOrder(),
+                                                               TermDto.class);
+        return setCommonFindAllRootsQueryParams(query, false)
+                .setParameter("labelLang", config.getLanguage())
+                .setParameter("included", includeTerms)
+                .setParameter("snapshot", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu));
+    }
+
     private <T> TypedQuery<T> setCommonFindAllRootsQueryParams(TypedQuery<T> query, boolean includeImports) {
         final TypedQuery<T> tq = query.setParameter("type", typeUri)
                                       .setParameter("hasLabel", LABEL_PROP)
@@ -479,23 +893,32 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
                                                  .filter(Objects::nonNull)
                                                  .collect(Collectors.toList());
         em.clear();
-        result.forEach(this::recursivelyLoadParentTermSubTerms);
+        recursivelyLoadParentTermSubTerms(result);
         return result;
     }
 
     /**
-     * Recursively loads subterms for the specified term and its parents (if they exist).
+     * Recursively loads subterms for the specified terms and their parents (if they exist).
      * <p>
-     * This implementation ensures that the term hierarchy can be traversed both ways for the specified term. This has
+     * This implementation ensures that the term hierarchy can be traversed both ways for the specified terms. This has
      * to be done to allow the tree-select component on the frontend to work properly and display the terms.
+     * <p>
+     * The whole ancestor hierarchy is collected first so that subterms can be loaded in batches.
      *
-     * @param term The term to load subterms for
+     * @param terms The terms to load subterms for
      */
-    private void recursivelyLoadParentTermSubTerms(TermDto term) {
-        term.setSubTerms(getSubTerms(term));
-        if (term.hasParentTerms()) {
-            term.getParentTerms().forEach(this::recursivelyLoadParentTermSubTerms);
+    private void recursivelyLoadParentTermSubTerms(Collection<TermDto> terms) {
+        final List<TermDto> hierarchy = new ArrayList<>();
+        final Deque<TermDto> toProcess = new ArrayDeque<>(terms);
+        while (!toProcess.isEmpty()) {
+            final TermDto term = toProcess.pop();
+            hierarchy.add(term);
+            if (term.hasParentTerms()) {
+                toProcess.addAll(term.getParentTerms());
+            }
         }
+        final Map<URI, Set<TermInfo>> subTerms = getSubTerms(hierarchy);
+        hierarchy.forEach(t -> t.setSubTerms(subTerms.get(t.getUri())));
     }
 
     /**
@@ -513,23 +936,11 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
                                                       Collection<URI> includeTerms) {
         Objects.requireNonNull(vocabulary);
         Objects.requireNonNull(pageSpec);
-        TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                 "?term a ?type ;" +
-                                                                 "?hasLabel ?label ." +
-                                                                 "?vocabulary ?imports* ?parent ." +
-                                                                 "?parent ?hasGlossary/?hasTerm ?term ." +
-                                                                 "FILTER (lang(?label) = ?labelLang) ." +
-                                                                 "FILTER (?term NOT IN (?included))" +
-                                                                 "} ORDER BY " + orderSentence("?label"),
-                                                         TermDto.class);
-        query = setCommonFindAllRootsQueryParams(query, true);
         try {
             final List<TermDto> result = executeQueryAndLoadSubTerms(
-                    query.setParameter("vocabulary", vocabulary.getUri())
-                         .setParameter("labelLang", config.getLanguage())
-                         .setParameter("included", includeTerms)
-                         .setFirstResult((int) pageSpec.getOffset())
-                         .setMaxResults(pageSpec.getPageSize()));
+                    createFindAllRootsIncludingImportsQuery(vocabulary, null, includeTerms)
+                            .setFirstResult((int) pageSpec.getOffset())
+                            .setMaxResults(pageSpec.getPageSize()));
             result.addAll(loadIncludedTerms(includeTerms));
             return result;
         } catch (RuntimeException e) {
@@ -537,6 +948,42 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         }
     }
 
+    /**
+     * Loads a page of root terms contained in the specified vocabulary or any of its imports (transitively) using
+     * keyset paging.
+     *
+     * @param vocabulary   The last vocabulary in the vocabulary import chain
+     * @param after        Cursor pointing to the last item of the previous page, {@code null} to get the first page
+     * @param pageSize     Maximum number of terms in the page
+     * @param includeTerms Identifiers of terms which should be a part of the result. Optional
+     * @return Page of matching terms, ordered by their label
+     * @see #findAllRoots(Vocabulary, PageCursor, int, Collection)
+     */
+    public CursorPage<TermDto> findAllRootsIncludingImports(Vocabulary vocabulary, PageCursor after, int pageSize,
+                                                            Collection<URI> includeTerms) {
+        Objects.requireNonNull(vocabulary);
+        return findRootsPage(createFindAllRootsIncludingImportsQuery(vocabulary, after, includeTerms), after,
+                             pageSize, includeTerms);
+    }
+
+    private TypedQuery<TermDto> createFindAllRootsIncludingImportsQuery(Vocabulary vocabulary, PageCursor after,
+                                                                        Collection<URI> includeTerms) {
+        final TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                                                       "?term a ?type ;" +
+                                                                       "?hasLabel ?label ." +
+                                                                       "?vocabulary ?imports* ?parent ." +
+                                                                       "?parent ?hasGlossary/?hasTerm ?term ." +
+                                                                       "FILTER (lang(?label) = ?labelLang) ." +
+                                                                       "FILTER (?term NOT IN (?included))" +
+                                                                       SORT_KEY_PATTERN + keysetFilter(after) +
+                                                                       "} ORDER BY " + keysetOrder(),
+                                                               TermDto.class);
+        return setCommonFindAllRootsQueryParams(query, true)
+                .setParameter("vocabulary", vocabulary.getUri())
+                .setParameter("labelLang", config.getLanguage())
+                .setParameter("included", includeTerms);
+    }
+
     /**
      * Finds terms whose label contains the specified search string.
      * <p>
@@ -556,7 +1003,7 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
                                                                        "FILTER CONTAINS(LCASE(?label), LCASE(?searchString)) ." +
                                                                        "}" +
                                                                        "?term ?inVocabulary ?vocabulary ." +
-                                                                       "} ORDER BY " + orderSentence("?label"),
+                                                                       SORT_KEY_PATTERN + "} ORDER BY " + SORT_KEY_ORDER,
                                                                TermDto.class)
                                             .setParameter("type", typeUri)
                                             .setParameter("context", context(vocabulary))
@@ -567,7 +1014,7 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
                                             .setParameter("searchString", searchString, config.getLanguage());
         try {
             final List<TermDto> terms = executeQueryAndLoadSubTerms(query);
-            terms.forEach(this::loadParentSubTerms);
+            recursivelyLoadParentTermSubTerms(terms);
             return terms;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -589,7 +1036,7 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
                                                                        "FILTER CONTAINS(LCASE(?label), LCASE(?searchString)) ." +
                                                                        "?term ?inVocabulary ?vocabulary . " +
                                                                        "FILTER NOT EXISTS {?term a ?snapshot . }" +
-                                                                       "} ORDER BY " + orderSentence("?label"),
+                                                                       SORT_KEY_PATTERN + "} ORDER BY " + SORT_KEY_ORDER,
                                                                TermDto.class)
                                             .setParameter("type", typeUri)
                                             .setParameter("hasLabel", LABEL_PROP)
@@ -601,20 +1048,13 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
 
         try {
             final List<TermDto> terms = executeQueryAndLoadSubTerms(query);
-            terms.forEach(this::loadParentSubTerms);
+            recursivelyLoadParentTermSubTerms(terms);
             return terms;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
-    private void loadParentSubTerms(TermDto parent) {
-        parent.setSubTerms(getSubTerms(parent));
-        if (parent.getParentTerms() != null) {
-            parent.getParentTerms().forEach(this::loadParentSubTerms);
-        }
-    }
-
     /**
      * Finds terms whose label contains the specified search string.
      * <p>
@@ -633,7 +1073,7 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
                                                                        "      ?hasLabel ?label ;\n" +
                                                                        "      ?inVocabulary ?vocabulary ." +
                                                                        "FILTER CONTAINS(LCASE(?label), LCASE(?searchString)) .\n" +
-                                                                       "} ORDER BY " + orderSentence("?label"),
+                                                                       SORT_KEY_PATTERN + "} ORDER BY " + SORT_KEY_ORDER,
                                                                TermDto.class)
                                             .setParameter("type", typeUri)
                                             .setParameter("hasLabel", LABEL_PROP)
@@ -646,13 +1086,44 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
                                             .setParameter("searchString", searchString, config.getLanguage());
         try {
             final List<TermDto> terms = executeQueryAndLoadSubTerms(query);
-            terms.forEach(this::loadParentSubTerms);
+            recursivelyLoadParentTermSubTerms(terms);
             return terms;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
+    /**
+     * Finds out which of the specified identifiers belong to existing terms.
+     * <p>
+     * Identifiers are bound in batches via a VALUES clause, so that a collection of identifiers smaller than the batch
+     * size is checked by a single query instead of asking for each term separately.
+     *
+     * @param ids Identifiers to check
+     * @return Set of identifiers of existing terms, a subset of the argument
+     */
+    public Set<URI> filterExisting(Collection<URI> ids) {
+        Objects.requireNonNull(ids);
+        final List<URI> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        final Set<URI> result = new HashSet<>(idList.size());
+        try {
+            for (int i = 0; i < idList.size(); i += EXISTENCE_CHECK_BATCH_SIZE) {
+                final List<URI> batch = idList.subList(i, Math.min(i + EXISTENCE_CHECK_BATCH_SIZE, idList.size()));
+                result.addAll(em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                                           "VALUES ?term { " +
+                                                           batch.stream().map(Utils::uriToString)
+                                                                .collect(Collectors.joining(" ")) + " }" +
+                                                           "?term a ?type ." +
+                                                           "}", URI.class)
+                                .setParameter("type", typeUri)
+                                .getResultList());
+            }
+            return result;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
     /**
      * Checks whether a term with the specified label exists in a vocabulary with the specified URI.
      * <p>
@@ -711,6 +1182,9 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     public void remove(Term entity) {
         super.remove(entity);
         evictCachedSubTerms(entity.getParentTerms(), Collections.emptySet());
+        hierarchyIndex.onTermRemoved(entity);
+        fullTextIndex.onRemoved(entity.getUri());
+        labelIndex.onTermRemoved(entity);
     }
 
     @Override
@@ -25,23 +25,53 @@ import cz.cvut.kbss.termit.dto.assignment.TermOccurrences;
 import cz.cvut.kbss.termit.exception.PersistenceException;
 import cz.cvut.kbss.termit.model.Asset;
 import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import cz.cvut.kbss.termit.model.assignment.OccurrenceTarget;
 import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
+import cz.cvut.kbss.termit.model.selector.CssSelector;
+import cz.cvut.kbss.termit.model.selector.FragmentSelector;
+import cz.cvut.kbss.termit.model.selector.Selector;
+import cz.cvut.kbss.termit.model.selector.TextPositionSelector;
+import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
+import cz.cvut.kbss.termit.model.selector.XPathSelector;
 import cz.cvut.kbss.termit.persistence.dao.util.SparqlResultToTermOccurrenceMapper;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.util.Vocabulary;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 
 @Repository
 public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
 
     private static final Logger LOG = LoggerFactory.getLogger(TermOccurrenceDao.class);
 
+    /**
+     * Maximum number of statements inserted by a single update in {@link #persistAll(Collection)}.
+     */
+    private static final int PERSIST_ALL_BATCH_SIZE = 1000;
+
     /**
      * Perf #1283
      * <p>
@@ -109,6 +139,27 @@ public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
                 .setParameter("term", term).getResultList();
     }
 
+    /**
+     * Finds identifiers of terms whose definitions contain occurrences of the specified term.
+     *
+     * @param term Identifier of the term whose occurrences to look for
+     * @return Identifiers of terms with matching definitions
+     */
+    public List<URI> findDefinitionsContainingOccurrencesOf(URI term) {
+        Objects.requireNonNull(term);
+        return em.createNativeQuery("SELECT DISTINCT ?source WHERE {" +
+                                            "?x a ?definitionalOccurrence ;" +
+                                            "?hasTerm ?term ;" +
+                                            "?hasTarget ?target ." +
+                                            "?target ?hasSource ?source . }", URI.class)
+                 .setParameter("definitionalOccurrence", URI.create(Vocabulary.s_c_definicni_vyskyt_termu))
+                 .setParameter("hasTerm", URI.create(Vocabulary.s_p_je_prirazenim_termu))
+                 .setParameter("term", term)
+                 .setParameter("hasTarget", URI.create(Vocabulary.s_p_ma_cil))
+                 .setParameter("hasSource", URI.create(Vocabulary.s_p_ma_zdroj))
+                 .getResultList();
+    }
+
     /**
      * Finds all term occurrences whose target points to the specified resource.
      * <p>
@@ -198,6 +249,160 @@ public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
         }
     }
 
+    /**
+     * Persists the specified term occurrences, including their targets and selectors, in bulk.
+     * <p>
+     * Unlike {@link #persist(TermOccurrence)}, this method bypasses the persistence context and inserts the statements
+     * using {@code INSERT DATA} updates, each containing a batch of statements of one occurrence context (i.e., of one
+     * target source). It is meant for large numbers of freshly generated occurrences (e.g., results of text analysis),
+     * which do not need to be managed afterwards. Identifiers are generated for occurrences, targets and selectors which
+     * do not have one yet.
+     * <p>
+     * The updates are executed in the current transaction, so the occurrences are visible in it and discarded if it is
+     * rolled back.
+     *
+     * @param occurrences Occurrences to persist
+     */
+    @ModifiesData
+    @Transactional
+    public void persistAll(Collection<? extends TermOccurrence> occurrences) {
+        Objects.requireNonNull(occurrences);
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        final Map<URI, Model> models = new LinkedHashMap<>();
+        occurrences.forEach(o -> addOccurrence(o, models.computeIfAbsent(o.resolveContext(),
+                                                                        ctx -> new LinkedHashModel()), vf));
+        try {
+            models.forEach(this::insert);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private void insert(URI context, Model model) {
+        LOG.trace("Inserting {} term occurrence statements into context {}.", model.size(),
+                  Utils.uriToString(context));
+        final List<Statement> statements = new ArrayList<>(model);
+        for (int i = 0; i < statements.size(); i += PERSIST_ALL_BATCH_SIZE) {
+            final StringBuilder update = new StringBuilder("INSERT DATA { GRAPH ").append(Utils.uriToString(context))
+                                                                                 .append(" {");
+            statements.subList(i, Math.min(i + PERSIST_ALL_BATCH_SIZE, statements.size())).forEach(
+                    s -> update.append(' ').append(toSparql(s.getSubject())).append(' ')
+                               .append(toSparql(s.getPredicate())).append(' ')
+                               .append(toSparql(s.getObject())).append(" ."));
+            em.createNativeQuery(update.append(" } }").toString()).executeUpdate();
+        }
+    }
+
+    private static String toSparql(Value value) {
+        if (value instanceof IRI) {
+            return Utils.uriToString(URI.create(value.stringValue()));
+        }
+        final Literal literal = (Literal) value;
+        final StringBuilder sb = new StringBuilder("\"");
+        for (char c : literal.getLabel().toCharArray()) {
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        sb.append('"');
+        if (literal.getLanguage().isPresent()) {
+            sb.append('@').append(literal.getLanguage().get());
+        } else if (!XSD.STRING.equals(literal.getDatatype())) {
+            sb.append("^^").append(Utils.uriToString(URI.create(literal.getDatatype().stringValue())));
+        }
+        return sb.toString();
+    }
+
+    private void addOccurrence(TermOccurrence occurrence, Model model, ValueFactory vf) {
+        final IRI subject = vf.createIRI(ensureIdentifier(occurrence).toString());
+        model.add(subject, RDF.TYPE, classIri(occurrence.getClass(), vf));
+        Utils.emptyIfNull(occurrence.getTypes()).forEach(t -> model.add(subject, RDF.TYPE, vf.createIRI(t)));
+        model.add(subject, propertyIri(TermOccurrence.class, "term", vf), vf.createIRI(occurrence.getTerm().toString()));
+        if (occurrence.getDescription() != null) {
+            model.add(subject, propertyIri(TermOccurrence.class, "description", vf),
+                      vf.createLiteral(occurrence.getDescription(), config.getLanguage()));
+        }
+        final OccurrenceTarget target = occurrence.getTarget();
+        final IRI targetIri = vf.createIRI(ensureIdentifier(target).toString());
+        model.add(subject, propertyIri(TermOccurrence.class, "target", vf), targetIri);
+        model.add(targetIri, RDF.TYPE, classIri(target.getClass(), vf));
+        model.add(targetIri, propertyIri(OccurrenceTarget.class, "source", vf),
+                  vf.createIRI(target.getSource().toString()));
+        for (Selector selector : Utils.emptyIfNull(target.getSelectors())) {
+            final IRI selectorIri = vf.createIRI(ensureIdentifier(selector).toString());
+            model.add(targetIri, propertyIri(OccurrenceTarget.class, "selectors", vf), selectorIri);
+            model.add(selectorIri, RDF.TYPE, classIri(selector.getClass(), vf));
+            addSelectorAttributes(selectorIri, selector, model, vf);
+        }
+    }
+
+    private <T extends HasIdentifier> URI ensureIdentifier(T instance) {
+        if (instance.getUri() == null) {
+            instance.setUri(URI.create(classIri(instance.getClass()) + "/instance-" + UUID.randomUUID()));
+        }
+        return instance.getUri();
+    }
+
+    private String classIri(Class<?> cls) {
+        return em.getMetamodel().entity(cls).getIRI().toString();
+    }
+
+    private IRI classIri(Class<?> cls, ValueFactory vf) {
+        return vf.createIRI(classIri(cls));
+    }
+
+    /**
+     * Resolves IRI of the property to which the specified attribute is mapped, so that the statements written by
+     * {@link #persistAll(Collection)} correspond to the entity mapping.
+     */
+    private IRI propertyIri(Class<?> cls, String attribute, ValueFactory vf) {
+        return vf.createIRI(em.getMetamodel().entity(cls).getAttribute(attribute).getIRI().toString());
+    }
+
+    private void addSelectorAttributes(IRI subject, Selector selector, Model model, ValueFactory vf) {
+        final Class<? extends Selector> cls = selector.getClass();
+        if (selector instanceof TextQuoteSelector) {
+            final TextQuoteSelector tqs = (TextQuoteSelector) selector;
+            model.add(subject, propertyIri(cls, "exactMatch", vf), vf.createLiteral(tqs.getExactMatch()));
+            if (tqs.getPrefix() != null) {
+                model.add(subject, propertyIri(cls, "prefix", vf), vf.createLiteral(tqs.getPrefix()));
+            }
+            if (tqs.getSuffix() != null) {
+                model.add(subject, propertyIri(cls, "suffix", vf), vf.createLiteral(tqs.getSuffix()));
+            }
+        } else if (selector instanceof TextPositionSelector) {
+            final TextPositionSelector tps = (TextPositionSelector) selector;
+            model.add(subject, propertyIri(cls, "start", vf), vf.createLiteral(tps.getStart()));
+            model.add(subject, propertyIri(cls, "end", vf), vf.createLiteral(tps.getEnd()));
+        } else if (selector instanceof CssSelector) {
+            model.add(subject, propertyIri(cls, "value", vf), vf.createLiteral(((CssSelector) selector).getValue()));
+        } else if (selector instanceof XPathSelector) {
+            model.add(subject, propertyIri(cls, "value", vf), vf.createLiteral(((XPathSelector) selector).getValue()));
+        } else if (selector instanceof FragmentSelector) {
+            model.add(subject, propertyIri(cls, "value", vf),
+                      vf.createLiteral(((FragmentSelector) selector).getValue()));
+        } else {
+            throw new IllegalArgumentException("Unsupported selector type " + selector.getClass());
+        }
+    }
+    }
+
     /**
      * Removes all suggested term occurrences whose target points to the specified asset.
      *
@@ -28,6 +28,7 @@ import cz.cvut.kbss.termit.model.Glossary;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.validation.ValidationResult;
 import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.util.FullTextIndex;
 import cz.cvut.kbss.termit.persistence.snapshot.AssetSnapshotLoader;
 import cz.cvut.kbss.termit.persistence.validation.VocabularyContentValidator;
 import cz.cvut.kbss.termit.service.snapshot.SnapshotProvider;
@@ -59,12 +60,15 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
 
     private final ApplicationContext context;
 
+    private final FullTextIndex fullTextIndex;
+
     @Autowired
     public VocabularyDao(EntityManager em, Configuration config, DescriptorFactory descriptorFactory,
-                         ApplicationContext context) {
+                         ApplicationContext context, FullTextIndex fullTextIndex) {
         super(Vocabulary.class, em, config.getPersistence(), descriptorFactory);
         refreshLastModified();
         this.context = context;
+        this.fullTextIndex = fullTextIndex;
     }
 
     @Override
@@ -154,7 +158,9 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
         try {
             // Evict possibly cached instance loaded from default context
             em.getEntityManagerFactory().getCache().evict(Vocabulary.class, entity.getUri(), null);
-            return em.merge(entity, descriptorFactory.vocabularyDescriptor(entity));
+            final Vocabulary result = em.merge(entity, descriptorFactory.vocabularyDescriptor(entity));
+            fullTextIndex.onVocabularyChanged(entity);
+            return result;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -166,6 +172,7 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
         Objects.requireNonNull(entity);
         try {
             em.persist(entity, descriptorFactory.vocabularyDescriptor(entity));
+            fullTextIndex.onVocabularyChanged(entity);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -177,6 +184,7 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
         Objects.requireNonNull(entity);
         try {
             find(entity.getUri()).ifPresent(em::remove);
+            fullTextIndex.onRemoved(entity.getUri());
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
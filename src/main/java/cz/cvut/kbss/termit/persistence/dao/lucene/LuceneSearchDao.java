@@ -15,9 +15,13 @@
 package cz.cvut.kbss.termit.persistence.dao.lucene;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import cz.cvut.kbss.termit.persistence.dao.util.FullTextIndex;
+import cz.cvut.kbss.termit.persistence.dao.util.TermLabelIndex;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +32,8 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * {@link SearchDao} extension for Lucene-based repositories. These support rich search strings with wildcards and
@@ -44,16 +50,14 @@ public class LuceneSearchDao extends SearchDao {
 
     static final char LUCENE_WILDCARD = '*';
 
-    public LuceneSearchDao(EntityManager em, Configuration config) {
-        super(em, config);
+    private static final String TYPE_FILTER = "FILTER (?type = ?term || ?type = ?vocabulary)";
+
+    public LuceneSearchDao(EntityManager em, Configuration config, FullTextIndex index, TermLabelIndex labelIndex) {
+        super(em, config, index, labelIndex);
     }
 
     @Override
-    public List<FullTextSearchResult> fullTextSearch(String searchString) {
-        Objects.requireNonNull(searchString);
-        if (searchString.isBlank()) {
-            return Collections.emptyList();
-        }
+    protected Query fullTextSearchQuery(String searchString) {
         final String wildcardString = addWildcard(searchString);
         final String exactMatch = splitExactMatch(searchString);
         LOG.trace("Running full text search for search string \"{}\", using wildcard variant \"{}\".", searchString,
@@ -61,8 +65,7 @@ public class LuceneSearchDao extends SearchDao {
         return setCommonQueryParams(em.createNativeQuery(ftsQuery, "FullTextSearchResult"), searchString)
                 .setParameter("snapshot", URI.create(Vocabulary.s_c_verze_objektu))
                 .setParameter("wildCardSearchString", wildcardString, null)
-                .setParameter("splitExactMatch", exactMatch, null)
-                .getResultList();
+                .setParameter("splitExactMatch", exactMatch, null);
     }
 
     private static String addWildcard(String searchString) {
@@ -99,4 +102,33 @@ public class LuceneSearchDao extends SearchDao {
                 .setParameter("splitExactMatch", exactMatch, null)
                 .getResultList();
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The candidate terms are provided by the repository text index, so the vocabularies and the term type are
+     * restricted by filters applied to the index matches.
+     */
+    @Override
+    public List<FullTextSearchResult> fullTextSearchOfTerms(String searchString, Set<URI> vocabularies, int limit) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(vocabularies);
+        if (searchString.isBlank() || vocabularies.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final String wildcardString = addWildcard(searchString);
+        final String exactMatch = splitExactMatch(searchString);
+        LOG.trace(
+                "Running full text search of terms in vocabularies {} for search string \"{}\", using wildcard variant \"{}\".",
+                vocabularies, searchString, wildcardString);
+        // This string has to match the type filter in the query
+        final String query = queryIncludingSnapshots().replace(TYPE_FILTER, TYPE_FILTER +
+                " FILTER (?type = ?term) FILTER (?vocabularyUri IN (" +
+                vocabularies.stream().map(Utils::uriToString).collect(Collectors.joining(", ")) + "))");
+        return setCommonQueryParams(em.createNativeQuery(withLimit(query, limit), "FullTextSearchResult"),
+                                    searchString)
+                .setParameter("wildCardSearchString", wildcardString, null)
+                .setParameter("splitExactMatch", exactMatch, null)
+                .getResultList();
+    }
 }
@@ -1,36 +1,51 @@
 package cz.cvut.kbss.termit.persistence.dao.skos;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.config.TaskExecutorConfig;
+import cz.cvut.kbss.termit.exception.PersistenceException;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.service.export.ExportFormat;
+import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Utils;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.vocabulary.*;
 import org.eclipse.rdf4j.query.*;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.rio.RDFWriter;
-import org.eclipse.rdf4j.rio.Rio;
 import org.eclipse.rdf4j.rio.rdfxml.util.RDFXMLPrettyWriterFactory;
 import org.eclipse.rdf4j.rio.turtle.TurtleWriterFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Repository;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.util.Collection;
-import java.util.Objects;
-import java.util.Set;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 
 /**
  * Supports SKOS-based export of glossaries and terms.
+ * <p>
+ * The exported statements are not collected in memory, they are passed to the RDF writer as they are retrieved from
+ * the repository. Only identifiers of terms and glossaries referenced by the exported terms are kept to be able to
+ * export them as well (see {@link #exportGlossaryWithReferences(Vocabulary, Collection, ExportFormat, OutputStream)}).
+ * <p>
+ * Referenced terms and glossaries are exported in batches, each batch by a single query. Batches can be evaluated in
+ * parallel by the export executor (see {@link TaskExecutorConfig#EXPORT_EXECUTOR}), their results are nevertheless
+ * written in order by the exporting thread.
  */
 @Repository
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -41,30 +56,94 @@ public class SKOSExporter {
     private static final String GLOSSARY_EXPORT_QUERY = "skos" + File.separator + "exportGlossary.rq";
     private static final String TERMS_EXPORT_QUERY = "skos" + File.separator + "exportGlossaryTerms.rq";
 
+    private static final String PREFIX_PROPERTY = "http://purl.org/vocab/vann/preferredNamespacePrefix";
+    private static final String NAMESPACE_PROPERTY = "http://purl.org/vocab/vann/preferredNamespaceUri";
+
     private final org.eclipse.rdf4j.repository.Repository repository;
     private final ValueFactory vf;
 
-    private final Model model = new LinkedHashModel();
+    private final Configuration.Export config;
+
+    private final AsyncTaskExecutor executor;
+
+    private RDFWriter writer;
+
+    /**
+     * Statements of the subject written last.
+     * <p>
+     * Export queries may produce duplicate statements, also from query solutions which are not adjacent. The queries
+     * order their solutions by subject, so all statements of a subject are written in a row and keeping statements of
+     * the current subject is sufficient to skip all the duplicates without having to keep all the exported statements.
+     */
+    private final Set<Statement> currentSubjectStatements = new HashSet<>();
+    private Resource currentSubject;
+
+    /**
+     * Terms referenced via one of the reference properties. Used only when exporting references.
+     */
+    private final Set<IRI> referencedTerms = new LinkedHashSet<>();
+    private Set<IRI> referenceProperties = Collections.emptySet();
+
+    /**
+     * Terms of the exported glossary. Used only when exporting references, so that terms referenced from within the
+     * glossary are not written again.
+     */
+    private final Set<Resource> exportedTerms = new HashSet<>();
+
+    /**
+     * Glossaries of exported terms and glossaries exported already. Used only when exporting references.
+     */
+    private final Set<IRI> termGlossaries = new LinkedHashSet<>();
+    private final Set<IRI> exportedGlossaries = new HashSet<>();
 
     @Autowired
-    public SKOSExporter(EntityManager em) {
+    public SKOSExporter(EntityManager em, Configuration config,
+                        @Qualifier(TaskExecutorConfig.EXPORT_EXECUTOR) AsyncTaskExecutor executor) {
         this.repository = em.unwrap(org.eclipse.rdf4j.repository.Repository.class);
         vf = repository.getValueFactory();
+        this.config = config.getExport();
+        this.executor = executor;
     }
 
     /**
-     * Exports glossary and terms of the specified vocabulary as a SKOS model.
-     * <p>
-     * The exported data can be retrieved using {@link ##exportAs(ExportFormat)}.
+     * Exports glossary and terms of the specified vocabulary as a SKOS model in the specified format.
      *
      * @param vocabulary Vocabulary to export
-     * @see #exportAs(ExportFormat)
-     * @see #exportGlossaryWithReferences(Vocabulary, Collection)
+     * @param format     Target serialization format
+     * @param out        Stream to write the exported data into. It is not closed by this method
+     * @see #exportGlossaryWithReferences(Vocabulary, Collection, ExportFormat, OutputStream)
      */
-    public void exportGlossary(Vocabulary vocabulary) {
+    public void exportGlossary(Vocabulary vocabulary, ExportFormat format, OutputStream out) {
         Objects.requireNonNull(vocabulary);
-        exportGlossaryInstance(vocabulary);
-        exportGlossaryTerms(vocabulary);
+        try (final RepositoryConnection conn = repository.getConnection()) {
+            startExport(format, out);
+            resolvePrefixes(vf.createIRI(vocabulary.getGlossary().getUri().toString()), conn);
+            exportGlossary(vocabulary, conn);
+            writer.endRDF();
+        }
+    }
+
+    private void startExport(ExportFormat format, OutputStream out) {
+        switch (format) {
+            case TURTLE:
+                this.writer = new TurtleWriterFactory().getWriter(out);
+                break;
+            case RDF_XML:
+                this.writer = new RDFXMLPrettyWriterFactory().getWriter(out);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported SKOS export format " + format);
+        }
+        writer.startRDF();
+        writer.handleNamespace(SKOS.PREFIX, SKOS.NAMESPACE);
+        writer.handleNamespace(RDFS.PREFIX, RDFS.NAMESPACE);
+        writer.handleNamespace(OWL.PREFIX, OWL.NAMESPACE);
+        writer.handleNamespace(DCTERMS.PREFIX, DCTERMS.NAMESPACE);
+    }
+
+    private void exportGlossary(Vocabulary vocabulary, RepositoryConnection conn) {
+        exportGlossaryInstance(vocabulary, conn);
+        exportGlossaryTerms(vocabulary, conn);
     }
 
     /**
@@ -72,39 +151,63 @@ public class SKOSExporter {
      *
      * @param vocabulary Vocabulary whose glossary to export
      */
-    private void exportGlossaryInstance(Vocabulary vocabulary) {
+    private void exportGlossaryInstance(Vocabulary vocabulary, RepositoryConnection conn) {
         LOG.trace("Exporting glossary metadata of {}.", vocabulary);
-        try (final RepositoryConnection conn = repository.getConnection()) {
-            final GraphQuery gq = conn.prepareGraphQuery(Utils.loadQuery(GLOSSARY_EXPORT_QUERY));
-            gq.setBinding("vocabulary", vf.createIRI(vocabulary.getUri().toString()));
-            evaluateAndAddToModel(gq);
-            resolvePrefixes(vf.createIRI(vocabulary.getGlossary().getUri().toString()), conn);
-        }
+        final GraphQuery gq = conn.prepareGraphQuery(Utils.loadQuery(GLOSSARY_EXPORT_QUERY));
+        gq.setBinding("vocabulary", vf.createIRI(vocabulary.getUri().toString()));
+        evaluateAndWrite(gq);
+        exportedGlossaries.add(vf.createIRI(vocabulary.getGlossary().getUri().toString()));
     }
 
-    private void evaluateAndAddToModel(GraphQuery gq) {
+    private void evaluateAndWrite(GraphQuery gq) {
         try (GraphQueryResult gqResult = gq.evaluate()) {
             while (gqResult.hasNext()) {
-                model.add(gqResult.next());
+                write(gqResult.next());
             }
         }
     }
 
+    private void write(Statement s) {
+        if (!s.getSubject().equals(currentSubject)) {
+            currentSubject = s.getSubject();
+            currentSubjectStatements.clear();
+        }
+        if (!currentSubjectStatements.add(s)) {
+            return;
+        }
+        if (referenceProperties.contains(s.getPredicate()) && s.getObject().isIRI()) {
+            referencedTerms.add((IRI) s.getObject());
+        } else if (!referenceProperties.isEmpty() && RDF.TYPE.equals(s.getPredicate()) &&
+                SKOS.CONCEPT.equals(s.getObject())) {
+            exportedTerms.add(s.getSubject());
+        } else if (SKOS.IN_SCHEME.equals(s.getPredicate()) && s.getObject().isIRI()) {
+            termGlossaries.add((IRI) s.getObject());
+        }
+        writer.handleStatement(s);
+    }
+
+    /**
+     * Passes namespace prefixes declared by the specified glossary to the writer.
+     * <p>
+     * Namespaces have to be resolved before any statements are written.
+     */
     private void resolvePrefixes(IRI glossaryIri, RepositoryConnection connection) {
         final TupleQuery tq = connection.prepareTupleQuery("SELECT ?prefix ?namespace WHERE {\n" +
-                                                                   "?glossary <http://purl.org/vocab/vann/preferredNamespacePrefix> ?prefix ;\n" +
-                                                                   "<http://purl.org/vocab/vann/preferredNamespaceUri> ?namespace .\n" +
+                                                                   "?glossary <" + PREFIX_PROPERTY + "> ?prefix ;\n" +
+                                                                   "<" + NAMESPACE_PROPERTY + "> ?namespace .\n" +
                                                                    "}");
         tq.setBinding("glossary", glossaryIri);
-        final TupleQueryResult result = tq.evaluate();
-        while (result.hasNext()) {
-            final BindingSet binding = result.next();
-            model.setNamespace(binding.getValue("prefix").stringValue(), binding.getValue("namespace").stringValue());
+        writeNamespaces(tq);
+    }
+
+    private void writeNamespaces(TupleQuery tq) {
+        try (final TupleQueryResult result = tq.evaluate()) {
+            while (result.hasNext()) {
+                final BindingSet binding = result.next();
+                writer.handleNamespace(binding.getValue("prefix").stringValue(),
+                                       binding.getValue("namespace").stringValue());
+            }
         }
-        model.setNamespace(SKOS.PREFIX, SKOS.NAMESPACE);
-        model.setNamespace(RDFS.PREFIX, RDFS.NAMESPACE);
-        model.setNamespace(OWL.PREFIX, OWL.NAMESPACE);
-        model.setNamespace(DCTERMS.PREFIX, DCTERMS.NAMESPACE);
     }
 
     /**
@@ -112,107 +215,167 @@ public class SKOSExporter {
      *
      * @param vocabulary Vocabulary to export
      */
-    private void exportGlossaryTerms(Vocabulary vocabulary) {
+    private void exportGlossaryTerms(Vocabulary vocabulary, RepositoryConnection conn) {
         LOG.trace("Exporting terms from {}.", vocabulary);
-        try (final RepositoryConnection conn = repository.getConnection()) {
-            final GraphQuery gq = conn.prepareGraphQuery(Utils.loadQuery(TERMS_EXPORT_QUERY));
-            gq.setBinding("vocabulary", vf.createIRI(vocabulary.getUri().toString()));
-            evaluateAndAddToModel(gq);
-        }
+        final GraphQuery gq = conn.prepareGraphQuery(Utils.loadQuery(TERMS_EXPORT_QUERY));
+        gq.setBinding("vocabulary", vf.createIRI(vocabulary.getUri().toString()));
+        evaluateAndWrite(gq);
     }
 
     /**
-     * Exports the glossary of the specified vocabulary and its terms.
+     * Exports the glossary of the specified vocabulary and its terms in the specified format.
      * <p>
      * In addition, terms from other vocabularies referenced via the any of the specified properties are exported as
      * well, together with metadata of their respective glossaries.
      *
      * @param vocabulary Vocabulary to export
      * @param properties RDF properties representing references to other terms to take into account when exporting
-     * @see #exportAs(ExportFormat)
+     * @param format     Target serialization format
+     * @param out        Stream to write the exported data into. It is not closed by this method
+     * @see #exportGlossary(Vocabulary, ExportFormat, OutputStream)
      */
-    public void exportGlossaryWithReferences(Vocabulary vocabulary, Collection<String> properties) {
+    public void exportGlossaryWithReferences(Vocabulary vocabulary, Collection<String> properties,
+                                             ExportFormat format, OutputStream out) {
+        Objects.requireNonNull(vocabulary);
         Objects.requireNonNull(properties);
-        exportGlossary(vocabulary);
-        exportReferencedTerms(properties);
-        exportReferencedGlossaries();
+        this.referenceProperties = properties.stream().map(vf::createIRI).collect(Collectors.toSet());
+        try (final RepositoryConnection conn = repository.getConnection()) {
+            startExport(format, out);
+            final IRI glossaryIri = vf.createIRI(vocabulary.getGlossary().getUri().toString());
+            resolvePrefixes(glossaryIri, conn);
+            resolveReferencedGlossariesPrefixes(glossaryIri, conn);
+            exportGlossary(vocabulary, conn);
+            exportReferencedTerms(conn);
+            exportReferencedGlossaries(conn);
+            writer.endRDF();
+        }
     }
 
     /**
-     * Exports terms referenced by terms from the previously exported glossary terms ({@link
-     * #exportGlossaryTerms(Vocabulary)}) via one of the specified properties.
-     *
-     * @param properties SKOS properties representing reference to external terms, e.g., skos:exactMatch
+     * Passes namespace prefixes declared by glossaries of terms referenced by terms from the specified glossary to the
+     * writer.
      */
-    private void exportReferencedTerms(Collection<String> properties) {
-        if (properties.isEmpty()) {
+    private void resolveReferencedGlossariesPrefixes(IRI glossaryIri, RepositoryConnection conn) {
+        if (referenceProperties.isEmpty()) {
             return;
         }
-        LOG.trace("Exporting terms referenced via any of {}.", properties);
-        try (final RepositoryConnection conn = repository.getConnection()) {
-            final String queryString = Utils.loadQuery(TERMS_EXPORT_QUERY);
-            properties.forEach(p -> {
-                final IRI property = vf.createIRI(p);
-                final Set<IRI> referencedTerms = model.stream().filter(s -> s.getPredicate().equals(property))
-                                                      .map(s -> {
-                                                          assert s.getObject().isIRI();
-                                                          return (IRI) s.getObject();
-                                                      }).collect(Collectors.toSet());
-                referencedTerms.forEach(referencedTerm -> {
-                    final GraphQuery gq = conn.prepareGraphQuery(queryString);
-                    gq.setBinding("term", referencedTerm);
-                    evaluateAndAddToModel(gq);
-                });
-            });
+        final TupleQuery tq = conn.prepareTupleQuery("SELECT DISTINCT ?prefix ?namespace WHERE {\n" +
+                                                             "?term ?inScheme ?glossary ;\n" +
+                                                             "?property ?ref .\n" +
+                                                             "FILTER (?property IN (" +
+                                                             referenceProperties.stream().map(p -> "<" + p + ">")
+                                                                                .collect(Collectors.joining(", ")) +
+                                                             "))\n" +
+                                                             "?ref ?inScheme ?refGlossary .\n" +
+                                                             "?refGlossary <" + PREFIX_PROPERTY + "> ?prefix ;\n" +
+                                                             "<" + NAMESPACE_PROPERTY + "> ?namespace .\n" +
+                                                             "}");
+        tq.setBinding("glossary", glossaryIri);
+        tq.setBinding("inScheme", SKOS.IN_SCHEME);
+        writeNamespaces(tq);
+    }
+
+    /**
+     * Exports terms referenced by the previously exported glossary terms via one of the reference properties.
+     */
+    private void exportReferencedTerms(RepositoryConnection conn) {
+        final List<IRI> toExport = referencedTerms.stream().filter(t -> !exportedTerms.contains(t))
+                                                  .collect(Collectors.toList());
+        if (toExport.isEmpty()) {
+            return;
         }
+        LOG.trace("Exporting {} terms referenced via any of {}.", toExport.size(), referenceProperties);
+        // Referenced terms are not searched for further references
+        this.referenceProperties = Collections.emptySet();
+        exportInBatches(Utils.loadQuery(TERMS_EXPORT_QUERY), "term", toExport, conn);
     }
 
     /**
      * Exports metadata of glossaries containing the referenced external terms as discovered by {@link
-     * #exportReferencedTerms(Collection)}.
+     * #exportReferencedTerms(RepositoryConnection)}.
      */
-    private void exportReferencedGlossaries() {
-        final Set<IRI> glossariesToExport = model.stream().filter(s -> s.getPredicate().equals(SKOS.IN_SCHEME))
-                                                 .map(s -> {
-                                                     assert s.getObject().isIRI();
-                                                     return (IRI) s.getObject();
-                                                 }).filter(gIri -> !model.contains(gIri, RDF.TYPE, SKOS.CONCEPT_SCHEME))
-                                                 .collect(Collectors.toSet());
-        LOG.trace("Exporting metadata of glossaries of referenced terms: {}.", glossariesToExport);
-        try (final RepositoryConnection conn = repository.getConnection()) {
-            final String queryString = Utils.loadQuery(GLOSSARY_EXPORT_QUERY);
-            glossariesToExport.forEach(
-                    gIri -> conn.getStatements(null, vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar),
-                                               gIri)
-                                .stream()
-                                .forEach(s -> {
-                                    final GraphQuery gq = conn.prepareGraphQuery(queryString);
-                                    gq.setBinding("vocabulary", s.getSubject());
-                                    evaluateAndAddToModel(gq);
-                                    resolvePrefixes(gIri, conn);
-                                }));
+    private void exportReferencedGlossaries(RepositoryConnection conn) {
+        final List<IRI> glossariesToExport = termGlossaries.stream().filter(g -> !exportedGlossaries.contains(g))
+                                                           .collect(Collectors.toList());
+        if (glossariesToExport.isEmpty()) {
+            return;
         }
+        LOG.trace("Exporting metadata of glossaries of referenced terms: {}.", glossariesToExport);
+        exportInBatches(Utils.loadQuery(GLOSSARY_EXPORT_QUERY), "glossary", glossariesToExport, conn);
+        exportedGlossaries.addAll(glossariesToExport);
     }
 
     /**
-     * Returns the exported model as Turtle.
+     * Evaluates the specified export query for batches of the specified values of the specified variable and writes
+     * the results.
+     * <p>
+     * If parallel evaluation is enabled, batches are evaluated concurrently, each using its own repository connection
+     * and collecting its result in a separate model. The results are then written in the order of the batches, one
+     * subject at a time, so that the output is the same as if the batches were evaluated sequentially. At most {@link
+     * Configuration.Export#getReferenceParallelism()} batch results are held in memory at a time.
      *
-     * @return Turtle serialized into bytes
+     * @param queryString Export query
+     * @param variable    Name of the query variable to bind values to
+     * @param values      Values to bind
+     * @param conn        Connection used for sequential evaluation
      */
-    public byte[] exportAs(ExportFormat format) {
-        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        final RDFWriter writer;
-        switch (format) {
-            case TURTLE:
-                writer = new TurtleWriterFactory().getWriter(bos);
-                break;
-            case RDF_XML:
-                writer = new RDFXMLPrettyWriterFactory().getWriter(bos);
-                break;
-            default:
-                throw new IllegalArgumentException("Unsupported SKOS export format " + format);
+    private void exportInBatches(String queryString, String variable, List<IRI> values, RepositoryConnection conn) {
+        final int batchSize = config.getReferenceBatchSize();
+        final List<String> queries = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += batchSize) {
+            queries.add(bindValues(queryString, variable, values.subList(i, Math.min(i + batchSize, values.size()))));
+        }
+        final int parallelism = Math.min(config.getReferenceParallelism(), queries.size());
+        if (parallelism <= 1) {
+            queries.forEach(q -> evaluateAndWrite(conn.prepareGraphQuery(q)));
+            return;
+        }
+        final Iterator<String> it = queries.iterator();
+        final Deque<Future<Model>> pending = new ArrayDeque<>(parallelism);
+        try {
+            while (it.hasNext() || !pending.isEmpty()) {
+                while (it.hasNext() && pending.size() < parallelism) {
+                    final String q = it.next();
+                    pending.add(executor.submit(() -> evaluate(q)));
+                }
+                writeBySubject(pending.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException(e);
+        } catch (ExecutionException e) {
+            throw new PersistenceException(e.getCause());
+        } finally {
+            pending.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private Model evaluate(String query) {
+        final Model result = new LinkedHashModel();
+        try (final RepositoryConnection batchConn = repository.getConnection();
+             final GraphQueryResult gqResult = batchConn.prepareGraphQuery(query).evaluate()) {
+            while (gqResult.hasNext()) {
+                result.add(gqResult.next());
+            }
+        }
+        return result;
+    }
+
+    private void writeBySubject(Model model) {
+        for (Resource subject : model.subjects()) {
+            model.filter(subject, null, null).forEach(this::write);
         }
-        Rio.write(model, writer);
-        return bos.toByteArray();
+    }
+
+    /**
+     * Restricts the specified variable of the specified query to the specified values.
+     * <p>
+     * A {@code VALUES} clause is inserted at the beginning of the top-level {@code WHERE} block of the query.
+     */
+    private static String bindValues(String queryString, String variable, List<IRI> values) {
+        final String valuesClause = values.stream().map(v -> "<" + v.stringValue() + ">")
+                                          .collect(Collectors.joining(" ", "WHERE {\n    VALUES ?" + variable + " { ",
+                                                                      " }"));
+        return queryString.replaceFirst("WHERE \\{", Matcher.quoteReplacement(valuesClause));
     }
 }
@@ -9,9 +9,11 @@ import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.persistence.dao.TermDao;
 import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.SortKeyUtils;
 import cz.cvut.kbss.termit.util.Utils;
 import org.eclipse.rdf4j.model.*;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.model.vocabulary.SKOS;
@@ -145,6 +147,7 @@ public class SKOSImporter {
 
         final Vocabulary vocabulary = createVocabulary(rename, vocabularyIri, vocabularyIriFromData);
         ensureConceptIrisAreCompatibleWithTermIt();
+        insertSortKeys();
 
         if (vocabularyIri == null) {
             LOG.trace("New vocabulary {} with a new glossary {}.", vocabulary.getUri(),
@@ -176,10 +179,8 @@ public class SKOSImporter {
         final Optional<Vocabulary> possibleVocabulary = vocabularyDao.find(vocabularyIri);
         if (possibleVocabulary.isPresent()) {
             Vocabulary vocabulary = possibleVocabulary.get();
-            termDao.findAllFull(vocabulary).forEach(t -> {
-                if (t.getProperties() != null) {
-                    t.getProperties().clear();
-                }
+            // Resolve the terms within the import transaction, bulk loading used by findAllFull sees only committed data
+            termDao.findAllWithParents(vocabulary).forEach(t -> {
                 // Note that this causes repeated vocabulary validation, which is not very efficient
                 // Especially since we are going to remove the vocabulary anyway
                 termDao.remove(t);
@@ -270,6 +271,24 @@ public class SKOSImporter {
         });
     }
 
+    private void insertSortKeys() {
+        LOG.trace("Generating term label sort keys.");
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        final IRI hasSortKey = vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_klic_razeni);
+        model.remove(null, hasSortKey, null);
+        final List<Statement> labels = model.filter(null, SKOS.PREF_LABEL, null).stream()
+                                            .filter(s -> s.getObject().isLiteral()
+                                                    && model.contains(s.getSubject(), RDF.TYPE, SKOS.CONCEPT))
+                                            .collect(Collectors.toList());
+        labels.forEach(s -> {
+            final Literal label = (Literal) s.getObject();
+            final String language = label.getLanguage().orElse(null);
+            final String sortKey = SortKeyUtils.sortKey(label.getLabel(), language);
+            model.add(s.getSubject(), hasSortKey,
+                      language != null ? vf.createLiteral(sortKey, language) : vf.createLiteral(sortKey));
+        });
+    }
+
     private void addDataIntoRepository(URI vocabularyIri) {
         final Repository repository = em.unwrap(org.eclipse.rdf4j.repository.Repository.class);
         try (final RepositoryConnection conn = repository.getConnection()) {
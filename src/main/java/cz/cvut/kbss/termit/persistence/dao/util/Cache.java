@@ -1,5 +1,7 @@
 package cz.cvut.kbss.termit.persistence.dao.util;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.function.Function;
 
 /**
@@ -21,6 +23,19 @@ public interface Cache<K, V> {
      */
     V getOrCompute(K key, Function<K, V> supplier);
 
+    /**
+     * Gets values associated with the specified keys, computing the missing ones in bulk using the specified
+     * function.
+     * <p>
+     * The supplier is invoked (at most once) only with keys whose values are not present in the cache. It is expected
+     * to return a value for each of the keys it receives. The computed values are stored in the cache.
+     *
+     * @param keys     Cache keys
+     * @param supplier Bulk value calculator, receives keys of missing values
+     * @return Map of values for the specified keys, either existing or computed using the specified supplier
+     */
+    Map<K, V> getOrComputeAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> supplier);
+
     /**
      * Evicts value for the specified key.
      *
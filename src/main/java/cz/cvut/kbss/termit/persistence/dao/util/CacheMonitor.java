@@ -0,0 +1,31 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps track of application {@link SimpleCache} instances so that their usage can be monitored.
+ * <p>
+ * Since caches are prototype-scoped, there is no other way of reaching all of them.
+ */
+@Component
+public class CacheMonitor {
+
+    private final List<SimpleCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+    void register(SimpleCache<?, ?> cache) {
+        caches.add(cache);
+    }
+
+    /**
+     * Gets statistics aggregated over all the registered caches.
+     *
+     * @return Aggregated cache statistics
+     */
+    public CacheStatistics getStatistics() {
+        return caches.stream().map(SimpleCache::getStatistics)
+                     .reduce(new CacheStatistics(0, 0, 0, 0), CacheStatistics::plus);
+    }
+}
@@ -0,0 +1,83 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+/**
+ * Snapshot of cache usage statistics.
+ */
+public class CacheStatistics {
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final long size;
+
+    public CacheStatistics(long hitCount, long missCount, long evictionCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * Number of lookups which found the value in the cache.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Number of lookups which did not find the value in the cache and had to compute it.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Number of entries removed from the cache because it was full or because they expired.
+     * <p>
+     * Explicit evictions (e.g., cache invalidation) are not counted.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Number of entries currently held by the cache.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Ratio of lookups which found the value in the cache.
+     *
+     * @return Hit ratio, {@code 1.0} if there were no lookups
+     */
+    public double getHitRatio() {
+        final long total = hitCount + missCount;
+        return total == 0 ? 1.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Combines these statistics with the specified ones.
+     *
+     * @param other Statistics to add
+     * @return New statistics instance
+     */
+    public CacheStatistics plus(CacheStatistics other) {
+        return new CacheStatistics(hitCount + other.hitCount, missCount + other.missCount,
+                                   evictionCount + other.evictionCount, size + other.size);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", size=" + size +
+                '}';
+    }
+}
@@ -3,6 +3,9 @@ package cz.cvut.kbss.termit.persistence.dao.util;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.function.Function;
 
 /**
@@ -20,6 +23,11 @@ public class DisabledCache<K, V> implements Cache<K, V> {
         return supplier.apply(key);
     }
 
+    @Override
+    public Map<K, V> getOrComputeAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> supplier) {
+        return keys.isEmpty() ? Collections.emptyMap() : supplier.apply(keys);
+    }
+
     @Override
     public void evict(K key) {
         // Do nothing
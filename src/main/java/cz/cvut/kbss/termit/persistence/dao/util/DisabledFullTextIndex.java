@@ -0,0 +1,51 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Disabled full text index which indexes nothing, so all searches have to be resolved using the repository.
+ * <p>
+ * Used with repositories which provide their own full text index (see the {@code lucene} profile).
+ */
+@Component
+@Profile("lucene")
+public class DisabledFullTextIndex implements FullTextIndex {
+
+    @Override
+    public Optional<List<FullTextSearchResult>> search(String searchString) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void onTermChanged(AbstractTerm term, URI vocabulary) {
+        // Do nothing
+    }
+
+    @Override
+    public void onTermDraftStatusChanged(URI term, boolean draft) {
+        // Do nothing
+    }
+
+    @Override
+    public void onVocabularyChanged(Vocabulary vocabulary) {
+        // Do nothing
+    }
+
+    @Override
+    public void onRemoved(URI asset) {
+        // Do nothing
+    }
+
+    @Override
+    public void rebuild() {
+        // Do nothing
+    }
+}
@@ -0,0 +1,46 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Disabled term hierarchy index which indexes nothing, so all queries have to be resolved using the repository.
+ */
+@Component
+@Profile("no-cache")
+public class DisabledTermHierarchyIndex implements TermHierarchyIndex {
+
+    @Override
+    public Optional<List<TermInfo>> findSubTerms(URI vocabulary, URI term) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Set<URI>> findAncestors(URI vocabulary, URI term) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void onTermAdded(AbstractTerm term, URI vocabulary, Set<? extends HasIdentifier> parents) {
+        // Do nothing
+    }
+
+    @Override
+    public void onTermUpdated(AbstractTerm term, Set<? extends HasIdentifier> originalParents,
+                              Set<? extends HasIdentifier> newParents) {
+        // Do nothing
+    }
+
+    @Override
+    public void onTermRemoved(HasIdentifier term) {
+        // Do nothing
+    }
+}
@@ -0,0 +1,41 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Disabled term label index which indexes nothing, so all searches have to be resolved using the repository.
+ */
+@Component
+@Profile("no-cache")
+public class DisabledTermLabelIndex implements TermLabelIndex {
+
+    @Override
+    public Optional<List<FullTextSearchResult>> findByLabelPrefix(String prefix, String language,
+                                                                  Set<URI> vocabularies, int limit) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void onTermChanged(AbstractTerm term, URI vocabulary) {
+        // Do nothing
+    }
+
+    @Override
+    public void onTermDraftStatusChanged(URI term, boolean draft) {
+        // Do nothing
+    }
+
+    @Override
+    public void onTermRemoved(HasIdentifier term) {
+        // Do nothing
+    }
+}
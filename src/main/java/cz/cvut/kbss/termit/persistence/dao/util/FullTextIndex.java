@@ -0,0 +1,67 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.Vocabulary;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Full text index of terms and vocabularies.
+ * <p>
+ * Allows to resolve full text search without scanning the repository. The search method returns an empty {@link
+ * Optional} if the index is not able to answer the query, in which case the caller should resolve it using the
+ * repository.
+ * <p>
+ * The index has to be notified of changes of the indexed assets. Changes notified within a transaction take effect
+ * only once the transaction commits.
+ */
+public interface FullTextIndex {
+
+    /**
+     * Finds terms and vocabularies matching the specified search string.
+     * <p>
+     * Asset snapshots are not indexed.
+     *
+     * @param searchString String to search by, not blank
+     * @return List of matching results, ordered by descending score
+     */
+    Optional<List<FullTextSearchResult>> search(String searchString);
+
+    /**
+     * Notifies the index that the specified term has been added or updated.
+     *
+     * @param term       The added/updated term
+     * @param vocabulary Identifier of the vocabulary containing the term
+     */
+    void onTermChanged(AbstractTerm term, URI vocabulary);
+
+    /**
+     * Notifies the index that draft status of the specified term has changed.
+     *
+     * @param term  Term identifier
+     * @param draft The new draft status
+     */
+    void onTermDraftStatusChanged(URI term, boolean draft);
+
+    /**
+     * Notifies the index that the specified vocabulary has been added or updated.
+     *
+     * @param vocabulary The added/updated vocabulary
+     */
+    void onVocabularyChanged(Vocabulary vocabulary);
+
+    /**
+     * Notifies the index that the asset with the specified identifier has been removed.
+     *
+     * @param asset Identifier of the removed term or vocabulary
+     */
+    void onRemoved(URI asset);
+
+    /**
+     * Discards the current content of the index and indexes all the terms and vocabularies from the repository again.
+     */
+    void rebuild();
+}
@@ -0,0 +1,410 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.DC;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.ontodriver.model.LangString;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static cz.cvut.kbss.termit.util.Vocabulary.*;
+
+/**
+ * {@link FullTextIndex} implementation keeping an inverted index of terms and vocabularies in memory.
+ * <p>
+ * Indexed are labels and alternative labels of terms, term definitions and vocabulary titles, all in the configured
+ * persistence language. Texts are split into lowercase tokens and a search matches an asset if each token of the search
+ * string is a prefix of some token in the same field of the asset. The results are ranked by the kind of match (exact
+ * before prefix before infix) and by the field in which the match was found (label before alternative label). Matches
+ * in definitions are ranked last.
+ * <p>
+ * The index is loaded from the repository when it is first needed and then updated incrementally based on the change
+ * notifications. The updates are applied only after the transaction making the changes commits. The index is discarded
+ * and will be reloaded on {@link EvictCacheEvent} and {@link VocabularyCreatedEvent} (the latter covers vocabulary
+ * import, which bypasses the DAO), again once the transaction in which the event was published commits.
+ */
+@Component
+@Profile("!lucene")
+public class InMemoryFullTextIndex implements FullTextIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryFullTextIndex.class);
+
+    static final String LABEL_FIELD = "label";
+    static final String ALT_LABEL_FIELD = "altLabel";
+    static final String DEFINITION_FIELD = "definition";
+
+    private static final double EXACT_MATCH_SCORE = 3.0;
+    private static final double PREFIX_MATCH_SCORE = 2.0;
+    private static final double INFIX_MATCH_SCORE = 1.0;
+
+    /**
+     * Score bonus of label fields, so that label matches rank before alternative label matches of the same kind.
+     */
+    private static final Map<String, Double> LABEL_FIELD_BONUS = Map.of(LABEL_FIELD, 0.5, ALT_LABEL_FIELD, 0.25);
+
+    /**
+     * Score of definition matches, which rank below any label match.
+     */
+    private static final double DEFINITION_MATCH_SCORE = 0.5;
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final EntityManager em;
+
+    private final String language;
+
+    private volatile Index index;
+
+    private final Object loadLock = new Object();
+
+    private final TransactionalIndexUpdates<Index> updates = new TransactionalIndexUpdates<>(update -> {
+        final Index current = index;
+        if (current != null) {
+            update.accept(current);
+        }
+    });
+
+    public InMemoryFullTextIndex(EntityManager em, Configuration config) {
+        this.em = em;
+        this.language = config.getPersistence().getLanguage();
+    }
+
+    @Override
+    public Optional<List<FullTextSearchResult>> search(String searchString) {
+        Objects.requireNonNull(searchString);
+        final List<String> tokens = tokenize(searchString);
+        if (tokens.isEmpty()) {
+            // Nothing to look up in the index, e.g., the search string consists only of punctuation
+            return Optional.empty();
+        }
+        return Optional.of(getIndex().search(tokens, searchString.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    static List<String> tokenize(String text) {
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))).filter(s -> !s.isEmpty())
+                     .collect(Collectors.toList());
+    }
+
+    private Index getIndex() {
+        final Index existing = index;
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (loadLock) {
+            if (index != null) {
+                return index;
+            }
+            return updates.load(this::loadIndex, loaded -> {
+                this.index = loaded;
+                return loaded;
+            });
+        }
+    }
+
+    private Index loadIndex() {
+        LOG.debug("Loading full text index.");
+        final Index result = new Index();
+        final Map<URI, Entry> entries = new HashMap<>();
+        try {
+            final List<?> termRows = em.createNativeQuery("SELECT ?entity ?label ?vocabulary ?draft ?definition WHERE {" +
+                                                                  "?entity a ?term ;" +
+                                                                  "?hasLabel ?label ." +
+                                                                  "FILTER (lang(?label) = ?langTag)" +
+                                                                  "OPTIONAL { ?entity ?inVocabulary ?vocabulary . }" +
+                                                                  "OPTIONAL { ?entity ?isDraft ?draft . }" +
+                                                                  "OPTIONAL { ?entity ?hasDefinition ?definition . " +
+                                                                  "FILTER (lang(?definition) = ?langTag) }" +
+                                                                  "FILTER NOT EXISTS { ?entity a ?snapshot . }" +
+                                                                  "}")
+                                       .setParameter("term", URI.create(SKOS.CONCEPT))
+                                       .setParameter("hasLabel", URI.create(SKOS.PREF_LABEL))
+                                       .setParameter("inVocabulary", URI.create(s_p_je_pojmem_ze_slovniku))
+                                       .setParameter("isDraft", URI.create(s_p_je_draft))
+                                       .setParameter("hasDefinition", URI.create(SKOS.DEFINITION))
+                                       .setParameter("snapshot", URI.create(s_c_verze_objektu))
+                                       .setParameter("langTag", language, null)
+                                       .getResultList();
+            for (Object r : termRows) {
+                final Object[] row = (Object[]) r;
+                final Entry entry = entries.computeIfAbsent((URI) row[0], k -> new Entry(k, SKOS.CONCEPT,
+                                                                                         stringValue(row[1])));
+                if (entry.vocabulary == null && row[2] != null) {
+                    entry.vocabulary = (URI) row[2];
+                }
+                if (entry.draft == null && row[3] != null) {
+                    entry.draft = (Boolean) row[3];
+                }
+                if (row[4] != null) {
+                    entry.addText(DEFINITION_FIELD, stringValue(row[4]));
+                }
+            }
+            final List<?> altLabelRows = em.createNativeQuery("SELECT ?entity ?altLabel WHERE {" +
+                                                                      "?entity a ?term ;" +
+                                                                      "?hasAltLabel ?altLabel ." +
+                                                                      "FILTER (lang(?altLabel) = ?langTag)" +
+                                                                      "}")
+                                           .setParameter("term", URI.create(SKOS.CONCEPT))
+                                           .setParameter("hasAltLabel", URI.create(SKOS.ALT_LABEL))
+                                           .setParameter("langTag", language, null)
+                                           .getResultList();
+            for (Object r : altLabelRows) {
+                final Object[] row = (Object[]) r;
+                final Entry entry = entries.get(row[0]);
+                // Snapshots and terms without label in the language are not indexed
+                if (entry != null) {
+                    entry.addText(ALT_LABEL_FIELD, stringValue(row[1]));
+                }
+            }
+            final List<?> vocabularyRows = em.createNativeQuery("SELECT ?entity ?label WHERE {" +
+                                                                        "?entity a ?vocabulary ;" +
+                                                                        "?hasTitle ?label ." +
+                                                                        "FILTER (lang(?label) = ?langTag)" +
+                                                                        "FILTER NOT EXISTS { ?entity a ?snapshot . }" +
+                                                                        "}")
+                                             .setParameter("vocabulary", URI.create(s_c_slovnik))
+                                             .setParameter("hasTitle", URI.create(DC.Terms.TITLE))
+                                             .setParameter("snapshot", URI.create(s_c_verze_objektu))
+                                             .setParameter("langTag", language, null)
+                                             .getResultList();
+            for (Object r : vocabularyRows) {
+                final Object[] row = (Object[]) r;
+                entries.putIfAbsent((URI) row[0], new Entry((URI) row[0], s_c_slovnik, stringValue(row[1])));
+            }
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        entries.values().forEach(result::put);
+        LOG.debug("Full text index loaded with {} entries.", entries.size());
+        return result;
+    }
+
+    private static String stringValue(Object value) {
+        return value instanceof LangString ? ((LangString) value).getValue() : value.toString();
+    }
+
+    @Override
+    public void onTermChanged(AbstractTerm term, URI vocabulary) {
+        Objects.requireNonNull(term);
+        final String label = term.getLabel() != null ? term.getLabel().get(language) : null;
+        if (label == null) {
+            updates.apply(idx -> idx.remove(term.getUri()));
+            return;
+        }
+        final Entry entry = new Entry(term.getUri(), SKOS.CONCEPT, label);
+        entry.vocabulary = vocabulary;
+        entry.draft = term.isDraft();
+        if (term instanceof Term) {
+            Utils.emptyIfNull(((Term) term).getAltLabels()).stream().map(ms -> ms.get(language))
+                 .filter(Objects::nonNull).forEach(alt -> entry.addText(ALT_LABEL_FIELD, alt));
+        }
+        final MultilingualString definition = term.getDefinition();
+        if (definition != null && definition.contains(language)) {
+            entry.addText(DEFINITION_FIELD, definition.get(language));
+        }
+        updates.apply(idx -> idx.put(entry));
+    }
+
+    @Override
+    public void onTermDraftStatusChanged(URI term, boolean draft) {
+        Objects.requireNonNull(term);
+        updates.apply(idx -> idx.setDraft(term, draft));
+    }
+
+    @Override
+    public void onVocabularyChanged(Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        final URI uri = vocabulary.getUri();
+        if (vocabulary.getLabel() == null) {
+            updates.apply(idx -> idx.remove(uri));
+        } else {
+            final Entry entry = new Entry(uri, s_c_slovnik, vocabulary.getLabel());
+            updates.apply(idx -> idx.put(entry));
+        }
+    }
+
+    @Override
+    public void onRemoved(URI asset) {
+        Objects.requireNonNull(asset);
+        updates.apply(idx -> idx.remove(asset));
+    }
+
+    private void evict() {
+        this.index = null;
+    }
+
+    @Override
+    public void rebuild() {
+        updates.evict(this::evict);
+        getIndex();
+    }
+
+    @EventListener(value = {VocabularyCreatedEvent.class, EvictCacheEvent.class})
+    public void onEvictCache() {
+        updates.evict(this::evict);
+    }
+
+    /**
+     * Indexed asset.
+     */
+    private static class Entry {
+        private final URI uri;
+        private final String type;
+        private final String label;
+        private URI vocabulary;
+        private Boolean draft;
+        private final Map<String, List<String>> texts = new HashMap<>(4);
+
+        private Entry(URI uri, String type, String label) {
+            this.uri = uri;
+            this.type = type;
+            this.label = label;
+            addText(LABEL_FIELD, label);
+        }
+
+        private void addText(String field, String text) {
+            texts.computeIfAbsent(field, k -> new ArrayList<>(1)).add(text);
+        }
+
+        private Set<String> tokens() {
+            return texts.values().stream().flatMap(List::stream).flatMap(t -> tokenize(t).stream())
+                        .collect(Collectors.toSet());
+        }
+    }
+
+    private static class Index {
+
+        private final Map<URI, Entry> entries = new HashMap<>();
+
+        private final NavigableMap<String, Set<URI>> postings = new TreeMap<>();
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private void put(Entry entry) {
+            lock.writeLock().lock();
+            try {
+                doRemove(entry.uri);
+                entries.put(entry.uri, entry);
+                entry.tokens().forEach(t -> postings.computeIfAbsent(t, k -> new HashSet<>()).add(entry.uri));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(URI uri) {
+            lock.writeLock().lock();
+            try {
+                doRemove(uri);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void doRemove(URI uri) {
+            final Entry existing = entries.remove(uri);
+            if (existing == null) {
+                return;
+            }
+            existing.tokens().forEach(t -> {
+                final Set<URI> posting = postings.get(t);
+                if (posting != null) {
+                    posting.remove(uri);
+                    if (posting.isEmpty()) {
+                        postings.remove(t);
+                    }
+                }
+            });
+        }
+
+        private void setDraft(URI uri, boolean draft) {
+            lock.writeLock().lock();
+            try {
+                final Entry entry = entries.get(uri);
+                if (entry != null) {
+                    entry.draft = draft;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private List<FullTextSearchResult> search(List<String> tokens, String searchString) {
+            lock.readLock().lock();
+            try {
+                Set<URI> candidates = null;
+                for (String token : tokens) {
+                    final Set<URI> matching = new HashSet<>();
+                    postings.subMap(token, true, token + Character.MAX_VALUE, true).values()
+                            .forEach(matching::addAll);
+                    if (candidates == null) {
+                        candidates = matching;
+                    } else {
+                        candidates.retainAll(matching);
+                    }
+                    if (candidates.isEmpty()) {
+                        return new ArrayList<>();
+                    }
+                }
+                assert candidates != null;
+                final List<FullTextSearchResult> result = new ArrayList<>(candidates.size());
+                candidates.forEach(uri -> match(entries.get(uri), tokens, searchString).ifPresent(result::add));
+                result.sort(Comparator.comparing(FullTextSearchResult::getScore).reversed()
+                                      .thenComparing(FullTextSearchResult::getLabel));
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Finds the best matching field of the specified entry.
+         * <p>
+         * Tokens of the search string may be matched by different fields, so the entry is matched only if all the
+         * tokens match the same field.
+         */
+        private static Optional<FullTextSearchResult> match(Entry entry, List<String> tokens, String searchString) {
+            FullTextSearchResult best = null;
+            for (Map.Entry<String, List<String>> field : entry.texts.entrySet()) {
+                for (String text : field.getValue()) {
+                    final List<String> textTokens = tokenize(text);
+                    if (tokens.stream().allMatch(t -> textTokens.stream().anyMatch(tt -> tt.startsWith(t)))) {
+                        final double score = score(field.getKey(), text.toLowerCase(Locale.ROOT), searchString);
+                        if (best == null || best.getScore() < score) {
+                            best = new FullTextSearchResult(entry.uri, entry.label, entry.vocabulary, entry.draft,
+                                                            entry.type, field.getKey(), text, score);
+                        }
+                    }
+                }
+            }
+            return Optional.ofNullable(best);
+        }
+
+        private static double score(String field, String lowercaseText, String searchString) {
+            if (DEFINITION_FIELD.equals(field)) {
+                return DEFINITION_MATCH_SCORE;
+            }
+            final double matchScore = lowercaseText.equals(searchString) ? EXACT_MATCH_SCORE :
+                                      lowercaseText.startsWith(searchString) ? PREFIX_MATCH_SCORE : INFIX_MATCH_SCORE;
+            return matchScore + LABEL_FIELD_BONUS.get(field);
+        }
+    }
+}
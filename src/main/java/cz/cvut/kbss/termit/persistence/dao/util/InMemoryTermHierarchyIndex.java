@@ -0,0 +1,197 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.ontodriver.model.LangString;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * {@link TermHierarchyIndex} implementation keeping term hierarchies of vocabularies in memory.
+ * <p>
+ * Hierarchy of a vocabulary is loaded from the repository when it is first needed and then updated incrementally based
+ * on the change notifications. The updates are applied only after the transaction making the changes commits. All the
+ * hierarchies are discarded and will be reloaded on {@link EvictCacheEvent} and {@link VocabularyCreatedEvent} (the
+ * latter covers vocabulary import, which bypasses the DAO), again once the transaction in which the event was published
+ * commits.
+ */
+@Primary
+@Component
+@Profile("!no-cache")
+public class InMemoryTermHierarchyIndex implements TermHierarchyIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryTermHierarchyIndex.class);
+
+    private final EntityManager em;
+
+    private final VocabularyContextMapper contextMapper;
+
+    private final Map<URI, VocabularyHierarchy> hierarchies = new ConcurrentHashMap<>();
+
+    private final TransactionalIndexUpdates<VocabularyHierarchy> updates =
+            new TransactionalIndexUpdates<>(update -> hierarchies.values().forEach(update));
+
+    public InMemoryTermHierarchyIndex(EntityManager em, VocabularyContextMapper contextMapper) {
+        this.em = em;
+        this.contextMapper = contextMapper;
+    }
+
+    @Override
+    public Optional<List<TermInfo>> findSubTerms(URI vocabulary, URI term) {
+        return Optional.ofNullable(getHierarchy(vocabulary).getChildren(term));
+    }
+
+    @Override
+    public Optional<Set<URI>> findAncestors(URI vocabulary, URI term) {
+        final VocabularyHierarchy hierarchy = getHierarchy(vocabulary);
+        return hierarchy.isMember(term) ? Optional.of(hierarchy.getAncestors(term)) : Optional.empty();
+    }
+
+    private VocabularyHierarchy getHierarchy(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        final VocabularyHierarchy existing = hierarchies.get(vocabulary);
+        if (existing != null) {
+            return existing;
+        }
+        return updates.load(() -> loadHierarchy(vocabulary), loaded -> {
+            final VocabularyHierarchy winner = hierarchies.putIfAbsent(vocabulary, loaded);
+            return winner != null ? winner : loaded;
+        });
+    }
+
+    private VocabularyHierarchy loadHierarchy(URI vocabulary) {
+        LOG.trace("Loading term hierarchy of vocabulary {}.", Utils.uriToString(vocabulary));
+        final URI context = contextMapper.getVocabularyContext(vocabulary);
+        final VocabularyHierarchy hierarchy = new VocabularyHierarchy(vocabulary);
+        try {
+            em.createNativeQuery("SELECT ?term WHERE { GRAPH ?context { ?term a ?type . } }", URI.class)
+              .setParameter("context", context)
+              .setParameter("type", URI.create(SKOS.CONCEPT))
+              .getResultList().forEach(hierarchy::addMember);
+            final List<?> rows = em.createNativeQuery("SELECT ?child ?label ?childVocabulary ?parent ?childType WHERE {" +
+                                                              "GRAPH ?context { ?parent a ?type . }" +
+                                                              "?child ?broader ?parent ;" +
+                                                              "a ?type ;" +
+                                                              "?hasLabel ?label ." +
+                                                              "OPTIONAL { ?child ?inVocabulary ?childVocabulary . }" +
+                                                              "OPTIONAL { ?child a ?childType . " +
+                                                              "FILTER (?childType != ?type) }" +
+                                                              "}")
+                                   .setParameter("context", context)
+                                   .setParameter("type", URI.create(SKOS.CONCEPT))
+                                   .setParameter("broader", URI.create(SKOS.BROADER))
+                                   .setParameter("hasLabel", URI.create(SKOS.PREF_LABEL))
+                                   .setParameter("inVocabulary", URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                                   .getResultList();
+            final Map<URI, TermInfo> children = new HashMap<>();
+            final Map<URI, Set<URI>> edges = new HashMap<>();
+            for (Object r : rows) {
+                final Object[] row = (Object[]) r;
+                final TermInfo child = children.computeIfAbsent((URI) row[0], k -> {
+                    final TermInfo ti = new TermInfo(k);
+                    ti.setLabel(new MultilingualString());
+                    ti.setTypes(new HashSet<>());
+                    return ti;
+                });
+                if (row[1] instanceof LangString) {
+                    final LangString label = (LangString) row[1];
+                    child.getLabel().set(label.getLanguage().orElse(null), label.getValue());
+                } else {
+                    child.getLabel().set(row[1].toString());
+                }
+                if (row[2] != null) {
+                    child.setVocabulary((URI) row[2]);
+                }
+                if (row[4] != null) {
+                    child.getTypes().add(row[4].toString());
+                }
+                edges.computeIfAbsent(child.getUri(), k -> new HashSet<>()).add((URI) row[3]);
+            }
+            edges.forEach((child, parents) -> parents.forEach(p -> hierarchy.addEdge(children.get(child), p)));
+            return hierarchy;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @Override
+    public void onTermAdded(AbstractTerm term, URI vocabulary, Set<? extends HasIdentifier> parents) {
+        Objects.requireNonNull(term);
+        final TermInfo info = termInfo(term);
+        info.setVocabulary(vocabulary);
+        final Set<URI> parentUris = parentUris(parents);
+        updates.apply(h -> {
+            if (vocabulary.equals(h.getVocabulary())) {
+                h.addMember(info.getUri());
+            }
+            parentUris.forEach(p -> {
+                if (h.isMember(p)) {
+                    h.addEdge(info, p);
+                }
+            });
+        });
+    }
+
+    private static TermInfo termInfo(AbstractTerm term) {
+        final TermInfo info = new TermInfo(term);
+        info.setTypes(new HashSet<>(Utils.emptyIfNull(term.getTypes())));
+        return info;
+    }
+
+    private static Set<URI> parentUris(Set<? extends HasIdentifier> parents) {
+        return Utils.emptyIfNull(parents).stream().map(HasIdentifier::getUri).collect(Collectors.toSet());
+    }
+
+    @Override
+    public void onTermUpdated(AbstractTerm term, Set<? extends HasIdentifier> originalParents,
+                              Set<? extends HasIdentifier> newParents) {
+        Objects.requireNonNull(term);
+        final TermInfo info = termInfo(term);
+        final Set<URI> originalParentUris = parentUris(originalParents);
+        final Set<URI> newParentUris = parentUris(newParents);
+        updates.apply(h -> {
+            h.updateInfo(info);
+            originalParentUris.forEach(p -> h.removeEdge(info.getUri(), p));
+            newParentUris.forEach(p -> {
+                if (h.isMember(p)) {
+                    h.addEdge(info, p);
+                }
+            });
+        });
+    }
+
+    @Override
+    public void onTermRemoved(HasIdentifier term) {
+        Objects.requireNonNull(term);
+        final URI uri = term.getUri();
+        updates.apply(h -> h.removeTerm(uri));
+    }
+
+    private void evictAll() {
+        hierarchies.clear();
+    }
+
+    @EventListener(value = {VocabularyCreatedEvent.class, EvictCacheEvent.class})
+    public void onEvictCache() {
+        updates.evict(this::evictAll);
+    }
+}
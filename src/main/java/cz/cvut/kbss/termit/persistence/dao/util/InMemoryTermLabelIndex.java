@@ -0,0 +1,415 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.ontodriver.model.LangString;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * {@link TermLabelIndex} implementation keeping labels of terms of vocabularies in memory.
+ * <p>
+ * Labels and alternative labels are folded (lowercase, without diacritics and with normalized whitespace) and kept in
+ * sorted concurrent maps, so that lookup of labels with a prefix is a range scan which stops as soon as enough terms
+ * are found, and searches do not block each other. Besides the whole labels, their suffixes starting at word
+ * boundaries are indexed as well, so that terms can be found by any word of their label.
+ * <p>
+ * Labels of a vocabulary are loaded from the repository when they are first needed and then updated incrementally
+ * based on the change notifications. The updates are applied only after the transaction making the changes commits.
+ * All the labels are discarded and will be reloaded on {@link EvictCacheEvent} and {@link VocabularyCreatedEvent} (the
+ * latter covers vocabulary import, which bypasses the DAO), again once the transaction in which the event was published
+ * commits.
+ * <p>
+ * Only labels of existing vocabularies are kept, at most {@link #MAX_VOCABULARIES} of them. Labels of the least recently
+ * searched vocabularies are discarded when the limit is exceeded.
+ */
+@Component
+@Profile("!no-cache")
+public class InMemoryTermLabelIndex implements TermLabelIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryTermLabelIndex.class);
+
+    static final String LABEL_FIELD = "label";
+    static final String ALT_LABEL_FIELD = "altLabel";
+
+    private static final double EXACT_MATCH_SCORE = 3.0;
+    private static final double LABEL_PREFIX_MATCH_SCORE = 2.0;
+    private static final double WORD_PREFIX_MATCH_SCORE = 1.0;
+
+    /**
+     * Alternative label matches rank below label matches of the same kind.
+     */
+    private static final double ALT_LABEL_PENALTY = 0.25;
+
+    /**
+     * Separates language from the folded label in index keys.
+     */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Maximum number of vocabularies whose labels are kept in memory. The least recently used ones are evicted when
+     * exceeded.
+     */
+    static final int MAX_VOCABULARIES = 128;
+
+    private final EntityManager em;
+
+    private final VocabularyContextMapper contextMapper;
+
+    private final Map<URI, VocabularyLabels> vocabularyLabels =
+            Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<URI, VocabularyLabels> eldest) {
+                    return size() > MAX_VOCABULARIES;
+                }
+            });
+
+    private final TransactionalIndexUpdates<VocabularyLabels> updates = new TransactionalIndexUpdates<>(update -> {
+        synchronized (vocabularyLabels) {
+            vocabularyLabels.values().forEach(update);
+        }
+    });
+
+    public InMemoryTermLabelIndex(EntityManager em, VocabularyContextMapper contextMapper) {
+        this.em = em;
+        this.contextMapper = contextMapper;
+    }
+
+    /**
+     * Folds the specified value for case and diacritics insensitive matching.
+     *
+     * @param value Value to fold
+     * @return Lowercase value without diacritics, with whitespace sequences replaced by single space
+     */
+    static String fold(String value) {
+        final String withoutDiacritics = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD))
+                                                   .replaceAll("");
+        return WHITESPACE.matcher(withoutDiacritics).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public Optional<List<FullTextSearchResult>> findByLabelPrefix(String prefix, String language,
+                                                                  Set<URI> vocabularies, int limit) {
+        Objects.requireNonNull(prefix);
+        Objects.requireNonNull(language);
+        Objects.requireNonNull(vocabularies);
+        final String folded = fold(prefix);
+        if (folded.isEmpty() || limit <= 0) {
+            return Optional.of(Collections.emptyList());
+        }
+        final List<Match> matches = new ArrayList<>();
+        vocabularies.forEach(v -> getLabels(v).ifPresent(
+                labels -> matches.addAll(labels.find(language, folded, limit))));
+        matches.sort(Comparator.comparingDouble((Match m) -> m.score).reversed()
+                               .thenComparingInt(m -> m.posting.key.length())
+                               .thenComparing(m -> m.posting.key));
+        final Set<URI> seen = new HashSet<>();
+        final List<FullTextSearchResult> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (Match m : matches) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (seen.add(m.posting.term.uri)) {
+                result.add(m.toResult(language));
+            }
+        }
+        return Optional.of(result);
+    }
+
+    private Optional<VocabularyLabels> getLabels(URI vocabulary) {
+        final VocabularyLabels existing = vocabularyLabels.get(vocabulary);
+        if (existing != null) {
+            return Optional.of(existing);
+        }
+        // Vocabularies are specified by clients, do not let nonexistent ones take up the index
+        if (!vocabularyExists(vocabulary)) {
+            return Optional.empty();
+        }
+        return Optional.of(updates.load(() -> loadLabels(vocabulary), loaded -> {
+            final VocabularyLabels winner = vocabularyLabels.putIfAbsent(vocabulary, loaded);
+            return winner != null ? winner : loaded;
+        }));
+    }
+
+    private boolean vocabularyExists(URI vocabulary) {
+        try {
+            return em.createNativeQuery("ASK { ?vocabulary a ?type . }", Boolean.class)
+                     .setParameter("vocabulary", vocabulary)
+                     .setParameter("type", URI.create(Vocabulary.s_c_slovnik)).getSingleResult();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private VocabularyLabels loadLabels(URI vocabulary) {
+        LOG.trace("Loading term labels of vocabulary {}.", Utils.uriToString(vocabulary));
+        final URI context = contextMapper.getVocabularyContext(vocabulary);
+        final VocabularyLabels labels = new VocabularyLabels(vocabulary);
+        try {
+            final List<?> rows = em.createNativeQuery("SELECT ?term ?label ?field ?draft WHERE {" +
+                                                              "GRAPH ?context { ?term a ?type . }" +
+                                                              "{ ?term ?hasLabel ?label ." +
+                                                              "BIND (\"" + LABEL_FIELD + "\" AS ?field) }" +
+                                                              " UNION " +
+                                                              "{ ?term ?hasAltLabel ?label ." +
+                                                              "BIND (\"" + ALT_LABEL_FIELD + "\" AS ?field) }" +
+                                                              "OPTIONAL { ?term ?isDraft ?draft . }" +
+                                                              "}")
+                                   .setParameter("context", context)
+                                   .setParameter("type", URI.create(SKOS.CONCEPT))
+                                   .setParameter("hasLabel", URI.create(SKOS.PREF_LABEL))
+                                   .setParameter("hasAltLabel", URI.create(SKOS.ALT_LABEL))
+                                   .setParameter("isDraft", URI.create(Vocabulary.s_p_je_draft))
+                                   .getResultList();
+            final Map<URI, IndexedTerm> terms = new HashMap<>();
+            for (Object r : rows) {
+                final Object[] row = (Object[]) r;
+                if (!(row[1] instanceof LangString) || ((LangString) row[1]).getLanguage().isEmpty()) {
+                    // Only labels with language are indexed
+                    continue;
+                }
+                final IndexedTerm term = terms.computeIfAbsent((URI) row[0], IndexedTerm::new);
+                if (row[3] != null) {
+                    term.draft = (Boolean) row[3];
+                }
+                final LangString label = (LangString) row[1];
+                term.addLabel(row[2].toString(), label.getLanguage().get(), label.getValue());
+            }
+            terms.values().forEach(labels::put);
+            return labels;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @Override
+    public void onTermChanged(AbstractTerm term, URI vocabulary) {
+        Objects.requireNonNull(term);
+        final IndexedTerm indexed = new IndexedTerm(term.getUri());
+        indexed.draft = term.isDraft();
+        addLabels(indexed, LABEL_FIELD, term.getLabel());
+        if (term instanceof Term) {
+            Utils.emptyIfNull(((Term) term).getAltLabels()).forEach(alt -> addLabels(indexed, ALT_LABEL_FIELD, alt));
+        }
+        updates.apply(labels -> {
+            if (labels.vocabulary.equals(vocabulary)) {
+                labels.put(indexed);
+            } else {
+                labels.remove(indexed.uri);
+            }
+        });
+    }
+
+    private static void addLabels(IndexedTerm term, String field, MultilingualString labels) {
+        if (labels == null) {
+            return;
+        }
+        labels.getValue().forEach((lang, value) -> {
+            if (lang != null) {
+                term.addLabel(field, lang, value);
+            }
+        });
+    }
+
+    @Override
+    public void onTermDraftStatusChanged(URI term, boolean draft) {
+        Objects.requireNonNull(term);
+        updates.apply(labels -> labels.setDraft(term, draft));
+    }
+
+    @Override
+    public void onTermRemoved(HasIdentifier term) {
+        Objects.requireNonNull(term);
+        final URI uri = term.getUri();
+        updates.apply(labels -> labels.remove(uri));
+    }
+
+    private void evictAll() {
+        vocabularyLabels.clear();
+    }
+
+    @EventListener(value = {VocabularyCreatedEvent.class, EvictCacheEvent.class})
+    public void onEvictCache() {
+        updates.evict(this::evictAll);
+    }
+
+    /**
+     * Indexed term.
+     */
+    private static class IndexedTerm {
+        private final URI uri;
+        private final Map<String, String> labels = new HashMap<>(4);
+        private final List<Posting> postings = new ArrayList<>();
+        private volatile Boolean draft;
+
+        private IndexedTerm(URI uri) {
+            this.uri = uri;
+        }
+
+        private void addLabel(String field, String language, String value) {
+            if (LABEL_FIELD.equals(field)) {
+                labels.putIfAbsent(language, value);
+            }
+            final String folded = fold(value);
+            if (!folded.isEmpty()) {
+                postings.add(new Posting(this, field, value, language + KEY_SEPARATOR + folded));
+            }
+        }
+    }
+
+    /**
+     * Occurrence of a term label in the index.
+     */
+    private static class Posting {
+        private final IndexedTerm term;
+        private final String field;
+        private final String text;
+        /**
+         * Language and folded label
+         */
+        private final String key;
+
+        private Posting(IndexedTerm term, String field, String text, String key) {
+            this.term = term;
+            this.field = field;
+            this.text = text;
+            this.key = key;
+        }
+
+        /**
+         * Gets keys of the suffixes of the folded label starting at word boundaries (except the label start).
+         */
+        private List<String> wordKeys() {
+            final int start = key.indexOf(KEY_SEPARATOR) + 1;
+            final String language = key.substring(0, start);
+            final List<String> result = new ArrayList<>();
+            for (int i = start + 1; i < key.length(); i++) {
+                if (!Character.isLetterOrDigit(key.charAt(i - 1)) && Character.isLetterOrDigit(key.charAt(i))) {
+                    result.add(language + key.substring(i));
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class Match {
+        private final Posting posting;
+        private final URI vocabulary;
+        private final double score;
+
+        private Match(Posting posting, URI vocabulary, double score) {
+            this.posting = posting;
+            this.vocabulary = vocabulary;
+            this.score = score;
+        }
+
+        private FullTextSearchResult toResult(String language) {
+            final String label = posting.term.labels.getOrDefault(language, posting.text);
+            return new FullTextSearchResult(posting.term.uri, label, vocabulary, posting.term.draft, SKOS.CONCEPT,
+                                            posting.field, posting.text, score);
+        }
+    }
+
+    /**
+     * Labels of terms of a single vocabulary.
+     */
+    private static class VocabularyLabels {
+
+        private final URI vocabulary;
+
+        private final ConcurrentNavigableMap<String, Set<Posting>> labels = new ConcurrentSkipListMap<>();
+
+        private final ConcurrentNavigableMap<String, Set<Posting>> words = new ConcurrentSkipListMap<>();
+
+        private final Map<URI, IndexedTerm> terms = new ConcurrentHashMap<>();
+
+        private VocabularyLabels(URI vocabulary) {
+            this.vocabulary = vocabulary;
+        }
+
+        private synchronized void put(IndexedTerm term) {
+            remove(term.uri);
+            terms.put(term.uri, term);
+            term.postings.forEach(p -> {
+                labels.computeIfAbsent(p.key, k -> ConcurrentHashMap.newKeySet()).add(p);
+                p.wordKeys().forEach(k -> words.computeIfAbsent(k, key -> ConcurrentHashMap.newKeySet()).add(p));
+            });
+        }
+
+        private synchronized void remove(URI term) {
+            final IndexedTerm existing = terms.remove(term);
+            if (existing == null) {
+                return;
+            }
+            existing.postings.forEach(p -> {
+                removePosting(labels, p.key, p);
+                p.wordKeys().forEach(k -> removePosting(words, k, p));
+            });
+        }
+
+        private static void removePosting(Map<String, Set<Posting>> map, String key, Posting posting) {
+            map.computeIfPresent(key, (k, postings) -> {
+                postings.remove(posting);
+                return postings.isEmpty() ? null : postings;
+            });
+        }
+
+        private void setDraft(URI term, boolean draft) {
+            final IndexedTerm indexed = terms.get(term);
+            if (indexed != null) {
+                indexed.draft = draft;
+            }
+        }
+
+        private List<Match> find(String language, String folded, int limit) {
+            final String key = language + KEY_SEPARATOR + folded;
+            final List<Match> result = new ArrayList<>();
+            final Set<URI> found = new HashSet<>();
+            collect(labels, key, limit, found, result, false);
+            collect(words, key, limit, found, result, true);
+            return result;
+        }
+
+        private void collect(ConcurrentNavigableMap<String, Set<Posting>> map, String key, int limit, Set<URI> found,
+                             List<Match> result, boolean wordMatch) {
+            for (Map.Entry<String, Set<Posting>> e : map.subMap(key, true, key + Character.MAX_VALUE, true)
+                                                         .entrySet()) {
+                for (Posting p : e.getValue()) {
+                    final double score = (wordMatch ? WORD_PREFIX_MATCH_SCORE :
+                                          e.getKey().equals(key) ? EXACT_MATCH_SCORE : LABEL_PREFIX_MATCH_SCORE) -
+                            (ALT_LABEL_FIELD.equals(p.field) ? ALT_LABEL_PENALTY : 0);
+                    result.add(new Match(p, vocabulary, score));
+                    found.add(p.term.uri);
+                }
+                if (found.size() >= limit) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package cz.cvut.kbss.termit.persistence.dao.util;
 
 import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
@@ -8,12 +10,21 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
- * A simple {@link ConcurrentHashMap}-based cache implementation useful for caching frequently accessed data.
+ * A simple bounded cache implementation useful for caching frequently accessed data.
+ * <p>
+ * The cache holds at most the configured number of entries, evicting the least recently used ones when the limit is
+ * reached. Optionally, entries expire after the configured time-to-live. Usage statistics are collected and can be
+ * retrieved via {@link #getStatistics()}.
+ * <p>
+ * Note that values are computed outside of the cache lock, so concurrent requests for the same missing key may
+ * compute the value more than once. A computed value is not stored if its key has been evicted while it was being
+ * computed, as it may be based on data which are already out of date. Evicting other keys does not affect it.
  *
  * @param <K> Cache key type
  * @param <V> Cache value type
@@ -24,25 +35,191 @@ import java.util.function.Function;
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE) // Everyone will get their own cache instance
 public class SimpleCache<K, V> implements Cache<K, V> {
 
-    private final Map<K, V> cache = new ConcurrentHashMap<>();
+    private final Map<K, Entry<V>> cache;
+
+    private final long ttlMillis;
+
+    private final Clock clock;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Tickets of keys whose values are being computed, guarded by cache lock.
+     * <p>
+     * Evicting a key withdraws its ticket, so that computations started before the eviction do not store their
+     * values.
+     */
+    private final Map<K, Ticket> computing = new HashMap<>();
+
+    @Autowired
+    public SimpleCache(Configuration config, CacheMonitor monitor) {
+        this(config.getCache(), Clock.systemUTC());
+        monitor.register(this);
+    }
+
+    SimpleCache(Configuration.Cache config, Clock clock) {
+        final int maxSize = config.getMaxSize();
+        this.ttlMillis = config.getTtl() != null ? config.getTtl().toMillis() : 0;
+        this.clock = clock;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
 
     @Override
     public V getOrCompute(K key, Function<K, V> supplier) {
-        return cache.computeIfAbsent(key, supplier);
+        final Ticket ticket;
+        synchronized (cache) {
+            final V value = getValid(key);
+            if (value != null) {
+                return value;
+            }
+            ticket = acquire(key);
+        }
+        V value = null;
+        try {
+            value = supplier.apply(key);
+        } finally {
+            synchronized (cache) {
+                release(key, ticket, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Map<K, V> getOrComputeAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> supplier) {
+        final Map<K, V> result = new HashMap<>(keys.size());
+        final Map<K, Ticket> missing = new LinkedHashMap<>();
+        synchronized (cache) {
+            for (K key : keys) {
+                final V value = getValid(key);
+                if (value != null) {
+                    result.put(key, value);
+                } else if (!missing.containsKey(key)) {
+                    missing.put(key, acquire(key));
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<K, V> computed = Collections.emptyMap();
+            try {
+                computed = supplier.apply(new ArrayList<>(missing.keySet()));
+            } finally {
+                synchronized (cache) {
+                    for (Map.Entry<K, Ticket> e : missing.entrySet()) {
+                        release(e.getKey(), e.getValue(), computed.get(e.getKey()));
+                    }
+                }
+            }
+            result.putAll(computed);
+        }
+        return result;
+    }
+
+    /**
+     * Registers a computation of value for the specified key. Has to be called under cache lock.
+     */
+    private Ticket acquire(K key) {
+        final Ticket ticket = computing.computeIfAbsent(key, k -> new Ticket());
+        ticket.holders++;
+        return ticket;
+    }
+
+    /**
+     * Stores the computed value unless the key has been evicted since the computation started. Has to be called under
+     * cache lock.
+     */
+    private void release(K key, Ticket ticket, V value) {
+        final boolean valid = computing.get(key) == ticket;
+        if (valid) {
+            put(key, value);
+        }
+        if (--ticket.holders == 0 && valid) {
+            computing.remove(key);
+        }
+    }
+
+    /**
+     * Gets a non-expired value for the specified key, recording a hit or a miss. Has to be called under cache lock.
+     */
+    private V getValid(K key) {
+        final Entry<V> entry = cache.get(key);
+        if (entry != null && entry.isExpired(clock.millis())) {
+            cache.remove(key);
+            evictionCount.increment();
+        } else if (entry != null) {
+            hitCount.increment();
+            return entry.value;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    private void put(K key, V value) {
+        if (value != null) {
+            cache.put(key, new Entry<>(value, ttlMillis > 0 ? clock.millis() + ttlMillis : Long.MAX_VALUE));
+        }
     }
 
     @Override
     public void evict(K key) {
-        cache.remove(key);
+        synchronized (cache) {
+            computing.remove(key);
+            cache.remove(key);
+        }
     }
 
     @Override
     public void evictAll() {
-        cache.clear();
+        synchronized (cache) {
+            computing.clear();
+            cache.clear();
+        }
     }
 
     @EventListener
     public void onEvictCache(EvictCacheEvent evt) {
         evictAll();
     }
+
+    /**
+     * Gets current statistics of this cache.
+     *
+     * @return Cache statistics
+     */
+    public CacheStatistics getStatistics() {
+        final int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        return new CacheStatistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), size);
+    }
+
+    private static class Ticket {
+        private int holders;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
 }
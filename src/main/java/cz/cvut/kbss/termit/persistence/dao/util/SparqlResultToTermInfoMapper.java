@@ -6,6 +6,7 @@ import cz.cvut.kbss.termit.dto.TermInfo;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +17,9 @@ import java.util.Map;
  * The only reason this mapper exists is that {@link cz.cvut.kbss.jopa.model.annotations.SparqlResultSetMapping} does
  * not support plural values, which is what happens when multiple translations of a Term's label are loaded by the
  * query.
+ * <p>
+ * Rows consist of term identifier, label and vocabulary, optionally followed by a type of the term. Rows of a term
+ * are merged, so that the term has all the labels and types present in them.
  */
 public class SparqlResultToTermInfoMapper implements SparqlResultMapper<TermInfo> {
 
@@ -29,9 +33,10 @@ public class SparqlResultToTermInfoMapper implements SparqlResultMapper<TermInfo
                 // No result
                 continue;
             }
-            assert row.length == 3;
+            assert row.length == 3 || row.length == 4;
             final URI uri = (URI) row[0];
-            final LangString ls = (LangString) row[1];
+            final LangString ls = row[1] instanceof LangString ? (LangString) row[1] :
+                                  new LangString(row[1].toString());
             TermInfo ti;
             if (visited.containsKey(uri)) {
                 ti = visited.get(uri);
@@ -42,6 +47,14 @@ public class SparqlResultToTermInfoMapper implements SparqlResultMapper<TermInfo
                 ti.setLabel(MultilingualString.create(ls.getValue(), ls.getLanguage().orElse(null)));
             }
             ti.setVocabulary((URI) row[2]);
+            if (row.length > 3) {
+                if (ti.getTypes() == null) {
+                    ti.setTypes(new HashSet<>());
+                }
+                if (row[3] != null) {
+                    ti.getTypes().add(row[3].toString());
+                }
+            }
             visited.put(ti.getUri(), ti);
         }
         return new ArrayList<>(visited.values());
@@ -0,0 +1,419 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.DC;
+import cz.cvut.kbss.jopa.vocabulary.RDF;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.assignment.TermDefinitionSource;
+import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+
+import java.net.URI;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Loads full {@link Term}s of a vocabulary in bulk.
+ * <p>
+ * Instead of loading terms one by one via the persistence context, all statements of the vocabulary context are
+ * retrieved at once directly from the underlying repository and {@link Term} instances are reconstructed from them.
+ * Information about referenced terms (related, parent terms etc.) and about terms referencing the loaded terms
+ * (inverse relationships) is retrieved by one query each.
+ * <p>
+ * When only a subset of the vocabulary terms is required (e.g., when processing a large vocabulary in chunks), {@link
+ * #loadTermsSubset(List, URI, URI)} restricts all the queries to the specified terms instead.
+ * <p>
+ * The resulting instances are not managed. Parent terms are represented only by their identifier, label and vocabulary
+ * and {@link TermInfo} instances do not contain types. Definition source is represented only by its identifier and
+ * the term it belongs to. Sub-terms are not loaded.
+ */
+public class TermBulkLoader {
+
+    private static final String TERM_IN_VOCABULARY = Vocabulary.s_p_je_pojmem_ze_slovniku;
+
+    /**
+     * Properties mapped by {@link Term} attributes. Values of other properties are put into {@link
+     * Term#getProperties()}.
+     */
+    private static final Set<String> MAPPED_PROPERTIES = Set.of(RDF.TYPE, SKOS.PREF_LABEL, SKOS.ALT_LABEL,
+                                                                SKOS.HIDDEN_LABEL, SKOS.DEFINITION, SKOS.SCOPE_NOTE,
+                                                                SKOS.NOTATION, SKOS.EXAMPLE, SKOS.IN_SCHEME,
+                                                                SKOS.BROADER, SKOS.BROAD_MATCH, SKOS.RELATED,
+                                                                SKOS.RELATED_MATCH, SKOS.EXACT_MATCH, DC.Terms.SOURCE,
+                                                                TERM_IN_VOCABULARY, Vocabulary.s_p_je_draft,
+                                                                Vocabulary.s_p_ma_zdroj_definice_termu,
+                                                                Vocabulary.s_p_ma_klic_razeni);
+
+    /**
+     * Retrieves statements about terms when loading a subset of vocabulary terms.
+     * <p>
+     * Queries contain a placeholder for the {@code VALUES} clause restricting the loaded terms.
+     */
+    private static final String TERM_STATEMENTS_QUERY = "SELECT ?term ?property ?value WHERE {%s" +
+            "GRAPH ?context { ?term ?property ?value . }" +
+            "}";
+
+    private static final String REFERENCED_TERMS_QUERY = "SELECT DISTINCT ?ref ?label ?vocabulary WHERE {%s" +
+            "GRAPH ?context { ?term a ?type ; ?property ?ref . }" +
+            "FILTER (?property IN (?broader, ?broadMatch, ?related, ?relatedMatch, ?exactMatch))" +
+            "?ref a ?type ; ?hasLabel ?label ." +
+            "OPTIONAL { ?ref ?inVocabulary ?vocabulary . }" +
+            "}";
+
+    private static final String INVERSE_TERMS_QUERY = "SELECT DISTINCT ?term ?property ?ref ?label ?vocabulary " +
+            "WHERE {%s" +
+            "GRAPH ?context { ?term a ?type . }" +
+            "?ref ?property ?term ." +
+            "FILTER (?property IN (?related, ?relatedMatch, ?exactMatch))" +
+            "?ref a ?type ; ?hasLabel ?label ." +
+            "OPTIONAL { ?ref ?inVocabulary ?vocabulary . }" +
+            "}";
+
+    /**
+     * Retrieves definition sources of terms. Terms are linked to their definition sources by inference, so the
+     * relationship is resolved from the definition sources.
+     */
+    private static final String DEFINITION_SOURCES_QUERY = "SELECT ?term ?source WHERE {%s" +
+            "GRAPH ?context { ?term a ?type . }" +
+            "?source a ?definitionSource ; ?isAssignmentOf ?term ." +
+            "}";
+
+    private final Repository repository;
+
+    private final Comparator<TermInfo> termInfoComparator;
+
+    public TermBulkLoader(EntityManager em, Comparator<TermInfo> termInfoComparator) {
+        this.repository = em.unwrap(Repository.class);
+        this.termInfoComparator = termInfoComparator;
+    }
+
+    /**
+     * Loads the specified terms from the specified vocabulary context.
+     *
+     * @param termIris   Identifiers of terms to load. Result is ordered in the same way
+     * @param vocabulary Identifier of the vocabulary the terms belong to
+     * @param context    Vocabulary repository context
+     * @return List of loaded terms
+     */
+    public List<Term> loadTerms(List<URI> termIris, URI vocabulary, URI context) {
+        Objects.requireNonNull(termIris);
+        return load(termIris, vocabulary, context, false);
+    }
+
+    /**
+     * Loads the specified terms from the specified vocabulary context, retrieving only statements related to these
+     * terms.
+     * <p>
+     * This is more efficient than {@link #loadTerms(List, URI, URI)} when the specified terms are only a small part of
+     * the vocabulary.
+     *
+     * @param termIris   Identifiers of terms to load. Result is ordered in the same way
+     * @param vocabulary Identifier of the vocabulary the terms belong to
+     * @param context    Vocabulary repository context
+     * @return List of loaded terms
+     */
+    public List<Term> loadTermsSubset(List<URI> termIris, URI vocabulary, URI context) {
+        Objects.requireNonNull(termIris);
+        if (termIris.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return load(termIris, vocabulary, context, true);
+    }
+
+    private List<Term> load(List<URI> termIris, URI vocabulary, URI context, boolean subset) {
+        final String values = subset ? valuesClause(termIris) : "";
+        try (final RepositoryConnection conn = repository.getConnection()) {
+            final ValueFactory vf = conn.getValueFactory();
+            final IRI ctx = vf.createIRI(context.toString());
+            final Map<URI, Term> terms = new LinkedHashMap<>(termIris.size());
+            termIris.forEach(iri -> {
+                final Term t = new Term(iri);
+                t.setVocabulary(vocabulary);
+                terms.put(iri, t);
+            });
+            final Map<URI, TermInfo> referenced = loadReferencedTerms(conn, ctx, values);
+            if (subset) {
+                loadSubsetStatements(conn, ctx, values, terms, referenced);
+            } else {
+                try (final RepositoryResult<Statement> statements = conn.getStatements(null, null, null, false, ctx)) {
+                    while (statements.hasNext()) {
+                        mapStatement(terms, statements.next(), referenced);
+                    }
+                }
+            }
+            loadInverseTerms(conn, ctx, values, terms);
+            loadDefinitionSources(conn, ctx, values, terms);
+            return new ArrayList<>(terms.values());
+        }
+    }
+
+    private static String valuesClause(List<URI> termIris) {
+        return termIris.stream().map(Utils::uriToString).collect(Collectors.joining(" ", "VALUES ?term { ", " }"));
+    }
+
+    private void loadSubsetStatements(RepositoryConnection conn, IRI context, String values, Map<URI, Term> terms,
+                                      Map<URI, TermInfo> referenced) {
+        final ValueFactory vf = conn.getValueFactory();
+        final TupleQuery query = conn.prepareTupleQuery(String.format(TERM_STATEMENTS_QUERY, values));
+        query.setBinding("context", context);
+        try (final TupleQueryResult qr = query.evaluate()) {
+            while (qr.hasNext()) {
+                final BindingSet bs = qr.next();
+                mapStatement(terms, vf.createStatement((Resource) bs.getValue("term"), (IRI) bs.getValue("property"),
+                                                       bs.getValue("value")), referenced);
+            }
+        }
+    }
+
+    private static void mapStatement(Map<URI, Term> terms, Statement s, Map<URI, TermInfo> referenced) {
+        if (!(s.getSubject() instanceof IRI)) {
+            return;
+        }
+        final Term term = terms.get(URI.create(s.getSubject().stringValue()));
+        if (term != null) {
+            mapStatement(term, s, referenced);
+        }
+    }
+
+    private Map<URI, TermInfo> loadReferencedTerms(RepositoryConnection conn, IRI context, String values) {
+        final TupleQuery query = prepareQuery(conn, String.format(REFERENCED_TERMS_QUERY, values), context);
+        query.setBinding("broader", conn.getValueFactory().createIRI(SKOS.BROADER));
+        query.setBinding("broadMatch", conn.getValueFactory().createIRI(SKOS.BROAD_MATCH));
+        final Map<URI, TermInfo> result = new HashMap<>();
+        try (final TupleQueryResult qr = query.evaluate()) {
+            while (qr.hasNext()) {
+                final BindingSet bs = qr.next();
+                toTermInfo(bs, result);
+            }
+        }
+        return result;
+    }
+
+    private TupleQuery prepareQuery(RepositoryConnection conn, String queryString, IRI context) {
+        final ValueFactory vf = conn.getValueFactory();
+        final TupleQuery query = conn.prepareTupleQuery(queryString);
+        query.setBinding("context", context);
+        query.setBinding("type", vf.createIRI(SKOS.CONCEPT));
+        query.setBinding("hasLabel", vf.createIRI(SKOS.PREF_LABEL));
+        query.setBinding("inVocabulary", vf.createIRI(TERM_IN_VOCABULARY));
+        query.setBinding("related", vf.createIRI(SKOS.RELATED));
+        query.setBinding("relatedMatch", vf.createIRI(SKOS.RELATED_MATCH));
+        query.setBinding("exactMatch", vf.createIRI(SKOS.EXACT_MATCH));
+        return query;
+    }
+
+    private static TermInfo toTermInfo(BindingSet bs, Map<URI, TermInfo> infos) {
+        final URI uri = URI.create(bs.getValue("ref").stringValue());
+        final TermInfo ti = infos.computeIfAbsent(uri, k -> {
+            final TermInfo info = new TermInfo(k);
+            info.setLabel(new MultilingualString());
+            return info;
+        });
+        final Literal label = (Literal) bs.getValue("label");
+        ti.getLabel().set(label.getLanguage().orElse(null), label.stringValue());
+        if (bs.hasBinding("vocabulary")) {
+            ti.setVocabulary(URI.create(bs.getValue("vocabulary").stringValue()));
+        }
+        return ti;
+    }
+
+    private static void mapStatement(Term term, Statement s, Map<URI, TermInfo> referenced) {
+        final String property = s.getPredicate().stringValue();
+        final Value value = s.getObject();
+        switch (property) {
+            case RDF.TYPE:
+                if (!SKOS.CONCEPT.equals(value.stringValue())) {
+                    addValue(term::getTypes, term::setTypes, value.stringValue());
+                }
+                break;
+            case SKOS.PREF_LABEL:
+                term.setLabel(addTranslation(term.getLabel(), value));
+                break;
+            case SKOS.DEFINITION:
+                term.setDefinition(addTranslation(term.getDefinition(), value));
+                break;
+            case SKOS.SCOPE_NOTE:
+                term.setDescription(addTranslation(term.getDescription(), value));
+                break;
+            case SKOS.ALT_LABEL:
+                term.setAltLabels(addTranslation(term.getAltLabels(), value));
+                break;
+            case SKOS.HIDDEN_LABEL:
+                term.setHiddenLabels(addTranslation(term.getHiddenLabels(), value));
+                break;
+            case SKOS.EXAMPLE:
+                term.setExamples(addTranslation(term.getExamples(), value));
+                break;
+            case SKOS.NOTATION:
+                addValue(term::getNotations, term::setNotations, value.stringValue());
+                break;
+            case DC.Terms.SOURCE:
+                addValue(term::getSources, term::setSources, value.stringValue());
+                break;
+            case SKOS.IN_SCHEME:
+                term.setGlossary(URI.create(value.stringValue()));
+                break;
+            case Vocabulary.s_p_je_draft:
+                term.setDraft(((Literal) value).booleanValue());
+                break;
+            case Vocabulary.s_p_ma_klic_razeni:
+                term.setSortKey(addTranslation(term.getSortKey(), value));
+                break;
+            case SKOS.BROADER:
+                addReference(term::getParentTerms, term::setParentTerms, value, referenced, TermBulkLoader::toTerm);
+                break;
+            case SKOS.BROAD_MATCH:
+                addReference(term::getExternalParentTerms, term::setExternalParentTerms, value, referenced,
+                             TermBulkLoader::toTerm);
+                break;
+            case SKOS.RELATED:
+                addReference(term::getRelated, term::setRelated, value, referenced, Function.identity());
+                break;
+            case SKOS.RELATED_MATCH:
+                addReference(term::getRelatedMatch, term::setRelatedMatch, value, referenced, Function.identity());
+                break;
+            case SKOS.EXACT_MATCH:
+                addReference(term::getExactMatchTerms, term::setExactMatchTerms, value, referenced,
+                             Function.identity());
+                break;
+            default:
+                if (!MAPPED_PROPERTIES.contains(property)) {
+                    if (term.getProperties() == null) {
+                        term.setProperties(new HashMap<>());
+                    }
+                    term.getProperties().computeIfAbsent(property, k -> new HashSet<>()).add(value.stringValue());
+                }
+                break;
+        }
+    }
+
+    private static MultilingualString addTranslation(MultilingualString target, Value value) {
+        if (!(value instanceof Literal)) {
+            return target;
+        }
+        final MultilingualString result = target != null ? target : new MultilingualString();
+        result.set(((Literal) value).getLanguage().orElse(null), value.stringValue());
+        return result;
+    }
+
+    /**
+     * Adds the specified translation to the first multilingual string in the specified set which does not contain the
+     * translation's language yet, creating a new one if necessary. This corresponds to how plural multilingual
+     * attributes are loaded by JOPA.
+     */
+    private static Set<MultilingualString> addTranslation(Set<MultilingualString> target, Value value) {
+        if (!(value instanceof Literal)) {
+            return target;
+        }
+        final Set<MultilingualString> result = target != null ? target : new HashSet<>();
+        final String language = ((Literal) value).getLanguage().orElse(null);
+        final Optional<MultilingualString> existing = result.stream().filter(ms -> !ms.contains(language))
+                                                            .findFirst();
+        if (existing.isPresent()) {
+            // Remove and re-add, the hash code changes
+            result.remove(existing.get());
+            existing.get().set(language, value.stringValue());
+            result.add(existing.get());
+        } else {
+            result.add(MultilingualString.create(value.stringValue(), language));
+        }
+        return result;
+    }
+
+    private static <T> void addValue(Supplier<Set<T>> getter, Consumer<Set<T>> setter, T value) {
+        if (getter.get() == null) {
+            setter.accept(new HashSet<>());
+        }
+        getter.get().add(value);
+    }
+
+    private static <T> void addReference(Supplier<Set<T>> getter, Consumer<Set<T>> setter, Value value,
+                                         Map<URI, TermInfo> referenced, Function<TermInfo, T> mapper) {
+        if (!(value instanceof IRI)) {
+            return;
+        }
+        final TermInfo ti = referenced.get(URI.create(value.stringValue()));
+        if (ti != null) {
+            addValue(getter, setter, mapper.apply(ti));
+        }
+    }
+
+    private static Term toTerm(TermInfo ti) {
+        final Term t = new Term(ti.getUri());
+        t.setLabel(ti.getLabel());
+        t.setVocabulary(ti.getVocabulary());
+        return t;
+    }
+
+    private void loadInverseTerms(RepositoryConnection conn, IRI context, String values, Map<URI, Term> terms) {
+        final TupleQuery query = prepareQuery(conn, String.format(INVERSE_TERMS_QUERY, values), context);
+        final Map<URI, Map<String, Map<URI, TermInfo>>> inverse = new HashMap<>();
+        try (final TupleQueryResult qr = query.evaluate()) {
+            while (qr.hasNext()) {
+                final BindingSet bs = qr.next();
+                final URI term = URI.create(bs.getValue("term").stringValue());
+                if (!terms.containsKey(term)) {
+                    continue;
+                }
+                toTermInfo(bs, inverse.computeIfAbsent(term, k -> new HashMap<>())
+                                      .computeIfAbsent(bs.getValue("property").stringValue(),
+                                                       k -> new HashMap<>()));
+            }
+        }
+        terms.values().forEach(t -> {
+            final Map<String, Map<URI, TermInfo>> termInverse = inverse.getOrDefault(t.getUri(),
+                                                                                     Collections.emptyMap());
+            t.setInverseRelated(inverseTermInfo(termInverse.get(SKOS.RELATED), t.getRelated(), t.getRelatedMatch()));
+            t.setInverseRelatedMatch(inverseTermInfo(termInverse.get(SKOS.RELATED_MATCH), t.getRelatedMatch()));
+            t.setInverseExactMatchTerms(inverseTermInfo(termInverse.get(SKOS.EXACT_MATCH), t.getExactMatchTerms()));
+        });
+    }
+
+    private void loadDefinitionSources(RepositoryConnection conn, IRI context, String values, Map<URI, Term> terms) {
+        final ValueFactory vf = conn.getValueFactory();
+        final TupleQuery query = prepareQuery(conn, String.format(DEFINITION_SOURCES_QUERY, values), context);
+        query.setBinding("definitionSource", vf.createIRI(Vocabulary.s_c_zdroj_definice_termu));
+        query.setBinding("isAssignmentOf", vf.createIRI(Vocabulary.s_p_je_prirazenim_termu));
+        try (final TupleQueryResult qr = query.evaluate()) {
+            while (qr.hasNext()) {
+                final BindingSet bs = qr.next();
+                final Term term = terms.get(URI.create(bs.getValue("term").stringValue()));
+                if (term == null) {
+                    continue;
+                }
+                final TermDefinitionSource source = new TermDefinitionSource();
+                source.setUri(URI.create(bs.getValue("source").stringValue()));
+                source.setTerm(term.getUri());
+                term.setDefinitionSource(source);
+            }
+        }
+    }
+
+    @SafeVarargs
+    private Set<TermInfo> inverseTermInfo(Map<URI, TermInfo> inverse, Set<TermInfo>... exclude) {
+        if (inverse == null) {
+            return new LinkedHashSet<>();
+        }
+        final List<TermInfo> result = new ArrayList<>(inverse.values());
+        for (Set<TermInfo> ex : exclude) {
+            if (ex != null) {
+                result.removeAll(ex);
+            }
+        }
+        result.sort(termInfoComparator);
+        return new LinkedHashSet<>(result);
+    }
+}
@@ -0,0 +1,69 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-memory index of term hierarchies of vocabularies.
+ * <p>
+ * Allows to resolve term hierarchy queries without accessing the repository. All the query methods return an empty
+ * {@link Optional} if the index is not able to answer the query, in which case the caller should resolve it using the
+ * repository.
+ * <p>
+ * The index has to be notified of changes of the term hierarchy. Changes notified within a transaction take effect
+ * only once the transaction commits.
+ */
+public interface TermHierarchyIndex {
+
+    /**
+     * Finds sub-terms (terms which have the specified term as their {@code skos:broader}) of the specified term.
+     *
+     * @param vocabulary Identifier of the vocabulary containing the term
+     * @param term       Term identifier
+     * @return List of sub-terms, in no particular order
+     */
+    Optional<List<TermInfo>> findSubTerms(URI vocabulary, URI term);
+
+    /**
+     * Finds identifiers of all ancestors of the specified term within its vocabulary.
+     * <p>
+     * Parents from other vocabularies are included, but their ancestors are not.
+     *
+     * @param vocabulary Identifier of the vocabulary containing the term
+     * @param term       Term identifier
+     * @return Set of ancestor identifiers
+     */
+    Optional<Set<URI>> findAncestors(URI vocabulary, URI term);
+
+    /**
+     * Notifies the index that the specified term has been added into the specified vocabulary.
+     *
+     * @param term       Added term
+     * @param vocabulary Identifier of the vocabulary into which the term has been added
+     * @param parents    Parents of the added term
+     */
+    void onTermAdded(AbstractTerm term, URI vocabulary, Set<? extends HasIdentifier> parents);
+
+    /**
+     * Notifies the index that the specified term has been updated.
+     *
+     * @param term            Updated term
+     * @param originalParents Parents of the term before the update
+     * @param newParents      Parents of the term after the update
+     */
+    void onTermUpdated(AbstractTerm term, Set<? extends HasIdentifier> originalParents,
+                       Set<? extends HasIdentifier> newParents);
+
+    /**
+     * Notifies the index that the specified term has been removed.
+     *
+     * @param term Removed term
+     */
+    void onTermRemoved(HasIdentifier term);
+}
@@ -0,0 +1,59 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-memory index of labels of terms in vocabularies, used to find terms by label prefix (autocomplete).
+ * <p>
+ * Labels are matched ignoring case and diacritics. The search method returns an empty {@link Optional} if the index is
+ * not able to answer the query, in which case the caller should resolve it using the repository.
+ * <p>
+ * The index has to be notified of changes of terms. Changes notified within a transaction take effect only once the
+ * transaction commits.
+ */
+public interface TermLabelIndex {
+
+    /**
+     * Finds terms whose label or alternative label in the specified language starts with the specified prefix.
+     * <p>
+     * Terms with a label starting with the prefix rank before terms in whose label the prefix starts a later word.
+     *
+     * @param prefix       Label prefix to search by
+     * @param language     Language of the labels to search
+     * @param vocabularies Identifiers of vocabularies whose terms to search
+     * @param limit        Maximum number of results
+     * @return List of matching terms, ordered by descending score
+     */
+    Optional<List<FullTextSearchResult>> findByLabelPrefix(String prefix, String language, Set<URI> vocabularies,
+                                                           int limit);
+
+    /**
+     * Notifies the index that the specified term has been added or updated.
+     *
+     * @param term       The added/updated term
+     * @param vocabulary Identifier of the vocabulary containing the term
+     */
+    void onTermChanged(AbstractTerm term, URI vocabulary);
+
+    /**
+     * Notifies the index that draft status of the specified term has changed.
+     *
+     * @param term  Term identifier
+     * @param draft The new draft status
+     */
+    void onTermDraftStatusChanged(URI term, boolean draft);
+
+    /**
+     * Notifies the index that the specified term has been removed.
+     *
+     * @param term The removed term
+     */
+    void onTermRemoved(HasIdentifier term);
+}
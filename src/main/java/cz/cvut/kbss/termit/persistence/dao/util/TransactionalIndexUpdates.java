@@ -0,0 +1,151 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps an in-memory index consistent with committed repository data.
+ * <p>
+ * Updates of the index are applied only after the transaction in which the corresponding repository changes were made
+ * commits, so that other threads never see uncommitted data and nothing has to be undone on rollback. Outside of a
+ * transaction, updates are applied immediately.
+ * <p>
+ * The index may consist of parts loaded independently (e.g., labels of individual vocabularies). Updates committed
+ * while a part is being loaded are applied to the loaded part as well before it is made available, because the load
+ * might have missed them. Applying an update the load has already seen is harmless, as updates set the new state of an
+ * entry instead of modifying it.
+ * <p>
+ * Parts loaded within a read-write transaction are not made available to others, as they may contain changes of the
+ * transaction, which would then remain in the index if the transaction rolled back.
+ *
+ * @param <T> Type of the independently loaded parts of the index
+ */
+class TransactionalIndexUpdates<T> {
+
+    private final Consumer<Consumer<T>> loadedParts;
+
+    /**
+     * Logs of updates committed during loads in progress. Guarded by this.
+     */
+    private final Set<List<Consumer<T>>> loading = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Guarded by this.
+     */
+    private long evictionCount;
+
+    /**
+     * @param loadedParts Applies the specified update to all the currently loaded parts of the index
+     */
+    TransactionalIndexUpdates(Consumer<Consumer<T>> loadedParts) {
+        this.loadedParts = loadedParts;
+    }
+
+    /**
+     * Applies the specified update to the index once the current transaction commits.
+     *
+     * @param update Update to apply to every loaded part of the index
+     */
+    @SuppressWarnings("unchecked")
+    void apply(Consumer<T> update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyCommitted(Collections.singletonList(update));
+            return;
+        }
+        List<Consumer<T>> pending = (List<Consumer<T>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            final List<Consumer<T>> updates = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, updates);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyCommitted(updates);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalIndexUpdates.this);
+                }
+            });
+            pending = updates;
+        }
+        pending.add(update);
+    }
+
+    private synchronized void applyCommitted(List<Consumer<T>> updates) {
+        updates.forEach(loadedParts);
+        loading.forEach(log -> log.addAll(updates));
+    }
+
+    /**
+     * Loads a part of the index using the specified loader.
+     * <p>
+     * Updates committed during the load are applied to the loaded part, which is then passed to the specified publisher
+     * to make it available, unless the index has been evicted in the meantime or the part has been loaded within a
+     * read-write transaction.
+     *
+     * @param loader    Loads the part of the index from the repository
+     * @param publisher Makes the loaded part of the index available, returns the part to use (which may be a part
+     *                  published by a concurrent load)
+     * @return The loaded part of the index
+     */
+    T load(Supplier<T> loader, UnaryOperator<T> publisher) {
+        final List<Consumer<T>> log = new ArrayList<>();
+        final long evictionsAtStart;
+        synchronized (this) {
+            loading.add(log);
+            evictionsAtStart = evictionCount;
+        }
+        final T loaded;
+        try {
+            loaded = loader.get();
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                loading.remove(log);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            loading.remove(log);
+            // The loader might have missed updates committed in the meantime
+            log.forEach(update -> update.accept(loaded));
+            return evictionCount == evictionsAtStart && !isReadWriteTransactionActive() ? publisher.apply(loaded) :
+                   loaded;
+        }
+    }
+
+    private static boolean isReadWriteTransactionActive() {
+        return TransactionSynchronizationManager.isActualTransactionActive() &&
+                !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Evicts the index using the specified eviction once the current transaction commits.
+     * <p>
+     * Loads in progress when the index is evicted are not published.
+     *
+     * @param eviction Evicts the index
+     */
+    void evict(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictNow(eviction);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictNow(eviction);
+            }
+        });
+    }
+
+    private synchronized void evictNow(Runnable eviction) {
+        evictionCount++;
+        eviction.run();
+    }
+}
@@ -0,0 +1,243 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.termit.dto.TermInfo;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Term hierarchy ({@code skos:broader}/{@code skos:narrower}) of a single vocabulary.
+ * <p>
+ * Term identifiers are interned to ints and the adjacency lists are stored in primitive int arrays indexed by these
+ * ints. Besides terms of the vocabulary (members), the hierarchy contains also terms from other vocabularies which
+ * have a member as their parent.
+ * <p>
+ * Instances are thread-safe.
+ */
+class VocabularyHierarchy {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final URI vocabulary;
+
+    private final Map<URI, Integer> ids = new HashMap<>();
+
+    private URI[] iris = new URI[16];
+    private TermInfo[] infos = new TermInfo[16];
+    private boolean[] members = new boolean[16];
+
+    private int[][] children = new int[16][];
+    private int[] childCount = new int[16];
+    private int[][] parents = new int[16][];
+    private int[] parentCount = new int[16];
+
+    private int size;
+
+    VocabularyHierarchy(URI vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    /**
+     * Gets identifier of the vocabulary whose hierarchy this is.
+     */
+    URI getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Adds the specified term as a member of this vocabulary.
+     *
+     * @param term Term identifier
+     */
+    synchronized void addMember(URI term) {
+        final int id = intern(term);
+        members[id] = true;
+    }
+
+    /**
+     * Adds a parent-child relationship between the specified terms.
+     * <p>
+     * Information about the child is updated.
+     *
+     * @param child  Child term
+     * @param parent Identifier of the parent term
+     */
+    synchronized void addEdge(TermInfo child, URI parent) {
+        final int c = intern(child.getUri());
+        final int p = intern(parent);
+        infos[c] = child;
+        if (!contains(children[p], childCount[p], c)) {
+            children[p] = add(children[p], childCount[p]++, c);
+            parents[c] = add(parents[c], parentCount[c]++, p);
+        }
+    }
+
+    /**
+     * Removes parent-child relationship between the specified terms (if it exists).
+     *
+     * @param child  Identifier of the child term
+     * @param parent Identifier of the parent term
+     */
+    synchronized void removeEdge(URI child, URI parent) {
+        final Integer c = ids.get(child);
+        final Integer p = ids.get(parent);
+        if (c == null || p == null) {
+            return;
+        }
+        childCount[p] = remove(children[p], childCount[p], c);
+        parentCount[c] = remove(parents[c], parentCount[c], p);
+    }
+
+    /**
+     * Removes the specified term and all its relationships from this hierarchy.
+     *
+     * @param term Term identifier
+     */
+    synchronized void removeTerm(URI term) {
+        final Integer id = ids.get(term);
+        if (id == null) {
+            return;
+        }
+        for (int i = 0; i < childCount[id]; i++) {
+            final int c = children[id][i];
+            parentCount[c] = remove(parents[c], parentCount[c], id);
+        }
+        for (int i = 0; i < parentCount[id]; i++) {
+            final int p = parents[id][i];
+            childCount[p] = remove(children[p], childCount[p], id);
+        }
+        childCount[id] = 0;
+        parentCount[id] = 0;
+        members[id] = false;
+        infos[id] = null;
+    }
+
+    /**
+     * Updates information about the specified term if it is present in this hierarchy as a child of some member.
+     *
+     * @param term Up-to-date term information
+     */
+    synchronized void updateInfo(TermInfo term) {
+        final Integer id = ids.get(term.getUri());
+        if (id != null && infos[id] != null) {
+            infos[id] = term;
+        }
+    }
+
+    /**
+     * Checks whether the specified term is a member of this vocabulary.
+     *
+     * @param term Term identifier
+     * @return {@code true} if the term is a member of this vocabulary, {@code false} otherwise
+     */
+    synchronized boolean isMember(URI term) {
+        final Integer id = ids.get(term);
+        return id != null && members[id];
+    }
+
+    /**
+     * Gets direct children of the specified member term.
+     *
+     * @param term Term identifier
+     * @return List of child term info, {@code null} if the term is not a member of this vocabulary
+     */
+    synchronized List<TermInfo> getChildren(URI term) {
+        final Integer id = ids.get(term);
+        if (id == null || !members[id]) {
+            return null;
+        }
+        final List<TermInfo> result = new ArrayList<>(childCount[id]);
+        for (int i = 0; i < childCount[id]; i++) {
+            result.add(new TermInfo(infos[children[id][i]]));
+        }
+        return result;
+    }
+
+    /**
+     * Gets all ancestors of the specified term within this hierarchy.
+     * <p>
+     * Parents from other vocabularies are included, but their ancestors are not, as they are not known to this
+     * hierarchy.
+     *
+     * @param term Term identifier
+     * @return Set of ancestor identifiers, empty if the term is not known
+     */
+    synchronized Set<URI> getAncestors(URI term) {
+        final Integer id = ids.get(term);
+        if (id == null) {
+            return Collections.emptySet();
+        }
+        final Set<URI> result = new HashSet<>();
+        final boolean[] visited = new boolean[size];
+        final Deque<Integer> toVisit = new ArrayDeque<>();
+        visited[id] = true;
+        toVisit.push(id);
+        while (!toVisit.isEmpty()) {
+            final int current = toVisit.pop();
+            for (int i = 0; i < parentCount[current]; i++) {
+                final int next = parents[current][i];
+                if (!visited[next]) {
+                    visited[next] = true;
+                    result.add(iris[next]);
+                    toVisit.push(next);
+                }
+            }
+        }
+        return result;
+    }
+
+    private int intern(URI term) {
+        final Integer existing = ids.get(term);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == iris.length) {
+            grow();
+        }
+        final int id = size++;
+        ids.put(term, id);
+        iris[id] = term;
+        children[id] = EMPTY;
+        parents[id] = EMPTY;
+        return id;
+    }
+
+    private void grow() {
+        final int capacity = iris.length * 2;
+        iris = Arrays.copyOf(iris, capacity);
+        infos = Arrays.copyOf(infos, capacity);
+        members = Arrays.copyOf(members, capacity);
+        children = Arrays.copyOf(children, capacity);
+        childCount = Arrays.copyOf(childCount, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        parentCount = Arrays.copyOf(parentCount, capacity);
+    }
+
+    private static boolean contains(int[] array, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] add(int[] array, int count, int value) {
+        final int[] result = count == array.length ? Arrays.copyOf(array, Math.max(4, count * 2)) : array;
+        result[count] = value;
+        return result;
+    }
+
+    /**
+     * Removes the specified value from the array, returning the new element count.
+     */
+    private static int remove(int[] array, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (array[i] == value) {
+                array[i] = array[count - 1];
+                return count - 1;
+            }
+        }
+        return count;
+    }
+}
@@ -18,11 +18,13 @@
 package cz.cvut.kbss.termit.rest;
 
 import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
 import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.model.TextAnalysisRecord;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.rest.util.RestUtils;
 import cz.cvut.kbss.termit.security.SecurityConstants;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.ResourceService;
@@ -177,23 +179,50 @@ public class ResourceController extends BaseController {
 
     /**
      * Runs text analysis on the specified resource.
+     * <p>
+     * The analysis is executed asynchronously, so this method returns immediately with status {@link
+     * HttpStatus#ACCEPTED}. The response contains the submitted text analysis job and its location, which can be used to
+     * track the analysis progress.
      *
      * @param normalizedName Normalized name used to identify the resource
      * @param namespace      Namespace used for resource identifier resolution. Optional, if not specified, the
      *                       configured namespace is used
      * @param vocabularies   Identifiers of vocabularies to be used as sources of Terms for the text analysis
+     * @return The submitted text analysis job
      */
-    @PutMapping(value = "/{normalizedName}/text-analysis")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PutMapping(value = "/{normalizedName}/text-analysis", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasRole('" + SecurityConstants.ROLE_FULL_USER + "')")
-    public void runTextAnalysis(@PathVariable String normalizedName,
-                                @RequestParam(name = QueryParams.NAMESPACE,
-                                              required = false) Optional<String> namespace,
-                                @RequestParam(name = "vocabulary", required = false,
-                                              defaultValue = "") Set<URI> vocabularies) {
+    public ResponseEntity<TextAnalysisJob> runTextAnalysis(@PathVariable String normalizedName,
+                                                           @RequestParam(name = QueryParams.NAMESPACE,
+                                                                         required = false) Optional<String> namespace,
+                                                           @RequestParam(name = "vocabulary", required = false,
+                                                                         defaultValue = "") Set<URI> vocabularies) {
+        final Resource resource = getResource(normalizedName, namespace);
+        final TextAnalysisJob job = resourceService.runTextAnalysis(resource, vocabularies);
+        LOG.debug("Text analysis of resource {} submitted as job {}.", resource, job.getId());
+        final URI location = namespace.map(ns -> RestUtils.createLocationFromCurrentUriWithPathAndQuery(
+                                              "/jobs/{id}", QueryParams.NAMESPACE, ns, job.getId()))
+                                      .orElseGet(() -> RestUtils.createLocationFromCurrentUriWithPath("/jobs/{id}",
+                                                                                                      job.getId()));
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    /**
+     * Gets the text analysis job with the specified identifier.
+     *
+     * @param normalizedName Normalized name used to identify the resource
+     * @param namespace      Namespace used for resource identifier resolution. Optional, if not specified, the
+     *                       configured namespace is used
+     * @param jobId          Identifier of the job, returned when the analysis was submitted
+     * @return Text analysis job, including its status
+     */
+    @GetMapping(value = "/{normalizedName}/text-analysis/jobs/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public TextAnalysisJob getTextAnalysisJob(@PathVariable String normalizedName,
+                                              @RequestParam(name = QueryParams.NAMESPACE,
+                                                            required = false) Optional<String> namespace,
+                                              @PathVariable String jobId) {
         final Resource resource = getResource(normalizedName, namespace);
-        resourceService.runTextAnalysis(resource, vocabularies);
-        LOG.debug("Text analysis finished for resource {}.", resource);
+        return resourceService.findTextAnalysisJob(resource, jobId);
     }
 
     /**
@@ -19,9 +19,12 @@ import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.SearchService;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -30,12 +33,23 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
+import static cz.cvut.kbss.termit.rest.util.RestUtils.createPageRequest;
+
 @RestController
 @RequestMapping("/search")
 public class SearchController extends BaseController {
 
+    static final String DEFAULT_AUTOCOMPLETE_SIZE = "10";
+
+    /**
+     * Maximum number of autocomplete results, larger sizes requested by clients are reduced to it. Sizes smaller than
+     * one are raised to one.
+     */
+    static final int MAX_AUTOCOMPLETE_SIZE = 100;
+
     private final SearchService searchService;
 
     @Autowired
@@ -44,10 +58,27 @@ public class SearchController extends BaseController {
         this.searchService = searchService;
     }
 
+    /**
+     * Executes full text search in assets.
+     * <p>
+     * Returns the specified page of results, ordered by descending relevance score. The (possibly estimated) total
+     * number of results is returned in the {@link Constants#X_TOTAL_COUNT_HEADER} header.
+     *
+     * @param searchString String to search by
+     * @param pageSize     Number of results to return, optional
+     * @param pageNo       Number of the page of results to return, optional
+     * @return Page of matching assets
+     */
     @PreAuthorize("permitAll()")
     @GetMapping(value = "/fts", produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<FullTextSearchResult> fullTextSearch(@RequestParam(name = "searchString") String searchString) {
-        return searchService.fullTextSearch(searchString);
+    public ResponseEntity<List<FullTextSearchResult>> fullTextSearch(
+            @RequestParam(name = "searchString") String searchString,
+            @RequestParam(name = Constants.QueryParams.PAGE_SIZE, required = false) Integer pageSize,
+            @RequestParam(name = Constants.QueryParams.PAGE, required = false) Integer pageNo) {
+        final Page<FullTextSearchResult> page = searchService.fullTextSearch(searchString,
+                                                                            createPageRequest(pageSize, pageNo));
+        return ResponseEntity.ok().header(Constants.X_TOTAL_COUNT_HEADER, Long.toString(page.getTotalElements()))
+                             .body(page.getContent());
     }
 
     @PreAuthorize("permitAll()")
@@ -57,4 +88,28 @@ public class SearchController extends BaseController {
             @RequestParam(name = "vocabulary", required = false) Set<URI> vocabularies) {
         return searchService.fullTextSearchOfTerms(searchString, Utils.emptyIfNull(vocabularies));
     }
+
+    /**
+     * Finds terms whose label or alternative label starts with the specified prefix (autocomplete).
+     * <p>
+     * Labels are matched ignoring case and diacritics, also at the start of words inside the labels.
+     *
+     * @param searchString Label prefix to search by
+     * @param vocabularies Identifiers of vocabularies to search in
+     * @param language     Language of the labels to search, optional. Defaults to the persistence language
+     * @param size         Maximum number of results, optional. At most {@link #MAX_AUTOCOMPLETE_SIZE}
+     * @return Matching terms, best matches first
+     */
+    @PreAuthorize("permitAll()")
+    @GetMapping(value = "/autocomplete/terms", produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
+    public List<FullTextSearchResult> autocompleteTerms(
+            @RequestParam(name = "searchString") String searchString,
+            @RequestParam(name = "vocabulary") Set<URI> vocabularies,
+            @RequestParam(name = "language", required = false) Optional<String> language,
+            @RequestParam(name = Constants.QueryParams.PAGE_SIZE, required = false,
+                          defaultValue = DEFAULT_AUTOCOMPLETE_SIZE) Integer size) {
+        return searchService.findTermsByLabelPrefix(searchString,
+                                                    language.orElse(config.getPersistence().getLanguage()),
+                                                    vocabularies, Math.max(1, Math.min(size, MAX_AUTOCOMPLETE_SIZE)));
+    }
 }
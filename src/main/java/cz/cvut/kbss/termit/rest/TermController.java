@@ -2,6 +2,8 @@ package cz.cvut.kbss.termit.rest;
 
 import cz.cvut.kbss.jsonld.JsonLd;
 import cz.cvut.kbss.termit.dto.TermStatus;
+import cz.cvut.kbss.termit.dto.listing.CursorPage;
+import cz.cvut.kbss.termit.dto.listing.PageCursor;
 import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.TermItException;
@@ -11,10 +13,12 @@ import cz.cvut.kbss.termit.model.assignment.TermDefinitionSource;
 import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.comment.Comment;
+import cz.cvut.kbss.termit.rest.util.AsyncTimeoutInterceptor;
 import cz.cvut.kbss.termit.rest.util.RestUtils;
 import cz.cvut.kbss.termit.security.SecurityConstants;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.TermService;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Constants.QueryParams;
@@ -29,6 +33,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.net.URI;
@@ -75,6 +81,7 @@ public class TermController extends BaseController {
      * @param properties           A set of properties representing references to terms from other vocabularies to take
      *                             into account in export. Relevant only for term export. Optional
      * @param acceptType           MIME type accepted by the client, relevant only for term export
+     * @param webRequest           Current request
      * @return List of terms of the specific vocabulary
      */
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms",
@@ -93,7 +100,8 @@ public class TermController extends BaseController {
                                     @RequestParam(name = "property", required = false,
                                                   defaultValue = "[]") Set<String> properties,
                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false,
-                                                   defaultValue = MediaType.ALL_VALUE) String acceptType) {
+                                                   defaultValue = MediaType.ALL_VALUE) String acceptType,
+                                    ServletWebRequest webRequest) {
         final URI vocabularyUri = getVocabularyUri(namespace, vocabularyIdFragment);
         final Vocabulary vocabulary = getVocabulary(vocabularyUri);
         if (searchString != null) {
@@ -101,27 +109,37 @@ public class TermController extends BaseController {
                                      termService.findAllIncludingImported(searchString, vocabulary) :
                                      termService.findAll(searchString, vocabulary));
         }
-        final Optional<ResponseEntity<?>> export = exportTerms(vocabulary, withReferences, properties, acceptType);
+        final Optional<ResponseEntity<?>> export = exportTerms(vocabulary, withReferences, properties, acceptType,
+                                                               webRequest);
         return export.orElse(ResponseEntity
                                      .ok(includeImported ? termService.findAllIncludingImported(vocabulary) :
                                          termService.findAll(vocabulary)));
     }
 
     private Optional<ResponseEntity<?>> exportTerms(Vocabulary vocabulary, boolean withReferences,
-                                                    Collection<String> properties, String mediaType) {
+                                                    Collection<String> properties, String mediaType,
+                                                    ServletWebRequest webRequest) {
         final Optional<TypeAwareResource> content = withReferences ?
                                                     termService.exportGlossaryWithReferences(vocabulary, properties,
                                                                                              mediaType) :
                                                     termService.exportGlossary(vocabulary, mediaType);
         return content.map(r -> {
+            final String disposition = "attachment; filename=\"" + IdentifierResolver.extractIdentifierFragment(
+                    vocabulary.getUri()) + r.getFileExtension().orElse("") + "\"";
+            if (r instanceof TypeAwareStreamingResource) {
+                // Content length is not known in advance, the export is written directly into the response
+                final StreamingResponseBody body = ((TypeAwareStreamingResource) r)::writeTo;
+                AsyncTimeoutInterceptor.setTimeout(webRequest, config.getExport().getStreamingTimeout());
+                return ResponseEntity.ok()
+                                     .contentType(MediaType.parseMediaType(mediaType))
+                                     .header(HttpHeaders.CONTENT_DISPOSITION, disposition)
+                                     .body(body);
+            }
             try {
                 return ResponseEntity.ok()
                                      .contentLength(r.contentLength())
                                      .contentType(MediaType.parseMediaType(mediaType))
-                                     .header(HttpHeaders.CONTENT_DISPOSITION,
-                                             "attachment; filename=\"" + IdentifierResolver.extractIdentifierFragment(
-                                                     vocabulary.getUri()) +
-                                                     r.getFileExtension().orElse("") + "\"")
+                                     .header(HttpHeaders.CONTENT_DISPOSITION, disposition)
                                      .body(r);
             } catch (IOException e) {
                 throw new TermItException("Unable to export terms.", e);
@@ -175,23 +193,51 @@ public class TermController extends BaseController {
      * @param pageNo               Number of the page to return. Optional
      * @param includeImported      Whether a transitive closure of vocabulary imports should be used when getting the
      *                             root terms. Optional, defaults to {@code false}
+     * @param cursor               Page cursor token. If specified, keyset paging is used instead of page number and
+     *                             the cursor of the next page is returned in the {@link Constants#X_NEXT_CURSOR_HEADER}
+     *                             header. Empty value denotes the first page. Optional
      * @return List of root terms of the specific vocabulary
      */
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/roots",
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<TermDto> getAllRoots(@PathVariable String vocabularyIdFragment,
-                                     @RequestParam(name = QueryParams.NAMESPACE,
-                                                   required = false) Optional<String> namespace,
-                                     @RequestParam(name = QueryParams.PAGE_SIZE, required = false) Integer pageSize,
-                                     @RequestParam(name = QueryParams.PAGE, required = false) Integer pageNo,
-                                     @RequestParam(name = "includeImported", required = false) boolean includeImported,
-                                     @RequestParam(name = "includeTerms", required = false,
-                                                   defaultValue = "") List<URI> includeTerms) {
+    public ResponseEntity<List<TermDto>> getAllRoots(@PathVariable String vocabularyIdFragment,
+                                                     @RequestParam(name = QueryParams.NAMESPACE,
+                                                                   required = false) Optional<String> namespace,
+                                                     @RequestParam(name = QueryParams.PAGE_SIZE,
+                                                                   required = false) Integer pageSize,
+                                                     @RequestParam(name = QueryParams.PAGE,
+                                                                   required = false) Integer pageNo,
+                                                     @RequestParam(name = "includeImported",
+                                                                   required = false) boolean includeImported,
+                                                     @RequestParam(name = "includeTerms", required = false,
+                                                                   defaultValue = "") List<URI> includeTerms,
+                                                     @RequestParam(name = QueryParams.CURSOR,
+                                                                   required = false) String cursor) {
         final Vocabulary vocabulary = getVocabulary(getVocabularyUri(namespace, vocabularyIdFragment));
-        return includeImported ?
-               termService
-                       .findAllRootsIncludingImported(vocabulary, createPageRequest(pageSize, pageNo), includeTerms) :
-               termService.findAllRoots(vocabulary, createPageRequest(pageSize, pageNo), includeTerms);
+        if (cursor != null) {
+            final PageCursor after = parseCursor(cursor);
+            final int size = pageSize != null ? pageSize : Constants.DEFAULT_PAGE_SIZE;
+            return cursorPageResponse(includeImported ?
+                                      termService.findAllRootsIncludingImported(vocabulary, after, size,
+                                                                                includeTerms) :
+                                      termService.findAllRoots(vocabulary, after, size, includeTerms));
+        }
+        return ResponseEntity.ok(includeImported ?
+                                 termService.findAllRootsIncludingImported(vocabulary,
+                                                                           createPageRequest(pageSize, pageNo),
+                                                                           includeTerms) :
+                                 termService.findAllRoots(vocabulary, createPageRequest(pageSize, pageNo),
+                                                          includeTerms));
+    }
+
+    private static PageCursor parseCursor(String cursor) {
+        return cursor.isEmpty() ? null : PageCursor.decode(cursor);
+    }
+
+    private static ResponseEntity<List<TermDto>> cursorPageResponse(CursorPage<TermDto> page) {
+        final ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        page.getNextCursor().ifPresent(c -> builder.header(Constants.X_NEXT_CURSOR_HEADER, c.encode()));
+        return builder.body(page.getContent());
     }
 
     /**
@@ -645,15 +691,23 @@ public class TermController extends BaseController {
      * @param pageSize     Limit the number of elements in the returned page. Optional
      * @param pageNo       Number of the page to return. Optional
      * @param includeTerms List of terms to include in the results. Optional
+     * @param cursor       Page cursor token. If specified, keyset paging is used instead of page number and the cursor
+     *                     of the next page is returned in the {@link Constants#X_NEXT_CURSOR_HEADER} header. Empty
+     *                     value denotes the first page. Optional
      * @return List of root terms across all vocabularies
      */
     @GetMapping(value = "/terms/roots",
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<TermDto> getAllRoots(
+    public ResponseEntity<List<TermDto>> getAllRoots(
             @RequestParam(name = Constants.QueryParams.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(name = Constants.QueryParams.PAGE, required = false) Integer pageNo,
-            @RequestParam(name = "includeTerms", required = false, defaultValue = "") List<URI> includeTerms) {
-        return termService.findAllRoots(createPageRequest(pageSize, pageNo), includeTerms);
+            @RequestParam(name = "includeTerms", required = false, defaultValue = "") List<URI> includeTerms,
+            @RequestParam(name = QueryParams.CURSOR, required = false) String cursor) {
+        if (cursor != null) {
+            final int size = pageSize != null ? pageSize : Constants.DEFAULT_PAGE_SIZE;
+            return cursorPageResponse(termService.findAllRoots(parseCursor(cursor), size, includeTerms));
+        }
+        return ResponseEntity.ok(termService.findAllRoots(createPageRequest(pageSize, pageNo), includeTerms));
     }
 
     /**
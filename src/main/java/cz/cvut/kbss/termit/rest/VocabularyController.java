@@ -17,6 +17,8 @@ package cz.cvut.kbss.termit.rest;
 import cz.cvut.kbss.jsonld.JsonLd;
 import cz.cvut.kbss.termit.dto.AggregatedChangeInfo;
 import cz.cvut.kbss.termit.dto.Snapshot;
+import cz.cvut.kbss.termit.dto.TextAnalysisProgress;
+import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.validation.ValidationResult;
@@ -195,6 +197,18 @@ public class VocabularyController extends BaseController {
         vocabularyService.runTextAnalysisOnAllTerms(getById(vocabularyIdFragment, namespace));
     }
 
+    /**
+     * Gets progress of the latest text analysis of definitions of terms using the specified vocabulary.
+     */
+    @GetMapping(value = "/{vocabularyIdFragment}/terms/text-analysis", produces = MediaType.APPLICATION_JSON_VALUE)
+    public TextAnalysisProgress getTextAnalysisProgress(@PathVariable String vocabularyIdFragment,
+                                                        @RequestParam(name = QueryParams.NAMESPACE,
+                                                                      required = false) Optional<String> namespace) {
+        final Vocabulary vocabulary = getById(vocabularyIdFragment, namespace);
+        return vocabularyService.getTextAnalysisProgress(vocabulary).orElseThrow(
+                () -> new NotFoundException("No text analysis has been run for vocabulary " + vocabulary.getUri()));
+    }
+
     /**
      * Runs text analysis on definitions of all terms in all vocabularies.
      * <p>
@@ -14,15 +14,18 @@ import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Utils;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.net.URI;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static cz.cvut.kbss.termit.security.SecurityConstants.PUBLIC_API_PATH;
 
@@ -33,46 +36,73 @@ public class ReadOnlyTermController extends BaseController {
 
     private final ReadOnlyTermService termService;
 
+    private final TermListingCache listingCache;
+
     public ReadOnlyTermController(IdentifierResolver idResolver, Configuration config,
-                                  ReadOnlyTermService termService) {
+                                  ReadOnlyTermService termService, TermListingCache listingCache) {
         super(idResolver, config);
         this.termService = termService;
+        this.listingCache = listingCache;
     }
 
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms",
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<?> getTerms(@PathVariable String vocabularyIdFragment,
-                            @RequestParam(name = Constants.QueryParams.NAMESPACE,
-                                          required = false) Optional<String> namespace,
-                            @RequestParam(name = "searchString", required = false) String searchString,
-                            @RequestParam(name = "includeImported", required = false) boolean includeImported) {
-        final Vocabulary vocabulary = getVocabulary(vocabularyIdFragment, namespace);
-        if (searchString != null) {
-            return includeImported ? termService.findAllIncludingImported(searchString, vocabulary) :
-                   termService.findAll(searchString, vocabulary);
-        }
-        return termService.findAll(vocabulary);
+    public ResponseEntity<List<TermDto>> getTerms(@PathVariable String vocabularyIdFragment,
+                                                  @RequestParam(name = Constants.QueryParams.NAMESPACE,
+                                                                required = false) Optional<String> namespace,
+                                                  @RequestParam(name = "searchString",
+                                                                required = false) String searchString,
+                                                  @RequestParam(name = "includeImported",
+                                                                required = false) boolean includeImported,
+                                                  ServletWebRequest webRequest) {
+        final URI vocabularyUri = getVocabularyUri(vocabularyIdFragment, namespace);
+        final TermListingCache.Key key = TermListingCache.key(vocabularyUri, "terms", searchString, includeImported);
+        return cachedListing(key, webRequest, () -> {
+            final Vocabulary vocabulary = termService.findVocabularyRequired(vocabularyUri);
+            if (searchString != null) {
+                return includeImported ? termService.findAllIncludingImported(searchString, vocabulary) :
+                       termService.findAll(searchString, vocabulary);
+            }
+            return termService.findAll(vocabulary);
+        });
+    }
+
+    private URI getVocabularyUri(String fragment, Optional<String> namespace) {
+        return resolveIdentifier(namespace.orElse(config.getNamespace().getVocabulary()), fragment);
     }
 
-    private Vocabulary getVocabulary(String fragment, Optional<String> namespace) {
-        final URI uri = resolveIdentifier(namespace.orElse(config.getNamespace().getVocabulary()), fragment);
-        return termService.findVocabularyRequired(uri);
+    /**
+     * Serves the specified listing from the listing cache, or responds with 304 if the client's copy is up to date.
+     */
+    private ResponseEntity<List<TermDto>> cachedListing(TermListingCache.Key key, ServletWebRequest webRequest,
+                                                        Supplier<List<TermDto>> loader) {
+        final String eTag = listingCache.getETag(key, webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(listingCache.get(key, loader));
     }
 
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/roots",
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<TermDto> getAllRoots(@PathVariable String vocabularyIdFragment,
-                                     @RequestParam(name = Constants.QueryParams.NAMESPACE,
-                                                   required = false) Optional<String> namespace,
-                                     @RequestParam(name = Constants.QueryParams.PAGE_SIZE,
-                                                   required = false) Integer pageSize,
-                                     @RequestParam(name = Constants.QueryParams.PAGE, required = false) Integer pageNo,
-                                     @RequestParam(name = "includeImported",
-                                                   required = false) boolean includeImported) {
-        final Vocabulary vocabulary = getVocabulary(vocabularyIdFragment, namespace);
+    public ResponseEntity<List<TermDto>> getAllRoots(@PathVariable String vocabularyIdFragment,
+                                                     @RequestParam(name = Constants.QueryParams.NAMESPACE,
+                                                                   required = false) Optional<String> namespace,
+                                                     @RequestParam(name = Constants.QueryParams.PAGE_SIZE,
+                                                                   required = false) Integer pageSize,
+                                                     @RequestParam(name = Constants.QueryParams.PAGE,
+                                                                   required = false) Integer pageNo,
+                                                     @RequestParam(name = "includeImported",
+                                                                   required = false) boolean includeImported,
+                                                     ServletWebRequest webRequest) {
+        final URI vocabularyUri = getVocabularyUri(vocabularyIdFragment, namespace);
         final Pageable pageSpec = RestUtils.createPageRequest(pageSize, pageNo);
-        return includeImported ? termService.findAllRootsIncludingImported(vocabulary, pageSpec) :
-               termService.findAllRoots(vocabulary, pageSpec);
+        final TermListingCache.Key key = TermListingCache.key(vocabularyUri, "roots", pageSpec, includeImported);
+        return cachedListing(key, webRequest, () -> {
+            final Vocabulary vocabulary = termService.findVocabularyRequired(vocabularyUri);
+            return includeImported ? termService.findAllRootsIncludingImported(vocabulary, pageSpec) :
+                   termService.findAllRoots(vocabulary, pageSpec);
+        });
     }
 
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/{termIdFragment}",
@@ -0,0 +1,174 @@
+package cz.cvut.kbss.termit.rest.readonly;
+
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of term listings served by the read-only API.
+ * <p>
+ * Listings are cached per vocabulary and request parameters, together with the version of vocabulary content they were
+ * loaded at. The version is bumped whenever vocabulary content is modified (see {@link VocabularyContentModified}), so
+ * that outdated listings are never served.
+ * <p>
+ * The version is also used to derive entity tags of the listings, allowing clients to revalidate their copies using
+ * conditional requests without the listing being loaded at all.
+ */
+@Component
+public class TermListingCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TermListingCache.class);
+
+    /**
+     * Maximum number of cached listings. The least recently used listings are evicted when exceeded.
+     */
+    static final int MAX_ENTRIES = 512;
+
+    /**
+     * Distinguishes entity tags issued by different application runs, as the content version starts from scratch on
+     * every startup.
+     */
+    private final String instanceId = Long.toHexString(System.currentTimeMillis());
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<Key, Entry> cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    });
+
+    /**
+     * Creates a cache key representing a listing of the specified vocabulary.
+     *
+     * @param vocabulary Identifier of the listed vocabulary
+     * @param params     Parameters determining the content of the listing (e.g., listing type, search string, page)
+     * @return Cache key
+     */
+    public static Key key(URI vocabulary, Object... params) {
+        return new Key(vocabulary, Arrays.asList(params));
+    }
+
+    /**
+     * Gets the listing with the specified key.
+     * <p>
+     * The listing is loaded using the specified loader if it is not cached or if it has been cached at an older content
+     * version.
+     *
+     * @param key    Listing key
+     * @param loader Loads the listing from the repository
+     * @param <T>    Listing item type
+     * @return The listing
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(Key key, Supplier<List<T>> loader) {
+        final long current = version.get();
+        final Entry entry = cache.get(key);
+        if (entry != null && entry.version == current) {
+            return (List<T>) entry.value;
+        }
+        final List<T> value = Collections.unmodifiableList(loader.get());
+        // Do not cache the result if the content has been modified during loading, it may be out of date already
+        if (version.get() == current) {
+            cache.put(key, new Entry(current, value));
+        }
+        return value;
+    }
+
+    /**
+     * Gets a strong entity tag of the listing with the specified key in the specified representation.
+     * <p>
+     * The tag changes whenever vocabulary content is modified.
+     *
+     * @param key            Listing key
+     * @param representation Identifies the representation of the listing (e.g., the requested media type), possibly
+     *                       {@code null}
+     * @return Quoted entity tag
+     */
+    public String getETag(Key key, String representation) {
+        final int hash = Objects.hash(key, representation);
+        return "\"" + instanceId + "-" + Long.toHexString(version.get()) + "-" + Integer.toHexString(hash) + "\"";
+    }
+
+    @EventListener
+    public void evictCache(VocabularyContentModified event) {
+        LOG.trace("Vocabulary content modified, evicting term listing cache.");
+        evictAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive() &&
+                !TransactionSynchronizationManager.hasResource(this)) {
+            // Listings loaded before the modifying transaction completes would still contain the old data
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TermListingCache.this);
+                    evictAll();
+                }
+            });
+        }
+    }
+
+    private void evictAll() {
+        version.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * Key of a cached listing.
+     */
+    public static final class Key {
+
+        private final URI vocabulary;
+
+        private final List<Object> params;
+
+        private Key(URI vocabulary, List<Object> params) {
+            this.vocabulary = Objects.requireNonNull(vocabulary);
+            this.params = params;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return vocabulary.equals(key.vocabulary) && params.equals(key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(vocabulary, params);
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" + vocabulary + ", " + params + '}';
+        }
+    }
+
+    private static final class Entry {
+
+        private final long version;
+
+        private final List<?> value;
+
+        private Entry(long version, List<?> value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * TermIt Copyright (C) 2019 Czech Technical University in Prague
+ * <p>
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.rest.util;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Applies timeout set by a handler to the asynchronous processing of its response.
+ * <p>
+ * Responses written asynchronously by a {@link StreamingResponseBody} are subject to the default asynchronous request
+ * timeout, as the body cannot specify its own. Handlers may use {@link #setTimeout(WebRequest, Duration)} to override
+ * the timeout for the current request only.
+ */
+public class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    private static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutInterceptor.class.getName() + ".timeout";
+
+    /**
+     * Sets timeout of asynchronous processing of the response to the specified request.
+     *
+     * @param request Current request
+     * @param timeout Timeout to apply
+     */
+    public static void setTimeout(WebRequest request, Duration timeout) {
+        Objects.requireNonNull(timeout);
+        request.setAttribute(TIMEOUT_ATTRIBUTE, timeout.toMillis(), RequestAttributes.SCOPE_REQUEST);
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        final Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        // Invoked before asynchronous processing starts, so the timeout still applies to it
+        if (timeout instanceof Long && request instanceof AsyncWebRequest) {
+            ((AsyncWebRequest) request).setTimeout((Long) timeout);
+        }
+    }
+}
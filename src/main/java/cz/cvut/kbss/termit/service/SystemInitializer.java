@@ -18,6 +18,7 @@
 package cz.cvut.kbss.termit.service;
 
 import cz.cvut.kbss.termit.model.UserAccount;
+import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
 import cz.cvut.kbss.termit.service.repository.UserRepositoryService;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Vocabulary;
@@ -50,17 +51,24 @@ public class SystemInitializer {
 
     private final Configuration config;
     private final UserRepositoryService userService;
+    private final TermRepositoryService termService;
     private final PlatformTransactionManager txManager;
 
     @Autowired
     public SystemInitializer(Configuration config, UserRepositoryService userService,
-                             PlatformTransactionManager txManager) {
+                             TermRepositoryService termService, PlatformTransactionManager txManager) {
         this.config = config;
         this.userService = userService;
+        this.termService = termService;
         this.txManager = txManager;
     }
 
     @PostConstruct
+    void initSystem() {
+        initSystemAdmin();
+        initTermSortKeys();
+    }
+
     void initSystemAdmin() {    // Package-private for testing purposes
         if (userService.doesAdminExist()) {
             LOG.info("An admin account already exists.");
@@ -96,6 +104,17 @@ public class SystemInitializer {
         }
     }
 
+    /**
+     * Regenerates label sort keys of terms once they have been computed by a different sort key version, e.g., after
+     * upgrade of the JDK or before sort keys were introduced.
+     */
+    void initTermSortKeys() {   // Package-private for testing purposes
+        final int count = termService.updateSortKeys();
+        if (count > 0) {
+            LOG.info("Regenerated {} term label sort keys.", count);
+        }
+    }
+
     private File createHiddenFile() throws IOException {
         final File credentialsFile = new File(config.getAdmin().getCredentialsLocation() + File.separator +
                 config.getAdmin().getCredentialsFile());
@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.service.business;
 
 import cz.cvut.kbss.termit.asset.provenance.SupportsLastModification;
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
 import cz.cvut.kbss.termit.event.DocumentRenameEvent;
 import cz.cvut.kbss.termit.event.FileRenameEvent;
 import cz.cvut.kbss.termit.exception.AssetRemovalException;
@@ -29,6 +30,7 @@ import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.resource.Resource;
 import cz.cvut.kbss.termit.service.changetracking.ChangeRecordProvider;
 import cz.cvut.kbss.termit.service.document.DocumentManager;
+import cz.cvut.kbss.termit.service.document.TextAnalysisJobQueue;
 import cz.cvut.kbss.termit.service.document.TextAnalysisService;
 import cz.cvut.kbss.termit.service.repository.ChangeRecordService;
 import cz.cvut.kbss.termit.service.repository.ResourceRepositoryService;
@@ -61,6 +63,8 @@ public class ResourceService
 
     private final TextAnalysisService textAnalysisService;
 
+    private final TextAnalysisJobQueue textAnalysisJobQueue;
+
     private final VocabularyService vocabularyService;
 
     private final ChangeRecordService changeRecordService;
@@ -69,11 +73,12 @@ public class ResourceService
 
     @Autowired
     public ResourceService(ResourceRepositoryService repositoryService, DocumentManager documentManager,
-                           TextAnalysisService textAnalysisService, VocabularyService vocabularyService,
-                           ChangeRecordService changeRecordService) {
+                           TextAnalysisService textAnalysisService, TextAnalysisJobQueue textAnalysisJobQueue,
+                           VocabularyService vocabularyService, ChangeRecordService changeRecordService) {
         this.repositoryService = repositoryService;
         this.documentManager = documentManager;
         this.textAnalysisService = textAnalysisService;
+        this.textAnalysisJobQueue = textAnalysisJobQueue;
         this.vocabularyService = vocabularyService;
         this.changeRecordService = changeRecordService;
     }
@@ -226,16 +231,18 @@ public class ResourceService
     }
 
     /**
-     * Executes text analysis on the specified resource's content.
+     * Submits text analysis of the specified resource's content for asynchronous execution.
      * <p>
      * The specified vocabulary identifiers represent sources of Terms for the text analysis. If not provided, it is
      * assumed the file belongs to a Document associated with a Vocabulary which will be used as the Term source.
      *
      * @param resource     Resource to analyze
      * @param vocabularies Set of identifiers of vocabularies to use as Term sources for the analysis. Possibly empty
+     * @return The submitted text analysis job, which can be used to track the progress of the analysis
      * @throws UnsupportedAssetOperationException If text analysis is not supported for the specified resource
+     * @see #findTextAnalysisJob(Resource, String)
      */
-    public void runTextAnalysis(Resource resource, Set<URI> vocabularies) {
+    public TextAnalysisJob runTextAnalysis(Resource resource, Set<URI> vocabularies) {
         Objects.requireNonNull(resource);
         Objects.requireNonNull(vocabularies);
         if (!(resource instanceof File)) {
@@ -248,13 +255,27 @@ public class ResourceService
                 throw new UnsupportedAssetOperationException(
                         "Cannot analyze file without specifying vocabulary context.");
             }
-            textAnalysisService.analyzeFile(file,
-                    includeImportedVocabularies(Collections.singleton(file.getDocument().getVocabulary())));
+            return textAnalysisJobQueue.submit(file.getUri(), includeImportedVocabularies(
+                    Collections.singleton(file.getDocument().getVocabulary())));
         } else {
-            textAnalysisService.analyzeFile(file, includeImportedVocabularies(vocabularies));
+            return textAnalysisJobQueue.submit(file.getUri(), includeImportedVocabularies(vocabularies));
         }
     }
 
+    /**
+     * Gets the text analysis job with the specified identifier.
+     *
+     * @param resource Analyzed resource
+     * @param jobId    Job identifier
+     * @return Matching job
+     * @throws NotFoundException If no such job of the specified resource exists
+     */
+    public TextAnalysisJob findTextAnalysisJob(Resource resource, String jobId) {
+        Objects.requireNonNull(resource);
+        return textAnalysisJobQueue.find(jobId).filter(job -> job.getResource().equals(resource.getUri()))
+                                   .orElseThrow(() -> NotFoundException.create("Text analysis job", jobId));
+    }
+
     private Set<URI> includeImportedVocabularies(Set<URI> providedVocabularies) {
         final Set<URI> result = new HashSet<>(providedVocabularies);
         providedVocabularies.forEach(uri -> {
@@ -14,17 +14,18 @@
  */
 package cz.cvut.kbss.termit.service.business;
 
-import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import cz.cvut.kbss.termit.util.Constants;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 public class SearchService {
@@ -38,27 +39,46 @@ public class SearchService {
 
     /**
      * Executes full text search in assets.
+     * <p>
+     * The results are ordered by descending relevance score.
      *
      * @param searchString String to search by
-     * @return Matching assets
+     * @param pageSpec     Specification of the page of results to return
+     * @return Page of matching assets. Its total number of elements may be an estimate, see {@link
+     * SearchDao#fullTextSearch(String, Pageable)}
      */
-    public List<FullTextSearchResult> fullTextSearch(String searchString) {
-        return searchDao.fullTextSearch(searchString);
+    public Page<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
+        return searchDao.fullTextSearch(searchString, pageSpec);
     }
 
     /**
-     * Executes full text search in terms, possibly filtered by vocabularies.
+     * Executes full text search in terms of the specified vocabularies.
+     * <p>
+     * At most {@link Constants#TERM_SEARCH_RESULT_LIMIT} results are returned.
      *
      * @param searchString String to search by
-     * @param vocabularies URIs of vocabularies to search in, or null, if all vocabularies shall be searched
+     * @param vocabularies URIs of vocabularies to search in
      * @return Matching terms
      */
     public List<FullTextSearchResult> fullTextSearchOfTerms(String searchString, Set<URI> vocabularies) {
         Objects.requireNonNull(vocabularies);
-        // Search including snapshots, as the selected vocabularies may be snapshots
-        return searchDao.fullTextSearchIncludingSnapshots(searchString).stream()
-                        .filter(r -> r.getTypes().contains(SKOS.CONCEPT))
-                        .filter(r -> vocabularies.contains(r.getVocabulary()))
-                        .collect(Collectors.toList());
+        return searchDao.fullTextSearchOfTerms(searchString, vocabularies, Constants.TERM_SEARCH_RESULT_LIMIT);
+    }
+
+    /**
+     * Finds terms of the specified vocabularies whose label starts with the specified prefix (autocomplete).
+     * <p>
+     * Labels are matched ignoring case and diacritics.
+     *
+     * @param prefix       Label prefix to search by
+     * @param language     Language of the labels to search
+     * @param vocabularies URIs of vocabularies to search in
+     * @param limit        Maximum number of results
+     * @return Matching terms, best matches first
+     */
+    public List<FullTextSearchResult> findTermsByLabelPrefix(String prefix, String language, Set<URI> vocabularies,
+                                                             int limit) {
+        Objects.requireNonNull(vocabularies);
+        return searchDao.findTermsByLabelPrefix(prefix, language, vocabularies, limit);
     }
 }
@@ -1,8 +1,11 @@
 package cz.cvut.kbss.termit.service.business;
 
 import cz.cvut.kbss.termit.dto.Snapshot;
+import cz.cvut.kbss.termit.dto.TextAnalysisProgress;
 import cz.cvut.kbss.termit.dto.TermStatus;
 import cz.cvut.kbss.termit.dto.assignment.TermOccurrences;
+import cz.cvut.kbss.termit.dto.listing.CursorPage;
+import cz.cvut.kbss.termit.dto.listing.PageCursor;
 import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.model.AbstractTerm;
@@ -31,6 +34,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.net.URI;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -166,6 +170,37 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         return repositoryService.findAllRoots(pageSpec, includeTerms);
     }
 
+    /**
+     * Retrieves a page of root terms (terms without parent) from the specified vocabulary.
+     * <p>
+     * As opposed to {@link #findAllRoots(Vocabulary, Pageable, Collection)}, keyset paging is used, i.e., the page
+     * starts right after the item denoted by the specified cursor.
+     *
+     * @param vocabulary   Vocabulary whose terms will be returned
+     * @param after        Cursor pointing to the last item of the previous page, {@code null} to get the first page
+     * @param pageSize     Maximum number of terms in the page
+     * @param includeTerms Identifiers of terms which should be a part of the result. Optional
+     * @return Page of matching terms together with cursor of the next page
+     */
+    public CursorPage<TermDto> findAllRoots(Vocabulary vocabulary, PageCursor after, int pageSize,
+                                            Collection<URI> includeTerms) {
+        Objects.requireNonNull(vocabulary);
+        return repositoryService.findAllRoots(vocabulary, after, pageSize, includeTerms);
+    }
+
+    /**
+     * Retrieves a page of root terms (terms without parent) using keyset paging.
+     *
+     * @param after        Cursor pointing to the last item of the previous page, {@code null} to get the first page
+     * @param pageSize     Maximum number of terms in the page
+     * @param includeTerms Identifiers of terms which should be a part of the result. Optional
+     * @return Page of matching terms together with cursor of the next page
+     * @see #findAllRoots(Vocabulary, PageCursor, int, Collection)
+     */
+    public CursorPage<TermDto> findAllRoots(PageCursor after, int pageSize, Collection<URI> includeTerms) {
+        return repositoryService.findAllRoots(after, pageSize, includeTerms);
+    }
+
     /**
      * Finds all root terms (terms without parent term) in the specified vocabulary or any of its imported
      * vocabularies.
@@ -186,6 +221,23 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         return repositoryService.findAllRootsIncludingImported(vocabulary, pageSpec, includeTerms);
     }
 
+    /**
+     * Finds a page of root terms (terms without parent term) in the specified vocabulary or any of its imported
+     * vocabularies using keyset paging.
+     *
+     * @param vocabulary   Base vocabulary for the vocabulary import closure
+     * @param after        Cursor pointing to the last item of the previous page, {@code null} to get the first page
+     * @param pageSize     Maximum number of terms in the page
+     * @param includeTerms Identifiers of terms which should be a part of the result. Optional
+     * @return Page of matching terms together with cursor of the next page
+     * @see #findAllRoots(Vocabulary, PageCursor, int, Collection)
+     */
+    public CursorPage<TermDto> findAllRootsIncludingImported(Vocabulary vocabulary, PageCursor after, int pageSize,
+                                                             Collection<URI> includeTerms) {
+        Objects.requireNonNull(vocabulary);
+        return repositoryService.findAllRootsIncludingImported(vocabulary, after, pageSize, includeTerms);
+    }
+
     /**
      * Finds all terms which match the specified search string in the specified vocabulary.
      *
@@ -350,6 +402,7 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         Objects.requireNonNull(term);
         Objects.requireNonNull(owner);
         repositoryService.addRootTermToVocabulary(term, owner);
+        textAnalysisService.termAdded(term);
         analyzeTermDefinition(term, owner.getUri());
         vocabularyService.runTextAnalysisOnAllTerms(owner);
     }
@@ -365,6 +418,7 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         Objects.requireNonNull(child);
         Objects.requireNonNull(parent);
         repositoryService.addChildTerm(child, parent);
+        textAnalysisService.termAdded(child);
         analyzeTermDefinition(child, parent.getVocabulary());
         vocabularyService.runTextAnalysisOnAllTerms(getRequiredVocabularyReference(parent.getVocabulary()));
     }
@@ -386,6 +440,7 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         final Term result = repositoryService.update(term);
         // Ensure the change is merged into the repo before analyzing other terms
         if (!Objects.equals(original.getLabel(), term.getLabel())) {
+            textAnalysisService.termLabelChanged(original, term);
             vocabularyService.runTextAnalysisOnAllTerms(getRequiredVocabularyReference(original.getVocabulary()));
         }
         return result;
@@ -400,6 +455,7 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
     public void remove(Term term) {
         Objects.requireNonNull(term);
         repositoryService.remove(term);
+        textAnalysisService.termRemoved(term);
     }
 
     /**
@@ -420,6 +476,36 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         textAnalysisService.analyzeTermDefinition(term, vocabularyContext);
     }
 
+    /**
+     * Executes text analysis on definitions of the specified terms.
+     * <p>
+     * The analysis of individual definitions runs concurrently, this method returns when all of them are finished or
+     * when the analysis is cancelled.
+     *
+     * @param terms             Terms to analyze
+     * @param vocabularyContext Identifier of the vocabulary used for analysis
+     * @param cancelled         Indicates whether the analysis has been cancelled
+     * @return Progress of the analysis
+     * @see TextAnalysisService#analyzeTermDefinitions(Collection, URI, BooleanSupplier)
+     */
+    public TextAnalysisProgress analyzeTermDefinitions(Collection<? extends AbstractTerm> terms,
+                                                       URI vocabularyContext, BooleanSupplier cancelled) {
+        Objects.requireNonNull(terms);
+        LOG.debug("Analyzing definitions of {} terms.", terms.size());
+        return textAnalysisService.analyzeTermDefinitions(terms, vocabularyContext, cancelled);
+    }
+
+    /**
+     * Gets progress of the latest analysis of term definitions which used the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary used for analysis
+     * @return Analysis progress, empty if no such analysis has been run
+     */
+    public Optional<TextAnalysisProgress> getTermDefinitionsAnalysisProgress(Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return textAnalysisService.getTermDefinitionsAnalysisProgress(vocabulary.getUri());
+    }
+
     /**
      * Gets occurrences of terms which appear in the specified term's definition.
      *
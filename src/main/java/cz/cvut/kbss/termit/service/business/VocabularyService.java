@@ -17,6 +17,7 @@ package cz.cvut.kbss.termit.service.business;
 import cz.cvut.kbss.termit.asset.provenance.SupportsLastModification;
 import cz.cvut.kbss.termit.dto.AggregatedChangeInfo;
 import cz.cvut.kbss.termit.dto.Snapshot;
+import cz.cvut.kbss.termit.dto.TextAnalysisProgress;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.validation.ValidationResult;
 import cz.cvut.kbss.termit.service.changetracking.ChangeRecordProvider;
@@ -26,6 +27,7 @@ import java.net.URI;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -99,6 +101,14 @@ public interface VocabularyService
      */
     void runTextAnalysisOnAllVocabularies();
 
+    /**
+     * Gets progress of the latest text analysis of definitions of terms which used the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary used for the analysis
+     * @return Analysis progress, empty if no analysis has been run for the vocabulary
+     */
+    Optional<TextAnalysisProgress> getTextAnalysisProgress(Vocabulary vocabulary);
+
     /**
      * Removes a vocabulary if: - it is not a document vocabulary, or - it is imported by another vocabulary, or - it
      * contains terms.
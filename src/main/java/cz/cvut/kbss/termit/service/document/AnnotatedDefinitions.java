@@ -0,0 +1,57 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ * <p>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.model.AbstractTerm;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Text analysis result containing annotated definitions of one or more terms.
+ * <p>
+ * Definition of each term is wrapped in an element identifying the term, see {@link
+ * cz.cvut.kbss.termit.util.Constants#TERM_DEFINITION_ATTRIBUTE}.
+ */
+public class AnnotatedDefinitions {
+
+    private final List<AbstractTerm> terms;
+
+    private final byte[] content;
+
+    public AnnotatedDefinitions(List<AbstractTerm> terms, byte[] content) {
+        this.terms = Objects.requireNonNull(terms);
+        this.content = Objects.requireNonNull(content);
+    }
+
+    /**
+     * Terms whose definitions are contained in this result.
+     */
+    public List<AbstractTerm> getTerms() {
+        return terms;
+    }
+
+    /**
+     * Annotated content, a new stream is returned on each call.
+     */
+    public InputStream getContent() {
+        return new ByteArrayInputStream(content);
+    }
+}
@@ -25,6 +25,9 @@ import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.selector.Selector;
 import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
+import cz.cvut.kbss.termit.service.document.html.HtmlTermOccurrenceResolver;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,8 +35,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Creates annotations (term occurrences) for vocabulary terms.
@@ -52,17 +63,24 @@ public class AnnotationGenerator {
 
     private final TermOccurrenceResolvers resolvers;
 
+    private final Configuration.TextAnalysis config;
+
     @Autowired
     public AnnotationGenerator(TermOccurrenceDao termOccurrenceDao,
                                DocumentManager documentManager,
-                               TermOccurrenceResolvers resolvers) {
+                               TermOccurrenceResolvers resolvers,
+                               Configuration config) {
         this.termOccurrenceDao = termOccurrenceDao;
         this.documentManager = documentManager;
         this.resolvers = resolvers;
+        this.config = config.getTextAnalysis();
     }
 
     /**
      * Generates annotations (term occurrences) for terms identified in the specified document.
+     * <p>
+     * If streaming is enabled in the configuration, the content is not parsed into memory, it is buffered in a temporary
+     * file while being processed and saved into the file afterwards.
      *
      * @param content Content of file with identified term occurrences
      * @param source  Source file of the annotated document
@@ -70,6 +88,10 @@ public class AnnotationGenerator {
     @Transactional
     public void generateAnnotations(InputStream content, File source) {
         final TermOccurrenceResolver occurrenceResolver = findResolverFor(source);
+        if (config.isStreaming() && occurrenceResolver instanceof HtmlTermOccurrenceResolver) {
+            generateAnnotationsStreaming(content, source, (HtmlTermOccurrenceResolver) occurrenceResolver);
+            return;
+        }
         LOG.debug("Resolving annotations of file {}.", source);
         occurrenceResolver.parseContent(content, source);
         final List<TermOccurrence> occurrences = occurrenceResolver.findTermOccurrences();
@@ -78,6 +100,15 @@ public class AnnotationGenerator {
         LOG.trace("Finished generating annotations for file {}.", source);
     }
 
+    private void generateAnnotationsStreaming(InputStream content, File source,
+                                              HtmlTermOccurrenceResolver occurrenceResolver) {
+        LOG.debug("Resolving annotations of file {} while saving its content.", source);
+        final List<TermOccurrence> occurrences = occurrenceResolver.findTermOccurrences(
+                content, source, input -> saveAnnotatedContent(source, input));
+        saveOccurrences(occurrences, source);
+        LOG.trace("Finished generating annotations for file {}.", source);
+    }
+
     private TermOccurrenceResolver findResolverFor(File file) {
         // This will allow us to potentially support different types of files
         final TermOccurrenceResolver htmlResolver = resolvers.htmlTermOccurrenceResolver();
@@ -90,12 +121,32 @@ public class AnnotationGenerator {
 
     private void saveOccurrences(List<TermOccurrence> occurrences, Asset<?> source) {
         LOG.trace("Saving term occurrences for asset {}.", source);
-        final List<TermOccurrence> existing = termOccurrenceDao.findAllTargeting(source);
-        occurrences.stream().filter(o -> isNew(o, existing))
-                   .filter(o -> !o.getTerm().equals(source.getUri())).forEach(o -> {
-                       o.addType(cz.cvut.kbss.termit.util.Vocabulary.s_c_navrzeny_vyskyt_termu);
-                       termOccurrenceDao.persist(o);
-                   });
+        termOccurrenceDao.persistAll(newOccurrences(occurrences, source));
+    }
+
+    /**
+     * Selects occurrences which do not exist yet and marks them as suggested.
+     */
+    private List<TermOccurrence> newOccurrences(List<TermOccurrence> occurrences, Asset<?> source) {
+        final Map<URI, Set<Selector>> existing = indexExisting(termOccurrenceDao.findAllTargeting(source));
+        final List<TermOccurrence> result = occurrences.stream().filter(o -> isNew(o, existing))
+                                                       .filter(o -> !o.getTerm().equals(source.getUri()))
+                                                       .collect(Collectors.toList());
+        result.forEach(o -> o.addType(cz.cvut.kbss.termit.util.Vocabulary.s_c_navrzeny_vyskyt_termu));
+        return result;
+    }
+
+    /**
+     * Indexes selectors of the specified existing occurrences by the term they represent.
+     */
+    private static Map<URI, Set<Selector>> indexExisting(List<TermOccurrence> existing) {
+        final Map<URI, Set<Selector>> index = new HashMap<>();
+        existing.forEach(to -> {
+            assert to.getTarget() != null;
+            index.computeIfAbsent(to.getTerm(), k -> new HashSet<>())
+                 .addAll(Utils.emptyIfNull(to.getTarget().getSelectors()));
+        });
+        return index;
     }
 
     /**
@@ -105,26 +156,18 @@ public class AnnotationGenerator {
      * source file, and the target contains at least one equal selector.
      *
      * @param occurrence The supposedly new occurrence to check
-     * @param existing   Existing occurrences relevant to the specified file
+     * @param existing   Selectors of existing occurrences relevant to the specified file, indexed by term
      * @return Whether the occurrence is truly new
      */
-    private static boolean isNew(TermOccurrence occurrence, List<TermOccurrence> existing) {
+    private static boolean isNew(TermOccurrence occurrence, Map<URI, Set<Selector>> existing) {
         final OccurrenceTarget target = occurrence.getTarget();
         assert target != null;
-        final Set<Selector> selectors = target.getSelectors();
-        for (TermOccurrence to : existing) {
-            if (!to.getTerm().equals(occurrence.getTerm())) {
-                continue;
-            }
-            final OccurrenceTarget fileTarget = to.getTarget();
-            assert fileTarget != null;
-            assert fileTarget.getSource().equals(target.getSource());
-            // Same term, contains at least one identical selector
-            if (fileTarget.getSelectors().stream().anyMatch(selectors::contains)) {
-                LOG.trace("Skipping occurrence {} because another one with matching term and selectors exists.",
-                        occurrence);
-                return false;
-            }
+        final Set<Selector> existingSelectors = existing.getOrDefault(occurrence.getTerm(), Collections.emptySet());
+        // Same term, contains at least one identical selector
+        if (Utils.emptyIfNull(target.getSelectors()).stream().anyMatch(existingSelectors::contains)) {
+            LOG.trace("Skipping occurrence {} because another one with matching term and selectors exists.",
+                    occurrence);
+            return false;
         }
         return true;
     }
@@ -149,4 +192,24 @@ public class AnnotationGenerator {
         saveOccurrences(occurrences, annotatedTerm);
         LOG.trace("Finished generating annotations for the definition of {}.", annotatedTerm);
     }
+
+    /**
+     * Generates annotations (term occurrences) for terms identified in the specified annotated definitions.
+     * <p>
+     * Annotations of all the definitions are collected and stored at once, when the transaction commits (see {@link
+     * TermOccurrenceDao#persistAll(Collection)}).
+     *
+     * @param definitions Annotated definitions of terms
+     */
+    @Transactional
+    public void generateAnnotations(Collection<AnnotatedDefinitions> definitions) {
+        final List<TermOccurrence> toPersist = new ArrayList<>();
+        for (AnnotatedDefinitions batch : definitions) {
+            final HtmlTermOccurrenceResolver occurrenceResolver = resolvers.htmlTermOccurrenceResolver();
+            LOG.debug("Resolving annotations of definitions of {} terms.", batch.getTerms().size());
+            occurrenceResolver.findDefinitionOccurrences(batch.getContent(), batch.getTerms())
+                              .forEach((term, occurrences) -> toPersist.addAll(newOccurrences(occurrences, term)));
+        }
+        termOccurrenceDao.persistAll(toPersist);
+    }
 }
@@ -0,0 +1,165 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ * <p>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import org.springframework.util.DigestUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which term definitions have already been analyzed, so that their repeated analysis can be skipped.
+ * <p>
+ * Analysis of a definition is considered up to date when the definition text, its language and the vocabulary used for
+ * the analysis are the same as when it was analyzed and the analysis has not been invalidated since. Analyses are
+ * invalidated when a term is added or removed or when a term label changes, but only for definitions affected by the
+ * change. Definitions in which a new label may occur are found using an inverted index of analyzed definitions, so
+ * that a label change does not cause re-analysis of all definitions. Definitions which contained the original label
+ * are identified by the caller, see {@link #invalidateDefinitionsOf(Collection)}.
+ * <p>
+ * Since a vocabulary used for analysis includes terms of the vocabularies it (transitively) imports, label changes
+ * invalidate analyses in all vocabulary contexts, not only in the context of the vocabulary containing the term.
+ * <p>
+ * This class is thread-safe.
+ */
+class DefinitionAnalysisMemo {
+
+    private final Map<URI, VocabularyState> vocabularies = new ConcurrentHashMap<>();
+
+    private final DefinitionTokenIndex index = new DefinitionTokenIndex();
+
+    /**
+     * Gets the current modification mark of the specified vocabulary.
+     * <p>
+     * The mark should be obtained before the analysis is started and passed to {@link #recordAnalyzed(AbstractTerm,
+     * String, URI, long)} after it is finished, so that invalidations made during the analysis are not lost.
+     *
+     * @param vocabularyContext Identifier of the vocabulary used for analysis
+     * @return Modification mark
+     */
+    long currentMark(URI vocabularyContext) {
+        return state(vocabularyContext).sequence;
+    }
+
+    /**
+     * Checks whether the latest analysis of the specified term's definition is still up to date.
+     * <p>
+     * The definition is indexed as a side effect, so that label changes made while it is being analyzed invalidate the
+     * analysis.
+     *
+     * @param term              Term whose definition to check
+     * @param language          Language of the definition
+     * @param vocabularyContext Identifier of the vocabulary used for analysis
+     * @return {@code true} if the definition need not be analyzed again
+     */
+    boolean isUpToDate(AbstractTerm term, String language, URI vocabularyContext) {
+        index.index(term.getUri(), term.getDefinition() != null ? term.getDefinition().get(language) : null);
+        final String digest = state(vocabularyContext).entries.get(term.getUri());
+        return digest != null && digest.equals(digest(term, language, vocabularyContext));
+    }
+
+    /**
+     * Records that definition of the specified term has been analyzed.
+     * <p>
+     * If the analysis has been invalidated after the specified mark was obtained, it is not recorded.
+     *
+     * @param term              Analyzed term
+     * @param language          Language of the analyzed definition
+     * @param vocabularyContext Identifier of the vocabulary used for analysis
+     * @param mark              Modification mark of the vocabulary obtained before the analysis
+     * @see #currentMark(URI)
+     */
+    void recordAnalyzed(AbstractTerm term, String language, URI vocabularyContext, long mark) {
+        index.index(term.getUri(), term.getDefinition() != null ? term.getDefinition().get(language) : null);
+        final VocabularyState state = state(vocabularyContext);
+        synchronized (state) {
+            if (state.invalidated.getOrDefault(term.getUri(), Long.MIN_VALUE) > mark) {
+                return;
+            }
+            state.invalidated.remove(term.getUri());
+            state.entries.put(term.getUri(), digest(term, language, vocabularyContext));
+        }
+    }
+
+    /**
+     * Invalidates analyses of definitions in which the specified label may occur, using any vocabulary context.
+     *
+     * @param label Label of a new term or new label of an existing term
+     */
+    void invalidate(String label) {
+        if (label == null || label.isBlank()) {
+            return;
+        }
+        invalidateDefinitionsOf(index.findDefinitionsContaining(label));
+    }
+
+    /**
+     * Invalidates analyses of definitions of the specified terms, using any vocabulary context.
+     *
+     * @param terms Identifiers of terms whose definition analyses to invalidate, e.g., because they contain occurrences
+     *              of a term whose label has changed
+     */
+    void invalidateDefinitionsOf(Collection<URI> terms) {
+        if (terms.isEmpty()) {
+            return;
+        }
+        vocabularies.values().forEach(state -> {
+            synchronized (state) {
+                state.sequence++;
+                terms.forEach(t -> {
+                    state.entries.remove(t);
+                    state.invalidated.put(t, state.sequence);
+                });
+            }
+        });
+    }
+
+    /**
+     * Forgets analyses of definition of the specified term, e.g., because the term has been removed.
+     *
+     * @param term Term identifier
+     */
+    void forget(URI term) {
+        index.remove(term);
+        vocabularies.values().forEach(state -> {
+            synchronized (state) {
+                state.entries.remove(term);
+                state.invalidated.remove(term);
+            }
+        });
+    }
+
+    private VocabularyState state(URI vocabulary) {
+        return vocabularies.computeIfAbsent(vocabulary, v -> new VocabularyState());
+    }
+
+    private static String digest(AbstractTerm term, String language, URI vocabularyContext) {
+        final String definition = term.getDefinition() != null ? term.getDefinition().get(language) : null;
+        final String value = String.join("\n", String.valueOf(definition), language, vocabularyContext.toString());
+        return DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class VocabularyState {
+        private volatile long sequence;
+        private final Map<URI, String> entries = new ConcurrentHashMap<>();
+        private final Map<URI, Long> invalidated = new HashMap<>();
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ * <p>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import java.net.URI;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index of words in term definitions.
+ * <p>
+ * Allows to find definitions in which a label may occur without going through all the definitions. Since labels may
+ * occur in inflected forms (e.g., "hlavní město" - "hlavního města"), words are matched by their stem prefix, see
+ * {@link #stem(String)}. The index thus may find definitions which do not contain the label. On the other hand, it
+ * misses inflected forms with a changed stem (e.g., "pes" - "psa").
+ * <p>
+ * This class is thread-safe.
+ */
+class DefinitionTokenIndex {
+
+    /**
+     * Minimum length of the stem prefix by which words are matched.
+     */
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private final NavigableMap<String, Set<URI>> termsByToken = new ConcurrentSkipListMap<>();
+
+    private final Map<URI, Set<String>> tokensByTerm = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes the specified definition of the specified term, replacing any previously indexed definition of the term.
+     *
+     * @param term       Term identifier
+     * @param definition Definition text
+     */
+    synchronized void index(URI term, String definition) {
+        remove(term);
+        final Set<String> tokens = new HashSet<>(words(definition));
+        tokensByTerm.put(term, tokens);
+        tokens.forEach(t -> termsByToken.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(term));
+    }
+
+    /**
+     * Removes definition of the specified term from the index.
+     *
+     * @param term Term identifier
+     */
+    synchronized void remove(URI term) {
+        final Set<String> tokens = tokensByTerm.remove(term);
+        if (tokens == null) {
+            return;
+        }
+        tokens.forEach(t -> {
+            final Set<URI> terms = termsByToken.get(t);
+            terms.remove(term);
+            if (terms.isEmpty()) {
+                termsByToken.remove(t);
+            }
+        });
+    }
+
+    /**
+     * Finds terms whose definitions may contain the specified label.
+     * <p>
+     * A definition may contain the label if it contains, for each word of the label, a word starting with the stem of
+     * the label word.
+     *
+     * @param label Label to search for
+     * @return Identifiers of terms whose definitions may contain the label
+     */
+    Set<URI> findDefinitionsContaining(String label) {
+        final Set<String> stems = stems(label);
+        if (stems.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<URI> result = null;
+        for (String stem : stems) {
+            final Set<URI> matching = termsByToken.subMap(stem, true, stem + Character.MAX_VALUE, true).values()
+                                                  .stream().flatMap(Set::stream).collect(Collectors.toSet());
+            if (result == null) {
+                result = matching;
+            } else {
+                result.retainAll(matching);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Splits the specified text into lowercase words without diacritics.
+     */
+    static List<String> words(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        final String normalized = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                                            .replaceAll("\\p{M}", "");
+        return Arrays.stream(normalized.split("[^\\p{L}\\p{N}]+")).filter(s -> !s.isEmpty())
+                     .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets stems of words of the specified text.
+     */
+    static Set<String> stems(String text) {
+        return words(text).stream().map(DefinitionTokenIndex::stem)
+                          .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Gets stem prefix of the specified word, i.e., the word without its last two letters, which usually contain the
+     * inflected ending. The stem is at least {@link #MIN_STEM_LENGTH} letters long, unless the word is shorter.
+     */
+    static String stem(String word) {
+        final int length = word.codePointCount(0, word.length());
+        final int stemLength = Math.min(length, Math.max(MIN_STEM_LENGTH, length - 2));
+        return word.substring(0, word.offsetByCodePoints(0, stemLength));
+    }
+}
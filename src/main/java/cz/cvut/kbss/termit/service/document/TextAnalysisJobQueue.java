@@ -0,0 +1,277 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ * <p>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.config.TaskExecutorConfig;
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
+import cz.cvut.kbss.termit.exception.TermItException;
+import cz.cvut.kbss.termit.exception.UnsupportedAssetOperationException;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.service.repository.ResourceRepositoryService;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Queue of text analysis jobs of files.
+ * <p>
+ * Jobs are executed asynchronously by a pool of workers (see {@link Configuration.TextAnalysis#getJobWorkers()}), so
+ * that the thread submitting a job does not wait for the analysis to finish. Each job is stored in a file in the job
+ * storage (see {@link Configuration.TextAnalysis#getJobStorage()}) whenever its state changes. Jobs which were queued or
+ * running when the application stopped are resubmitted on startup. Finished jobs are kept for the configured retention
+ * period, so that clients can find out how they ended.
+ */
+@Component
+public class TextAnalysisJobQueue {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TextAnalysisJobQueue.class);
+
+    /**
+     * Name of the job storage directory in the file storage, used when no job storage is configured.
+     */
+    static final String DEFAULT_STORAGE_DIRECTORY = ".text-analysis-jobs";
+
+    private static final String JOB_FILE_EXTENSION = ".properties";
+
+    private final ResourceRepositoryService resourceService;
+
+    private final TextAnalysisService textAnalysisService;
+
+    private final Configuration.TextAnalysis config;
+
+    private final Path storage;
+
+    private final TaskExecutor executor;
+
+    private final Map<String, TextAnalysisJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TextAnalysisJobQueue(ResourceRepositoryService resourceService, TextAnalysisService textAnalysisService,
+                                Configuration config,
+                                @Qualifier(TaskExecutorConfig.TEXT_ANALYSIS_JOB_EXECUTOR) TaskExecutor executor) {
+        this.resourceService = resourceService;
+        this.textAnalysisService = textAnalysisService;
+        this.config = config.getTextAnalysis();
+        this.storage = resolveStorage(config);
+        this.executor = executor;
+    }
+
+    private static Path resolveStorage(Configuration config) {
+        final String jobStorage = config.getTextAnalysis().getJobStorage();
+        if (jobStorage != null && !jobStorage.isBlank()) {
+            return Paths.get(jobStorage);
+        }
+        return Paths.get(config.getFile().getStorage(), DEFAULT_STORAGE_DIRECTORY);
+    }
+
+    /**
+     * Resubmits jobs which did not finish before the application stopped and discards expired finished jobs.
+     */
+    @PostConstruct
+    void resume() {
+        if (!Files.isDirectory(storage)) {
+            return;
+        }
+        final Instant expiration = Instant.now().minus(config.getJobRetention());
+        try (final Stream<Path> files = Files.list(storage)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(JOB_FILE_EXTENSION))
+                                  .collect(Collectors.toList())) {
+                final Optional<TextAnalysisJob> job = load(file);
+                if (job.isEmpty()) {
+                    continue;
+                }
+                if (job.get().isDone()) {
+                    if (isExpired(job.get(), expiration)) {
+                        Files.deleteIfExists(file);
+                    } else {
+                        jobs.put(job.get().getId(), job.get());
+                    }
+                } else {
+                    LOG.debug("Resuming unfinished text analysis job {}.", job.get());
+                    job.get().queued();
+                    enqueue(job.get());
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("Unable to read text analysis jobs from {}.", storage, e);
+        }
+    }
+
+    /**
+     * Submits text analysis of the specified file for asynchronous execution.
+     *
+     * @param file         Identifier of the file to analyze
+     * @param vocabularies Identifiers of vocabulary contexts to use as sources of terms for the analysis
+     * @return The queued job
+     * @throws TermItException If the job cannot be stored
+     */
+    public TextAnalysisJob submit(URI file, Set<URI> vocabularies) {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(vocabularies);
+        evictExpired();
+        final TextAnalysisJob job = new TextAnalysisJob(UUID.randomUUID().toString(), file, vocabularies,
+                                                        Instant.now());
+        try {
+            store(job);
+        } catch (IOException e) {
+            throw new TermItException("Unable to store text analysis job " + job, e);
+        }
+        enqueue(job);
+        LOG.trace("Text analysis job {} queued.", job);
+        return job;
+    }
+
+    private void enqueue(TextAnalysisJob job) {
+        jobs.put(job.getId(), job);
+        executor.execute(() -> execute(job));
+    }
+
+    private void execute(TextAnalysisJob job) {
+        job.started(Instant.now());
+        storeQuietly(job);
+        LOG.debug("Executing text analysis job {}.", job);
+        try {
+            final Resource resource = resourceService.findRequired(job.getResource());
+            if (!(resource instanceof File)) {
+                throw new UnsupportedAssetOperationException(
+                        "Text analysis is not supported for resource " + resource);
+            }
+            textAnalysisService.analyzeFile((File) resource, job.getVocabularies());
+            job.finished(Instant.now());
+        } catch (RuntimeException e) {
+            LOG.error("Text analysis job {} failed.", job, e);
+            job.failed(Instant.now(), e.getMessage());
+        }
+        storeQuietly(job);
+        LOG.debug("Text analysis job {} done.", job);
+    }
+
+    private void evictExpired() {
+        final Instant expiration = Instant.now().minus(config.getJobRetention());
+        jobs.values().removeIf(job -> {
+            if (job.isDone() && isExpired(job, expiration)) {
+                try {
+                    Files.deleteIfExists(jobFile(job.getId()));
+                } catch (IOException e) {
+                    LOG.warn("Unable to remove expired text analysis job {}.", job, e);
+                }
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static boolean isExpired(TextAnalysisJob job, Instant expiration) {
+        return job.getFinished() == null || job.getFinished().isBefore(expiration);
+    }
+
+    /**
+     * Finds a text analysis job with the specified identifier.
+     *
+     * @param id Job identifier
+     * @return Matching job, empty if no such job exists or if it has already expired
+     */
+    public Optional<TextAnalysisJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private Path jobFile(String id) {
+        return storage.resolve(id + JOB_FILE_EXTENSION);
+    }
+
+    private void storeQuietly(TextAnalysisJob job) {
+        try {
+            store(job);
+        } catch (IOException e) {
+            // The job itself can continue, it just will not be resumed after restart
+            LOG.warn("Unable to store text analysis job {}.", job, e);
+        }
+    }
+
+    void store(TextAnalysisJob job) throws IOException {
+        final Properties props = new Properties();
+        synchronized (job) {
+            props.setProperty("id", job.getId());
+            props.setProperty("resource", job.getResource().toString());
+            props.setProperty("vocabularies", job.getVocabularies().stream().map(URI::toString)
+                                                 .collect(Collectors.joining(" ")));
+            props.setProperty("created", job.getCreated().toString());
+            props.setProperty("status", job.getStatus().name());
+            setIfPresent(props, "started", job.getStarted());
+            setIfPresent(props, "finished", job.getFinished());
+            setIfPresent(props, "error", job.getError());
+        }
+        Files.createDirectories(storage);
+        final Path target = jobFile(job.getId());
+        // Write into a temporary file first, so that a crash does not leave a corrupted job behind
+        final Path tmp = Files.createTempFile(storage, job.getId(), ".tmp");
+        try (final Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            props.store(writer, null);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void setIfPresent(Properties props, String key, Object value) {
+        if (value != null) {
+            props.setProperty(key, value.toString());
+        }
+    }
+
+    private static Optional<TextAnalysisJob> load(Path file) {
+        final Properties props = new Properties();
+        try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(reader);
+            final String vocabularies = props.getProperty("vocabularies", "");
+            final TextAnalysisJob job = new TextAnalysisJob(props.getProperty("id"),
+                                                            URI.create(props.getProperty("resource")),
+                                                            vocabularies.isEmpty() ? Collections.emptySet() :
+                                                            Arrays.stream(vocabularies.split(" ")).map(URI::create)
+                                                                  .collect(Collectors.toSet()),
+                                                            Instant.parse(props.getProperty("created")));
+            job.restore(TextAnalysisJob.Status.valueOf(props.getProperty("status")),
+                        parseInstant(props.getProperty("started")), parseInstant(props.getProperty("finished")),
+                        props.getProperty("error"));
+            return Optional.of(job);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Unable to load text analysis job from {}, skipping it.", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private static Instant parseInstant(String value) {
+        return value != null ? Instant.parse(value) : null;
+    }
+}
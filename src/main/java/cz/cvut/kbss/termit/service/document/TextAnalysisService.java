@@ -14,18 +14,25 @@
  */
 package cz.cvut.kbss.termit.service.document;
 
+import cz.cvut.kbss.termit.config.TaskExecutorConfig;
 import cz.cvut.kbss.termit.dto.TextAnalysisInput;
+import cz.cvut.kbss.termit.dto.TextAnalysisProgress;
 import cz.cvut.kbss.termit.exception.WebServiceIntegrationException;
 import cz.cvut.kbss.termit.model.AbstractTerm;
 import cz.cvut.kbss.termit.model.TextAnalysisRecord;
 import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
 import cz.cvut.kbss.termit.persistence.dao.TextAnalysisRecordDao;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Utils;
+import org.jsoup.nodes.Entities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,10 +41,11 @@ import org.springframework.web.client.RestTemplate;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class TextAnalysisService {
@@ -54,14 +62,29 @@ public class TextAnalysisService {
 
     private final TextAnalysisRecordDao recordDao;
 
+    private final TermOccurrenceDao occurrenceDao;
+
+    /**
+     * Executes term definition analysis requests.
+     */
+    private final TaskExecutor executor;
+
+    private final Map<URI, TextAnalysisProgress> definitionsAnalysisProgress = new ConcurrentHashMap<>();
+
+    private final DefinitionAnalysisMemo analysisMemo = new DefinitionAnalysisMemo();
+
     @Autowired
     public TextAnalysisService(RestTemplate restClient, Configuration config, DocumentManager documentManager,
-                               AnnotationGenerator annotationGenerator, TextAnalysisRecordDao recordDao) {
+                               AnnotationGenerator annotationGenerator, TextAnalysisRecordDao recordDao,
+                               TermOccurrenceDao occurrenceDao,
+                               @Qualifier(TaskExecutorConfig.TEXT_ANALYSIS_EXECUTOR) TaskExecutor executor) {
         this.restClient = restClient;
         this.config = config;
         this.documentManager = documentManager;
         this.annotationGenerator = annotationGenerator;
         this.recordDao = recordDao;
+        this.occurrenceDao = occurrenceDao;
+        this.executor = executor;
     }
 
     /**
@@ -148,19 +171,25 @@ public class TextAnalysisService {
      * <p>
      * The the specified vocabulary context is used for analysis. Analysis results are stored as definitional term
      * occurrences.
+     * <p>
+     * The definition is always analyzed, even if it has not changed since its last analysis, as this method is used
+     * when analysis of a single definition is explicitly requested.
      *
      * @param term Term whose definition is to be analyzed.
      */
     public void analyzeTermDefinition(AbstractTerm term, URI vocabularyContext) {
         Objects.requireNonNull(term);
         final String language = config.getPersistence().getLanguage();
-        if (term.getDefinition() != null && term.getDefinition().contains(language)) {
-            final TextAnalysisInput input = new TextAnalysisInput(term.getDefinition().get(language), language,
-                    URI.create(config.getRepository().getUrl()));
-            input.addVocabularyContext(vocabularyContext);
-
-            invokeTextAnalysisOnTerm(term, input);
+        if (!hasDefinitionIn(term, language)) {
+            return;
         }
+        final long mark = analysisMemo.currentMark(vocabularyContext);
+        invokeTextAnalysisOnTerm(term, createAnalysisInput(term, language, vocabularyContext));
+        analysisMemo.recordAnalyzed(term, language, vocabularyContext, mark);
+    }
+
+    private static boolean hasDefinitionIn(AbstractTerm term, String language) {
+        return term.getDefinition() != null && term.getDefinition().contains(language);
     }
 
     private void invokeTextAnalysisOnTerm(AbstractTerm term, TextAnalysisInput input) {
@@ -177,4 +206,217 @@ public class TextAnalysisService {
             throw new WebServiceIntegrationException("Unable to read text analysis result from response.", e);
         }
     }
+
+    /**
+     * Invokes text analysis on definitions of the specified terms.
+     * <p>
+     * Definitions are sent to the text analysis service in groups of at most {@link
+     * Configuration.TextAnalysis#getDefinitionsPerRequest()}, each definition wrapped in an element identifying the
+     * term (see {@link Constants#TERM_DEFINITION_ATTRIBUTE}). The requests are executed concurrently, at most {@link
+     * Configuration.TextAnalysis#getParallelism()} at a time, and their results are stored in batches of {@link
+     * Configuration.TextAnalysis#getBatchSize()} definitions. Failure of a request does not stop the analysis of the
+     * remaining definitions, it is just recorded in the analysis progress.
+     * <p>
+     * This method blocks until all the definitions are analyzed.
+     *
+     * @param terms             Terms whose definitions are to be analyzed
+     * @param vocabularyContext Identifier of the vocabulary used for analysis
+     * @return Progress of the analysis, already finished
+     * @see #getTermDefinitionsAnalysisProgress(URI)
+     */
+    public TextAnalysisProgress analyzeTermDefinitions(Collection<? extends AbstractTerm> terms,
+                                                       URI vocabularyContext) {
+        return analyzeTermDefinitions(terms, vocabularyContext, () -> false);
+    }
+
+    /**
+     * Invokes text analysis on definitions of the specified terms, stopping when it is cancelled.
+     * <p>
+     * Cancellation is cooperative: once the specified supplier returns {@code true}, no more definitions are sent for
+     * analysis, but results of the requests already sent are still stored.
+     *
+     * @param terms             Terms whose definitions are to be analyzed
+     * @param vocabularyContext Identifier of the vocabulary used for analysis
+     * @param cancelled         Indicates whether the analysis has been cancelled
+     * @return Progress of the analysis, already finished
+     * @see #analyzeTermDefinitions(Collection, URI)
+     */
+    public TextAnalysisProgress analyzeTermDefinitions(Collection<? extends AbstractTerm> terms,
+                                                       URI vocabularyContext, BooleanSupplier cancelled) {
+        Objects.requireNonNull(terms);
+        Objects.requireNonNull(vocabularyContext);
+        final String language = config.getPersistence().getLanguage();
+        final long mark = analysisMemo.currentMark(vocabularyContext);
+        final List<AbstractTerm> toAnalyze = terms.stream().filter(t -> hasDefinitionIn(t, language))
+                                                  .filter(t -> !analysisMemo.isUpToDate(t, language,
+                                                                                        vocabularyContext))
+                                                  .collect(Collectors.toList());
+        final TextAnalysisProgress progress = new TextAnalysisProgress(vocabularyContext, toAnalyze.size());
+        definitionsAnalysisProgress.put(vocabularyContext, progress);
+        LOG.debug("Analyzing definitions of {} terms using vocabulary {}, {} terms are up to date.", toAnalyze.size(),
+                  vocabularyContext, terms.size() - toAnalyze.size());
+
+        final CompletionService<AnnotatedDefinitions> completionService =
+                new ExecutorCompletionService<>(executor);
+        final Configuration.TextAnalysis taConfig = config.getTextAnalysis();
+        final int maxPending = taConfig.getParallelism() + taConfig.getQueueCapacity();
+        final int chunkSize = Math.max(taConfig.getDefinitionsPerRequest(), 1);
+        final Iterator<List<AbstractTerm>> it = IntStream.range(0, (toAnalyze.size() + chunkSize - 1) / chunkSize)
+                                                         .mapToObj(i -> toAnalyze.subList(i * chunkSize,
+                                                                                          Math.min((i + 1) * chunkSize,
+                                                                                                   toAnalyze.size())))
+                                                         .iterator();
+        final Map<Future<AnnotatedDefinitions>, List<AbstractTerm>> pending = new HashMap<>();
+        final List<AnnotatedDefinitions> batch = new ArrayList<>();
+        try {
+            while ((it.hasNext() && !cancelled.getAsBoolean()) || !pending.isEmpty()) {
+                while (it.hasNext() && pending.size() < maxPending && !cancelled.getAsBoolean()) {
+                    final List<AbstractTerm> chunk = it.next();
+                    final TextAnalysisInput input = createAnalysisInput(chunk, language, vocabularyContext);
+                    pending.put(completionService.submit(() -> new AnnotatedDefinitions(chunk, readResult(input))),
+                                chunk);
+                }
+                final Future<AnnotatedDefinitions> completed = completionService.take();
+                final List<AbstractTerm> chunk = pending.remove(completed);
+                try {
+                    batch.add(completed.get());
+                } catch (ExecutionException e) {
+                    LOG.error("Text analysis of definitions of {} terms failed.", chunk.size(), e.getCause());
+                    progress.addFailed(chunk.size());
+                }
+                if (definitionCount(batch) >= taConfig.getBatchSize()) {
+                    saveAnnotations(batch, progress, mark);
+                }
+            }
+            saveAnnotations(batch, progress, mark);
+            if (it.hasNext()) {
+                LOG.debug("Analysis of term definitions using vocabulary {} cancelled.", vocabularyContext);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Analysis of term definitions using vocabulary {} interrupted.", vocabularyContext);
+        } finally {
+            progress.finish();
+            LOG.debug("Finished analysis of term definitions: {}.", progress);
+        }
+        return progress;
+    }
+
+    private TextAnalysisInput createAnalysisInput(AbstractTerm term, String language, URI vocabularyContext) {
+        final TextAnalysisInput input = new TextAnalysisInput(term.getDefinition().get(language), language,
+                URI.create(config.getRepository().getUrl()));
+        input.addVocabularyContext(vocabularyContext);
+        return input;
+    }
+
+    /**
+     * Creates analysis input containing HTML document with definitions of the specified terms, each wrapped in an
+     * element identifying the term.
+     */
+    private TextAnalysisInput createAnalysisInput(List<AbstractTerm> terms, String language, URI vocabularyContext) {
+        final StringBuilder content = new StringBuilder("<html><body>");
+        for (AbstractTerm term : terms) {
+            content.append("<div ").append(Constants.TERM_DEFINITION_ATTRIBUTE).append("=\"")
+                   .append(Entities.escape(term.getUri().toString())).append("\">")
+                   .append(Entities.escape(term.getDefinition().get(language)))
+                   .append("</div>");
+        }
+        content.append("</body></html>");
+        final TextAnalysisInput input = new TextAnalysisInput(content.toString(), language,
+                URI.create(config.getRepository().getUrl()));
+        input.addVocabularyContext(vocabularyContext);
+        return input;
+    }
+
+    private byte[] readResult(TextAnalysisInput input) throws IOException {
+        final Resource result = invokeTextAnalysisService(input);
+        try (final InputStream is = result.getInputStream()) {
+            return is.readAllBytes();
+        }
+    }
+
+    private static int definitionCount(List<AnnotatedDefinitions> batch) {
+        return batch.stream().mapToInt(d -> d.getTerms().size()).sum();
+    }
+
+    private void saveAnnotations(List<AnnotatedDefinitions> batch, TextAnalysisProgress progress, long mark) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final int count = definitionCount(batch);
+        try {
+            annotationGenerator.generateAnnotations(new ArrayList<>(batch));
+            final String language = config.getPersistence().getLanguage();
+            batch.forEach(d -> d.getTerms().forEach(
+                    t -> analysisMemo.recordAnalyzed(t, language, progress.getVocabulary(), mark)));
+            progress.addProcessed(count);
+        } catch (RuntimeException e) {
+            LOG.error("Unable to store annotations of {} term definitions.", count, e);
+            progress.addFailed(count);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Notifies this service that the specified term has been added.
+     * <p>
+     * Definitions in which label of the new term may occur will be analyzed again on the next analysis, other
+     * definitions whose analysis is up to date are skipped.
+     *
+     * @param term The new term
+     */
+    public void termAdded(AbstractTerm term) {
+        Objects.requireNonNull(term);
+        analysisMemo.invalidate(labelOf(term));
+    }
+
+    /**
+     * Notifies this service that label of the specified term has changed.
+     * <p>
+     * Definitions containing occurrences of the term (i.e., of its original label) and definitions in which the new
+     * label may occur will be analyzed again on the next analysis, other definitions whose analysis is up to date are
+     * skipped.
+     *
+     * @param original Term before the change
+     * @param update   Term after the change
+     */
+    @Transactional(readOnly = true)
+    public void termLabelChanged(AbstractTerm original, AbstractTerm update) {
+        Objects.requireNonNull(original);
+        Objects.requireNonNull(update);
+        final String newLabel = labelOf(update);
+        if (Objects.equals(labelOf(original), newLabel)) {
+            return;
+        }
+        analysisMemo.invalidateDefinitionsOf(occurrenceDao.findDefinitionsContainingOccurrencesOf(original.getUri()));
+        analysisMemo.invalidate(newLabel);
+    }
+
+    /**
+     * Notifies this service that the specified term has been removed.
+     * <p>
+     * Definitions containing occurrences of the removed term will be analyzed again on the next analysis.
+     *
+     * @param term The removed term
+     */
+    @Transactional(readOnly = true)
+    public void termRemoved(AbstractTerm term) {
+        Objects.requireNonNull(term);
+        analysisMemo.forget(term.getUri());
+        analysisMemo.invalidateDefinitionsOf(occurrenceDao.findDefinitionsContainingOccurrencesOf(term.getUri()));
+    }
+
+    private String labelOf(AbstractTerm term) {
+        return term.getLabel() != null ? term.getLabel().get(config.getPersistence().getLanguage()) : null;
+    }
+
+    /**
+     * Gets progress of the latest analysis of term definitions using the specified vocabulary.
+     *
+     * @param vocabularyContext Identifier of the vocabulary used for analysis
+     * @return Analysis progress, empty if no analysis using the specified vocabulary has been run
+     */
+    public Optional<TextAnalysisProgress> getTermDefinitionsAnalysisProgress(URI vocabularyContext) {
+        return Optional.ofNullable(definitionsAnalysisProgress.get(vocabularyContext));
+    }
 }
@@ -0,0 +1,170 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ * <p>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.config.TaskExecutorConfig;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Schedules analysis of terms in vocabularies, merging requests for the same vocabulary.
+ * <p>
+ * An analysis is executed only after no new request for the same vocabulary arrives for the configured quiet period
+ * (see {@link Configuration.TextAnalysis#getQuietPeriod()}). Only the latest request is executed, the earlier ones are
+ * dropped. If an analysis of the vocabulary is already running when a new request arrives, it is marked as superseded.
+ * The running analysis is expected to check this flag and stop submitting new work, while finishing (and storing the
+ * results of) the work already in progress. The new analysis is started after the running one finishes.
+ */
+@Component
+public class VocabularyAnalysisScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VocabularyAnalysisScheduler.class);
+
+    private final Configuration.TextAnalysis config;
+
+    private final TaskScheduler scheduler;
+
+    // Guarded by this
+    private final Map<URI, Slot> slots = new HashMap<>();
+
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    @Autowired
+    public VocabularyAnalysisScheduler(Configuration config,
+                                       @Qualifier(TaskExecutorConfig.VOCABULARY_ANALYSIS_SCHEDULER) TaskScheduler scheduler) {
+        this.config = config.getTextAnalysis();
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Schedules the specified analysis of the specified vocabulary, replacing any analysis of the vocabulary waiting for
+     * execution.
+     *
+     * @param vocabulary Identifier of the analyzed vocabulary
+     * @param analysis   The analysis to run. The supplier passed to it indicates whether the analysis has been
+     *                   superseded by a newer one
+     */
+    public synchronized void schedule(URI vocabulary, Consumer<BooleanSupplier> analysis) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(analysis);
+        final Slot slot = slots.computeIfAbsent(vocabulary, v -> new Slot());
+        if (slot.pending != null) {
+            slot.pending.cancel(false);
+            coalescedCount.incrementAndGet();
+            LOG.trace("Merging analysis request for vocabulary {} with a pending one.", vocabulary);
+        }
+        if (slot.running != null && !slot.running.superseded) {
+            LOG.debug("Running analysis of vocabulary {} superseded by a new request.", vocabulary);
+            slot.running.superseded = true;
+        }
+        slot.analysis = analysis;
+        schedulePending(vocabulary, slot);
+    }
+
+    private void schedulePending(URI vocabulary, Slot slot) {
+        final long generation = ++slot.generation;
+        slot.pending = scheduler.schedule(() -> execute(vocabulary, generation),
+                                          Instant.now().plus(config.getQuietPeriod()));
+    }
+
+    private void execute(URI vocabulary, long generation) {
+        final Slot slot;
+        final Run run;
+        synchronized (this) {
+            slot = slots.get(vocabulary);
+            if (slot == null || slot.generation != generation) {
+                // Replaced by a newer request in the meantime
+                return;
+            }
+            if (slot.running != null) {
+                // The superseded analysis is still finishing, try again later
+                schedulePending(vocabulary, slot);
+                return;
+            }
+            run = new Run(slot.analysis);
+            slot.running = run;
+            slot.pending = null;
+            slot.analysis = null;
+        }
+        LOG.debug("Executing analysis of vocabulary {}.", vocabulary);
+        try {
+            run.analysis.accept(() -> run.superseded);
+        } catch (RuntimeException e) {
+            LOG.error("Analysis of vocabulary {} failed.", vocabulary, e);
+        } finally {
+            synchronized (this) {
+                slot.running = null;
+                if (slot.pending == null) {
+                    slots.remove(vocabulary);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of vocabulary analyses waiting for execution.
+     */
+    public synchronized int getQueueDepth() {
+        return (int) slots.values().stream().filter(s -> s.pending != null).count();
+    }
+
+    /**
+     * Gets the number of vocabulary analyses currently running.
+     */
+    public synchronized int getRunningCount() {
+        return (int) slots.values().stream().filter(s -> s.running != null).count();
+    }
+
+    /**
+     * Gets the number of analysis requests merged with a pending request for the same vocabulary.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private static class Slot {
+        private long generation;
+        private ScheduledFuture<?> pending;
+        private Consumer<BooleanSupplier> analysis;
+        private Run running;
+    }
+
+    private static class Run {
+        private final Consumer<BooleanSupplier> analysis;
+        private volatile boolean superseded;
+
+        private Run(Consumer<BooleanSupplier> analysis) {
+            this.analysis = analysis;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * TermIt Copyright (C) 2019 Czech Technical University in Prague
+ * <p>
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.html;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Text content of an HTML/XML document with positions of elements in it.
+ * <p>
+ * The document is traversed only once, when an instance is created. The text is a concatenation of the text of all
+ * nodes in document order, corresponding to {@link Element#wholeText()} of the root. For every element, the start and
+ * end offsets of its text content are recorded, so that text preceding or following an element can be retrieved
+ * without traversing the document again.
+ * <p>
+ * The document must not be structurally modified after the instance is created.
+ */
+public final class DocumentText {
+
+    private final String text;
+
+    private final Map<Element, int[]> offsets = new IdentityHashMap<>();
+
+    private DocumentText(Node root) {
+        final StringBuilder sb = new StringBuilder();
+        NodeTraversor.traverse(new NodeVisitor() {
+            @Override
+            public void head(Node node, int depth) {
+                if (node instanceof TextNode) {
+                    sb.append(((TextNode) node).getWholeText());
+                } else if (node instanceof Element) {
+                    offsets.put((Element) node, new int[]{sb.length(), sb.length()});
+                    // Consistent with Element.wholeText
+                    if ("br".equals(((Element) node).normalName())) {
+                        sb.append('\n');
+                    }
+                }
+            }
+
+            @Override
+            public void tail(Node node, int depth) {
+                if (node instanceof Element) {
+                    offsets.get(node)[1] = sb.length();
+                }
+            }
+        }, root);
+        this.text = sb.toString();
+    }
+
+    /**
+     * Creates text index of the document the specified node belongs to.
+     *
+     * @param node Node whose root is indexed
+     * @return Document text index
+     */
+    public static DocumentText of(Node node) {
+        return new DocumentText(Objects.requireNonNull(node).root());
+    }
+
+    /**
+     * Gets the offset at which text content of the specified element starts.
+     *
+     * @param element Element from the indexed document
+     * @return Start offset
+     * @throws IllegalArgumentException If the element is not part of the indexed document
+     */
+    public int startOf(Element element) {
+        return offsetsOf(element)[0];
+    }
+
+    /**
+     * Gets the offset at which text content of the specified element ends (exclusive).
+     *
+     * @param element Element from the indexed document
+     * @return End offset
+     * @throws IllegalArgumentException If the element is not part of the indexed document
+     */
+    public int endOf(Element element) {
+        return offsetsOf(element)[1];
+    }
+
+    private int[] offsetsOf(Element element) {
+        final int[] result = offsets.get(element);
+        if (result == null) {
+            throw new IllegalArgumentException("Element " + element + " is not part of the indexed document.");
+        }
+        return result;
+    }
+
+    /**
+     * Gets text between the specified offsets.
+     * <p>
+     * The offsets are trimmed to the bounds of the text.
+     *
+     * @param start Start offset (inclusive)
+     * @param end   End offset (exclusive)
+     * @return Text between the offsets, possibly empty
+     */
+    public String substring(int start, int end) {
+        final int from = Math.max(0, start);
+        final int to = Math.min(text.length(), end);
+        return from < to ? text.substring(from, to) : "";
+    }
+
+    /**
+     * Length of the whole text.
+     */
+    public int length() {
+        return text.length();
+    }
+}
@@ -42,11 +42,27 @@ public class HtmlSelectorGenerators {
 
     /**
      * Generates selectors for the specified HTML/XML elements.
+     * <p>
+     * Text of the document containing the elements is indexed on every call, use {@link
+     * #generateSelectors(DocumentText, Element...)} when generating selectors for multiple elements of the same
+     * document.
      *
      * @param elements Elements to generate selectors for
      * @return Set of generated selectors
      */
     public Set<Selector> generateSelectors(Element... elements) {
-        return generators.stream().map(g -> g.generateSelector(elements)).collect(Collectors.toSet());
+        assert elements.length > 0;
+        return generateSelectors(DocumentText.of(elements[0]), elements);
+    }
+
+    /**
+     * Generates selectors for the specified HTML/XML elements.
+     *
+     * @param text     Text index of the document containing the elements
+     * @param elements Elements to generate selectors for
+     * @return Set of generated selectors
+     */
+    public Set<Selector> generateSelectors(DocumentText text, Element... elements) {
+        return generators.stream().map(g -> g.generateSelector(text, elements)).collect(Collectors.toSet());
     }
 }
@@ -16,10 +16,13 @@ package cz.cvut.kbss.termit.service.document.html;
 
 import cz.cvut.kbss.termit.exception.AnnotationGenerationException;
 import cz.cvut.kbss.termit.exception.TermItException;
+import cz.cvut.kbss.termit.model.AbstractTerm;
 import cz.cvut.kbss.termit.model.Asset;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.selector.TextPositionSelector;
+import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
 import cz.cvut.kbss.termit.service.document.DocumentManager;
 import cz.cvut.kbss.termit.service.document.TermOccurrenceResolver;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
@@ -43,7 +46,13 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Resolves term occurrences from RDFa-annotated HTML document.
@@ -87,6 +96,50 @@ public class HtmlTermOccurrenceResolver extends TermOccurrenceResolver {
         }
     }
 
+    /**
+     * Finds term occurrences in content containing annotated definitions of multiple terms.
+     * <p>
+     * Definition of each term is expected to be wrapped in an element whose {@link Constants#TERM_DEFINITION_ATTRIBUTE}
+     * attribute contains the term identifier. Each definition is processed separately, as if it were analyzed on its
+     * own, so that the generated selectors are relative to the definition text.
+     * <p>
+     * This method replaces any previously parsed content.
+     *
+     * @param input Annotated content containing the wrapped term definitions
+     * @param terms Terms whose definitions are contained in the input
+     * @return Map of terms to occurrences found in their definitions, definitions missing in the input are skipped
+     */
+    public Map<AbstractTerm, List<TermOccurrence>> findDefinitionOccurrences(InputStream input,
+                                                                             Collection<? extends AbstractTerm> terms) {
+        final Document content;
+        try {
+            content = Jsoup.parse(input, StandardCharsets.UTF_8.name(), "");
+        } catch (IOException e) {
+            throw new AnnotationGenerationException("Unable to read RDFa document.", e);
+        }
+        this.prefixes = resolvePrefixes(content);
+        final Map<URI, AbstractTerm> termsById = terms.stream().collect(
+                Collectors.toMap(AbstractTerm::getUri, Function.identity(), (a, b) -> a));
+        final Map<AbstractTerm, List<TermOccurrence>> result = new LinkedHashMap<>(terms.size());
+        for (Element definition : content.getElementsByAttribute(Constants.TERM_DEFINITION_ATTRIBUTE)) {
+            final String termId = definition.attr(Constants.TERM_DEFINITION_ATTRIBUTE);
+            final AbstractTerm term = termsById.get(URI.create(termId));
+            if (term == null) {
+                LOG.warn("Skipping definition of unexpected term {}.", termId);
+                continue;
+            }
+            this.document = Document.createShell("");
+            document.body().insertChildren(0, definition.childNodesCopy());
+            this.source = term;
+            this.annotatedElements = null;
+            result.put(term, resolveOccurrences());
+        }
+        // Check all the definitions at once instead of one query per definition
+        verifyTermsExist(result.values().stream().flatMap(List::stream).collect(Collectors.toList()));
+        result.replaceAll((term, occurrences) -> filterByScore(occurrences));
+        return result;
+    }
+
     @Override
     public InputStream getContent() {
         assert document != null;
@@ -100,18 +153,25 @@ public class HtmlTermOccurrenceResolver extends TermOccurrenceResolver {
     private static Map<String, String> resolvePrefixes(Document document) {
         final Map<String, String> map = new HashMap<>(4);
         final Elements prefixElements = document.getElementsByAttribute(Constants.RDFa.PREFIX);
-        prefixElements.forEach(element -> {
-            final String prefixStr = element.attr(Constants.RDFa.PREFIX);
-            final String[] prefixDefinitions = prefixStr.split("[^:] ");
-            for (String def : prefixDefinitions) {
-                final String[] split = def.split(": ");
-                assert split.length == 2;
-                map.put(split[0].trim(), split[1].trim());
-            }
-        });
+        prefixElements.forEach(element -> addPrefixes(element.attr(Constants.RDFa.PREFIX), map));
         return map;
     }
 
+    /**
+     * Adds prefixes declared in the specified value of an RDFa prefix attribute into the specified map.
+     *
+     * @param prefixStr RDFa prefix attribute value
+     * @param prefixes  Map of prefixes to their namespaces
+     */
+    static void addPrefixes(String prefixStr, Map<String, String> prefixes) {
+        final String[] prefixDefinitions = prefixStr.split("[^:] ");
+        for (String def : prefixDefinitions) {
+            final String[] split = def.split(": ");
+            assert split.length == 2;
+            prefixes.put(split[0].trim(), split[1].trim());
+        }
+    }
+
     private void mapRDFaTermOccurrenceAnnotations() {
         this.annotatedElements = new LinkedHashMap<>();
         final Elements elements = document.getElementsByAttribute(Constants.RDFa.ABOUT);
@@ -128,19 +188,40 @@ public class HtmlTermOccurrenceResolver extends TermOccurrenceResolver {
         if (!rdfaElem.hasAttr(Constants.RDFa.RESOURCE) && !rdfaElem.hasAttr(Constants.RDFa.CONTENT)) {
             return true;
         }
-        final String typesString = rdfaElem.attr(Constants.RDFa.TYPE);
+        return !isTermOccurrenceType(rdfaElem.attr(Constants.RDFa.TYPE), prefixes);
+    }
+
+    /**
+     * Checks whether the specified value of an RDFa type attribute contains the term occurrence type.
+     *
+     * @param typesString RDFa type attribute value
+     * @param prefixes    Map of known prefixes to their namespaces
+     * @return {@code true} if term occurrence is among the types, {@code false} otherwise
+     */
+    static boolean isTermOccurrenceType(String typesString, Map<String, String> prefixes) {
         final String[] types = typesString.split(" ");
         // Perhaps we should check also for correct property?
         for (String type : types) {
-            final String fullType = fullIri(type);
+            final String fullType = fullIri(type, prefixes);
             if (fullType.equals(cz.cvut.kbss.termit.util.Vocabulary.s_c_vyskyt_termu)) {
-                return false;
+                return true;
             }
         }
-        return true;
+        return false;
     }
 
     private String fullIri(String possiblyPrefixed) {
+        return fullIri(possiblyPrefixed, prefixes);
+    }
+
+    /**
+     * Expands the specified possibly prefixed IRI using the specified prefixes.
+     *
+     * @param possiblyPrefixed IRI to expand
+     * @param prefixes         Map of known prefixes to their namespaces
+     * @return Full IRI, or the trimmed argument if it does not use a known prefix
+     */
+    static String fullIri(String possiblyPrefixed, Map<String, String> prefixes) {
         possiblyPrefixed = possiblyPrefixed.trim();
         final int colonIndex = possiblyPrefixed.indexOf(':');
         if (colonIndex == -1) {
@@ -156,42 +237,84 @@ public class HtmlTermOccurrenceResolver extends TermOccurrenceResolver {
 
     @Override
     public List<TermOccurrence> findTermOccurrences() {
+        final List<TermOccurrence> occurrences = resolveOccurrences();
+        verifyTermsExist(occurrences);
+        return filterByScore(occurrences);
+    }
+
+    /**
+     * Resolves term occurrences from the RDFa annotations in the current document.
+     * <p>
+     * Neither existence of the occurring terms nor the score threshold are checked here.
+     */
+    private List<TermOccurrence> resolveOccurrences() {
         assert document != null;
         if (annotatedElements == null) {
             mapRDFaTermOccurrenceAnnotations();
         }
         final List<TermOccurrence> result = new ArrayList<>(annotatedElements.size());
-        final Double scoreThreshold = Double.parseDouble(config.getTextAnalysis().getTermOccurrenceMinScore());
+        // Index document text once so that selectors are generated without repeatedly traversing the document
+        final DocumentText text = DocumentText.of(document);
         for (List<Element> elements : annotatedElements.values()) {
             LOG.trace("Processing RDFa annotated elements {}.", elements);
-            final Optional<TermOccurrence> occurrence = resolveAnnotation(elements, source);
-            occurrence.ifPresent(to -> {
-                if (to.getScore() != null && to.getScore() > scoreThreshold) {
-                    LOG.trace("Found term occurrence {}.", to);
-                    result.add(to);
-                } else {
-                    LOG.trace("The score of this occurrence {} is lower than the specified threshold", to);
-                }
-            });
+            resolveAnnotation(elements, text, source).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    private List<TermOccurrence> filterByScore(List<TermOccurrence> occurrences) {
+        final Double scoreThreshold = Double.parseDouble(config.getTextAnalysis().getTermOccurrenceMinScore());
+        final List<TermOccurrence> result = new ArrayList<>(occurrences.size());
+        for (TermOccurrence to : occurrences) {
+            if (to.getScore() != null && to.getScore() > scoreThreshold) {
+                LOG.trace("Found term occurrence {}.", to);
+                result.add(to);
+            } else {
+                LOG.trace("The score of this occurrence {} is lower than the specified threshold", to);
+            }
         }
         return result;
     }
 
-    private Optional<TermOccurrence> resolveAnnotation(List<Element> rdfaElem, Asset<?> source) {
+    /**
+     * Verifies that all the terms referenced by the specified occurrences exist.
+     * <p>
+     * The terms are checked in bulk, so the cost does not grow with the number of distinct terms in the content.
+     *
+     * @param occurrences Occurrences to check
+     * @throws AnnotationGenerationException When an occurrence references an unknown term
+     */
+    private void verifyTermsExist(Collection<TermOccurrence> occurrences) {
+        final Set<URI> termUris = occurrences.stream().map(TermOccurrence::getTerm)
+                                             .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (termUris.isEmpty()) {
+            return;
+        }
+        final Set<URI> existing = termService.filterExisting(termUris);
+        for (TermOccurrence to : occurrences) {
+            if (!existing.contains(to.getTerm())) {
+                throw new AnnotationGenerationException("Term with id " + to.getTerm() +
+                                                                " denoted by RDFa annotation in " +
+                                                                to.getTarget().getSource() + " not found.");
+            }
+        }
+    }
+
+    private Optional<TermOccurrence> resolveAnnotation(List<Element> rdfaElem, DocumentText text, Asset<?> source) {
         assert !rdfaElem.isEmpty();
         final String termId = fullIri(rdfaElem.get(0).attr(Constants.RDFa.RESOURCE));
         if (termId.isEmpty()) {
             LOG.trace("No term identifier found in RDFa element {}. Skipping it.", rdfaElem);
             return Optional.empty();
         }
-        final URI termUri = URI.create(termId);
-        if (!termService.exists(termUri)) {
-            throw new AnnotationGenerationException(
-                    "Term with id " + termId + " denoted by RDFa element " + rdfaElem + " not found.");
-        }
-        final TermOccurrence occurrence = createOccurrence(termUri, source);
-        occurrence.getTarget().setSelectors(selectorGenerators.generateSelectors(rdfaElem.toArray(new Element[0])));
-        final String strScore = rdfaElem.get(0).attr("score");
+        final TermOccurrence occurrence = createOccurrence(URI.create(termId), source);
+        occurrence.getTarget()
+                  .setSelectors(selectorGenerators.generateSelectors(text, rdfaElem.toArray(new Element[0])));
+        resolveScore(occurrence, rdfaElem.get(0).attr("score"));
+        return Optional.of(occurrence);
+    }
+
+    private static void resolveScore(TermOccurrence occurrence, String strScore) {
         if (!strScore.isEmpty()) {
             try {
                 final Double score = Double.parseDouble(strScore);
@@ -201,6 +324,81 @@ public class HtmlTermOccurrenceResolver extends TermOccurrenceResolver {
                 LOG.error("Unable to parse score.", e);
             }
         }
+    }
+
+    /**
+     * Finds term occurrences in the specified annotated content while it is being read by the specified consumer.
+     * <p>
+     * Unlike {@link #parseContent(InputStream, Asset)} and {@link #findTermOccurrences()}, the content is not parsed
+     * into a DOM. Instead, it is tokenized as the consumer reads it (e.g., when saving it into a file) and term
+     * occurrences are resolved on the fly, so memory consumption does not depend on the size of the content. The
+     * consumer gets the content unchanged and is expected to read it whole.
+     * <p>
+     * The content is buffered in a temporary file while it is being tokenized and passed to the consumer only after
+     * existence of the occurring terms has been verified, so that the consumer does not get content referencing unknown
+     * terms.
+     *
+     * @param input           Annotated content
+     * @param source          Source of the content, used for term occurrence generation
+     * @param contentConsumer Consumer of the content
+     * @return List of term occurrences identified in the content
+     * @throws AnnotationGenerationException When the content contains occurrences of unknown terms
+     */
+    public List<TermOccurrence> findTermOccurrences(InputStream input, Asset<?> source,
+                                                    Consumer<InputStream> contentConsumer) {
+        Objects.requireNonNull(input);
+        Objects.requireNonNull(contentConsumer);
+        final List<TermOccurrence> result = new ArrayList<>();
+        final StreamingRdfaTokenizer tokenizer = new StreamingRdfaTokenizer(annotation -> {
+            LOG.trace("Processing RDFa annotation {}.", annotation);
+            resolveAnnotation(annotation, source).ifPresent(result::add);
+        });
+        Path buffer = null;
+        try {
+            buffer = Files.createTempFile("termit-annotated-", ".html");
+            Files.copy(new TokenizingInputStream(input, tokenizer), buffer, StandardCopyOption.REPLACE_EXISTING);
+            tokenizer.finish();
+            verifyTermsExist(result);
+            try (final InputStream content = Files.newInputStream(buffer)) {
+                contentConsumer.accept(content);
+            }
+        } catch (IOException e) {
+            throw new AnnotationGenerationException("Unable to buffer annotated content of " + source + ".", e);
+        } finally {
+            deleteQuietly(buffer);
+        }
+        return filterByScore(result);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Unable to delete temporary file {}.", file, e);
+        }
+    }
+
+    private Optional<TermOccurrence> resolveAnnotation(StreamingRdfaTokenizer.Annotation annotation, Asset<?> source) {
+        if (annotation.getTerm().isEmpty()) {
+            LOG.trace("No term identifier found in RDFa annotation {}. Skipping it.", annotation);
+            return Optional.empty();
+        }
+        final TermOccurrence occurrence = createOccurrence(URI.create(annotation.getTerm()), source);
+        final TextQuoteSelector quoteSelector = new TextQuoteSelector(annotation.getExact());
+        if (!annotation.getPrefix().isEmpty()) {
+            quoteSelector.setPrefix(annotation.getPrefix());
+        }
+        if (!annotation.getSuffix().isEmpty()) {
+            quoteSelector.setSuffix(annotation.getSuffix());
+        }
+        final TextPositionSelector positionSelector = new TextPositionSelector(annotation.getStart(),
+                                                                               annotation.getStart() +
+                                                                                       annotation.getExact().length());
+        occurrence.getTarget().setSelectors(new HashSet<>(Arrays.asList(quoteSelector, positionSelector)));
+        resolveScore(occurrence, annotation.getScore());
         return Optional.of(occurrence);
     }
 
@@ -16,8 +16,6 @@ package cz.cvut.kbss.termit.service.document.html;
 
 import cz.cvut.kbss.termit.model.selector.Selector;
 import org.jsoup.nodes.Element;
-import org.jsoup.nodes.Node;
-import org.jsoup.nodes.TextNode;
 
 /**
  * Generator of HTML/XML selectors.
@@ -32,33 +30,39 @@ interface SelectorGenerator {
      * represented by multiple elements using the <a href="https://en.wikipedia.org/wiki/Overlapping_markup#Joins">JOINS</a>
      * strategy.
      *
+     * @param text     Text index of the document containing the elements
      * @param elements Elements to generate selector for. At least one must be provided
      * @return Selector for the text content of the specified elements
      */
-    Selector generateSelector(Element... elements);
+    Selector generateSelector(DocumentText text, Element... elements);
+
+    /**
+     * Generates selector for the specified elements' content.
+     * <p>
+     * This indexes text of the whole document containing the elements, so {@link #generateSelector(DocumentText,
+     * Element...)} with a shared {@link DocumentText} should be preferred when generating selectors for multiple
+     * elements of the same document.
+     *
+     * @param elements Elements to generate selector for. At least one must be provided
+     * @return Selector for the text content of the specified elements
+     */
+    default Selector generateSelector(Element... elements) {
+        assert elements.length > 0;
+        return generateSelector(DocumentText.of(elements[0]), elements);
+    }
 
     /**
      * Extracts text content of the specified elements, joining them into one string.
      *
+     * @param text     Text index of the document containing the elements
      * @param elements Elements to extract text from
      * @return Text content
      */
-    default String extractExactText(Element[] elements) {
+    default String extractExactText(DocumentText text, Element[] elements) {
         final StringBuilder sb = new StringBuilder();
         for (Element element : elements) {
-            sb.append(element.wholeText());
+            sb.append(text.substring(text.startOf(element), text.endOf(element)));
         }
         return sb.toString();
     }
-
-    default StringBuilder extractNodeText(Iterable<Node> nodes) {
-        final StringBuilder sb = new StringBuilder();
-        for (Node node : nodes) {
-            if (!(node instanceof TextNode) && !(node instanceof Element)) {
-                continue;
-            }
-            sb.append(node instanceof TextNode ? ((TextNode) node).getWholeText() : ((Element) node).wholeText());
-        }
-        return sb;
-    }
 }
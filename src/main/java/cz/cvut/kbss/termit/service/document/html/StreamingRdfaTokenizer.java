@@ -0,0 +1,522 @@
+/**
+ * TermIt Copyright (C) 2019 Czech Technical University in Prague
+ * <p>
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.html;
+
+import cz.cvut.kbss.termit.util.Constants;
+import org.jsoup.parser.Parser;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static cz.cvut.kbss.termit.service.document.html.TextQuoteSelectorGenerator.CONTEXT_LENGTH;
+
+/**
+ * Tokenizes RDFa-annotated HTML content in a streaming fashion, reporting term occurrence annotations as they are
+ * encountered.
+ * <p>
+ * Content is pushed into the tokenizer character by character and no document tree is built. Only the currently open
+ * elements and annotations waiting for their suffix are kept in memory.
+ * <p>
+ * Text offsets follow the text content of the document as it would be parsed by Jsoup (see {@link DocumentText}), i.e.,
+ * markup, comments and content of scripts and styles are ignored, entities are decoded and line breaks are represented
+ * by a newline. The HTML tree construction algorithm is not replicated, which does not matter for well-formed annotator
+ * output.
+ * <p>
+ * Elements with the same {@link Constants.RDFa#ABOUT} value (used to represent overlapping annotations) are merged
+ * into one annotation whose exact text is the concatenation of text content of the elements, provided that they are
+ * not separated by more than {@link TextQuoteSelectorGenerator#CONTEXT_LENGTH} characters of text.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class StreamingRdfaTokenizer {
+
+    /**
+     * Maximum length of a text chunk kept in memory before it is processed.
+     */
+    private static final int MAX_TEXT_CHUNK = 8192;
+
+    private static final Set<String> VOID_ELEMENTS = new HashSet<>(
+            Arrays.asList("area", "base", "br", "col", "embed", "hr", "img", "input", "keygen", "link", "meta",
+                          "param", "source", "track", "wbr"));
+
+    /**
+     * Elements whose content is data, not text.
+     */
+    private static final Set<String> DATA_ELEMENTS = new HashSet<>(Arrays.asList("script", "style"));
+
+    /**
+     * Elements whose content is text with no markup and no character references.
+     */
+    private static final Set<String> RAW_TEXT_ELEMENTS = new HashSet<>(
+            Arrays.asList("xmp", "iframe", "noembed", "noframes", "plaintext"));
+
+    /**
+     * Elements whose content is text with no markup, but character references are decoded.
+     */
+    private static final Set<String> RCDATA_ELEMENTS = new HashSet<>(Arrays.asList("title", "textarea"));
+
+    /**
+     * Elements in which a newline immediately following the start tag is ignored.
+     */
+    private static final Set<String> LEADING_NEWLINE_ELEMENTS = new HashSet<>(Arrays.asList("pre", "listing"));
+
+    private enum State {
+        TEXT, MARKUP, COMMENT, RAW
+    }
+
+    private final Consumer<Annotation> consumer;
+
+    private State state = State.TEXT;
+
+    /**
+     * Currently processed text or markup.
+     */
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Quote character of the currently processed attribute value in markup, 0 if outside of quotes.
+     */
+    private char quote;
+
+    private int commentDashes;
+
+    /**
+     * Name of the element whose content is currently processed as raw text.
+     */
+    private String rawElement;
+
+    private boolean skipNewline;
+
+    private boolean finished;
+
+    private int offset;
+
+    /**
+     * Text immediately preceding the current position, at most {@link TextQuoteSelectorGenerator#CONTEXT_LENGTH} long.
+     */
+    private final StringBuilder recent = new StringBuilder(CONTEXT_LENGTH * 2);
+
+    private final Map<String, String> prefixes = new HashMap<>();
+
+    private final Deque<OpenElement> openElements = new ArrayDeque<>();
+
+    /**
+     * Annotations which have not been reported yet, keyed by their RDFa about identifier.
+     */
+    private final Map<String, Annotation> pending = new LinkedHashMap<>();
+
+    StreamingRdfaTokenizer(Consumer<Annotation> consumer) {
+        this.consumer = Objects.requireNonNull(consumer);
+    }
+
+    /**
+     * Processes the specified characters.
+     *
+     * @param chars  Characters to process
+     * @param offset Offset of the first character to process
+     * @param length Number of characters to process
+     */
+    void accept(char[] chars, int offset, int length) {
+        assert !finished;
+        for (int i = offset; i < offset + length; i++) {
+            accept(chars[i]);
+        }
+    }
+
+    private void accept(char c) {
+        switch (state) {
+            case TEXT:
+                if (c == '<') {
+                    flushText(true);
+                    state = State.MARKUP;
+                } else {
+                    buffer.append(c);
+                    if (buffer.length() >= MAX_TEXT_CHUNK) {
+                        flushTextChunk();
+                    }
+                }
+                break;
+            case MARKUP:
+                acceptMarkup(c);
+                break;
+            case COMMENT:
+                if (c == '>' && commentDashes >= 2) {
+                    state = State.TEXT;
+                }
+                commentDashes = c == '-' ? commentDashes + 1 : 0;
+                break;
+            case RAW:
+                buffer.append(c);
+                if (c == '>') {
+                    tryEndRawText();
+                }
+                break;
+        }
+    }
+
+    private void acceptMarkup(char c) {
+        if (buffer.length() == 0 && !Character.isLetter(c) && c != '/' && c != '!' && c != '?') {
+            // Not markup, just a less-than sign in text
+            state = State.TEXT;
+            buffer.append('<');
+            accept(c);
+            return;
+        }
+        if (quote != 0) {
+            if (c == quote) {
+                quote = 0;
+            }
+            buffer.append(c);
+            return;
+        }
+        if (c == '>') {
+            final String markup = buffer.toString();
+            buffer.setLength(0);
+            state = State.TEXT;
+            processMarkup(markup);
+            return;
+        }
+        buffer.append(c);
+        if (buffer.length() == 3 && "!--".contentEquals(buffer)) {
+            buffer.setLength(0);
+            commentDashes = 0;
+            state = State.COMMENT;
+        } else if ((c == '"' || c == '\'') && buffer.charAt(0) != '!' && buffer.charAt(0) != '?' &&
+                buffer.length() > 1 && isAttributeValueStart(buffer.length() - 2)) {
+            quote = c;
+        }
+    }
+
+    private boolean isAttributeValueStart(int index) {
+        int i = index;
+        while (i >= 0 && Character.isWhitespace(buffer.charAt(i))) {
+            i--;
+        }
+        return i >= 0 && buffer.charAt(i) == '=';
+    }
+
+    private void processMarkup(String markup) {
+        if (markup.startsWith("/")) {
+            final String name = tagName(markup, 1);
+            if (!name.isEmpty()) {
+                endElement(name);
+            }
+        } else if (Character.isLetter(markup.charAt(0))) {
+            startElement(markup);
+        }
+        // Declarations, processing instructions and bogus comments are ignored
+    }
+
+    private static String tagName(String markup, int start) {
+        int end = start;
+        while (end < markup.length() && !Character.isWhitespace(markup.charAt(end)) && markup.charAt(end) != '/') {
+            end++;
+        }
+        return markup.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    private void startElement(String markup) {
+        final String name = tagName(markup, 0);
+        final boolean selfClosing = markup.endsWith("/");
+        final Map<String, String> attributes = parseAttributes(markup, name.length(), selfClosing);
+        skipNewline = false;
+        if (attributes.containsKey(Constants.RDFa.PREFIX)) {
+            HtmlTermOccurrenceResolver.addPrefixes(attributes.get(Constants.RDFa.PREFIX), prefixes);
+        }
+        if ("br".equals(name)) {
+            appendText("\n");
+        }
+        final Annotation annotation = openAnnotation(attributes);
+        if (selfClosing || VOID_ELEMENTS.contains(name)) {
+            if (annotation != null) {
+                closeAnnotation(annotation);
+            }
+            return;
+        }
+        openElements.push(new OpenElement(name, annotation));
+        if (DATA_ELEMENTS.contains(name) || RAW_TEXT_ELEMENTS.contains(name) || RCDATA_ELEMENTS.contains(name)) {
+            rawElement = name;
+            state = State.RAW;
+        }
+        skipNewline = LEADING_NEWLINE_ELEMENTS.contains(name);
+    }
+
+    private static Map<String, String> parseAttributes(String markup, int start, boolean selfClosing) {
+        final Map<String, String> attributes = new HashMap<>();
+        final int end = selfClosing ? markup.length() - 1 : markup.length();
+        int i = start;
+        while (i < end) {
+            while (i < end && (Character.isWhitespace(markup.charAt(i)) || markup.charAt(i) == '/')) {
+                i++;
+            }
+            final int nameStart = i;
+            while (i < end && !Character.isWhitespace(markup.charAt(i)) && markup.charAt(i) != '=' &&
+                    markup.charAt(i) != '/') {
+                i++;
+            }
+            if (i == nameStart) {
+                break;
+            }
+            final String name = markup.substring(nameStart, i).toLowerCase(Locale.ROOT);
+            while (i < end && Character.isWhitespace(markup.charAt(i))) {
+                i++;
+            }
+            String value = "";
+            if (i < end && markup.charAt(i) == '=') {
+                i++;
+                while (i < end && Character.isWhitespace(markup.charAt(i))) {
+                    i++;
+                }
+                if (i < end && (markup.charAt(i) == '"' || markup.charAt(i) == '\'')) {
+                    final char q = markup.charAt(i);
+                    final int valueEnd = markup.indexOf(q, i + 1);
+                    final int valueLimit = valueEnd < 0 ? markup.length() : valueEnd;
+                    value = markup.substring(i + 1, valueLimit);
+                    i = valueLimit + 1;
+                } else {
+                    final int valueStart = i;
+                    while (i < end && !Character.isWhitespace(markup.charAt(i))) {
+                        i++;
+                    }
+                    value = markup.substring(valueStart, i);
+                }
+            }
+            // The first occurrence of an attribute wins, as in HTML parsing
+            attributes.putIfAbsent(name, Parser.unescapeEntities(value, true));
+        }
+        return attributes;
+    }
+
+    private Annotation openAnnotation(Map<String, String> attributes) {
+        final String about = attributes.get(Constants.RDFa.ABOUT);
+        if (about == null || (!attributes.containsKey(Constants.RDFa.RESOURCE) && !attributes.containsKey(
+                Constants.RDFa.CONTENT))) {
+            return null;
+        }
+        if (!HtmlTermOccurrenceResolver.isTermOccurrenceType(attributes.getOrDefault(Constants.RDFa.TYPE, ""),
+                                                             prefixes)) {
+            return null;
+        }
+        Annotation annotation = pending.get(about);
+        if (annotation == null) {
+            annotation = new Annotation(about,
+                                        HtmlTermOccurrenceResolver.fullIri(
+                                                attributes.getOrDefault(Constants.RDFa.RESOURCE, ""), prefixes),
+                                        attributes.getOrDefault("score", ""), offset, recent.toString());
+            pending.put(about, annotation);
+        }
+        annotation.openCount++;
+        return annotation;
+    }
+
+    private void endElement(String name) {
+        final boolean isOpen = openElements.stream().anyMatch(e -> e.name.equals(name));
+        if (!isOpen) {
+            return;
+        }
+        skipNewline = false;
+        OpenElement element;
+        do {
+            element = openElements.pop();
+            if (element.annotation != null) {
+                closeAnnotation(element.annotation);
+            }
+        } while (!element.name.equals(name));
+    }
+
+    private static void closeAnnotation(Annotation annotation) {
+        annotation.openCount--;
+        if (annotation.openCount == 0) {
+            // Suffix follows the last element of the annotation
+            annotation.suffix.setLength(0);
+        }
+    }
+
+    private void tryEndRawText() {
+        final int endTagStart = buffer.lastIndexOf("</");
+        if (endTagStart < 0 || !rawElement.equalsIgnoreCase(
+                buffer.substring(endTagStart + 2, buffer.length() - 1).trim())) {
+            return;
+        }
+        buffer.setLength(endTagStart);
+        final String element = rawElement;
+        if (DATA_ELEMENTS.contains(element)) {
+            buffer.setLength(0);
+        } else {
+            flushText(RCDATA_ELEMENTS.contains(element));
+        }
+        rawElement = null;
+        state = State.TEXT;
+        endElement(element);
+    }
+
+    private void flushTextChunk() {
+        // Do not split a possible character reference
+        final int ampersand = buffer.lastIndexOf("&");
+        if (ampersand >= 0 && buffer.length() - ampersand < CONTEXT_LENGTH) {
+            final String tail = buffer.substring(ampersand);
+            buffer.setLength(ampersand);
+            flushText(true);
+            buffer.append(tail);
+        } else {
+            flushText(true);
+        }
+    }
+
+    private void flushText(boolean decode) {
+        if (buffer.length() == 0) {
+            return;
+        }
+        String text = decode ? Parser.unescapeEntities(buffer.toString(), false) : buffer.toString();
+        buffer.setLength(0);
+        if (skipNewline && text.charAt(0) == '\n') {
+            text = text.substring(1);
+        }
+        skipNewline = false;
+        appendText(text);
+    }
+
+    private void appendText(String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        final Iterator<Annotation> it = pending.values().iterator();
+        while (it.hasNext()) {
+            final Annotation annotation = it.next();
+            if (annotation.openCount > 0) {
+                annotation.exact.append(text);
+            } else {
+                annotation.suffix.append(text, 0, Math.min(text.length(), CONTEXT_LENGTH - annotation.suffix.length()));
+                if (annotation.suffix.length() >= CONTEXT_LENGTH) {
+                    it.remove();
+                    consumer.accept(annotation);
+                }
+            }
+        }
+        recent.append(text);
+        if (recent.length() > CONTEXT_LENGTH) {
+            recent.delete(0, recent.length() - CONTEXT_LENGTH);
+        }
+        offset += text.length();
+    }
+
+    /**
+     * Finishes processing, reporting all remaining annotations.
+     * <p>
+     * No more characters may be processed after this method is called.
+     */
+    void finish() {
+        if (finished) {
+            return;
+        }
+        this.finished = true;
+        if (state == State.TEXT) {
+            flushText(true);
+        } else if (state == State.RAW && !DATA_ELEMENTS.contains(rawElement)) {
+            flushText(RCDATA_ELEMENTS.contains(rawElement));
+        }
+        pending.values().forEach(consumer);
+        pending.clear();
+        openElements.clear();
+    }
+
+    private static final class OpenElement {
+        private final String name;
+        private final Annotation annotation;
+
+        private OpenElement(String name, Annotation annotation) {
+            this.name = name;
+            this.annotation = annotation;
+        }
+    }
+
+    /**
+     * Term occurrence annotation found in the content.
+     */
+    static final class Annotation {
+
+        private final String about;
+        private final String term;
+        private final String score;
+        private final int start;
+        private final String prefix;
+        private final StringBuilder exact = new StringBuilder();
+        private final StringBuilder suffix = new StringBuilder();
+        private int openCount;
+
+        private Annotation(String about, String term, String score, int start, String prefix) {
+            this.about = about;
+            this.term = term;
+            this.score = score;
+            this.start = start;
+            this.prefix = prefix;
+        }
+
+        /**
+         * RDFa identifier of the annotation.
+         */
+        String getAbout() {
+            return about;
+        }
+
+        /**
+         * Identifier of the annotated term, empty if the annotation does not reference any.
+         */
+        String getTerm() {
+            return term;
+        }
+
+        /**
+         * Annotation score as declared in the content, empty if not specified.
+         */
+        String getScore() {
+            return score;
+        }
+
+        /**
+         * Offset of the annotated text in the text content of the document.
+         */
+        int getStart() {
+            return start;
+        }
+
+        String getExact() {
+            return exact.toString();
+        }
+
+        String getPrefix() {
+            return prefix;
+        }
+
+        String getSuffix() {
+            return suffix.toString();
+        }
+
+        @Override
+        public String toString() {
+            return "Annotation{" + about + ", term=<" + term + ">, start=" + start + ", exact='" + exact + "'}";
+        }
+    }
+}
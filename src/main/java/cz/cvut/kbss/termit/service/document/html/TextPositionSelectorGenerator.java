@@ -19,10 +19,6 @@ package cz.cvut.kbss.termit.service.document.html;
 
 import cz.cvut.kbss.termit.model.selector.TextPositionSelector;
 import org.jsoup.nodes.Element;
-import org.jsoup.nodes.Node;
-import org.jsoup.select.Elements;
-
-import java.util.List;
 
 /**
  * Generates a {@link TextPositionSelector} for the specified elements.
@@ -40,22 +36,16 @@ class TextPositionSelectorGenerator implements SelectorGenerator {
     @Override
     public TextPositionSelector generateSelector(Element... elements) {
         assert elements.length > 0;
-        final String textContent = extractExactText(elements);
+        return generateSelector(DocumentText.of(elements[0]), elements);
+    }
+
+    @Override
+    public TextPositionSelector generateSelector(DocumentText text, Element... elements) {
+        assert elements.length > 0;
+        final String textContent = extractExactText(text, elements);
         final TextPositionSelector selector = new TextPositionSelector();
-        selector.setStart(resolveStartPosition(elements[0]));
+        selector.setStart(text.startOf(elements[0]));
         selector.setEnd(selector.getStart() + textContent.length());
         return selector;
     }
-
-    private int resolveStartPosition(Element element) {
-        final Elements ancestors = element.parents();
-        Element previous = element;
-        int counter = 0;
-        for (Element parent : ancestors) {
-            final List<Node> previousSiblings = parent.childNodes().subList(0, previous.siblingIndex());
-            counter += extractNodeText(previousSiblings).length();
-            previous = parent;
-        }
-        return counter;
-    }
 }
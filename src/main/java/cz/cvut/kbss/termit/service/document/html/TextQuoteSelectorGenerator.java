@@ -19,9 +19,7 @@ package cz.cvut.kbss.termit.service.document.html;
 
 import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
 import org.jsoup.nodes.Element;
-import org.jsoup.nodes.Node;
 
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -41,43 +39,27 @@ class TextQuoteSelectorGenerator implements SelectorGenerator {
     @Override
     public TextQuoteSelector generateSelector(Element... elements) {
         assert elements.length > 0;
-        final TextQuoteSelector selector = new TextQuoteSelector(extractExactText(elements));
-        extractPrefix(elements[0]).ifPresent(selector::setPrefix);
-        extractSuffix(elements[elements.length - 1]).ifPresent(selector::setSuffix);
+        return generateSelector(DocumentText.of(elements[0]), elements);
+    }
+
+    @Override
+    public TextQuoteSelector generateSelector(DocumentText text, Element... elements) {
+        assert elements.length > 0;
+        final TextQuoteSelector selector = new TextQuoteSelector(extractExactText(text, elements));
+        extractPrefix(text, elements[0]).ifPresent(selector::setPrefix);
+        extractSuffix(text, elements[elements.length - 1]).ifPresent(selector::setSuffix);
         return selector;
     }
 
-    private Optional<String> extractPrefix(Element start) {
-        Element current = start;
-        Element previous = current;
-        StringBuilder sb = new StringBuilder();
-        while (current.hasParent()) {
-            current = current.parent();
-            final List<Node> previousSiblings = current.childNodes().subList(0, previous.siblingIndex());
-            sb = extractNodeText(previousSiblings).append(sb);
-            if (sb.length() >= CONTEXT_LENGTH) {
-                break;
-            }
-            previous = current;
-        }
-        return sb.length() > 0 ? Optional.of(sb.substring(Math.max(0, sb.length() - CONTEXT_LENGTH))) :
-               Optional.empty();
+    private static Optional<String> extractPrefix(DocumentText text, Element start) {
+        final int offset = text.startOf(start);
+        final String prefix = text.substring(offset - CONTEXT_LENGTH, offset);
+        return prefix.isEmpty() ? Optional.empty() : Optional.of(prefix);
     }
 
-    private Optional<String> extractSuffix(Element end) {
-        Element current = end;
-        Element previous = current;
-        StringBuilder sb = new StringBuilder();
-        while (current.hasParent()) {
-            current = current.parent();
-            final List<Node> previousSiblings = current.childNodes()
-                                                       .subList(previous.siblingIndex() + 1, current.childNodeSize());
-            sb.append(extractNodeText(previousSiblings));
-            if (sb.length() >= CONTEXT_LENGTH) {
-                break;
-            }
-            previous = current;
-        }
-        return sb.length() > 0 ? Optional.of(sb.substring(0, Math.min(sb.length(), CONTEXT_LENGTH))) : Optional.empty();
+    private static Optional<String> extractSuffix(DocumentText text, Element end) {
+        final int offset = text.endOf(end);
+        final String suffix = text.substring(offset, offset + CONTEXT_LENGTH);
+        return suffix.isEmpty() ? Optional.empty() : Optional.of(suffix);
     }
 }
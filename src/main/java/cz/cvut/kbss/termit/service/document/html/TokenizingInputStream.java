@@ -0,0 +1,128 @@
+/**
+ * TermIt Copyright (C) 2019 Czech Technical University in Prague
+ * <p>
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.html;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Input stream passing the underlying content unchanged to its reader, while feeding it into a {@link
+ * StreamingRdfaTokenizer}.
+ * <p>
+ * The content is expected to be UTF-8 encoded. The tokenizer is finished when the end of the stream is reached.
+ */
+class TokenizingInputStream extends FilterInputStream {
+
+    private final StreamingRdfaTokenizer tokenizer;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                                                                 .onMalformedInput(CodingErrorAction.REPLACE)
+                                                                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /**
+     * Bytes of an incomplete character left over from the previous read.
+     */
+    private ByteBuffer leftover = ByteBuffer.allocate(0);
+
+    private boolean finished;
+
+    TokenizingInputStream(InputStream in, StreamingRdfaTokenizer tokenizer) {
+        super(in);
+        this.tokenizer = Objects.requireNonNull(tokenizer);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] single = new byte[1];
+        final int count = read(single, 0, 1);
+        return count < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        final int count = super.read(b, off, len);
+        if (count < 0) {
+            finish();
+        } else {
+            decode(ByteBuffer.wrap(b, off, count), false);
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Skipped content has to be tokenized as well
+        final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long remaining = n;
+        while (remaining > 0) {
+            final int count = read(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (count < 0) {
+                break;
+            }
+            remaining -= count;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        // Not supported
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("Reset is not supported.");
+    }
+
+    private void decode(ByteBuffer bytes, boolean endOfInput) {
+        final ByteBuffer input;
+        if (leftover.hasRemaining()) {
+            input = ByteBuffer.allocate(leftover.remaining() + bytes.remaining());
+            input.put(leftover).put(bytes).flip();
+        } else {
+            input = bytes;
+        }
+        // UTF-8 never decodes into more characters than there are bytes
+        final CharBuffer chars = CharBuffer.allocate(input.remaining() + 1);
+        decoder.decode(input, chars, endOfInput);
+        if (endOfInput) {
+            decoder.flush(chars);
+        }
+        chars.flip();
+        tokenizer.accept(chars.array(), 0, chars.limit());
+        this.leftover = ByteBuffer.allocate(input.remaining()).put(input).flip();
+    }
+
+    private void finish() {
+        if (finished) {
+            return;
+        }
+        this.finished = true;
+        decode(ByteBuffer.allocate(0), true);
+        tokenizer.finish();
+    }
+}
@@ -19,36 +19,59 @@ package cz.cvut.kbss.termit.service.export;
 
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
-import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
+import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Objects;
+import java.util.stream.Stream;
 
+/**
+ * Exports vocabulary glossary as CSV.
+ * <p>
+ * The export is streamed, i.e., terms are loaded in chunks and written directly into the output as they are loaded.
+ */
 @Service("csv")
 public class CsvVocabularyExporter implements VocabularyExporter {
 
     private final TermRepositoryService termService;
 
+    private final Configuration.Export config;
+
     @Autowired
-    public CsvVocabularyExporter(TermRepositoryService termService) {
+    public CsvVocabularyExporter(TermRepositoryService termService, Configuration config) {
         this.termService = termService;
+        this.config = config.getExport();
     }
 
     @Override
     public TypeAwareResource exportGlossary(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
-        final StringBuilder export = new StringBuilder(String.join(",", Term.EXPORT_COLUMNS));
-        final List<Term> terms = termService.findAllFull(vocabulary);
-        terms.forEach(t -> export.append('\n').append(t.toCsv()));
-        return new TypeAwareByteArrayResource(export.toString().getBytes(), ExportFormat.CSV.getMediaType(),
+        return new TypeAwareStreamingResource(out -> writeGlossary(vocabulary, out), ExportFormat.CSV.getMediaType(),
                                               ExportFormat.CSV.getFileExtension());
     }
 
+    private void writeGlossary(Vocabulary vocabulary, OutputStream out) throws IOException {
+        // Do not close the writer, the output stream is managed by the caller
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", Term.EXPORT_COLUMNS));
+        try (final Stream<Term> terms = termService.findAllFull(vocabulary, config.getChunkSize())) {
+            final Iterator<Term> it = terms.iterator();
+            while (it.hasNext()) {
+                writer.write('\n');
+                writer.write(it.next().toCsv());
+            }
+        }
+        writer.flush();
+    }
+
     @Override
     public TypeAwareResource exportGlossaryWithReferences(Vocabulary vocabulary,
                                                           Collection<String> properties) {
@@ -17,26 +17,30 @@
  */
 package cz.cvut.kbss.termit.service.export;
 
-import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
-import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
+import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * Supports vocabulary export to MS Excel format
+ * <p>
+ * The workbook is generated using the POI streaming API, so only a limited window of rows is kept in memory (the rest
+ * is flushed into a temporary file) and the export is written directly into the output.
  */
 @Service("excel")
 public class ExcelVocabularyExporter implements VocabularyExporter {
@@ -48,23 +52,33 @@ public class ExcelVocabularyExporter implements VocabularyExporter {
 
     private final TermRepositoryService termService;
 
+    private final Configuration.Export config;
+
     @Autowired
-    public ExcelVocabularyExporter(TermRepositoryService termService) {
+    public ExcelVocabularyExporter(TermRepositoryService termService, Configuration config) {
         this.termService = termService;
+        this.config = config.getExport();
     }
 
     @Override
     public TypeAwareResource exportGlossary(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
-        try (final XSSFWorkbook wb = new XSSFWorkbook()) {
+        return new TypeAwareStreamingResource(out -> writeGlossary(vocabulary, out),
+                                              ExportFormat.EXCEL.getMediaType(),
+                                              ExportFormat.EXCEL.getFileExtension());
+    }
+
+    private void writeGlossary(Vocabulary vocabulary, OutputStream out) throws IOException {
+        final SXSSFWorkbook wb = new SXSSFWorkbook(config.getExcelRowWindow());
+        wb.setCompressTempFiles(true);
+        try (wb; final Stream<Term> terms = termService.findAllFull(vocabulary, config.getChunkSize())) {
             final Sheet sheet = wb.createSheet(SHEET_NAME);
             generateHeaderRow(sheet);
-            generateTermRows(termService.findAllFull(vocabulary), sheet);
-            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            wb.write(bos);
-            return new TypeAwareByteArrayResource(bos.toByteArray(), ExportFormat.EXCEL.getMediaType(), ExportFormat.EXCEL.getFileExtension());
-        } catch (IOException e) {
-            throw new TermItException("Unable to generate excel file from glossary of " + vocabulary, e);
+            generateTermRows(terms.iterator(), sheet);
+            wb.write(out);
+        } finally {
+            // Remove temporary files backing the flushed rows
+            wb.dispose();
         }
     }
 
@@ -75,11 +89,12 @@ public class ExcelVocabularyExporter implements VocabularyExporter {
         }
     }
 
-    private static void generateTermRows(List<Term> terms, Sheet sheet) {
+    private static void generateTermRows(Iterator<Term> terms, Sheet sheet) {
         // Row no. 0 is the header
-        for (int i = 0; i < terms.size(); i++) {
-            final Row row = sheet.createRow(i + 1);
-            terms.get(i).toExcel(row);
+        int i = 1;
+        while (terms.hasNext()) {
+            final Row row = sheet.createRow(i++);
+            terms.next().toExcel(row);
         }
     }
 
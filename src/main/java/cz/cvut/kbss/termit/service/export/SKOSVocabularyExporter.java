@@ -2,12 +2,11 @@ package cz.cvut.kbss.termit.service.export;
 
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.persistence.dao.skos.SKOSExporter;
-import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.Objects;
@@ -35,35 +34,27 @@ public abstract class SKOSVocabularyExporter implements VocabularyExporter {
     protected abstract ExportFormat exportFormat();
 
     @Override
-    @Transactional(readOnly = true)
     public TypeAwareResource exportGlossary(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
-        LOG.debug("Exporting glossary of vocabulary {} to SKOS.", vocabulary);
-        final SKOSExporter skosExporter = getSKOSExporter();
-        skosExporter.exportGlossary(vocabulary);
-        final TypeAwareResource res = new TypeAwareByteArrayResource(skosExporter.exportAs(exportFormat()),
-                                                                     exportFormat().getMediaType(),
-                                                                     exportFormat().getFileExtension());
-        LOG.trace("Export finished successfully.");
-        return res;
+        return new TypeAwareStreamingResource(out -> {
+            LOG.debug("Exporting glossary of vocabulary {} to SKOS.", vocabulary);
+            getSKOSExporter().exportGlossary(vocabulary, exportFormat(), out);
+            LOG.trace("Export finished successfully.");
+        }, exportFormat().getMediaType(), exportFormat().getFileExtension());
     }
 
-    @Transactional(readOnly = true)
     @Override
     public TypeAwareResource exportGlossaryWithReferences(Vocabulary vocabulary,
                                                           Collection<String> properties) {
         Objects.requireNonNull(vocabulary);
         Objects.requireNonNull(properties);
-        LOG.debug("Exporting glossary of vocabulary {} to SKOS, " +
-                          "including any external terms referenced via one of the following properties: {}.",
-                  vocabulary, properties);
-        final SKOSExporter skosExporter = getSKOSExporter();
-        skosExporter.exportGlossaryWithReferences(vocabulary, properties);
-        final TypeAwareResource res = new TypeAwareByteArrayResource(skosExporter.exportAs(exportFormat()),
-                                                                     exportFormat().getMediaType(),
-                                                                     exportFormat().getFileExtension());
-        LOG.trace("Export finished successfully.");
-        return res;
+        return new TypeAwareStreamingResource(out -> {
+            LOG.debug("Exporting glossary of vocabulary {} to SKOS, " +
+                              "including any external terms referenced via one of the following properties: {}.",
+                      vocabulary, properties);
+            getSKOSExporter().exportGlossaryWithReferences(vocabulary, properties, exportFormat(), out);
+            LOG.trace("Export finished successfully.");
+        }, exportFormat().getMediaType(), exportFormat().getFileExtension());
     }
 
     @Override
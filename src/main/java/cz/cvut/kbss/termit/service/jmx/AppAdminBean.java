@@ -17,6 +17,9 @@ package cz.cvut.kbss.termit.service.jmx;
 import cz.cvut.kbss.termit.event.EvictCacheEvent;
 import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
 import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.persistence.dao.util.CacheMonitor;
+import cz.cvut.kbss.termit.persistence.dao.util.FullTextIndex;
+import cz.cvut.kbss.termit.service.document.VocabularyAnalysisScheduler;
 import cz.cvut.kbss.termit.service.mail.Message;
 import cz.cvut.kbss.termit.service.mail.Postman;
 import org.slf4j.Logger;
@@ -25,6 +28,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Component;
@@ -40,10 +44,20 @@ public class AppAdminBean {
 
     private final Postman postman;
 
+    private final CacheMonitor cacheMonitor;
+
+    private final VocabularyAnalysisScheduler analysisScheduler;
+
+    private final FullTextIndex fullTextIndex;
+
     @Autowired
-    public AppAdminBean(ApplicationEventPublisher eventPublisher, Postman postman) {
+    public AppAdminBean(ApplicationEventPublisher eventPublisher, Postman postman, CacheMonitor cacheMonitor,
+                        VocabularyAnalysisScheduler analysisScheduler, FullTextIndex fullTextIndex) {
         this.eventPublisher = eventPublisher;
         this.postman = postman;
+        this.cacheMonitor = cacheMonitor;
+        this.analysisScheduler = analysisScheduler;
+        this.fullTextIndex = fullTextIndex;
     }
 
     @CacheEvict(allEntries = true, cacheNames = {"vocabularies"})
@@ -56,10 +70,56 @@ public class AppAdminBean {
         eventPublisher.publishEvent(new VocabularyContentModified(this));
     }
 
+    @ManagedOperation(description = "Rebuilds the full text index of terms and vocabularies.")
+    public void rebuildFullTextIndex() {
+        LOG.info("Rebuilding full text index...");
+        fullTextIndex.rebuild();
+    }
+
     @ManagedOperation(description = "Sends test email to the specified address.")
     public void sendTermEmail(String address) {
         final Message message = Message.to(address).subject("TermIt Test Email")
                                        .content("This is a test message from TermIt.").build();
         postman.sendMessage(message);
     }
+
+    @ManagedAttribute(description = "Number of application cache lookups that found the value in the cache.")
+    public long getCacheHitCount() {
+        return cacheMonitor.getStatistics().getHitCount();
+    }
+
+    @ManagedAttribute(description = "Number of application cache lookups that had to compute the value.")
+    public long getCacheMissCount() {
+        return cacheMonitor.getStatistics().getMissCount();
+    }
+
+    @ManagedAttribute(description = "Ratio of application cache lookups that found the value in the cache.")
+    public double getCacheHitRatio() {
+        return cacheMonitor.getStatistics().getHitRatio();
+    }
+
+    @ManagedAttribute(description = "Number of application cache entries evicted due to size limit or expiration.")
+    public long getCacheEvictionCount() {
+        return cacheMonitor.getStatistics().getEvictionCount();
+    }
+
+    @ManagedAttribute(description = "Number of entries currently held by application caches.")
+    public long getCacheSize() {
+        return cacheMonitor.getStatistics().getSize();
+    }
+
+    @ManagedAttribute(description = "Number of vocabulary text analyses waiting for execution.")
+    public int getTextAnalysisQueueDepth() {
+        return analysisScheduler.getQueueDepth();
+    }
+
+    @ManagedAttribute(description = "Number of vocabulary text analyses currently running.")
+    public int getTextAnalysisRunningCount() {
+        return analysisScheduler.getRunningCount();
+    }
+
+    @ManagedAttribute(description = "Number of vocabulary text analysis requests merged with a pending request.")
+    public long getTextAnalysisCoalescedCount() {
+        return analysisScheduler.getCoalescedCount();
+    }
 }
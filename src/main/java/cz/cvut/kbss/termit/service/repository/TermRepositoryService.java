@@ -19,6 +19,8 @@ import cz.cvut.kbss.termit.dto.Snapshot;
 import cz.cvut.kbss.termit.dto.TermInfo;
 import cz.cvut.kbss.termit.dto.TermStatus;
 import cz.cvut.kbss.termit.dto.assignment.TermOccurrences;
+import cz.cvut.kbss.termit.dto.listing.CursorPage;
+import cz.cvut.kbss.termit.dto.listing.PageCursor;
 import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.exception.DisabledOperationException;
 import cz.cvut.kbss.termit.exception.TermRemovalException;
@@ -44,6 +46,8 @@ import javax.validation.Validator;
 import java.net.URI;
 import java.time.Instant;
 import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
@@ -113,6 +117,17 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> impl
         }
     }
 
+    /**
+     * Regenerates label sort keys of terms if they were computed by a different sort key version.
+     *
+     * @return Number of generated sort keys
+     * @see TermDao#updateSortKeys()
+     */
+    @Transactional
+    public int updateSortKeys() {
+        return termDao.updateSortKeys();
+    }
+
     @Transactional
     public void setStatus(Term term, TermStatus status) {
         Objects.requireNonNull(term);
@@ -206,6 +221,27 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> impl
         return termDao.findAllFull(vocabulary).stream().map(this::postLoad).collect(toList());
     }
 
+    /**
+     * Gets all terms from a vocabulary, regardless of their position in the term hierarchy, loading them in chunks of
+     * the specified size.
+     * <p>
+     * In contrast to {@link #findAllFull(Vocabulary)}, the next chunk of terms is loaded only when the returned stream
+     * is consumed past the current one. So, when the terms are processed sequentially (e.g., written to an output),
+     * only a single chunk of terms is held in memory at a time.
+     *
+     * @param vocabulary Vocabulary whose terms should be returned
+     * @param chunkSize  Maximum number of terms loaded at once
+     * @return Stream of full terms ordered by label
+     * @see #findAllFull(Vocabulary)
+     */
+    public Stream<Term> findAllFull(Vocabulary vocabulary, int chunkSize) {
+        assert chunkSize > 0;
+        final List<URI> termIris = termDao.findAllIdentifiers(vocabulary);
+        return IntStream.range(0, (termIris.size() + chunkSize - 1) / chunkSize)
+                        .mapToObj(i -> termIris.subList(i * chunkSize, Math.min((i + 1) * chunkSize, termIris.size())))
+                        .flatMap(chunk -> termDao.findAllFull(vocabulary, chunk).stream().map(this::postLoad));
+    }
+
     /**
      * Gets all terms from the specified vocabulary and its imports (transitive), regardless of their position in the
      * term hierarchy.
@@ -249,6 +285,34 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> impl
         return termDao.findAllRoots(pageSpec, includeTerms);
     }
 
+    /**
+     * Finds a page of root terms (terms without parent term) in the specified vocabulary using keyset paging.
+     *
+     * @param vocabulary   Vocabulary whose terms should be returned
+     * @param after        Cursor pointing to the last item of the previous page, {@code null} to get the first page
+     * @param pageSize     Maximum number of terms in the page
+     * @param includeTerms Identifiers of terms which should be a part of the result. Optional
+     * @return Page of matching root terms
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TermDto> findAllRoots(Vocabulary vocabulary, PageCursor after, int pageSize,
+                                            Collection<URI> includeTerms) {
+        return termDao.findAllRoots(vocabulary, after, pageSize, includeTerms);
+    }
+
+    /**
+     * Finds a page of root terms (terms without parent term) using keyset paging.
+     *
+     * @param after        Cursor pointing to the last item of the previous page, {@code null} to get the first page
+     * @param pageSize     Maximum number of terms in the page
+     * @param includeTerms Identifiers of terms which should be a part of the result. Optional
+     * @return Page of matching root terms
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TermDto> findAllRoots(PageCursor after, int pageSize, Collection<URI> includeTerms) {
+        return termDao.findAllRoots(after, pageSize, includeTerms);
+    }
+
     /**
      * Finds all root terms (terms without parent term) in the specified vocabulary or any of its imported
      * vocabularies.
@@ -268,6 +332,22 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> impl
         return termDao.findAllRootsIncludingImports(vocabulary, pageSpec, includeTerms);
     }
 
+    /**
+     * Finds a page of root terms (terms without parent term) in the specified vocabulary or any of its imported
+     * vocabularies using keyset paging.
+     *
+     * @param vocabulary   Base vocabulary for the vocabulary import closure
+     * @param after        Cursor pointing to the last item of the previous page, {@code null} to get the first page
+     * @param pageSize     Maximum number of terms in the page
+     * @param includeTerms Identifiers of terms which should be a part of the result. Optional
+     * @return Page of matching root terms
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TermDto> findAllRootsIncludingImported(Vocabulary vocabulary, PageCursor after, int pageSize,
+                                                             Collection<URI> includeTerms) {
+        return termDao.findAllRootsIncludingImports(vocabulary, after, pageSize, includeTerms);
+    }
+
     /**
      * Finds all terms which match the specified search string in the specified vocabulary.
      *
@@ -304,6 +384,19 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> impl
         return termDao.findAllIncludingImported(searchString, vocabulary);
     }
 
+    /**
+     * Finds out which of the specified identifiers belong to existing terms.
+     * <p>
+     * This is a bulk alternative to {@link #exists(URI)}, which checks all the identifiers at once.
+     *
+     * @param ids Identifiers to check
+     * @return Set of identifiers of existing terms
+     */
+    @Transactional(readOnly = true)
+    public Set<URI> filterExisting(Collection<URI> ids) {
+        return termDao.filterExisting(ids);
+    }
+
     /**
      * Checks whether a term with the specified label exists in a vocabulary with the specified URI.
      *
@@ -2,6 +2,7 @@ package cz.cvut.kbss.termit.service.repository;
 
 import cz.cvut.kbss.termit.dto.AggregatedChangeInfo;
 import cz.cvut.kbss.termit.dto.Snapshot;
+import cz.cvut.kbss.termit.dto.TextAnalysisProgress;
 import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
 import cz.cvut.kbss.termit.exception.AssetRemovalException;
@@ -19,6 +20,7 @@ import cz.cvut.kbss.termit.persistence.snapshot.SnapshotCreator;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.TermService;
 import cz.cvut.kbss.termit.service.business.VocabularyService;
+import cz.cvut.kbss.termit.service.document.VocabularyAnalysisScheduler;
 import cz.cvut.kbss.termit.service.security.AuthorizationService;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
@@ -48,6 +50,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 @CacheConfig(cacheNames = "vocabularies")
@@ -71,6 +74,8 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
 
     private final ApplicationContext context;
 
+    private final VocabularyAnalysisScheduler analysisScheduler;
+
     private ApplicationEventPublisher eventPublisher;
 
     @Autowired
@@ -78,7 +83,8 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
                                        IdentifierResolver idResolver,
                                        Validator validator, ChangeRecordService changeRecordService,
                                        @Lazy TermService termService,
-                                       EditableVocabularies editableVocabularies, Configuration config) {
+                                       EditableVocabularies editableVocabularies, Configuration config,
+                                       VocabularyAnalysisScheduler analysisScheduler) {
         super(validator);
         this.context = context;
         this.vocabularyDao = vocabularyDao;
@@ -87,6 +93,7 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
         this.changeRecordService = changeRecordService;
         this.editableVocabularies = editableVocabularies;
         this.config = config;
+        this.analysisScheduler = analysisScheduler;
     }
 
     /**
@@ -273,17 +280,31 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
         super.remove(instance);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The analysis is executed asynchronously after a quiet period, requests for the same vocabulary arriving within
+     * this period are merged.
+     *
+     * @see VocabularyAnalysisScheduler
+     */
     @PreAuthorize("@authorizationService.canEdit(#vocabulary)")
     @Override
-    @Async
     public void runTextAnalysisOnAllTerms(Vocabulary vocabulary) {
-        LOG.debug("Analyzing definitions of all terms in vocabulary {} and vocabularies it imports.", vocabulary);
         AuthorizationService.verifySnapshotNotModified(vocabulary);
+        analysisScheduler.schedule(vocabulary.getUri(), superseded -> analyzeAllTerms(vocabulary, superseded));
+    }
+
+    private void analyzeAllTerms(Vocabulary vocabulary, BooleanSupplier superseded) {
+        LOG.debug("Analyzing definitions of all terms in vocabulary {} and vocabularies it imports.", vocabulary);
         final List<TermDto> allTerms = termService.findAll(vocabulary);
         getTransitivelyImportedVocabularies(vocabulary).forEach(
                 importedVocabulary -> allTerms.addAll(termService.findAll(getRequiredReference(importedVocabulary))));
-        allTerms.stream().filter(t -> t.getDefinition() != null)
-                .forEach(t -> termService.analyzeTermDefinition(t, vocabulary.getUri()));
+        termService.analyzeTermDefinitions(withDefinition(allTerms), vocabulary.getUri(), superseded);
+    }
+
+    private static List<TermDto> withDefinition(List<TermDto> terms) {
+        return terms.stream().filter(t -> t.getDefinition() != null).collect(Collectors.toList());
     }
 
     @Override
@@ -291,11 +312,15 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
     public void runTextAnalysisOnAllVocabularies() {
         vocabularyDao.findAll().forEach(v -> {
             List<TermDto> terms = termService.findAll(v);
-            terms.stream().filter(t -> t.getDefinition() != null)
-                 .forEach(t -> termService.analyzeTermDefinition(t, v.getUri()));
+            termService.analyzeTermDefinitions(withDefinition(terms), v.getUri(), () -> false);
         });
     }
 
+    @Override
+    public Optional<TextAnalysisProgress> getTextAnalysisProgress(Vocabulary vocabulary) {
+        return termService.getTermDefinitionsAnalysisProgress(vocabulary);
+    }
+
     @Override
     public List<ValidationResult> validateContents(Vocabulary instance) {
         return vocabularyDao.validateContents(instance);
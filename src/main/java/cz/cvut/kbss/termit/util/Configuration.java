@@ -18,6 +18,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Primary;
 
 import javax.validation.constraints.NotNull;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
 
@@ -50,6 +51,8 @@ public class Configuration {
     private Cors cors = new Cors();
     private Schedule schedule = new Schedule();
     private Mail mail = new Mail();
+    private Cache cache = new Cache();
+    private Export export = new Export();
 
     public String getUrl() {
         return url;
@@ -179,6 +182,22 @@ public class Configuration {
         this.mail = mail;
     }
 
+    public Cache getCache() {
+        return cache;
+    }
+
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public void setExport(Export export) {
+        this.export = export;
+    }
+
     @org.springframework.context.annotation.Configuration
     @ConfigurationProperties(prefix = "persistence")
     public static class Persistence {
@@ -518,6 +537,65 @@ public class Configuration {
         @NotNull
         String termOccurrenceMinScore;
 
+        /**
+         * Maximum number of concurrent requests to the text analysis service when analyzing definitions of multiple
+         * terms (e.g., all terms in a vocabulary).
+         */
+        int parallelism = 4;
+
+        /**
+         * Maximum number of term definition analysis requests waiting for execution.
+         * <p>
+         * When the queue is full, no more requests are submitted until some of the pending ones finish.
+         */
+        int queueCapacity = 100;
+
+        /**
+         * Number of term definition analysis results whose term occurrences are stored in a single transaction.
+         */
+        int batchSize = 50;
+
+        /**
+         * Maximum number of term definitions sent to the text analysis service in a single request.
+         */
+        int definitionsPerRequest = 20;
+
+        /**
+         * Quiet period for analysis of all terms in a vocabulary.
+         * <p>
+         * Requests to analyze terms in the same vocabulary arriving within this period are merged into a single
+         * analysis, which is executed when no new request arrives for this period.
+         */
+        Duration quietPeriod = Duration.ofSeconds(10);
+
+        /**
+         * Whether annotated file content returned by the text analysis service should be processed in a streaming
+         * fashion.
+         * <p>
+         * When enabled, the content is not parsed into a DOM. Term occurrences are resolved while the content is
+         * being written into a temporary file, so that memory consumption does not depend on the size of the
+         * document. The content is saved into the file once the occurring terms are verified to exist.
+         */
+        boolean streaming = false;
+
+        /**
+         * Number of workers executing queued text analysis jobs of files.
+         */
+        int jobWorkers = 2;
+
+        /**
+         * Directory in which text analysis jobs of files are stored, so that unfinished jobs can be resumed after
+         * restart.
+         * <p>
+         * If not specified, a subdirectory of the file storage ({@link File#getStorage()}) is used.
+         */
+        String jobStorage;
+
+        /**
+         * How long records of finished text analysis jobs are kept, so that clients can retrieve their status.
+         */
+        Duration jobRetention = Duration.ofDays(1);
+
         public String getUrl() {
             return url;
         }
@@ -541,6 +619,78 @@ public class Configuration {
         public void setTermOccurrenceMinScore(String termOccurrenceMinScore) {
             this.termOccurrenceMinScore = termOccurrenceMinScore;
         }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getDefinitionsPerRequest() {
+            return definitionsPerRequest;
+        }
+
+        public void setDefinitionsPerRequest(int definitionsPerRequest) {
+            this.definitionsPerRequest = definitionsPerRequest;
+        }
+
+        public Duration getQuietPeriod() {
+            return quietPeriod;
+        }
+
+        public void setQuietPeriod(Duration quietPeriod) {
+            this.quietPeriod = quietPeriod;
+        }
+
+        public boolean isStreaming() {
+            return streaming;
+        }
+
+        public void setStreaming(boolean streaming) {
+            this.streaming = streaming;
+        }
+
+        public int getJobWorkers() {
+            return jobWorkers;
+        }
+
+        public void setJobWorkers(int jobWorkers) {
+            this.jobWorkers = jobWorkers;
+        }
+
+        public String getJobStorage() {
+            return jobStorage;
+        }
+
+        public void setJobStorage(String jobStorage) {
+            this.jobStorage = jobStorage;
+        }
+
+        public Duration getJobRetention() {
+            return jobRetention;
+        }
+
+        public void setJobRetention(Duration jobRetention) {
+            this.jobRetention = jobRetention;
+        }
     }
 
     @org.springframework.context.annotation.Configuration
@@ -664,4 +814,117 @@ public class Configuration {
             this.sender = sender;
         }
     }
+
+    @org.springframework.context.annotation.Configuration
+    @ConfigurationProperties(prefix = "cache")
+    public static class Cache {
+        /**
+         * Maximum number of entries held by an application cache (e.g., cache of term sub-terms).
+         * <p>
+         * When the limit is reached, the least recently used entries are evicted.
+         */
+        private int maxSize = 10000;
+
+        /**
+         * Time after which application cache entries expire.
+         * <p>
+         * Zero (the default) means entries do not expire and are evicted only when the cache is full or invalidated.
+         */
+        private Duration ttl = Duration.ZERO;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    @org.springframework.context.annotation.Configuration
+    @ConfigurationProperties(prefix = "export")
+    public static class Export {
+        /**
+         * Number of terms loaded at once when a glossary is exported.
+         * <p>
+         * Exports are streamed to the client, so this limits the number of terms held in memory during an export.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Number of rows kept in memory when a glossary is exported into Excel.
+         * <p>
+         * Older rows are flushed into a temporary file and cannot be accessed anymore.
+         */
+        private int excelRowWindow = 100;
+
+        /**
+         * Number of terms (or glossaries) referenced by the exported glossary which are exported by a single query.
+         * <p>
+         * Applies to SKOS exports including references to terms from other vocabularies.
+         */
+        private int referenceBatchSize = 100;
+
+        /**
+         * Maximum number of reference export queries evaluated concurrently.
+         * <p>
+         * Each query uses its own repository connection. One (the default) means queries are evaluated sequentially.
+         */
+        private int referenceParallelism = 1;
+
+        /**
+         * Maximum time a glossary export streamed to the client may take.
+         * <p>
+         * Exports are written asynchronously, this timeout overrides the default asynchronous request timeout for them.
+         */
+        private Duration streamingTimeout = Duration.ofMinutes(30);
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getExcelRowWindow() {
+            return excelRowWindow;
+        }
+
+        public void setExcelRowWindow(int excelRowWindow) {
+            this.excelRowWindow = excelRowWindow;
+        }
+
+        public int getReferenceBatchSize() {
+            return referenceBatchSize;
+        }
+
+        public void setReferenceBatchSize(int referenceBatchSize) {
+            this.referenceBatchSize = referenceBatchSize;
+        }
+
+        public int getReferenceParallelism() {
+            return referenceParallelism;
+        }
+
+        public void setReferenceParallelism(int referenceParallelism) {
+            this.referenceParallelism = referenceParallelism;
+        }
+
+        public Duration getStreamingTimeout() {
+            return streamingTimeout;
+        }
+
+        public void setStreamingTimeout(Duration streamingTimeout) {
+            this.streamingTimeout = streamingTimeout;
+        }
+    }
 }
@@ -66,6 +66,27 @@ public class Constants {
      */
     public static final String X_TOTAL_COUNT_HEADER = "X-Total-Count";
 
+    /**
+     * Represents the X-Next-Cursor HTTP header used to convey the cursor token of the next page in responses to
+     * requests using keyset (cursor-based) paging.
+     *
+     * @see QueryParams#CURSOR
+     */
+    public static final String X_NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * HTML attribute identifying the term whose definition is contained in the element.
+     * <p>
+     * Used to wrap definitions of individual terms when definitions of multiple terms are sent to the text analysis
+     * service in a single request.
+     */
+    public static final String TERM_DEFINITION_ATTRIBUTE = "data-termit-definition-of";
+
+    /**
+     * Maximum number of results returned by full text search of terms in selected vocabularies.
+     */
+    public static final int TERM_SEARCH_RESULT_LIMIT = 100;
+
     /**
      * Score threshold for term occurrence.
      */
@@ -191,6 +212,17 @@ public class Constants {
          */
         public static final String PAGE_SIZE = "size";
 
+        /**
+         * HTTP request query parameter denoting page cursor.
+         * <p>
+         * Used for keyset (cursor-based) paging in collections of results. An empty value denotes the first page, the
+         * following pages are retrieved using the token returned in the {@link Constants#X_NEXT_CURSOR_HEADER}
+         * header.
+         *
+         * @see #PAGE_SIZE
+         */
+        public static final String CURSOR = "cursor";
+
         private QueryParams() {
             throw new AssertionError();
         }
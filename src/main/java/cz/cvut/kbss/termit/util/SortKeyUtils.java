@@ -0,0 +1,99 @@
+package cz.cvut.kbss.termit.util;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+
+import java.text.Collator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utilities for computing locale-aware sort keys of labels.
+ * <p>
+ * Sort keys are derived from {@link Collator} collation keys of the label's language and encoded as lowercase
+ * hexadecimal strings. Thus, simple (code point) comparison of two sort keys of the same language gives the same
+ * result as comparing the original labels using the collator. This allows to order labels in the repository without
+ * having to emulate language-specific collation rules in SPARQL.
+ */
+public class SortKeyUtils {
+
+    /**
+     * Version of the sort key format. Has to be incremented whenever the way sort keys are computed changes.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Collators by language tag. Language-less labels use {@link Locale#ROOT}, which is represented by an empty tag.
+     */
+    private static final Map<String, Collator> COLLATORS = new ConcurrentHashMap<>();
+
+    private SortKeyUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Gets version of the sort keys computed by this class.
+     * <p>
+     * Collation rules are part of the locale data shipped with the JDK, so sort keys computed by different JDK feature
+     * releases need not be comparable. Sort keys stored with a different version should thus be regenerated.
+     *
+     * @return Sort key version
+     */
+    public static String keyVersion() {
+        return FORMAT_VERSION + "-" + Runtime.version().feature();
+    }
+
+    /**
+     * Computes sort key of the specified value using collation rules of the specified language.
+     *
+     * @param value    Value to compute sort key for
+     * @param language Language tag of the value, {@code null} for language-neutral collation
+     * @return Sort key
+     */
+    public static String sortKey(String value, String language) {
+        Objects.requireNonNull(value);
+        final Collator collator = COLLATORS.computeIfAbsent(language != null ? language : "",
+                                                            SortKeyUtils::createCollator);
+        final byte[] key;
+        synchronized (collator) {
+            key = collator.getCollationKey(value).toByteArray();
+        }
+        return toHex(key);
+    }
+
+    private static Collator createCollator(String languageTag) {
+        final Collator collator = Collator.getInstance(
+                languageTag.isEmpty() ? Locale.ROOT : Locale.forLanguageTag(languageTag));
+        collator.setStrength(Collator.TERTIARY);
+        return collator;
+    }
+
+    private static String toHex(byte[] bytes) {
+        final char[] result = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            result[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            result[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(result);
+    }
+
+    /**
+     * Computes sort keys of all translations of the specified label.
+     * <p>
+     * Each translation is collated using the rules of its language.
+     *
+     * @param label Label to compute sort keys for
+     * @return Sort keys of the translations of the label, {@code null} if the label is {@code null}
+     */
+    public static MultilingualString sortKeys(MultilingualString label) {
+        if (label == null) {
+            return null;
+        }
+        final MultilingualString result = new MultilingualString();
+        label.getValue().forEach((lang, value) -> result.set(lang, sortKey(value, lang)));
+        return result;
+    }
+}
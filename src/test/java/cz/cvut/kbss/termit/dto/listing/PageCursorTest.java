@@ -0,0 +1,36 @@
+package cz.cvut.kbss.termit.dto.listing;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.InvalidParameterException;
+import cz.cvut.kbss.termit.util.SortKeyUtils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void decodeReturnsCursorEncodedByEncode() {
+        final PageCursor cursor = new PageCursor(SortKeyUtils.sortKey("Žluťoučký kůň úpěl ďábelské ódy", "cs"),
+                                                    Generator.generateUri());
+
+        final PageCursor result = PageCursor.decode(cursor.encode());
+        assertEquals(cursor, result);
+    }
+
+    @Test
+    void decodeThrowsInvalidParameterExceptionForMalformedToken() {
+        assertThrows(InvalidParameterException.class, () -> PageCursor.decode("not a token"));
+    }
+
+    @Test
+    void decodeThrowsInvalidParameterExceptionForTokenWithoutSortKey() {
+        final String token = Base64.getUrlEncoder().encodeToString(
+                Generator.generateUri().toString().getBytes(StandardCharsets.UTF_8));
+        assertThrows(InvalidParameterException.class, () -> PageCursor.decode(token));
+    }
+}
@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.environment.config;
 
 import cz.cvut.kbss.termit.config.PersistenceConfig;
+import cz.cvut.kbss.termit.config.TaskExecutorConfig;
 import cz.cvut.kbss.termit.environment.TestPersistenceFactory;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.workspace.EditableVocabularies;
@@ -27,7 +28,7 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @TestConfiguration
 @EnableAspectJAutoProxy(proxyTargetClass = true)
-@Import({TestPersistenceFactory.class, PersistenceConfig.class})
+@Import({TestPersistenceFactory.class, PersistenceConfig.class, TaskExecutorConfig.class})
 @ComponentScan(basePackages = "cz.cvut.kbss.termit.persistence")
 @EnableTransactionManagement
 public class TestPersistenceConfig {
@@ -18,6 +18,7 @@ import cz.cvut.kbss.termit.aspect.ChangeTrackingAspect;
 import cz.cvut.kbss.termit.aspect.VocabularyContentModificationAspect;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.model.selector.Selector;
+import cz.cvut.kbss.termit.service.document.html.DocumentText;
 import cz.cvut.kbss.termit.service.document.html.DummySelectorGenerator;
 import cz.cvut.kbss.termit.service.document.html.HtmlSelectorGenerators;
 import org.aspectj.lang.Aspects;
@@ -74,8 +75,8 @@ public class TestServiceConfig {
     public HtmlSelectorGenerators htmlSelectorGenerators() {
         return new HtmlSelectorGenerators() {
             @Override
-            public Set<Selector> generateSelectors(Element... elements) {
-                return Collections.singleton(new DummySelectorGenerator().generateSelector(elements));
+            public Set<Selector> generateSelectors(DocumentText text, Element... elements) {
+                return Collections.singleton(new DummySelectorGenerator().generateSelector(text, elements));
             }
         };
     }
@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.persistence.dao;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.MultilingualString;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
@@ -22,6 +23,7 @@ import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.repository.Repository;
@@ -29,12 +31,17 @@ import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -55,6 +62,12 @@ class SearchDaoTest extends BaseDaoTestRunner {
     @Autowired
     private SearchDao sut;
 
+    @Autowired
+    private TermDao termDao;
+
+    @Autowired
+    private DescriptorFactory descriptorFactory;
+
     private User user;
 
     private Vocabulary vocabulary;
@@ -210,4 +223,176 @@ class SearchDaoTest extends BaseDaoTestRunner {
                     cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_objektu));
         }
     }
+
+    @Test
+    void defaultFullTextSearchFindsTermsWithMatchingDefinition() {
+        final List<Term> terms = generateTerms();
+        final Term withDefinition = terms.get(0);
+        withDefinition.setDefinition(MultilingualString.create("Definition containing searched word", Environment.LANGUAGE));
+        transactional(() -> {
+            em.persist(vocabulary);
+            terms.forEach(em::persist);
+        });
+
+        final List<FullTextSearchResult> result = sut.fullTextSearch("searched");
+        assertEquals(1, result.size());
+        assertEquals(withDefinition.getUri(), result.get(0).getUri());
+        assertEquals("definition", result.get(0).getSnippetField());
+    }
+
+    @Test
+    void defaultFullTextSearchRanksLabelMatchesBeforeDefinitionMatches() {
+        final List<Term> terms = generateTerms();
+        final Term labelMatch = terms.get(0);
+        labelMatch.setPrimaryLabel("Building");
+        final Term definitionMatch = terms.get(1);
+        definitionMatch.setDefinition(MultilingualString.create("Part of a building", Environment.LANGUAGE));
+        transactional(() -> {
+            em.persist(vocabulary);
+            terms.forEach(em::persist);
+        });
+
+        final List<FullTextSearchResult> result = sut.fullTextSearch("building");
+        assertEquals(2, result.size());
+        assertEquals(labelMatch.getUri(), result.get(0).getUri());
+        assertEquals(definitionMatch.getUri(), result.get(1).getUri());
+    }
+
+    @Test
+    void defaultFullTextSearchFindsTermPersistedAfterPreviousSearch() {
+        generateAndPersistTerms();
+        final List<FullTextSearchResult> before = sut.fullTextSearch("matching");
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        term.setPrimaryLabel("Matching label added later");
+        transactional(() -> termDao.persist(term, vocabulary));
+
+        final List<FullTextSearchResult> result = sut.fullTextSearch("matching");
+        assertEquals(before.size() + 1, result.size());
+        assertTrue(result.stream().anyMatch(r -> r.getUri().equals(term.getUri())));
+    }
+
+    @Test
+    void fullTextSearchOfTermsFindsOnlyTermsFromSpecifiedVocabularies() {
+        final List<Term> terms = generateAndPersistTerms();
+        final Vocabulary searched = vocabulary;
+        final List<Term> otherTerms = generateAndPersistTerms();
+        final Collection<Term> matching = terms.stream().filter(t -> t.getPrimaryLabel().contains("Matching"))
+                                               .collect(Collectors.toList());
+
+        final List<FullTextSearchResult> result = sut.fullTextSearchOfTerms("matching",
+                                                                            Collections.singleton(searched.getUri()),
+                                                                            Integer.MAX_VALUE);
+        assertEquals(matching.size(), result.size());
+        for (FullTextSearchResult item : result) {
+            assertEquals(searched.getUri(), item.getVocabulary());
+            assertTrue(matching.stream().anyMatch(t -> t.getUri().equals(item.getUri())));
+            assertTrue(otherTerms.stream().noneMatch(t -> t.getUri().equals(item.getUri())));
+        }
+    }
+
+    @Test
+    void fullTextSearchOfTermsReturnsAtMostSpecifiedNumberOfResults() {
+        final List<Term> terms = generateAndPersistTerms();
+        final long matchingCount = terms.stream().filter(t -> t.getPrimaryLabel().contains("label")).count();
+
+        final List<FullTextSearchResult> result = sut.fullTextSearchOfTerms("label",
+                                                                            Collections.singleton(vocabulary.getUri()),
+                                                                            2);
+        assertEquals(Math.min(2, matchingCount), result.size());
+    }
+
+    @Test
+    void fullTextSearchOfTermsDoesNotReturnVocabularies() {
+        final Vocabulary v = Generator.generateVocabularyWithId();
+        v.setLabel("Matching vocabulary");
+        transactional(() -> em.persist(v));
+
+        assertTrue(sut.fullTextSearchOfTerms("matching", Collections.singleton(v.getUri()), 10).isEmpty());
+    }
+
+    @Test
+    void pagedFullTextSearchRanksExactMatchBeforePrefixMatchBeforeInfixMatchBeforeDefinitionMatch() {
+        final List<Term> terms = generateTerms();
+        terms.get(0).setPrimaryLabel("Public building");
+        terms.get(1).setPrimaryLabel("Building permit");
+        terms.get(2).setPrimaryLabel("Building");
+        terms.get(3).setDefinition(MultilingualString.create("Part of a building", Environment.LANGUAGE));
+        transactional(() -> {
+            em.persist(vocabulary);
+            terms.forEach(em::persist);
+        });
+
+        final Page<FullTextSearchResult> result = sut.fullTextSearch("building", PageRequest.of(0, 10));
+        assertEquals(4, result.getNumberOfElements());
+        assertEquals(terms.get(2).getUri(), result.getContent().get(0).getUri());
+        assertEquals(terms.get(1).getUri(), result.getContent().get(1).getUri());
+        assertEquals(terms.get(0).getUri(), result.getContent().get(2).getUri());
+        assertEquals(terms.get(3).getUri(), result.getContent().get(3).getUri());
+    }
+
+    @Test
+    void pagedFullTextSearchReturnsRequestedPageWithTotalNumberOfResults() {
+        final List<Term> terms = generateAndPersistTerms();
+
+        final Page<FullTextSearchResult> result = sut.fullTextSearch("label", PageRequest.of(1, 2));
+        assertEquals(Math.min(2, terms.size() - 2), result.getNumberOfElements());
+        assertEquals(terms.size(), result.getTotalElements());
+    }
+
+    @Test
+    void pagedFullTextSearchReturnsEmptyPageForEmptyInputString() {
+        generateAndPersistTerms();
+        assertTrue(sut.fullTextSearch("", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void findTermsByLabelPrefixFindsTermsIgnoringCaseAndDiacritics() {
+        final Term matchingOne = persistTermWithLabel("Čistírna odpadních vod");
+        final Term matchingTwo = persistTermWithLabel("Cisterna");
+        persistTermWithLabel("Budova");
+
+        final List<FullTextSearchResult> result = sut.findTermsByLabelPrefix("CIST", Environment.LANGUAGE,
+                                                                             Collections.singleton(vocabulary.getUri()),
+                                                                             10);
+        assertEquals(2, result.size());
+        assertTrue(result.stream().anyMatch(r -> r.getUri().equals(matchingOne.getUri())));
+        assertTrue(result.stream().anyMatch(r -> r.getUri().equals(matchingTwo.getUri())));
+    }
+
+    private Term persistTermWithLabel(String label) {
+        if (vocabulary == null) {
+            this.vocabulary = Generator.generateVocabularyWithId();
+            transactional(() -> em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary)));
+        }
+        final Term term = Generator.generateTermWithId();
+        term.setPrimaryLabel(label);
+        transactional(() -> termDao.persist(term, vocabulary));
+        return term;
+    }
+
+    @Test
+    void findTermsByLabelPrefixReturnsLabelPrefixMatchesBeforeMatchesOfWordsInsideLabels() {
+        final Term wordMatch = persistTermWithLabel("Waste water");
+        final Term labelMatch = persistTermWithLabel("Water supply");
+
+        final List<FullTextSearchResult> result = sut.findTermsByLabelPrefix("water", Environment.LANGUAGE,
+                                                                             Collections.singleton(vocabulary.getUri()),
+                                                                             10);
+        assertEquals(2, result.size());
+        assertEquals(labelMatch.getUri(), result.get(0).getUri());
+        assertEquals(wordMatch.getUri(), result.get(1).getUri());
+    }
+
+    @Test
+    void findTermsByLabelPrefixFindsTermPersistedAfterPreviousSearch() {
+        persistTermWithLabel("Building");
+        final Set<URI> vocabularies = Collections.singleton(vocabulary.getUri());
+        assertTrue(sut.findTermsByLabelPrefix("new", Environment.LANGUAGE, vocabularies, 10).isEmpty());
+        final Term added = persistTermWithLabel("New building");
+
+        final List<FullTextSearchResult> result = sut.findTermsByLabelPrefix("new", Environment.LANGUAGE,
+                                                                             vocabularies, 10);
+        assertEquals(1, result.size());
+        assertEquals(added.getUri(), result.get(0).getUri());
+    }
 }
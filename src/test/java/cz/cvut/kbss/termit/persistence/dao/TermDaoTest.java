@@ -5,6 +5,8 @@ import cz.cvut.kbss.jopa.model.query.TypedQuery;
 import cz.cvut.kbss.jopa.vocabulary.DC;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.listing.CursorPage;
+import cz.cvut.kbss.termit.dto.listing.PageCursor;
 import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
@@ -19,6 +21,7 @@ import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.SortKeyUtils;
 import org.eclipse.rdf4j.common.iteration.Iterations;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Literal;
@@ -100,6 +103,64 @@ class TermDaoTest extends BaseTermDaoTestRunner {
         assertEquals(toDtos(subList), result);
     }
 
+    @Test
+    void findAllRootsWithCursorReturnsConsecutivePagesUntilAllTermsAreRetrieved() {
+        final List<Term> terms = generateTerms(10);
+        addTermsAndSave(new HashSet<>(terms), vocabulary);
+
+        final List<TermDto> result = new ArrayList<>();
+        PageCursor cursor = null;
+        int pageCount = 0;
+        do {
+            final CursorPage<TermDto> page = sut.findAllRoots(vocabulary, cursor, 3, Collections.emptyList());
+            assertThat(page.getContent().size(), lessThanOrEqualTo(3));
+            result.addAll(page.getContent());
+            cursor = page.getNextCursor().orElse(null);
+            pageCount++;
+        } while (cursor != null);
+        assertEquals(4, pageCount);
+        assertEquals(toDtos(terms), result);
+    }
+
+    @Test
+    void findAllRootsWithCursorUsesIdentifierToOrderTermsWithSameLabel() {
+        final List<Term> terms = generateTerms(5);
+        terms.forEach(t -> t.setLabel(MultilingualString.create("Same label", Environment.LANGUAGE)));
+        addTermsAndSave(new HashSet<>(terms), vocabulary);
+
+        final List<TermDto> result = new ArrayList<>();
+        PageCursor cursor = null;
+        do {
+            final CursorPage<TermDto> page = sut.findAllRoots(cursor, 2, Collections.emptyList());
+            result.addAll(page.getContent());
+            cursor = page.getNextCursor().orElse(null);
+        } while (cursor != null);
+        assertEquals(terms.size(), result.size());
+        assertThat(result, containsInAnyOrder(toDtos(terms).toArray()));
+    }
+
+    @Test
+    void findAllRootsWithCursorReturnsAlsoTermsWithoutStoredSortKey() {
+        final List<Term> terms = generateTerms(6);
+        addTermsAndSave(new HashSet<>(terms), vocabulary);
+        terms.subList(0, 3).forEach(t -> transactional(
+                () -> em.createNativeQuery("DELETE WHERE { ?term ?hasSortKey ?sortKey . }")
+                        .setParameter("term", t)
+                        .setParameter("hasSortKey", URI.create(
+                                cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_klic_razeni))
+                        .executeUpdate()));
+
+        final List<TermDto> result = new ArrayList<>();
+        PageCursor cursor = null;
+        do {
+            final CursorPage<TermDto> page = sut.findAllRoots(vocabulary, cursor, 2, Collections.emptyList());
+            result.addAll(page.getContent());
+            cursor = page.getNextCursor().orElse(null);
+        } while (cursor != null);
+        assertEquals(terms.size(), result.size());
+        assertThat(result, containsInAnyOrder(toDtos(terms).toArray()));
+    }
+
     @Test
     void findAllRootsReturnsOnlyTermsInSpecifiedVocabulary() {
         final List<Term> terms = generateTerms(10);
@@ -215,6 +276,18 @@ class TermDaoTest extends BaseTermDaoTestRunner {
         assertEquals(new TermDto(matchingDesc), result.get(0));
     }
 
+    @Test
+    void filterExistingReturnsOnlyIdentifiersOfExistingTerms() {
+        final List<Term> terms = generateTerms(5);
+        addTermsAndSave(new HashSet<>(terms), vocabulary);
+        final Set<URI> expected = terms.stream().map(Term::getUri).collect(Collectors.toSet());
+        final List<URI> ids = new ArrayList<>(expected);
+        ids.add(Generator.generateUri());
+        ids.add(vocabulary.getUri());
+
+        assertEquals(expected, sut.filterExisting(ids));
+    }
+
     @Test
     void existsInVocabularyReturnsTrueForLabelExistingInVocabulary() {
         final List<Term> terms = generateTerms(10);
@@ -273,6 +346,95 @@ class TermDaoTest extends BaseTermDaoTestRunner {
         assertEquals(terms, result);
     }
 
+    @Test
+    void findAllIdentifiersReturnsIdentifiersOfAllTermsInVocabularyOrderedByLabel() {
+        final List<Term> terms = generateTerms(10);
+        addTermsAndSave(terms, vocabulary);
+
+        final List<URI> result = sut.findAllIdentifiers(vocabulary);
+        terms.sort(Comparator.comparing(Term::getPrimaryLabel));
+        assertEquals(terms.stream().map(Term::getUri).collect(Collectors.toList()), result);
+    }
+
+    @Test
+    void findAllFullWithIdentifiersLoadsOnlySpecifiedTermsInSpecifiedOrder() {
+        final List<Term> terms = generateTerms(10);
+        final Term term = terms.get(2);
+        term.setParentTerms(Collections.singleton(terms.get(0)));
+        term.setRelated(Collections.singleton(new TermInfo(terms.get(1))));
+        addTermsAndSave(terms, vocabulary);
+        final List<URI> subset = List.of(terms.get(5).getUri(), term.getUri(), terms.get(1).getUri());
+
+        final List<Term> result = sut.findAllFull(vocabulary, subset);
+        assertEquals(subset, result.stream().map(Term::getUri).collect(Collectors.toList()));
+        final Term expected = em.find(Term.class, term.getUri());
+        final Term actual = result.get(1);
+        assertEquals(expected.getLabel(), actual.getLabel());
+        assertEquals(expected.getParentTerms(), actual.getParentTerms());
+        assertEquals(expected.getRelated(), actual.getRelated());
+        assertEquals(Collections.singleton(new TermInfo(term)), result.get(2).getInverseRelated());
+    }
+
+    @Test
+    void findAllFullLoadsTermAttributesCorrespondingToEntityLoading() {
+        final List<Term> terms = generateTerms(3);
+        final Term term = terms.get(2);
+        term.setAltLabels(new HashSet<>(Arrays.asList(MultilingualString.create("alt one", Environment.LANGUAGE),
+                                                      MultilingualString.create("alt two", Environment.LANGUAGE))));
+        term.setHiddenLabels(Collections.singleton(MultilingualString.create("hidden", Environment.LANGUAGE)));
+        term.setNotations(Collections.singleton("N-1"));
+        term.setExamples(Collections.singleton(MultilingualString.create("example", Environment.LANGUAGE)));
+        term.setSources(Collections.singleton("PSP/c-1/p-2/b-c"));
+        term.setDraft(false);
+        term.setParentTerms(Collections.singleton(terms.get(0)));
+        term.setRelated(Collections.singleton(new TermInfo(terms.get(1))));
+        term.setProperties(Collections.singletonMap(DC.Terms.REFERENCES, Collections.singleton("reference")));
+        addTermsAndSave(terms, vocabulary);
+
+        final Term expected = em.find(Term.class, term.getUri());
+        final List<Term> result = sut.findAllFull(vocabulary);
+        final Term actual = result.stream().filter(term::equals).findFirst().orElseThrow();
+        assertEquals(expected.getLabel(), actual.getLabel());
+        assertEquals(expected.getAltLabels(), actual.getAltLabels());
+        assertEquals(expected.getHiddenLabels(), actual.getHiddenLabels());
+        assertEquals(expected.getDefinition(), actual.getDefinition());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getNotations(), actual.getNotations());
+        assertEquals(expected.getExamples(), actual.getExamples());
+        assertEquals(expected.getSources(), actual.getSources());
+        assertEquals(expected.getGlossary(), actual.getGlossary());
+        assertEquals(expected.getVocabulary(), actual.getVocabulary());
+        assertEquals(expected.isDraft(), actual.isDraft());
+        assertEquals(expected.getParentTerms(), actual.getParentTerms());
+        assertEquals(expected.getRelated(), actual.getRelated());
+        assertEquals(expected.getProperties(), actual.getProperties());
+        final Term related = result.stream().filter(terms.get(1)::equals).findFirst().orElseThrow();
+        assertEquals(Collections.singleton(new TermInfo(term)), related.getInverseRelated());
+    }
+
+    @Test
+    void findAllFullLoadsDefinitionSourcesOfTerms() {
+        final List<Term> terms = generateTerms(3);
+        addTermsAndSave(terms, vocabulary);
+        final Term term = terms.get(1);
+        final File file = Generator.generateFileWithId("test.html");
+        final TermDefinitionSource source = new TermDefinitionSource();
+        transactional(() -> {
+            em.persist(file);
+            source.setUri(saveDefinitionSource(term, file).getUri());
+        });
+
+        final Term actual = sut.findAllFull(vocabulary).stream().filter(term::equals).findFirst().orElseThrow();
+        assertNotNull(actual.getDefinitionSource());
+        assertEquals(source.getUri(), actual.getDefinitionSource().getUri());
+        assertEquals(term.getUri(), actual.getDefinitionSource().getTerm());
+        final List<Term> subset = sut.findAllFull(vocabulary, List.of(term.getUri(), terms.get(0).getUri()));
+        assertEquals(source.getUri(), subset.get(0).getDefinitionSource().getUri());
+        assertNull(subset.get(1).getDefinitionSource());
+        assertThat(actual.getProperties(), anyOf(nullValue(), not(hasKey(
+                cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_zdroj_definice_termu))));
+    }
+
     @Test
     void findAllIncludingImportedReturnsTermsInVocabularyAndImportedVocabularies() {
         final List<Term> terms = generateTerms(10);
@@ -339,6 +501,104 @@ class TermDaoTest extends BaseTermDaoTestRunner {
                       .setParameter("label", oldLabel, Environment.LANGUAGE).getSingleResult());
     }
 
+    @Test
+    void persistGeneratesLabelSortKeys() {
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        term.getLabel().set("cs", "Čína");
+        transactional(() -> sut.persist(term, vocabulary));
+
+        final Term result = em.find(Term.class, term.getUri(), descriptorFactory.termDescriptor(vocabulary));
+        assertNotNull(result.getSortKey());
+        assertEquals(SortKeyUtils.sortKeys(term.getLabel()).getValue(), result.getSortKey().getValue());
+    }
+
+    @Test
+    void updateRegeneratesLabelSortKeys() {
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        transactional(() -> {
+            vocabulary.getGlossary().addRootTerm(term);
+            term.setGlossary(vocabulary.getGlossary().getUri());
+            em.merge(vocabulary.getGlossary(), descriptorFactory.glossaryDescriptor(vocabulary));
+            em.persist(term, descriptorFactory.termDescriptor(vocabulary));
+            addTermInVocabularyRelationship(term, vocabulary.getUri());
+        });
+
+        term.setPrimaryLabel("Updated label");
+        em.getEntityManagerFactory().getCache().evictAll();
+        transactional(() -> sut.update(term));
+
+        final Term result = em.find(Term.class, term.getUri(), descriptorFactory.termDescriptor(vocabulary));
+        assertEquals(SortKeyUtils.sortKey("Updated label", Environment.LANGUAGE),
+                     result.getSortKey().get(Environment.LANGUAGE));
+    }
+
+    @Test
+    void generateMissingSortKeysGeneratesSortKeysForTermsWithoutThem() {
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        term.getLabel().set("cs", "Čína");
+        transactional(() -> sut.persist(term, vocabulary));
+        transactional(() -> em.createNativeQuery("DELETE WHERE { ?term ?hasSortKey ?sortKey . }")
+                              .setParameter("term", term)
+                              .setParameter("hasSortKey", URI.create(
+                                      cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_klic_razeni))
+                              .executeUpdate());
+
+        final int result = sut.generateMissingSortKeys();
+        assertEquals(2, result);
+        em.getEntityManagerFactory().getCache().evictAll();
+        final Term loaded = em.find(Term.class, term.getUri(), descriptorFactory.termDescriptor(vocabulary));
+        assertEquals(SortKeyUtils.sortKeys(term.getLabel()).getValue(), loaded.getSortKey().getValue());
+    }
+
+    @Test
+    void updateSortKeysGeneratesSortKeysOnlyOnceForCurrentSortKeyVersion() {
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        transactional(() -> sut.persist(term, vocabulary));
+        removeSortKeys(term);
+
+        assertEquals(1, sut.updateSortKeys());
+        removeSortKeys(term);
+        // Sort keys of the current version have already been generated
+        assertEquals(0, sut.updateSortKeys());
+    }
+
+    private void removeSortKeys(Term term) {
+        transactional(() -> em.createNativeQuery("DELETE WHERE { ?term ?hasSortKey ?sortKey . }")
+                              .setParameter("term", term)
+                              .setParameter("hasSortKey", URI.create(
+                                      cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_klic_razeni))
+                              .executeUpdate());
+    }
+
+    @Test
+    void updateSortKeysRegeneratesAllSortKeysWhenStoredSortKeyVersionDiffers() {
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        transactional(() -> sut.persist(term, vocabulary));
+        sut.updateSortKeys();
+        transactional(() -> {
+            final Repository repo = em.unwrap(Repository.class);
+            try (final RepositoryConnection conn = repo.getConnection()) {
+                final ValueFactory vf = conn.getValueFactory();
+                final IRI marker = vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.ONTOLOGY_IRI_termit + "/sort-keys");
+                final IRI hasVersion = vf.createIRI(
+                        cz.cvut.kbss.termit.util.Vocabulary.ONTOLOGY_IRI_termit + "/sort-key-version");
+                conn.remove(marker, hasVersion, null, marker);
+                conn.add(marker, hasVersion, vf.createLiteral("0-0"), marker);
+                final IRI termIri = vf.createIRI(term.getUri().toString());
+                final IRI hasSortKey = vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_klic_razeni);
+                final List<Statement> sortKeys = Iterations.asList(conn.getStatements(termIri, hasSortKey, null));
+                conn.remove(sortKeys);
+                sortKeys.forEach(st -> conn.add(termIri, hasSortKey,
+                                                vf.createLiteral("outdated", Environment.LANGUAGE), st.getContext()));
+            }
+        });
+
+        assertEquals(1, sut.updateSortKeys());
+        em.getEntityManagerFactory().getCache().evictAll();
+        final Term loaded = em.find(Term.class, term.getUri(), descriptorFactory.termDescriptor(vocabulary));
+        assertEquals(SortKeyUtils.sortKeys(term.getLabel()).getValue(), loaded.getSortKey().getValue());
+    }
+
     @Test
     void findAllRootsReturnsOnlyTermsWithMatchingLabelLanguage() {
         final List<Term> terms = generateTerms(5);
@@ -904,6 +1164,41 @@ class TermDaoTest extends BaseTermDaoTestRunner {
         }
     }
 
+    @Test
+    void findAllRootsLoadsSubTermsOfMultipleRootsSortedByLabel() {
+        enableRdfsInference(em);
+        final List<Term> parents = Arrays.asList(Generator.generateTermWithId(), Generator.generateTermWithId());
+        final Map<URI, List<Term>> children = new HashMap<>();
+        parents.forEach(p -> children.put(p.getUri(), IntStream.range(0, 3).mapToObj(i -> {
+            final Term child = Generator.generateTermWithId();
+            child.setParentTerms(Collections.singleton(p));
+            child.setGlossary(vocabulary.getGlossary().getUri());
+            return child;
+        }).collect(Collectors.toList())));
+        final Term childless = Generator.generateTermWithId();
+        transactional(() -> {
+            parents.forEach(p -> vocabulary.getGlossary().addRootTerm(p));
+            vocabulary.getGlossary().addRootTerm(childless);
+            em.merge(vocabulary.getGlossary(), descriptorFactory.glossaryDescriptor(vocabulary));
+            parents.forEach(p -> em.persist(p, descriptorFactory.termDescriptor(vocabulary)));
+            em.persist(childless, descriptorFactory.termDescriptor(vocabulary));
+            children.values().forEach(l -> l.forEach(c -> em.persist(c, descriptorFactory.termDescriptor(vocabulary))));
+        });
+
+        final List<TermDto> result = sut.findAllRoots(vocabulary, Constants.DEFAULT_PAGE_SPEC, Collections.emptyList());
+        assertEquals(3, result.size());
+        for (TermDto root : result) {
+            final List<Term> expected = children.getOrDefault(root.getUri(), Collections.emptyList());
+            expected.sort(Comparator.comparing(child -> child.getLabel().get(Environment.LANGUAGE)));
+            assertEquals(expected.stream().map(Term::getUri).collect(Collectors.toList()),
+                         root.getSubTerms().stream().map(TermInfo::getUri).collect(Collectors.toList()));
+            root.getSubTerms().forEach(ti -> {
+                assertEquals(vocabulary.getUri(), ti.getVocabulary());
+                assertNotNull(ti.getLabel());
+            });
+        }
+    }
+
     /**
      * Bug #1576
      */
@@ -1131,4 +1426,60 @@ class TermDaoTest extends BaseTermDaoTestRunner {
         assertEquals(1, roots.size());
         assertThat(roots.get(0).getSubTerms(), anyOf(nullValue(), emptyCollectionOf(TermInfo.class)));
     }
+
+    @Test
+    void findAllRootsReturnsSubTermsWithLabelUpdatedAfterHierarchyWasLoaded() {
+        enableRdfsInference(em);
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        term.setGlossary(vocabulary.getGlossary().getUri());
+        final Term parent = Generator.generateTermWithId(vocabulary.getUri());
+        transactional(() -> {
+            vocabulary.getGlossary().addRootTerm(parent);
+            parent.setGlossary(vocabulary.getGlossary().getUri());
+            term.addParentTerm(parent);
+            em.persist(parent, descriptorFactory.termDescriptor(vocabulary));
+            em.persist(term, descriptorFactory.termDescriptor(vocabulary));
+            em.merge(vocabulary.getGlossary(), descriptorFactory.glossaryDescriptor(vocabulary));
+        });
+        final List<TermDto> rootsBefore = sut.findAllRoots(vocabulary, Constants.DEFAULT_PAGE_SPEC,
+                                                           Collections.emptyList());
+        assertEquals(1, rootsBefore.size());
+        assertEquals(1, rootsBefore.get(0).getSubTerms().size());
+
+        final Term toUpdate = sut.find(term.getUri()).get();
+        final String newLabel = "Updated label";
+        toUpdate.getLabel().set(Environment.LANGUAGE, newLabel);
+        transactional(() -> sut.update(toUpdate));
+
+        final List<TermDto> roots = sut.findAllRoots(vocabulary, Constants.DEFAULT_PAGE_SPEC, Collections.emptyList());
+        assertEquals(1, roots.size());
+        final TermInfo subTerm = roots.get(0).getSubTerms().iterator().next();
+        assertEquals(term.getUri(), subTerm.getUri());
+        assertEquals(newLabel, subTerm.getLabel().get(Environment.LANGUAGE));
+    }
+
+    @Test
+    void findAllRootsLoadsSubTermsWithTheirTypes() {
+        enableRdfsInference(em);
+        final Term parent = Generator.generateTermWithId(vocabulary.getUri());
+        parent.setGlossary(vocabulary.getGlossary().getUri());
+        final Term child = Generator.generateTermWithId(vocabulary.getUri());
+        child.setGlossary(vocabulary.getGlossary().getUri());
+        final String childType = Generator.generateUri().toString();
+        child.addType(childType);
+        child.addParentTerm(parent);
+        transactional(() -> {
+            vocabulary.getGlossary().addRootTerm(parent);
+            em.merge(vocabulary.getGlossary(), descriptorFactory.glossaryDescriptor(vocabulary));
+            em.persist(parent, descriptorFactory.termDescriptor(vocabulary));
+            em.persist(child, descriptorFactory.termDescriptor(vocabulary));
+        });
+
+        final List<TermDto> result = sut.findAllRoots(vocabulary, Constants.DEFAULT_PAGE_SPEC,
+                                                      Collections.emptyList());
+        assertEquals(1, result.size());
+        final TermInfo subTerm = result.get(0).getSubTerms().iterator().next();
+        assertEquals(child.getUri(), subTerm.getUri());
+        assertThat(subTerm.getTypes(), hasItem(childType));
+    }
 }
@@ -27,7 +27,11 @@ import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.assignment.*;
 import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.selector.CssSelector;
+import cz.cvut.kbss.termit.model.selector.FragmentSelector;
+import cz.cvut.kbss.termit.model.selector.TextPositionSelector;
 import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
+import cz.cvut.kbss.termit.model.selector.XPathSelector;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.RDFS;
@@ -310,6 +314,19 @@ class TermOccurrenceDaoTest extends BaseDaoTestRunner {
         result.forEach(to -> assertEquals(otherTerm.getUri(), to.getTarget().getSource()));
     }
 
+    @Test
+    void findDefinitionsContainingOccurrencesOfReturnsTermsWithDefinitionsContainingOccurrencesOfSpecifiedTerm() {
+        enableRdfsInference(em);
+        final Term term = Generator.generateTermWithId();
+        final Term otherTerm = Generator.generateTermWithId();
+        generateDefinitionalOccurrence(term, otherTerm);
+        generateDefinitionalOccurrence(Generator.generateTermWithId(), Generator.generateTermWithId());
+        generateFileOccurrence(term);
+
+        final List<URI> result = sut.findDefinitionsContainingOccurrencesOf(term.getUri());
+        assertEquals(Collections.singletonList(otherTerm.getUri()), result);
+    }
+
     private void generateFileOccurrence(Term of) {
         final File file = Generator.generateFileWithId(FILE_LABEL);
         final FileOccurrenceTarget target = new FileOccurrenceTarget(file);
@@ -339,6 +356,101 @@ class TermOccurrenceDaoTest extends BaseDaoTestRunner {
                      .getSingleResult());
     }
 
+    @Test
+    void persistAllDoesNotSaveTermOccurrencesWhenTransactionIsRolledBack() {
+        final File file = Generator.generateFileWithId(FILE_LABEL);
+        transactional(() -> em.persist(file));
+        final TermOccurrence occurrence = new TermFileOccurrence(Generator.generateUri(),
+                                                                 new FileOccurrenceTarget(file));
+        occurrence.getTarget().setSelectors(Collections.singleton(new TextQuoteSelector("test")));
+
+        assertThrows(IllegalStateException.class, () -> transactional(() -> {
+            sut.persistAll(Collections.singletonList(occurrence));
+            throw new IllegalStateException("Rollback");
+        }));
+        assertTrue(sut.findAllTargeting(file).isEmpty());
+    }
+
+    @Test
+    void persistAllSavesTermOccurrencesWithTargetsAndSelectorsIntoGeneratedContext() {
+        final File file = Generator.generateFileWithId(FILE_LABEL);
+        transactional(() -> em.persist(file));
+        final List<TermOccurrence> occurrences = IntStream.range(0, 5).mapToObj(i -> {
+            final TermOccurrence occurrence = new TermFileOccurrence(Generator.generateUri(),
+                                                                     new FileOccurrenceTarget(file));
+            final TextQuoteSelector quoteSelector = new TextQuoteSelector("test" + i);
+            quoteSelector.setPrefix("this is a ");
+            occurrence.getTarget().setSelectors(
+                    new HashSet<>(Arrays.asList(quoteSelector, new TextPositionSelector(i * 10, i * 10 + 5))));
+            occurrence.addType(Vocabulary.s_c_navrzeny_vyskyt_termu);
+            return occurrence;
+        }).collect(Collectors.toList());
+
+        transactional(() -> sut.persistAll(occurrences));
+        occurrences.forEach(o -> {
+            assertNotNull(o.getUri());
+            assertNotNull(o.getTarget().getUri());
+            o.getTarget().getSelectors().forEach(sel -> assertNotNull(sel.getUri()));
+        });
+        final List<TermOccurrence> result = sut.findAllTargeting(file);
+        assertEquals(occurrences.size(), result.size());
+        occurrences.forEach(o -> {
+            final Optional<TermOccurrence> match = result.stream().filter(r -> r.getUri().equals(o.getUri()))
+                                                         .findFirst();
+            assertTrue(match.isPresent());
+            assertEquals(o.getTerm(), match.get().getTerm());
+            assertEquals(o.getTarget().getSelectors(), match.get().getTarget().getSelectors());
+            assertThat(match.get().getTypes(), hasItem(Vocabulary.s_c_navrzeny_vyskyt_termu));
+        });
+        assertTrue(em.createNativeQuery("ASK WHERE { GRAPH ?g { ?x a ?occurrence .} }", Boolean.class)
+                     .setParameter("g", TermOccurrence.resolveContext(file.getUri()))
+                     .setParameter("x", occurrences.get(0).getUri())
+                     .setParameter("occurrence", URI.create(Vocabulary.s_c_souborovy_vyskyt_termu))
+                     .getSingleResult());
+    }
+
+    @Test
+    void persistAllSavesSelectorsOfAllTypesSoThatTheyCanBeLoadedAsEntities() {
+        final File file = Generator.generateFileWithId(FILE_LABEL);
+        transactional(() -> em.persist(file));
+        final TermOccurrence occurrence = new TermFileOccurrence(Generator.generateUri(),
+                                                                 new FileOccurrenceTarget(file));
+        final TextQuoteSelector quoteSelector = new TextQuoteSelector("te\"st\n");
+        quoteSelector.setPrefix("this is a ");
+        quoteSelector.setSuffix(" with suffix");
+        occurrence.getTarget().setSelectors(new HashSet<>(Arrays.asList(quoteSelector,
+                                                                        new TextPositionSelector(10, 15),
+                                                                        new CssSelector("div > p"),
+                                                                        new XPathSelector("//div/p[1]"),
+                                                                        new FragmentSelector("page=1"))));
+        occurrence.setDescription("Occurrence description");
+
+        transactional(() -> sut.persistAll(Collections.singletonList(occurrence)));
+        final TermOccurrence result = em.find(TermOccurrence.class, occurrence.getUri(),
+                                              new EntityDescriptor(occurrence.resolveContext()));
+        assertNotNull(result);
+        assertEquals(occurrence.getTerm(), result.getTerm());
+        assertEquals(occurrence.getDescription(), result.getDescription());
+        assertEquals(occurrence.getTarget().getSource(), result.getTarget().getSource());
+        assertEquals(occurrence.getTarget().getSelectors(), result.getTarget().getSelectors());
+    }
+
+    @Test
+    void persistAllSavesTermOccurrencesSoThatTheyAreVisibleInCurrentTransaction() {
+        final File file = Generator.generateFileWithId(FILE_LABEL);
+        transactional(() -> em.persist(file));
+        final TermOccurrence occurrence = new TermFileOccurrence(Generator.generateUri(),
+                                                                 new FileOccurrenceTarget(file));
+        occurrence.getTarget().setSelectors(Collections.singleton(new TextQuoteSelector("test")));
+
+        transactional(() -> {
+            sut.persistAll(Collections.singletonList(occurrence));
+            final List<TermOccurrence> result = sut.findAllTargeting(file);
+            assertEquals(1, result.size());
+            assertEquals(occurrence.getUri(), result.get(0).getUri());
+        });
+    }
+
     @Test
     void removeAllOrphansRemovesOccurrencesWithNonExistentTargetSource() {
         final File file = Generator.generateFileWithId(FILE_LABEL);
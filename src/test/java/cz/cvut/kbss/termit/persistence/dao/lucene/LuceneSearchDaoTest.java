@@ -20,6 +20,8 @@ package cz.cvut.kbss.termit.persistence.dao.lucene;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.persistence.dao.util.DisabledFullTextIndex;
+import cz.cvut.kbss.termit.persistence.dao.util.DisabledTermLabelIndex;
 import cz.cvut.kbss.termit.util.Configuration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -54,7 +56,8 @@ class LuceneSearchDaoTest {
 
     @BeforeEach
     void setUp() {
-        this.sut = new LuceneSearchDao(emMock, configMock);
+        this.sut = new LuceneSearchDao(emMock, configMock, new DisabledFullTextIndex(),
+                                       new DisabledTermLabelIndex());
     }
 
     private void mockSearchQuery() {
@@ -111,4 +114,11 @@ class LuceneSearchDaoTest {
         assertTrue(result.isEmpty());
         verify(emMock, never()).createNativeQuery(anyString());
     }
+
+    @Test
+    void fullTextSearchOfTermsReturnsEmptyResultImmediatelyWhenNoVocabulariesAreSpecified() {
+        final List<FullTextSearchResult> result = sut.fullTextSearchOfTerms("test", Collections.emptySet(), 10);
+        assertTrue(result.isEmpty());
+        verify(emMock, never()).createNativeQuery(anyString(), anyString());
+    }
 }
@@ -7,13 +7,16 @@ import cz.cvut.kbss.termit.exception.importing.UnsupportedImportMediaTypeExcepti
 import cz.cvut.kbss.termit.exception.importing.VocabularyExistsException;
 import cz.cvut.kbss.termit.exception.importing.VocabularyImportException;
 import cz.cvut.kbss.termit.model.Glossary;
+import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
 import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
 import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
 import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.SortKeyUtils;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
@@ -102,6 +105,30 @@ class SKOSImporterTest extends BaseDaoTestRunner {
         });
     }
 
+    @Test
+    void importVocabularyGeneratesSortKeysOfTermLabels() {
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.importVocabulary(VOCABULARY_IRI, Constants.MediaType.TURTLE, persister,
+                                 Environment.loadFile("data/test-glossary.ttl"));
+        });
+        transactional(() -> {
+            final Repository repo = em.unwrap(Repository.class);
+            try (final RepositoryConnection conn = repo.getConnection()) {
+                final List<Statement> labels = Iterations.asList(
+                        conn.getStatements(vf.createIRI(Vocabulary.s_c_uzivatel_termitu), SKOS.PREF_LABEL, null));
+                assertFalse(labels.isEmpty());
+                labels.forEach(s -> {
+                    final Literal label = (Literal) s.getObject();
+                    final String language = label.getLanguage().orElse(null);
+                    assertTrue(conn.hasStatement(s.getSubject(), vf.createIRI(Vocabulary.s_p_ma_klic_razeni),
+                                                 vf.createLiteral(SortKeyUtils.sortKey(label.getLabel(), language),
+                                                                  language), false));
+                });
+            }
+        });
+    }
+
     @Test
     void importVocabularyRenamesVocabularyIriWhenAlreadyPresent() {
         transactional(() -> {
@@ -364,4 +391,17 @@ class SKOSImporterTest extends BaseDaoTestRunner {
         assertNotNull(result);
         assertFalse(result.getRootTerms().isEmpty());
     }
+
+    @Test
+    void importIntoExistingVocabularyRemovesTermsAddedEarlierInTheSameTransaction() {
+        final Term term = Generator.generateTermWithId(VOCABULARY_IRI);
+        transactional(() -> {
+            em.persist(term, descriptorFactory.termDescriptor(VOCABULARY_IRI));
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.importVocabulary(VOCABULARY_IRI, Constants.MediaType.TURTLE, persister,
+                                 Environment.loadFile("data/test-glossary.ttl"));
+        });
+
+        assertNull(em.find(Term.class, term.getUri()));
+    }
 }
@@ -3,18 +3,25 @@ package cz.cvut.kbss.termit.persistence.dao.util;
 import cz.cvut.kbss.termit.dto.TermInfo;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.util.Configuration;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.net.URI;
-import java.util.Set;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,7 +30,7 @@ class SimpleCacheTest {
     @Mock
     Function<URI, Set<TermInfo>> supplier;
 
-    private final SimpleCache<URI, Set<TermInfo>> sut = new SimpleCache<>();
+    private final SimpleCache<URI, Set<TermInfo>> sut = new SimpleCache<>(new Configuration.Cache(), Clock.systemUTC());
 
     @Test
     void getOrComputeReturnsValueComputedUsingSpecifiedSupplierWhenKeyIsNotPresent() {
@@ -112,4 +119,199 @@ class SimpleCacheTest {
         assertEquals(data, sut.getOrCompute(key, supplier));
         verify(supplier, times(2)).apply(key);
     }
+
+    @Test
+    void getOrComputeAllComputesOnlyValuesNotPresentInCache() {
+        final URI cachedKey = Generator.generateUri();
+        final Set<TermInfo> cachedData = generateData();
+        when(supplier.apply(cachedKey)).thenReturn(cachedData);
+        sut.getOrCompute(cachedKey, supplier);
+        final URI missingKey = Generator.generateUri();
+        final Set<TermInfo> missingData = generateData();
+        final List<Collection<URI>> computedKeys = new ArrayList<>();
+
+        final Map<URI, Set<TermInfo>> result = sut.getOrComputeAll(Arrays.asList(cachedKey, missingKey), keys -> {
+            computedKeys.add(new ArrayList<>(keys));
+            return Collections.singletonMap(missingKey, missingData);
+        });
+        assertEquals(2, result.size());
+        assertSame(cachedData, result.get(cachedKey));
+        assertSame(missingData, result.get(missingKey));
+        assertEquals(Collections.singletonList(Collections.singletonList(missingKey)), computedKeys);
+    }
+
+    @Test
+    void getOrComputeAllStoresComputedValuesInCache() {
+        final URI key = Generator.generateUri();
+        final Set<TermInfo> data = generateData();
+
+        sut.getOrComputeAll(Collections.singleton(key), keys -> Collections.singletonMap(key, data));
+        assertSame(data, sut.getOrCompute(key, supplier));
+        verify(supplier, never()).apply(any());
+    }
+
+    @Test
+    void getOrComputeEvictsLeastRecentlyUsedEntryWhenMaxSizeIsExceeded() {
+        final Configuration.Cache config = new Configuration.Cache();
+        config.setMaxSize(2);
+        final SimpleCache<URI, Set<TermInfo>> sut = new SimpleCache<>(config, Clock.systemUTC());
+        final URI keyOne = Generator.generateUri();
+        final URI keyTwo = Generator.generateUri();
+        final URI keyThree = Generator.generateUri();
+        when(supplier.apply(any(URI.class))).thenReturn(generateData());
+
+        sut.getOrCompute(keyOne, supplier);
+        sut.getOrCompute(keyTwo, supplier);
+        // Access key one so that key two becomes the least recently used
+        sut.getOrCompute(keyOne, supplier);
+        sut.getOrCompute(keyThree, supplier);
+        sut.getOrCompute(keyOne, supplier);
+        sut.getOrCompute(keyTwo, supplier);
+        verify(supplier).apply(keyOne);
+        verify(supplier, times(2)).apply(keyTwo);
+        assertEquals(2, sut.getStatistics().getSize());
+        assertEquals(2, sut.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    void getOrComputeRecomputesValueWhenEntryExpired() {
+        final Configuration.Cache config = new Configuration.Cache();
+        config.setTtl(Duration.ofMinutes(1));
+        final Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L);
+        final SimpleCache<URI, Set<TermInfo>> sut = new SimpleCache<>(config, clock);
+        final URI key = Generator.generateUri();
+        when(supplier.apply(any(URI.class))).thenReturn(generateData());
+
+        sut.getOrCompute(key, supplier);
+        when(clock.millis()).thenReturn(Duration.ofSeconds(30).toMillis());
+        sut.getOrCompute(key, supplier);
+        verify(supplier).apply(key);
+        when(clock.millis()).thenReturn(Duration.ofMinutes(2).toMillis());
+        sut.getOrCompute(key, supplier);
+        verify(supplier, times(2)).apply(key);
+        assertEquals(1, sut.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    void getStatisticsReturnsHitAndMissCounts() {
+        final URI key = Generator.generateUri();
+        when(supplier.apply(any(URI.class))).thenReturn(generateData());
+
+        sut.getOrCompute(key, supplier);
+        sut.getOrCompute(key, supplier);
+        sut.getOrCompute(key, supplier);
+        final CacheStatistics result = sut.getStatistics();
+        assertEquals(2, result.getHitCount());
+        assertEquals(1, result.getMissCount());
+        assertEquals(1, result.getSize());
+    }
+
+    @Test
+    void getOrComputeDoesNotCacheValueWhenKeyIsEvictedWhileComputingIt() throws Exception {
+        final URI key = Generator.generateUri();
+        final Set<TermInfo> stale = generateData();
+        final CountDownLatch computing = new CountDownLatch(1);
+        final CountDownLatch evicted = new CountDownLatch(1);
+        final Thread reader = new Thread(() -> sut.getOrCompute(key, k -> {
+            computing.countDown();
+            try {
+                evicted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return stale;
+        }));
+        reader.start();
+        assertTrue(computing.await(10, TimeUnit.SECONDS));
+        sut.evict(key);
+        evicted.countDown();
+        reader.join(10000);
+
+        final Set<TermInfo> fresh = generateData();
+        when(supplier.apply(any(URI.class))).thenReturn(fresh);
+        assertEquals(fresh, sut.getOrCompute(key, supplier));
+        verify(supplier).apply(key);
+    }
+
+    @Test
+    void getOrComputeAllDoesNotCacheValuesWhenCacheIsEvictedWhileComputingThem() throws Exception {
+        final URI key = Generator.generateUri();
+        final CountDownLatch computing = new CountDownLatch(1);
+        final CountDownLatch evicted = new CountDownLatch(1);
+        final Thread reader = new Thread(() -> sut.getOrComputeAll(Collections.singleton(key), keys -> {
+            computing.countDown();
+            try {
+                evicted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singletonMap(key, generateData());
+        }));
+        reader.start();
+        assertTrue(computing.await(10, TimeUnit.SECONDS));
+        sut.evictAll();
+        evicted.countDown();
+        reader.join(10000);
+
+        final Set<TermInfo> fresh = generateData();
+        when(supplier.apply(any(URI.class))).thenReturn(fresh);
+        assertEquals(fresh, sut.getOrCompute(key, supplier));
+        verify(supplier).apply(key);
+    }
+
+    @Test
+    void getOrComputeCachesValueWhenOtherKeyIsEvictedWhileComputingIt() throws Exception {
+        final URI key = Generator.generateUri();
+        final Set<TermInfo> data = generateData();
+        final CountDownLatch computing = new CountDownLatch(1);
+        final CountDownLatch evicted = new CountDownLatch(1);
+        final Thread reader = new Thread(() -> sut.getOrCompute(key, k -> {
+            computing.countDown();
+            try {
+                evicted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return data;
+        }));
+        reader.start();
+        assertTrue(computing.await(10, TimeUnit.SECONDS));
+        sut.evict(Generator.generateUri());
+        evicted.countDown();
+        reader.join(10000);
+
+        assertSame(data, sut.getOrCompute(key, supplier));
+        verify(supplier, never()).apply(any());
+    }
+
+    @Test
+    void getOrComputeAllDoesNotCacheValueOfKeyEvictedWhileComputingButCachesOtherValues() throws Exception {
+        final URI evictedKey = Generator.generateUri();
+        final URI otherKey = Generator.generateUri();
+        final Set<TermInfo> otherData = generateData();
+        final CountDownLatch computing = new CountDownLatch(1);
+        final CountDownLatch evicted = new CountDownLatch(1);
+        final Thread reader = new Thread(() -> sut.getOrComputeAll(Arrays.asList(evictedKey, otherKey), keys -> {
+            computing.countDown();
+            try {
+                evicted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of(evictedKey, generateData(), otherKey, otherData);
+        }));
+        reader.start();
+        assertTrue(computing.await(10, TimeUnit.SECONDS));
+        sut.evict(evictedKey);
+        evicted.countDown();
+        reader.join(10000);
+
+        final Set<TermInfo> fresh = generateData();
+        when(supplier.apply(any(URI.class))).thenReturn(fresh);
+        assertEquals(fresh, sut.getOrCompute(evictedKey, supplier));
+        assertSame(otherData, sut.getOrCompute(otherKey, supplier));
+        verify(supplier).apply(evictedKey);
+        verify(supplier, never()).apply(otherKey);
+    }
 }
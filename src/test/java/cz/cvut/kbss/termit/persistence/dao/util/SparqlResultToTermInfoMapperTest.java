@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -72,4 +73,36 @@ class SparqlResultToTermInfoMapperTest {
         assertEquals(tTwoUri, result.get(1).getUri());
         assertEquals(vocUri, result.get(1).getVocabulary());
     }
+
+    @Test
+    void mapsResultsWithTypesToTermInfoInstancesWithAllTypes() {
+        final URI termUri = Generator.generateUri();
+        final URI vocUri = Generator.generateUri();
+        final URI typeOne = Generator.generateUri();
+        final URI typeTwo = Generator.generateUri();
+        final URI untypedUri = Generator.generateUri();
+        final List<Object[]> toMap = Arrays.asList(new Object[]{
+                termUri,
+                new LangString("Test one", Environment.LANGUAGE),
+                vocUri,
+                typeOne
+        }, new Object[]{
+                termUri,
+                new LangString("Test jedna", "cs"),
+                vocUri,
+                typeTwo
+        }, new Object[]{
+                untypedUri,
+                new LangString("Test two", Environment.LANGUAGE),
+                vocUri,
+                null
+        });
+
+        final List<TermInfo> result = sut.map(toMap);
+        assertEquals(2, result.size());
+        assertEquals(Set.of(typeOne.toString(), typeTwo.toString()), result.get(0).getTypes());
+        assertEquals("Test jedna", result.get(0).getLabel().get("cs"));
+        assertNotNull(result.get(1).getTypes());
+        assertTrue(result.get(1).getTypes().isEmpty());
+    }
 }
@@ -0,0 +1,135 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionalIndexUpdatesTest {
+
+    private final List<List<String>> parts = new ArrayList<>();
+
+    private final TransactionalIndexUpdates<List<String>> sut = new TransactionalIndexUpdates<>(parts::forEach);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    private static void completeTransaction(boolean commit) {
+        final List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager
+                .getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (commit) {
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        }
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                                                              commit ? TransactionSynchronization.STATUS_COMMITTED :
+                                                              TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+
+    @Test
+    void applyOutsideOfTransactionAppliesUpdateImmediately() {
+        final List<String> part = new ArrayList<>();
+        parts.add(part);
+        sut.apply(p -> p.add("update"));
+        assertEquals(List.of("update"), part);
+    }
+
+    @Test
+    void applyWithinTransactionAppliesUpdatesOnlyAfterCommit() {
+        final List<String> part = new ArrayList<>();
+        parts.add(part);
+        TransactionSynchronizationManager.initSynchronization();
+        sut.apply(p -> p.add("one"));
+        sut.apply(p -> p.add("two"));
+        assertTrue(part.isEmpty());
+        completeTransaction(true);
+        assertEquals(List.of("one", "two"), part);
+    }
+
+    @Test
+    void applyWithinTransactionDoesNotApplyUpdatesWhenTransactionIsRolledBack() {
+        final List<String> part = new ArrayList<>();
+        parts.add(part);
+        TransactionSynchronizationManager.initSynchronization();
+        sut.apply(p -> p.add("update"));
+        completeTransaction(false);
+        assertTrue(part.isEmpty());
+        assertFalse(TransactionSynchronizationManager.hasResource(sut));
+    }
+
+    @Test
+    void loadAppliesUpdatesCommittedDuringLoadingToLoadedPartAndPublishesIt() {
+        final List<String> result = sut.load(() -> {
+            sut.apply(p -> p.add("concurrent"));
+            return new ArrayList<>(List.of("loaded"));
+        }, loaded -> {
+            parts.add(loaded);
+            return loaded;
+        });
+        assertEquals(List.of("loaded", "concurrent"), result);
+        assertEquals(List.of(result), parts);
+    }
+
+    @Test
+    void loadDoesNotPublishPartWhenIndexIsEvictedDuringLoading() {
+        final AtomicBoolean published = new AtomicBoolean();
+        final List<String> result = sut.load(() -> {
+            sut.evict(parts::clear);
+            return new ArrayList<>(List.of("loaded"));
+        }, loaded -> {
+            published.set(true);
+            return loaded;
+        });
+        assertEquals(List.of("loaded"), result);
+        assertFalse(published.get());
+    }
+
+    @Test
+    void loadWithinReadWriteTransactionDoesNotPublishPartSoThatItDoesNotSurviveRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        // The part contains uncommitted data of the transaction
+        final List<String> result = sut.load(() -> new ArrayList<>(List.of("uncommitted")), loaded -> {
+            parts.add(loaded);
+            return loaded;
+        });
+        assertEquals(List.of("uncommitted"), result);
+        completeTransaction(false);
+        assertTrue(parts.isEmpty());
+    }
+
+    @Test
+    void loadWithinReadOnlyTransactionPublishesPart() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        final List<String> result = sut.load(() -> new ArrayList<>(List.of("loaded")), loaded -> {
+            parts.add(loaded);
+            return loaded;
+        });
+        assertEquals(List.of(result), parts);
+    }
+
+    @Test
+    void evictWithinTransactionEvictsIndexOnlyAfterCommit() {
+        parts.add(new ArrayList<>());
+        TransactionSynchronizationManager.initSynchronization();
+        sut.evict(parts::clear);
+        assertEquals(1, parts.size());
+        completeTransaction(true);
+        assertTrue(parts.isEmpty());
+    }
+}
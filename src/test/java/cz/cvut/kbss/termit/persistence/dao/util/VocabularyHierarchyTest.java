@@ -0,0 +1,140 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.environment.Generator;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VocabularyHierarchyTest {
+
+    private final VocabularyHierarchy sut = new VocabularyHierarchy(Generator.generateUri());
+
+    @Test
+    void getChildrenReturnsChildrenOfMemberTerm() {
+        final URI parent = Generator.generateUri();
+        sut.addMember(parent);
+        final List<TermInfo> children = IntStream.range(0, 5).mapToObj(i -> Generator.generateTermInfoWithId())
+                                                 .collect(Collectors.toList());
+        children.forEach(c -> {
+            sut.addMember(c.getUri());
+            sut.addEdge(c, parent);
+        });
+
+        final List<TermInfo> result = sut.getChildren(parent);
+        assertThat(result, containsInAnyOrder(children.toArray()));
+    }
+
+    @Test
+    void getChildrenReturnsNullForNonMemberTerm() {
+        final URI parent = Generator.generateUri();
+        sut.addEdge(Generator.generateTermInfoWithId(), parent);
+
+        assertNull(sut.getChildren(parent));
+        assertNull(sut.getChildren(Generator.generateUri()));
+    }
+
+    @Test
+    void getChildrenReturnsEmptyListForMemberWithoutChildren() {
+        final URI term = Generator.generateUri();
+        sut.addMember(term);
+
+        final List<TermInfo> result = sut.getChildren(term);
+        assertNotNull(result);
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void addEdgeIgnoresDuplicateRelationship() {
+        final URI parent = Generator.generateUri();
+        sut.addMember(parent);
+        final TermInfo child = Generator.generateTermInfoWithId();
+        sut.addEdge(child, parent);
+        sut.addEdge(child, parent);
+
+        assertEquals(1, sut.getChildren(parent).size());
+    }
+
+    @Test
+    void removeEdgeRemovesRelationshipBetweenTerms() {
+        final URI parent = Generator.generateUri();
+        sut.addMember(parent);
+        final TermInfo childOne = Generator.generateTermInfoWithId();
+        final TermInfo childTwo = Generator.generateTermInfoWithId();
+        sut.addEdge(childOne, parent);
+        sut.addEdge(childTwo, parent);
+
+        sut.removeEdge(childOne.getUri(), parent);
+        assertEquals(List.of(childTwo), sut.getChildren(parent));
+        assertThat(sut.getAncestors(childOne.getUri()), empty());
+    }
+
+    @Test
+    void removeTermRemovesTermAndAllItsRelationships() {
+        final URI grandParent = Generator.generateUri();
+        final TermInfo parent = Generator.generateTermInfoWithId();
+        final TermInfo child = Generator.generateTermInfoWithId();
+        sut.addMember(grandParent);
+        sut.addMember(parent.getUri());
+        sut.addMember(child.getUri());
+        sut.addEdge(parent, grandParent);
+        sut.addEdge(child, parent.getUri());
+
+        sut.removeTerm(parent.getUri());
+        assertFalse(sut.isMember(parent.getUri()));
+        assertThat(sut.getChildren(grandParent), empty());
+        assertNull(sut.getChildren(parent.getUri()));
+        assertTrue(sut.isMember(child.getUri()));
+        assertThat(sut.getAncestors(child.getUri()), empty());
+    }
+
+    @Test
+    void getAncestorsTraversesHierarchyTransitively() {
+        final URI root = Generator.generateUri();
+        final TermInfo middle = Generator.generateTermInfoWithId();
+        final TermInfo leaf = Generator.generateTermInfoWithId();
+        sut.addMember(root);
+        sut.addMember(middle.getUri());
+        sut.addMember(leaf.getUri());
+        sut.addEdge(middle, root);
+        sut.addEdge(leaf, middle.getUri());
+
+        assertEquals(Set.of(root, middle.getUri()), sut.getAncestors(leaf.getUri()));
+        assertThat(sut.getAncestors(root), empty());
+    }
+
+    @Test
+    void getAncestorsHandlesCyclesInHierarchy() {
+        final TermInfo one = Generator.generateTermInfoWithId();
+        final TermInfo two = Generator.generateTermInfoWithId();
+        sut.addMember(one.getUri());
+        sut.addMember(two.getUri());
+        sut.addEdge(one, two.getUri());
+        sut.addEdge(two, one.getUri());
+
+        assertEquals(Set.of(two.getUri()), sut.getAncestors(one.getUri()));
+    }
+
+    @Test
+    void hierarchyGrowsBeyondInitialCapacity() {
+        final URI parent = Generator.generateUri();
+        sut.addMember(parent);
+        final List<TermInfo> children = IntStream.range(0, 100).mapToObj(i -> Generator.generateTermInfoWithId())
+                                                 .collect(Collectors.toList());
+        children.forEach(c -> {
+            sut.addMember(c.getUri());
+            sut.addEdge(c, parent);
+        });
+
+        assertEquals(children.size(), sut.getChildren(parent).size());
+        children.forEach(c -> assertTrue(sut.isMember(c.getUri())));
+    }
+}
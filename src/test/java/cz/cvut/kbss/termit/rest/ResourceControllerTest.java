@@ -12,6 +12,7 @@
 package cz.cvut.kbss.termit.rest;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.exception.NotFoundException;
@@ -48,6 +49,7 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -176,11 +178,16 @@ class ResourceControllerTest extends BaseControllerTestRunner {
         final File file = generateFile();
         when(identifierResolverMock.resolveIdentifier(RESOURCE_NAMESPACE, FILE_NAME)).thenReturn(file.getUri());
         when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        when(resourceServiceMock.runTextAnalysis(file, Collections.emptySet())).thenReturn(generateJob(file));
         mockMvc.perform(put(PATH + "/" + FILE_NAME + "/text-analysis").param(QueryParams.NAMESPACE, RESOURCE_NAMESPACE))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isAccepted());
         verify(resourceServiceMock).runTextAnalysis(file, Collections.emptySet());
     }
 
+    private static TextAnalysisJob generateJob(File file) {
+        return new TextAnalysisJob("job-1", file.getUri(), Collections.emptySet(), Utils.timestamp());
+    }
+
     @Test
     void runTextAnalysisInvokesTextAnalysisWithSpecifiedVocabulariesAsTermSources() throws Exception {
         final File file = generateFile();
@@ -188,14 +195,49 @@ class ResourceControllerTest extends BaseControllerTestRunner {
         when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
         final Set<String> vocabularies = IntStream.range(0, 3).mapToObj(i -> Generator.generateUri().toString())
                 .collect(Collectors.toSet());
+        when(resourceServiceMock.runTextAnalysis(eq(file), anySet())).thenReturn(generateJob(file));
         mockMvc.perform(put(PATH + "/" + FILE_NAME + "/text-analysis").param(QueryParams.NAMESPACE, RESOURCE_NAMESPACE)
                 .param("vocabulary",
                         vocabularies.toArray(new String[0])))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isAccepted());
         verify(resourceServiceMock)
                 .runTextAnalysis(file, vocabularies.stream().map(URI::create).collect(Collectors.toSet()));
     }
 
+    @Test
+    void runTextAnalysisReturnsSubmittedJobWithItsLocation() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(RESOURCE_NAMESPACE, FILE_NAME)).thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        final TextAnalysisJob job = generateJob(file);
+        when(resourceServiceMock.runTextAnalysis(file, Collections.emptySet())).thenReturn(job);
+        final MvcResult mvcResult = mockMvc.perform(
+                put(PATH + "/" + FILE_NAME + "/text-analysis").param(QueryParams.NAMESPACE, RESOURCE_NAMESPACE))
+                                           .andExpect(status().isAccepted()).andReturn();
+        final Map<String, Object> result = readValue(mvcResult, new TypeReference<Map<String, Object>>() {
+        });
+        assertEquals(job.getId(), result.get("id"));
+        assertEquals(TextAnalysisJob.Status.QUEUED.name(), result.get("status"));
+        verifyLocationEquals(PATH + "/" + FILE_NAME + "/text-analysis/jobs/" + job.getId(), mvcResult);
+    }
+
+    @Test
+    void getTextAnalysisJobRetrievesJobFromService() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(RESOURCE_NAMESPACE, FILE_NAME)).thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        final TextAnalysisJob job = generateJob(file);
+        job.started(Utils.timestamp());
+        when(resourceServiceMock.findTextAnalysisJob(file, job.getId())).thenReturn(job);
+        final MvcResult mvcResult = mockMvc.perform(
+                get(PATH + "/" + FILE_NAME + "/text-analysis/jobs/" + job.getId())
+                        .param(QueryParams.NAMESPACE, RESOURCE_NAMESPACE)).andExpect(status().isOk()).andReturn();
+        final Map<String, Object> result = readValue(mvcResult, new TypeReference<Map<String, Object>>() {
+        });
+        assertEquals(TextAnalysisJob.Status.RUNNING.name(), result.get("status"));
+        verify(resourceServiceMock).findTextAnalysisJob(file, job.getId());
+    }
+
     @Test
     void getFilesLoadsFilesFromDocumentWithSpecifiedIdentifier() throws Exception {
         final Document document = new Document();
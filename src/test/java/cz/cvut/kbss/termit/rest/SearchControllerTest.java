@@ -16,15 +16,23 @@ package cz.cvut.kbss.termit.rest;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.service.business.SearchService;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.net.URI;
@@ -33,6 +41,8 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -46,6 +56,9 @@ class SearchControllerTest extends BaseControllerTestRunner {
     @Mock
     private SearchService searchServiceMock;
 
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private Configuration config;
+
     @InjectMocks
     private SearchController sut;
 
@@ -60,7 +73,7 @@ class SearchControllerTest extends BaseControllerTestRunner {
                 .singletonList(
                         new FullTextSearchResult(Generator.generateUri(), "test", null, null, Vocabulary.s_c_term,
                                                  "test", "test", 1.0));
-        when(searchServiceMock.fullTextSearch(any())).thenReturn(expected);
+        when(searchServiceMock.fullTextSearch(any(), any())).thenReturn(new PageImpl<>(expected));
         final String searchString = "test";
         final MvcResult mvcResult = mockMvc.perform(get(PATH + "/fts").param("searchString", searchString))
                                            .andExpect(status().isOk()).andReturn();
@@ -70,7 +83,31 @@ class SearchControllerTest extends BaseControllerTestRunner {
         assertEquals(expected.get(0).getUri(), result.get(0).getUri());
         assertEquals(expected.get(0).getLabel(), result.get(0).getLabel());
         assertEquals(expected.get(0).getTypes(), result.get(0).getTypes());
-        verify(searchServiceMock).fullTextSearch(searchString);
+        verify(searchServiceMock).fullTextSearch(eq(searchString), any(Pageable.class));
+    }
+
+    @Test
+    void fullTextSearchPassesPageSpecificationToServiceAndReturnsTotalCountHeader() throws Exception {
+        final List<FullTextSearchResult> expected = Collections
+                .singletonList(
+                        new FullTextSearchResult(Generator.generateUri(), "test", null, null, Vocabulary.s_c_term,
+                                                 "test", "test", 1.0));
+        final Pageable pageSpec = PageRequest.of(2, 10);
+        when(searchServiceMock.fullTextSearch(any(), any())).thenReturn(new PageImpl<>(expected, pageSpec, 117));
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/fts").param("searchString", "test")
+                                                                       .param(Constants.QueryParams.PAGE, "2")
+                                                                       .param(Constants.QueryParams.PAGE_SIZE, "10"))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals("117", mvcResult.getResponse().getHeader(Constants.X_TOTAL_COUNT_HEADER));
+        verify(searchServiceMock).fullTextSearch("test", pageSpec);
+    }
+
+    @Test
+    void fullTextSearchUsesDefaultPageSpecificationWhenNoneIsProvided() throws Exception {
+        when(searchServiceMock.fullTextSearch(any(), any())).thenReturn(Page.empty());
+        mockMvc.perform(get(PATH + "/fts").param("searchString", "test")).andExpect(status().isOk());
+        verify(searchServiceMock).fullTextSearch("test", PageRequest.of(Constants.DEFAULT_PAGE_SPEC.getPageNumber(),
+                                                                        Constants.DEFAULT_PAGE_SIZE));
     }
 
     @Test
@@ -87,4 +124,69 @@ class SearchControllerTest extends BaseControllerTestRunner {
                .andExpect(status().isOk()).andReturn();
         verify(searchServiceMock).fullTextSearchOfTerms(searchString, Collections.singleton(vocabularyIri));
     }
+
+    @Test
+    void autocompleteTermsPassesParametersToService() throws Exception {
+        final URI vocabularyIri = Generator.generateUri();
+        final List<FullTextSearchResult> expected = Collections
+                .singletonList(new FullTextSearchResult(Generator.generateUri(), "Building", vocabularyIri, null,
+                                                        Vocabulary.s_c_term, "label", "Building", 2.0));
+        when(searchServiceMock.findTermsByLabelPrefix(any(), any(), any(), anyInt())).thenReturn(expected);
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/autocomplete/terms")
+                                                            .param("searchString", "bui")
+                                                            .param("vocabulary", vocabularyIri.toString())
+                                                            .param("language", "cs")
+                                                            .param(Constants.QueryParams.PAGE_SIZE, "5"))
+                                           .andExpect(status().isOk()).andReturn();
+        final List<FullTextSearchResult> result = readValue(mvcResult, new TypeReference<List<FullTextSearchResult>>() {
+        });
+        assertEquals(1, result.size());
+        assertEquals(expected.get(0).getUri(), result.get(0).getUri());
+        verify(searchServiceMock).findTermsByLabelPrefix("bui", "cs", Collections.singleton(vocabularyIri), 5);
+    }
+
+    @Test
+    void autocompleteTermsUsesPersistenceLanguageAndDefaultSizeWhenNotSpecified() throws Exception {
+        when(config.getPersistence().getLanguage()).thenReturn(Environment.LANGUAGE);
+        final URI vocabularyIri = Generator.generateUri();
+        when(searchServiceMock.findTermsByLabelPrefix(any(), any(), any(), anyInt()))
+                .thenReturn(Collections.emptyList());
+        mockMvc.perform(get(PATH + "/autocomplete/terms")
+                                .param("searchString", "bui")
+                                .param("vocabulary", vocabularyIri.toString()))
+               .andExpect(status().isOk());
+        verify(searchServiceMock).findTermsByLabelPrefix("bui", Environment.LANGUAGE,
+                                                         Collections.singleton(vocabularyIri),
+                                                         Integer.parseInt(SearchController.DEFAULT_AUTOCOMPLETE_SIZE));
+    }
+
+    @Test
+    void autocompleteTermsLimitsSizeToMaximum() throws Exception {
+        final URI vocabularyIri = Generator.generateUri();
+        when(searchServiceMock.findTermsByLabelPrefix(any(), any(), any(), anyInt()))
+                .thenReturn(Collections.emptyList());
+        mockMvc.perform(get(PATH + "/autocomplete/terms")
+                                .param("searchString", "bui")
+                                .param("vocabulary", vocabularyIri.toString())
+                                .param("language", "cs")
+                                .param(Constants.QueryParams.PAGE_SIZE,
+                                       Integer.toString(SearchController.MAX_AUTOCOMPLETE_SIZE * 10)))
+               .andExpect(status().isOk());
+        verify(searchServiceMock).findTermsByLabelPrefix("bui", "cs", Collections.singleton(vocabularyIri),
+                                                         SearchController.MAX_AUTOCOMPLETE_SIZE);
+    }
+
+    @Test
+    void autocompleteTermsRaisesNonPositiveSizeToOne() throws Exception {
+        final URI vocabularyIri = Generator.generateUri();
+        when(searchServiceMock.findTermsByLabelPrefix(any(), any(), any(), anyInt()))
+                .thenReturn(Collections.emptyList());
+        mockMvc.perform(get(PATH + "/autocomplete/terms")
+                                .param("searchString", "bui")
+                                .param("vocabulary", vocabularyIri.toString())
+                                .param("language", "cs")
+                                .param(Constants.QueryParams.PAGE_SIZE, "-5"))
+               .andExpect(status().isOk());
+        verify(searchServiceMock).findTermsByLabelPrefix("bui", "cs", Collections.singleton(vocabularyIri), 1);
+    }
 }
@@ -7,6 +7,8 @@ import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.jsonld.JsonLd;
 import cz.cvut.kbss.termit.dto.Snapshot;
 import cz.cvut.kbss.termit.dto.TermStatus;
+import cz.cvut.kbss.termit.dto.listing.CursorPage;
+import cz.cvut.kbss.termit.dto.listing.PageCursor;
 import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
@@ -24,6 +26,7 @@ import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.TermService;
 import cz.cvut.kbss.termit.service.export.ExportFormat;
 import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Constants.QueryParams;
@@ -48,6 +51,7 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 
 import java.io.ByteArrayOutputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -67,6 +71,8 @@ import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -350,6 +356,27 @@ class TermControllerTest extends BaseControllerTestRunner {
         assertEquals(content, mvcResult.getResponse().getContentAsString());
     }
 
+    @Test
+    void getAllStreamsCsvExportIntoResponse() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        final cz.cvut.kbss.termit.model.Vocabulary vocabulary = Generator.generateVocabulary();
+        vocabulary.setUri(URI.create(VOCABULARY_URI));
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        final String content = String.join(",", Term.EXPORT_COLUMNS);
+        final TypeAwareStreamingResource export = new TypeAwareStreamingResource(
+                out -> out.write(content.getBytes(StandardCharsets.UTF_8)), ExportFormat.CSV.getMediaType(),
+                ExportFormat.CSV.getFileExtension());
+        when(termServiceMock.exportGlossary(vocabulary, ExportFormat.CSV.getMediaType())).thenReturn(Optional.of(export));
+
+        final MvcResult asyncResult = mockMvc
+                .perform(get(PATH + VOCABULARY_NAME + "/terms").accept(ExportFormat.CSV.getMediaType()))
+                .andExpect(request().asyncStarted()).andReturn();
+        final MvcResult mvcResult = mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk()).andReturn();
+        assertThat(mvcResult.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION),
+                   containsString("filename=\"" + VOCABULARY_NAME + ExportFormat.CSV.getFileExtension() + "\""));
+        assertEquals(content, mvcResult.getResponse().getContentAsString());
+    }
+
     @Test
     void getAllExportsTermsToExcelWhenAcceptMediaTypeIsExcel() throws Exception {
         initNamespaceAndIdentifierResolution();
@@ -423,6 +450,49 @@ class TermControllerTest extends BaseControllerTestRunner {
         assertEquals(DEFAULT_PAGE_SPEC, captor.getValue());
     }
 
+    @Test
+    void getAllRootsWithCursorReturnsPageAndNextCursorHeader() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        final List<TermDto> terms = termsToDtos(Generator.generateTermsWithIds(5));
+        final PageCursor next = new PageCursor("Next", Generator.generateUri());
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        when(termServiceMock.findAllRoots(eq(vocabulary), any(), anyInt(), anyCollection()))
+                .thenReturn(new CursorPage<>(terms, next));
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/roots")
+                                                            .param(QueryParams.CURSOR, "")
+                                                            .param(PAGE_SIZE, "5"))
+                                           .andExpect(status().isOk())
+                                           .andExpect(header().string(Constants.X_NEXT_CURSOR_HEADER, next.encode()))
+                                           .andReturn();
+        final List<TermDto> result = readValue(mvcResult, new TypeReference<List<TermDto>>() {
+        });
+        assertEquals(terms, result);
+        verify(termServiceMock).findAllRoots(vocabulary, null, 5, Collections.emptyList());
+    }
+
+    @Test
+    void getAllRootsWithCursorPassesDecodedCursorToService() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        final PageCursor cursor = new PageCursor("Previous", Generator.generateUri());
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        when(termServiceMock.findAllRoots(eq(vocabulary), any(), anyInt(), anyCollection()))
+                .thenReturn(new CursorPage<>(Collections.emptyList(), null));
+        mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/roots").param(QueryParams.CURSOR, cursor.encode())
+                                                                    .param(PAGE_SIZE, "10"))
+               .andExpect(status().isOk())
+               .andExpect(header().doesNotExist(Constants.X_NEXT_CURSOR_HEADER));
+        verify(termServiceMock).findAllRoots(vocabulary, cursor, 10, Collections.emptyList());
+    }
+
+    @Test
+    void getAllRootsWithInvalidCursorReturnsUnprocessableEntity() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/roots").param(QueryParams.CURSOR, "invalid"))
+               .andExpect(status().isUnprocessableEntity());
+        verify(termServiceMock, never()).findAllRoots(any(), any(), anyInt(), anyCollection());
+    }
+
     @Test
     void getAllRootsWithoutVocabularyLoadsRootsFromCorrectPage() throws Exception {
         final List<TermDto> terms = termsToDtos(Generator.generateTermsWithIds(5));
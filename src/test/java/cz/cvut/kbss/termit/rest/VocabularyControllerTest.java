@@ -3,6 +3,7 @@ package cz.cvut.kbss.termit.rest;
 import com.fasterxml.jackson.core.type.TypeReference;
 import cz.cvut.kbss.termit.dto.AggregatedChangeInfo;
 import cz.cvut.kbss.termit.dto.Snapshot;
+import cz.cvut.kbss.termit.dto.TextAnalysisProgress;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.exception.AssetRemovalException;
@@ -354,6 +355,31 @@ class VocabularyControllerTest extends BaseControllerTestRunner {
         verify(serviceMock).runTextAnalysisOnAllTerms(vocabulary);
     }
 
+    @Test
+    void getTextAnalysisProgressReturnsProgressOfTermDefinitionsAnalysis() throws Exception {
+        final Vocabulary vocabulary = generateVocabulary();
+        vocabulary.setUri(VOCABULARY_URI);
+        when(sut.getById(FRAGMENT, Optional.of(NAMESPACE))).thenReturn(vocabulary);
+        final TextAnalysisProgress progress = new TextAnalysisProgress(VOCABULARY_URI, 5);
+        progress.addProcessed(3);
+        when(serviceMock.getTextAnalysisProgress(vocabulary)).thenReturn(Optional.of(progress));
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + FRAGMENT + "/terms/text-analysis"))
+                                           .andExpect(status().isOk()).andReturn();
+        final Map<String, Object> result = readValue(mvcResult, new TypeReference<Map<String, Object>>() {
+        });
+        assertEquals(5, result.get("total"));
+        assertEquals(3, result.get("processed"));
+    }
+
+    @Test
+    void getTextAnalysisProgressThrowsNotFoundWhenNoAnalysisHasBeenRun() throws Exception {
+        final Vocabulary vocabulary = generateVocabulary();
+        vocabulary.setUri(VOCABULARY_URI);
+        when(sut.getById(FRAGMENT, Optional.of(NAMESPACE))).thenReturn(vocabulary);
+        when(serviceMock.getTextAnalysisProgress(vocabulary)).thenReturn(Optional.empty());
+        mockMvc.perform(get(PATH + "/" + FRAGMENT + "/terms/text-analysis")).andExpect(status().isNotFound());
+    }
+
     @Test
     void runTextAnalysisOnAllVocabulariesInvokesTextAnalysisOnAllVocabulariesFromService() throws Exception {
         mockMvc.perform(get(PATH + "/text-analysis")).andExpect(status().isAccepted());
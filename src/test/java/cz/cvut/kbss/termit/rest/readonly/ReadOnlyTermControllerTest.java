@@ -5,6 +5,7 @@ import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.dto.readonly.ReadOnlyTerm;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
@@ -23,9 +24,11 @@ import org.mockito.Answers;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.net.URI;
@@ -44,8 +47,11 @@ import static cz.cvut.kbss.termit.util.Constants.QueryParams.PAGE_SIZE;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -69,6 +75,9 @@ class ReadOnlyTermControllerTest extends BaseControllerTestRunner {
     @Mock
     private IdentifierResolver idResolver;
 
+    @Spy
+    private TermListingCache listingCache = new TermListingCache();
+
     private Vocabulary vocabulary;
 
     @InjectMocks
@@ -205,6 +214,61 @@ class ReadOnlyTermControllerTest extends BaseControllerTestRunner {
         verify(termService).findAllRootsIncludingImported(eq(vocabulary), any(PageRequest.class));
     }
 
+    @Test
+    void getAllReturnsCachedTermsWithoutLoadingThemAgain() throws Exception {
+        when(idResolver.resolveIdentifier(config.getNamespace()
+                                                .getVocabulary(), VOCABULARY_NAME)).thenReturn(
+                URI.create(VOCABULARY_URI));
+        final List<TermDto> terms = generateTerms();
+        when(termService.findVocabularyRequired(URI.create(VOCABULARY_URI))).thenReturn(vocabulary);
+        when(termService.findAll(any())).thenReturn(terms);
+
+        mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms")).andExpect(status().isOk());
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms")).andExpect(status().isOk())
+                                           .andReturn();
+        final List<TermDto> result = readValue(mvcResult, new TypeReference<List<TermDto>>() {
+        });
+        assertEquals(terms, result);
+        verify(termService).findAll(vocabulary);
+    }
+
+    @Test
+    void getAllRootsReturnsNotModifiedWhenETagMatchesCurrentVersion() throws Exception {
+        when(idResolver.resolveIdentifier(config.getNamespace()
+                                                .getVocabulary(), VOCABULARY_NAME)).thenReturn(
+                URI.create(VOCABULARY_URI));
+        when(termService.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        when(termService.findAllRoots(eq(vocabulary), any(Pageable.class))).thenReturn(generateTerms());
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/roots"))
+                                           .andExpect(status().isOk()).andReturn();
+        final String eTag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/roots").header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isNotModified());
+        verify(termService).findVocabularyRequired(vocabulary.getUri());
+        verify(termService).findAllRoots(eq(vocabulary), any(Pageable.class));
+    }
+
+    @Test
+    void getAllRootsReturnsTermsWhenETagIsOutdated() throws Exception {
+        when(idResolver.resolveIdentifier(config.getNamespace()
+                                                .getVocabulary(), VOCABULARY_NAME)).thenReturn(
+                URI.create(VOCABULARY_URI));
+        when(termService.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        when(termService.findAllRoots(eq(vocabulary), any(Pageable.class))).thenReturn(generateTerms());
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/roots"))
+                                           .andExpect(status().isOk()).andReturn();
+        final String eTag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+        listingCache.evictCache(new VocabularyContentModified(this));
+
+        final MvcResult result = mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/roots")
+                                                         .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                                        .andExpect(status().isOk()).andReturn();
+        assertNotEquals(eTag, result.getResponse().getHeader(HttpHeaders.ETAG));
+        verify(termService, times(2)).findAllRoots(eq(vocabulary), any(Pageable.class));
+    }
+
     @Test
     void getByIdRetrievesTermFromService() throws Exception {
         final ReadOnlyTerm term = new ReadOnlyTerm(Generator.generateTerm());
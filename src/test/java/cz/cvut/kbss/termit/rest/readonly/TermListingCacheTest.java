@@ -0,0 +1,83 @@
+package cz.cvut.kbss.termit.rest.readonly;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TermListingCacheTest {
+
+    private final TermListingCache sut = new TermListingCache();
+
+    @Test
+    void getLoadsListingOnlyOnceForMatchingKey() {
+        final URI vocabulary = Generator.generateUri();
+        final AtomicInteger loads = new AtomicInteger();
+        final List<String> resultOne = sut.get(TermListingCache.key(vocabulary, "terms", null, false), () -> {
+            loads.incrementAndGet();
+            return Collections.singletonList("test");
+        });
+        final List<String> resultTwo = sut.get(TermListingCache.key(vocabulary, "terms", null, false), () -> {
+            loads.incrementAndGet();
+            return Collections.singletonList("test");
+        });
+        assertEquals(resultOne, resultTwo);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getLoadsListingAgainForDifferentParameters() {
+        final URI vocabulary = Generator.generateUri();
+        final List<String> resultOne = sut.get(TermListingCache.key(vocabulary, "terms", null, false),
+                                               () -> Collections.singletonList("one"));
+        final List<String> resultTwo = sut.get(TermListingCache.key(vocabulary, "terms", null, true),
+                                               () -> Collections.singletonList("two"));
+        assertEquals(Collections.singletonList("one"), resultOne);
+        assertEquals(Collections.singletonList("two"), resultTwo);
+    }
+
+    @Test
+    void evictCacheCausesListingToBeLoadedAgain() {
+        final TermListingCache.Key key = TermListingCache.key(Generator.generateUri(), "roots");
+        sut.get(key, () -> Collections.singletonList("old"));
+        sut.evictCache(new VocabularyContentModified(this));
+        final List<String> result = sut.get(key, () -> Collections.singletonList("new"));
+        assertEquals(Collections.singletonList("new"), result);
+    }
+
+    @Test
+    void getDoesNotCacheListingWhenContentIsModifiedDuringLoading() {
+        final TermListingCache.Key key = TermListingCache.key(Generator.generateUri(), "roots");
+        sut.get(key, () -> {
+            sut.evictCache(new VocabularyContentModified(this));
+            return Collections.singletonList("old");
+        });
+        final List<String> result = sut.get(key, () -> Collections.singletonList("new"));
+        assertEquals(Collections.singletonList("new"), result);
+    }
+
+    @Test
+    void getETagReturnsStrongTagWhichChangesWhenContentIsModified() {
+        final TermListingCache.Key key = TermListingCache.key(Generator.generateUri(), "roots");
+        final String tagOne = sut.getETag(key, MediaType.APPLICATION_JSON_VALUE);
+        assertEquals(tagOne, sut.getETag(key, MediaType.APPLICATION_JSON_VALUE));
+        assertTrue(tagOne.startsWith("\"") && tagOne.endsWith("\""));
+        sut.evictCache(new VocabularyContentModified(this));
+        assertNotEquals(tagOne, sut.getETag(key, MediaType.APPLICATION_JSON_VALUE));
+    }
+
+    @Test
+    void getETagDiffersForDifferentRepresentations() {
+        final TermListingCache.Key key = TermListingCache.key(Generator.generateUri(), "roots");
+        assertNotEquals(sut.getETag(key, MediaType.APPLICATION_JSON_VALUE), sut.getETag(key, "application/ld+json"));
+    }
+}
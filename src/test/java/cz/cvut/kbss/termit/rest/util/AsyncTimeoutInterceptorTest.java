@@ -0,0 +1,60 @@
+/**
+ * TermIt Copyright (C) 2019 Czech Technical University in Prague
+ * <p>
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.rest.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsyncTimeoutInterceptorTest {
+
+    private static final long DEFAULT_TIMEOUT = 30000L;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    private StandardServletAsyncWebRequest asyncWebRequest;
+
+    private final AsyncTimeoutInterceptor sut = new AsyncTimeoutInterceptor();
+
+    @BeforeEach
+    void setUp() {
+        request.setAsyncSupported(true);
+        this.asyncWebRequest = new StandardServletAsyncWebRequest(request, new MockHttpServletResponse());
+        asyncWebRequest.setTimeout(DEFAULT_TIMEOUT);
+    }
+
+    @Test
+    void beforeConcurrentHandlingAppliesTimeoutSetForRequest() {
+        final Duration timeout = Duration.ofMinutes(30);
+        AsyncTimeoutInterceptor.setTimeout(asyncWebRequest, timeout);
+
+        sut.beforeConcurrentHandling(asyncWebRequest, () -> null);
+        asyncWebRequest.startAsync();
+        assertEquals(timeout.toMillis(), request.getAsyncContext().getTimeout());
+    }
+
+    @Test
+    void beforeConcurrentHandlingKeepsDefaultTimeoutWhenNoneIsSetForRequest() {
+        sut.beforeConcurrentHandling(asyncWebRequest, () -> null);
+        asyncWebRequest.startAsync();
+        assertEquals(DEFAULT_TIMEOUT, request.getAsyncContext().getTimeout());
+    }
+}
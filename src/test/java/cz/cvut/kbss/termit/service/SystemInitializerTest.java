@@ -14,6 +14,7 @@ package cz.cvut.kbss.termit.service;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.model.UserAccount;
+import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
 import cz.cvut.kbss.termit.service.repository.UserRepositoryService;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Vocabulary;
@@ -45,6 +46,9 @@ class SystemInitializerTest extends BaseServiceTestRunner {
     @Autowired
     private UserRepositoryService userService;
 
+    @Autowired
+    private TermRepositoryService termService;
+
     @Autowired
     private EntityManager em;
 
@@ -61,7 +65,7 @@ class SystemInitializerTest extends BaseServiceTestRunner {
         this.adminCredentialsDir =
                 System.getProperty("java.io.tmpdir") + File.separator + Generator.randomInt(0, 10000);
         config.getAdmin().setCredentialsLocation(adminCredentialsDir);
-        this.sut = new SystemInitializer(config, userService, txManager);
+        this.sut = new SystemInitializer(config, userService, termService, txManager);
     }
 
     @AfterEach
@@ -122,7 +126,7 @@ class SystemInitializerTest extends BaseServiceTestRunner {
     void savesAdminLoginCredentialsIntoConfiguredFile() throws Exception {
         final String adminFileName = ".admin-file-with-different-name";
         config.getAdmin().setCredentialsFile(adminFileName);
-        this.sut = new SystemInitializer(config, userService, txManager);
+        this.sut = new SystemInitializer(config, userService, termService, txManager);
         sut.initSystemAdmin();
         final UserAccount admin = em.find(UserAccount.class, ADMIN_URI);
         final File credentialsFile = new File(adminCredentialsDir + File.separator + adminFileName);
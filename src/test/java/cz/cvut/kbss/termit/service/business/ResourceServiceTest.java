@@ -11,6 +11,7 @@
  */
 package cz.cvut.kbss.termit.service.business;
 
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.event.DocumentRenameEvent;
 import cz.cvut.kbss.termit.event.FileRenameEvent;
@@ -25,6 +26,7 @@ import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.resource.Resource;
 import cz.cvut.kbss.termit.service.document.DocumentManager;
+import cz.cvut.kbss.termit.service.document.TextAnalysisJobQueue;
 import cz.cvut.kbss.termit.service.document.TextAnalysisService;
 import cz.cvut.kbss.termit.service.repository.ChangeRecordService;
 import cz.cvut.kbss.termit.service.repository.ResourceRepositoryService;
@@ -59,6 +61,9 @@ class ResourceServiceTest {
     @Mock
     private TextAnalysisService textAnalysisService;
 
+    @Mock
+    private TextAnalysisJobQueue textAnalysisJobQueue;
+
     @Mock
     private ChangeRecordService changeRecordService;
 
@@ -174,7 +179,7 @@ class ResourceServiceTest {
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
         file.getDocument().setVocabulary(vocabulary.getUri());
         sut.runTextAnalysis(file, Collections.emptySet());
-        verify(textAnalysisService).analyzeFile(file, Collections.singleton(vocabulary.getUri()));
+        verify(textAnalysisJobQueue).submit(file.getUri(), Collections.singleton(vocabulary.getUri()));
     }
 
     @Test
@@ -182,7 +187,7 @@ class ResourceServiceTest {
         final Resource resource = Generator.generateResourceWithId();
         assertThrows(UnsupportedAssetOperationException.class,
                 () -> sut.runTextAnalysis(resource, Collections.emptySet()));
-        verify(textAnalysisService, never()).analyzeFile(any(), anySet());
+        verify(textAnalysisJobQueue, never()).submit(any(), anySet());
     }
 
     @Test
@@ -190,7 +195,7 @@ class ResourceServiceTest {
         final File file = Generator.generateFileWithId("test.html");
         assertThrows(UnsupportedAssetOperationException.class,
                 () -> sut.runTextAnalysis(file, Collections.emptySet()));
-        verify(textAnalysisService, never()).analyzeFile(any(), anySet());
+        verify(textAnalysisJobQueue, never()).submit(any(), anySet());
     }
 
     @Test
@@ -198,7 +203,7 @@ class ResourceServiceTest {
         final File file = Generator.generateFileWithId("test.html");
         final Set<URI> vocabularies = new HashSet<>(Arrays.asList(Generator.generateUri(), Generator.generateUri()));
         sut.runTextAnalysis(file, vocabularies);
-        verify(textAnalysisService).analyzeFile(file, vocabularies);
+        verify(textAnalysisJobQueue).submit(file.getUri(), vocabularies);
     }
 
     @Test
@@ -214,7 +219,7 @@ class ResourceServiceTest {
         sut.runTextAnalysis(file, Collections.emptySet());
         final Set<URI> expected = new HashSet<>(imported);
         expected.add(vocabulary.getUri());
-        verify(textAnalysisService).analyzeFile(file, expected);
+        verify(textAnalysisJobQueue).submit(file.getUri(), expected);
         verify(vocabularyService).getTransitivelyImportedVocabularies(vocabulary);
     }
 
@@ -235,11 +240,41 @@ class ResourceServiceTest {
         expected.addAll(vTwoImports);
         expected.add(vOne.getUri());
         expected.add(vTwo.getUri());
-        verify(textAnalysisService).analyzeFile(file, expected);
+        verify(textAnalysisJobQueue).submit(file.getUri(), expected);
         verify(vocabularyService).getTransitivelyImportedVocabularies(vOne);
         verify(vocabularyService).getTransitivelyImportedVocabularies(vTwo);
     }
 
+    @Test
+    void runTextAnalysisReturnsSubmittedJob() {
+        final File file = Generator.generateFileWithId("test.html");
+        final Set<URI> vocabularies = Collections.singleton(Generator.generateUri());
+        final TextAnalysisJob job = new TextAnalysisJob("1", file.getUri(), vocabularies, Utils.timestamp());
+        when(textAnalysisJobQueue.submit(file.getUri(), vocabularies)).thenReturn(job);
+
+        assertSame(job, sut.runTextAnalysis(file, vocabularies));
+    }
+
+    @Test
+    void findTextAnalysisJobReturnsJobOfSpecifiedResource() {
+        final File file = Generator.generateFileWithId("test.html");
+        final TextAnalysisJob job = new TextAnalysisJob("1", file.getUri(), Collections.emptySet(),
+                                                        Utils.timestamp());
+        when(textAnalysisJobQueue.find(job.getId())).thenReturn(Optional.of(job));
+
+        assertSame(job, sut.findTextAnalysisJob(file, job.getId()));
+    }
+
+    @Test
+    void findTextAnalysisJobThrowsNotFoundExceptionForJobOfDifferentResource() {
+        final File file = Generator.generateFileWithId("test.html");
+        final TextAnalysisJob job = new TextAnalysisJob("1", Generator.generateUri(), Collections.emptySet(),
+                                                        Utils.timestamp());
+        when(textAnalysisJobQueue.find(job.getId())).thenReturn(Optional.of(job));
+
+        assertThrows(NotFoundException.class, () -> sut.findTextAnalysisJob(file, job.getId()));
+    }
+
     @Test
     void getReferenceDelegatesCallToRepositoryService() {
         final URI uri = Generator.generateUri();
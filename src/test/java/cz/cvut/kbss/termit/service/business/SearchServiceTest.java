@@ -4,6 +4,7 @@ import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import cz.cvut.kbss.termit.util.Constants;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -13,9 +14,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,27 +32,15 @@ class SearchServiceTest {
     private SearchService sut;
 
     @Test
-    void fullTextSearchFiltersResultsFromNonMatchingVocabularies() {
+    void fullTextSearchOfTermsSearchesOnlyInSpecifiedVocabulariesWithResultLimit() {
         final String searchString = "test";
-        final URI vocabulary = Generator.generateUri();
-        final FullTextSearchResult ftsr = new FullTextSearchResult(
-                Generator.generateUri(),
-                "test",
-                vocabulary,
-                null,
-                SKOS.CONCEPT,
-                "test",
-                "test",
-                1.0);
-        when(searchDao.fullTextSearchIncludingSnapshots(searchString)).thenReturn(Collections.singletonList(ftsr));
-        final List<FullTextSearchResult> result = sut.fullTextSearchOfTerms(searchString, Collections.singleton(
-                Generator.generateUri()));
-        assertTrue(result.isEmpty());
-        verify(searchDao).fullTextSearchIncludingSnapshots(searchString);
+        final Set<URI> vocabularies = Collections.singleton(Generator.generateUri());
+        sut.fullTextSearchOfTerms(searchString, vocabularies);
+        verify(searchDao).fullTextSearchOfTerms(searchString, vocabularies, Constants.TERM_SEARCH_RESULT_LIMIT);
     }
 
     @Test
-    void fullTextSearchReturnsResultsFromMatchingVocabularies() {
+    void fullTextSearchOfTermsReturnsResultsFromDao() {
         final String searchString = "test";
         final URI vocabulary = Generator.generateUri();
         final FullTextSearchResult ftsr = new FullTextSearchResult(
@@ -61,10 +52,10 @@ class SearchServiceTest {
                 "test",
                 "test",
                 1.0);
-        when(searchDao.fullTextSearchIncludingSnapshots(searchString)).thenReturn(Collections.singletonList(ftsr));
+        when(searchDao.fullTextSearchOfTerms(eq(searchString), eq(Collections.singleton(vocabulary)), anyInt()))
+                .thenReturn(Collections.singletonList(ftsr));
         final List<FullTextSearchResult> result = sut.fullTextSearchOfTerms(searchString,
                                                                             Collections.singleton(vocabulary));
         assertEquals(Collections.singletonList(ftsr), result);
-        verify(searchDao).fullTextSearchIncludingSnapshots(searchString);
     }
 }
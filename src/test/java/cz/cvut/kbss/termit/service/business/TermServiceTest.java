@@ -34,6 +34,7 @@ import java.math.BigInteger;
 import java.net.URI;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -271,6 +272,13 @@ class TermServiceTest {
         verify(termRepositoryService).remove(toRemove);
     }
 
+    @Test
+    void removeNotifiesTextAnalysisServiceOfTermRemoval() {
+        final Term toRemove = generateTermWithId();
+        sut.remove(toRemove);
+        verify(textAnalysisService).termRemoved(toRemove);
+    }
+
     @Test
     void runTextAnalysisInvokesTextAnalysisOnSpecifiedTerm() {
         final Term toAnalyze = generateTermWithId();
@@ -278,6 +286,14 @@ class TermServiceTest {
         verify(textAnalysisService).analyzeTermDefinition(toAnalyze, vocabulary.getUri());
     }
 
+    @Test
+    void analyzeTermDefinitionsInvokesTextAnalysisOnSpecifiedTerms() {
+        final List<Term> toAnalyze = Arrays.asList(generateTermWithId(), generateTermWithId());
+        final BooleanSupplier cancelled = () -> false;
+        sut.analyzeTermDefinitions(toAnalyze, vocabulary.getUri(), cancelled);
+        verify(textAnalysisService).analyzeTermDefinitions(toAnalyze, vocabulary.getUri(), cancelled);
+    }
+
     @Test
     void persistChildInvokesTextAnalysisOnPersistedChildTerm() {
         final Term parent = generateTermWithId();
@@ -421,6 +437,16 @@ class TermServiceTest {
         inOrder.verify(vocabularyService).runTextAnalysisOnAllTerms(vocabulary);
     }
 
+    @Test
+    void persistRootNotifiesTextAnalysisOfNewTermBeforeAnalyzingTermsInTargetVocabulary() {
+        final Term term = generateTermWithId();
+
+        sut.persistRoot(term, vocabulary);
+        final InOrder inOrder = inOrder(textAnalysisService, vocabularyService);
+        inOrder.verify(textAnalysisService).termAdded(term);
+        inOrder.verify(vocabularyService).runTextAnalysisOnAllTerms(vocabulary);
+    }
+
     @Test
     void persistChildInvokesTextAnalysisOnAllTermsInParentTermVocabulary() {
         final Term parent = generateTermWithId();
@@ -449,7 +475,9 @@ class TermServiceTest {
         update.getLabel().set(Environment.LANGUAGE, "updatedLabel");
 
         sut.update(update);
-        verify(vocabularyService).runTextAnalysisOnAllTerms(vocabulary);
+        final InOrder inOrder = inOrder(textAnalysisService, vocabularyService);
+        inOrder.verify(textAnalysisService).termLabelChanged(original, update);
+        inOrder.verify(vocabularyService).runTextAnalysisOnAllTerms(vocabulary);
     }
 
     @Test
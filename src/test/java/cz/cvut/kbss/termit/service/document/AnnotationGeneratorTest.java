@@ -164,6 +164,28 @@ class AnnotationGeneratorTest extends BaseServiceTestRunner {
                  .setParameter("term", term).getResultList();
     }
 
+    @Test
+    void generateAnnotationsInStreamingModeCreatesTermOccurrencesAndSavesContent() throws Exception {
+        config.getTextAnalysis().setStreaming(true);
+        final byte[] content = loadFile("data/rdfa-overlapping.html").readAllBytes();
+        file.setLabel("rdfa-overlapping.html");
+        generateFile();
+        sut.generateAnnotations(new ByteArrayInputStream(content), file);
+        assertEquals(1, findAllOccurrencesOf(term).size());
+        assertEquals(1, findAllOccurrencesOf(termTwo).size());
+        assertArrayEquals(content, Files.readAllBytes(new java.io.File(fileLocation).toPath()));
+    }
+
+    @Test
+    void generateAnnotationsInStreamingModeSkipsTermOccurrencesWhichAlreadyExist() throws Exception {
+        config.getTextAnalysis().setStreaming(true);
+        generateFile();
+        sut.generateAnnotations(loadFile("data/rdfa-simple.html"), file);
+        assertEquals(1, findAllOccurrencesOf(term).size());
+        sut.generateAnnotations(loadFile("data/rdfa-simple.html"), file);
+        assertEquals(1, findAllOccurrencesOf(term).size());
+    }
+
     @Test
     void generateAnnotationsSkipsElementsWithUnsupportedType() throws Exception {
         final InputStream content = changeAnnotationType(loadFile("data/rdfa-simple.html"));
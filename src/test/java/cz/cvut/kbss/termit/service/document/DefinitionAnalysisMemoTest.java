@@ -0,0 +1,126 @@
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DefinitionAnalysisMemoTest {
+
+    private final URI vocabulary = Generator.generateUri();
+
+    private final DefinitionAnalysisMemo sut = new DefinitionAnalysisMemo();
+
+    private Term term;
+
+    @BeforeEach
+    void setUp() {
+        this.term = Generator.generateTermWithId();
+        term.setDefinition(MultilingualString.create("Plán rozvoje území hlavního města.", Environment.LANGUAGE));
+    }
+
+    private void recordAnalyzed() {
+        sut.recordAnalyzed(term, Environment.LANGUAGE, vocabulary, sut.currentMark(vocabulary));
+    }
+
+    @Test
+    void isUpToDateReturnsFalseForTermWhoseDefinitionHasNotBeenAnalyzed() {
+        assertFalse(sut.isUpToDate(term, Environment.LANGUAGE, vocabulary));
+    }
+
+    @Test
+    void isUpToDateReturnsTrueForUnchangedAnalyzedDefinition() {
+        recordAnalyzed();
+        assertTrue(sut.isUpToDate(term, Environment.LANGUAGE, vocabulary));
+    }
+
+    @Test
+    void isUpToDateReturnsFalseWhenDefinitionChanged() {
+        recordAnalyzed();
+        term.getDefinition().set(Environment.LANGUAGE, "Změněná definice.");
+        assertFalse(sut.isUpToDate(term, Environment.LANGUAGE, vocabulary));
+    }
+
+    @Test
+    void isUpToDateReturnsFalseWhenAnalyzedUsingDifferentVocabulary() {
+        recordAnalyzed();
+        assertFalse(sut.isUpToDate(term, Environment.LANGUAGE, Generator.generateUri()));
+    }
+
+    @Test
+    void invalidateInvalidatesAnalysisOfDefinitionContainingInflectedFormOfLabel() {
+        recordAnalyzed();
+        // The definition contains "hlavního města"
+        sut.invalidate("Hlavní město");
+        assertFalse(sut.isUpToDate(term, Environment.LANGUAGE, vocabulary));
+    }
+
+    @Test
+    void invalidateDoesNotInvalidateAnalysisOfDefinitionNotContainingLabel() {
+        recordAnalyzed();
+        sut.invalidate("Stavební uzávěra");
+        assertTrue(sut.isUpToDate(term, Environment.LANGUAGE, vocabulary));
+    }
+
+    @Test
+    void invalidateInvalidatesAnalysisUsingAnotherVocabulary() {
+        // Analysis using another vocabulary may include the term if that vocabulary imports the term's vocabulary
+        final URI importing = Generator.generateUri();
+        sut.recordAnalyzed(term, Environment.LANGUAGE, importing, sut.currentMark(importing));
+        sut.invalidate("Hlavní město");
+        assertFalse(sut.isUpToDate(term, Environment.LANGUAGE, importing));
+    }
+
+    @Test
+    void invalidateDoesNotInvalidateAnalysisOfDefinitionContainingOnlyWordsWithSameInitials() {
+        recordAnalyzed();
+        // The definition contains "hlavního" and "města", but no forms of the label words
+        sut.invalidate("Hustota místa");
+        assertTrue(sut.isUpToDate(term, Environment.LANGUAGE, vocabulary));
+    }
+
+    @Test
+    void invalidateDefinitionsOfInvalidatesAnalysesOfSpecifiedTermsOnly() {
+        // E.g., a definition containing an occurrence of a form of label with changed stem ("psa" for "pes")
+        final Term other = Generator.generateTermWithId();
+        other.setDefinition(MultilingualString.create("Místo pro venčení psa.", Environment.LANGUAGE));
+        recordAnalyzed();
+        sut.recordAnalyzed(other, Environment.LANGUAGE, vocabulary, sut.currentMark(vocabulary));
+
+        sut.invalidateDefinitionsOf(Collections.singleton(other.getUri()));
+        assertFalse(sut.isUpToDate(other, Environment.LANGUAGE, vocabulary));
+        assertTrue(sut.isUpToDate(term, Environment.LANGUAGE, vocabulary));
+    }
+
+    @Test
+    void forgetRemovesAnalysisOfSpecifiedTerm() {
+        recordAnalyzed();
+        sut.forget(term.getUri());
+        assertFalse(sut.isUpToDate(term, Environment.LANGUAGE, vocabulary));
+    }
+
+    @Test
+    void recordAnalyzedDoesNotRecordAnalysisInvalidatedWhileItWasRunning() {
+        assertFalse(sut.isUpToDate(term, Environment.LANGUAGE, vocabulary));
+        final long mark = sut.currentMark(vocabulary);
+        sut.invalidate("Hlavní město");
+        sut.recordAnalyzed(term, Environment.LANGUAGE, vocabulary, mark);
+        assertFalse(sut.isUpToDate(term, Environment.LANGUAGE, vocabulary));
+    }
+
+    @Test
+    void recordAnalyzedRecordsAnalysisStartedAfterInvalidation() {
+        recordAnalyzed();
+        sut.invalidate("Hlavní město");
+        recordAnalyzed();
+        assertTrue(sut.isUpToDate(term, Environment.LANGUAGE, vocabulary));
+    }
+}
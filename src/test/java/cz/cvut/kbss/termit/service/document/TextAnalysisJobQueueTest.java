@@ -0,0 +1,139 @@
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.config.TaskExecutorConfig;
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.WebServiceIntegrationException;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.service.repository.ResourceRepositoryService;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TextAnalysisJobQueueTest {
+
+    @Mock
+    private ResourceRepositoryService resourceService;
+
+    @Mock
+    private TextAnalysisService textAnalysisService;
+
+    @TempDir
+    Path storage;
+
+    private final Configuration config = new Configuration();
+
+    private File file;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private TextAnalysisJobQueue sut;
+
+    @BeforeEach
+    void setUp() {
+        config.getTextAnalysis().setJobStorage(storage.toString());
+        this.file = Generator.generateFileWithId("test.html");
+        this.executor = new TaskExecutorConfig().textAnalysisJobExecutor(config);
+        executor.initialize();
+        this.sut = new TextAnalysisJobQueue(resourceService, textAnalysisService, config, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void submitExecutesAnalysisOfFileAsynchronouslyAndMarksJobFinished() throws Exception {
+        when(resourceService.findRequired(file.getUri())).thenReturn(file);
+        final Set<URI> vocabularies = Collections.singleton(Generator.generateUri());
+
+        final TextAnalysisJob job = sut.submit(file.getUri(), vocabularies);
+        verify(textAnalysisService, timeout(5000)).analyzeFile(file, vocabularies);
+        awaitDone(job);
+        assertEquals(TextAnalysisJob.Status.FINISHED, job.getStatus());
+        assertNotNull(job.getFinished());
+        assertEquals(Optional.of(job), sut.find(job.getId()));
+    }
+
+    private static void awaitDone(TextAnalysisJob job) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isDone());
+    }
+
+    @Test
+    void submitMarksJobFailedWhenAnalysisFails() throws Exception {
+        when(resourceService.findRequired(file.getUri())).thenReturn(file);
+        doThrow(new WebServiceIntegrationException("Text analysis invocation failed.")).when(textAnalysisService)
+                                                                                        .analyzeFile(any(), anySet());
+
+        final TextAnalysisJob job = sut.submit(file.getUri(), Collections.emptySet());
+        awaitDone(job);
+        assertEquals(TextAnalysisJob.Status.FAILED, job.getStatus());
+        assertEquals("Text analysis invocation failed.", job.getError());
+    }
+
+    @Test
+    void resumeResubmitsJobsWhichDidNotFinishBeforeRestart() throws Exception {
+        when(resourceService.findRequired(file.getUri())).thenReturn(file);
+        final Set<URI> vocabularies = Collections.singleton(Generator.generateUri());
+        final TextAnalysisJob running = new TextAnalysisJob("running", file.getUri(), vocabularies, Instant.now());
+        running.started(Instant.now());
+        sut.store(running);
+
+        final TextAnalysisJobQueue restarted = new TextAnalysisJobQueue(resourceService, textAnalysisService, config,
+                                                                         executor);
+        restarted.resume();
+        verify(textAnalysisService, timeout(5000)).analyzeFile(file, vocabularies);
+        final Optional<TextAnalysisJob> resumed = restarted.find(running.getId());
+        assertTrue(resumed.isPresent());
+        awaitDone(resumed.get());
+        assertEquals(TextAnalysisJob.Status.FINISHED, resumed.get().getStatus());
+    }
+
+    @Test
+    void resumeDiscardsFinishedJobsOlderThanRetentionPeriod() throws Exception {
+        config.getTextAnalysis().setJobRetention(Duration.ofHours(1));
+        final TextAnalysisJob expired = new TextAnalysisJob("expired", file.getUri(), Collections.emptySet(),
+                                                            Instant.now().minus(Duration.ofDays(2)));
+        expired.finished(Instant.now().minus(Duration.ofDays(1)));
+        sut.store(expired);
+        final TextAnalysisJob recent = new TextAnalysisJob("recent", file.getUri(), Collections.emptySet(),
+                                                           Instant.now());
+        recent.finished(Instant.now());
+        sut.store(recent);
+
+        final TextAnalysisJobQueue restarted = new TextAnalysisJobQueue(resourceService, textAnalysisService, config,
+                                                                         executor);
+        restarted.resume();
+        assertFalse(restarted.find(expired.getId()).isPresent());
+        assertFalse(Files.exists(storage.resolve(expired.getId() + ".properties")));
+        assertTrue(restarted.find(recent.getId()).isPresent());
+        verify(textAnalysisService, never()).analyzeFile(any(), anySet());
+    }
+}
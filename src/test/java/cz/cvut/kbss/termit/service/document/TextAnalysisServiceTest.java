@@ -13,7 +13,9 @@ package cz.cvut.kbss.termit.service.document;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.config.TaskExecutorConfig;
 import cz.cvut.kbss.termit.dto.TextAnalysisInput;
+import cz.cvut.kbss.termit.dto.TextAnalysisProgress;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.environment.PropertyMockingApplicationContextInitializer;
@@ -23,9 +25,11 @@ import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.TextAnalysisRecord;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
 import cz.cvut.kbss.termit.persistence.dao.TextAnalysisRecordDao;
 import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Utils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,10 +42,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
@@ -51,13 +58,17 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -84,12 +95,19 @@ class TextAnalysisServiceTest extends BaseServiceTestRunner {
     @Autowired
     private DocumentManager documentManager;
 
+    @Autowired
+    @Qualifier(TaskExecutorConfig.TEXT_ANALYSIS_EXECUTOR)
+    private TaskExecutor executor;
+
     @Mock
     private AnnotationGenerator annotationGeneratorMock;
 
     @Mock
     private TextAnalysisRecordDao textAnalysisRecordDao;
 
+    @Mock
+    private TermOccurrenceDao termOccurrenceDao;
+
     private TextAnalysisService sut;
 
     private MockRestServiceServer mockServer;
@@ -114,7 +132,7 @@ class TextAnalysisServiceTest extends BaseServiceTestRunner {
         doCallRealMethod().when(documentManagerSpy).loadFileContent(any());
         doNothing().when(documentManagerSpy).createBackup(any());
         this.sut = new TextAnalysisService(restTemplate, config, documentManagerSpy, annotationGeneratorMock,
-                textAnalysisRecordDao);
+                textAnalysisRecordDao, termOccurrenceDao, executor);
     }
 
     @Test
@@ -335,4 +353,155 @@ class TextAnalysisServiceTest extends BaseServiceTestRunner {
         mockServer.verify();
         verify(annotationGeneratorMock, never()).generateAnnotations(any(), any(Term.class));
     }
+
+    @Test
+    void analyzeTermDefinitionsSendsMultipleDefinitionsInSingleRequestAndStoresResults() {
+        final int originalDefinitionsPerRequest = config.getTextAnalysis().getDefinitionsPerRequest();
+        config.getTextAnalysis().setDefinitionsPerRequest(2);
+        try {
+            final List<Term> terms = IntStream.range(0, 3).mapToObj(i -> Generator.generateTermWithId())
+                                              .collect(Collectors.toList());
+            mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+            mockServer.expect(ExpectedCount.times(2), requestTo(config.getTextAnalysis().getUrl()))
+                      .andExpect(method(HttpMethod.POST))
+                      .andExpect(content().string(containsString(Constants.TERM_DEFINITION_ATTRIBUTE)))
+                      .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+
+            final TextAnalysisProgress result = sut.analyzeTermDefinitions(terms, vocabulary.getUri());
+            mockServer.verify();
+            final ArgumentCaptor<Collection<AnnotatedDefinitions>> captor = ArgumentCaptor.forClass(Collection.class);
+            verify(annotationGeneratorMock).generateAnnotations(captor.capture());
+            assertEquals(2, captor.getValue().size());
+            assertThat(captor.getValue().stream().flatMap(d -> d.getTerms().stream()).collect(Collectors.toList()),
+                       containsInAnyOrder(terms.toArray()));
+            assertEquals(terms.size(), result.getTotal());
+            assertEquals(terms.size(), result.getProcessed());
+            assertEquals(0, result.getFailed());
+            assertTrue(result.isFinished());
+        } finally {
+            config.getTextAnalysis().setDefinitionsPerRequest(originalDefinitionsPerRequest);
+        }
+    }
+
+    @Test
+    void analyzeTermDefinitionsWrapsEachDefinitionInElementIdentifyingTerm() {
+        final Term term = Generator.generateTermWithId();
+        mockServer.expect(requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(method(HttpMethod.POST))
+                  .andExpect(content().string(containsString(
+                          Constants.TERM_DEFINITION_ATTRIBUTE + "=\\\"" + term.getUri() + "\\\"")))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+
+        sut.analyzeTermDefinitions(Collections.singletonList(term), vocabulary.getUri());
+        mockServer.verify();
+    }
+
+    @Test
+    void analyzeTermDefinitionsRecordsFailedAnalysisInProgressAndContinues() {
+        final Term term = Generator.generateTermWithId();
+        mockServer.expect(requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withServerError());
+
+        final TextAnalysisProgress result = sut.analyzeTermDefinitions(Collections.singletonList(term),
+                                                                       vocabulary.getUri());
+        mockServer.verify();
+        assertEquals(1, result.getFailed());
+        assertTrue(result.isFinished());
+        verify(annotationGeneratorMock, never()).generateAnnotations(anyCollection());
+    }
+
+    @Test
+    void analyzeTermDefinitionsSkipsDefinitionsWhichHaveNotChangedSinceLastAnalysis() {
+        final Term term = Generator.generateTermWithId();
+        mockServer.expect(ExpectedCount.once(), requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+
+        sut.analyzeTermDefinitions(Collections.singletonList(term), vocabulary.getUri());
+        final TextAnalysisProgress result = sut.analyzeTermDefinitions(Collections.singletonList(term),
+                                                                       vocabulary.getUri());
+        mockServer.verify();
+        assertEquals(0, result.getTotal());
+    }
+
+    @Test
+    void analyzeTermDefinitionAnalyzesDefinitionAgainEvenWhenItHasNotChanged() {
+        final Term term = Generator.generateTermWithId();
+        term.setVocabulary(vocabulary.getUri());
+        mockServer.expect(ExpectedCount.times(2), requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+
+        sut.analyzeTermDefinition(term, vocabulary.getUri());
+        sut.analyzeTermDefinition(term, vocabulary.getUri());
+        mockServer.verify();
+        verify(annotationGeneratorMock, times(2)).generateAnnotations(any(), eq(term));
+    }
+
+    @Test
+    void analyzeTermDefinitionsAnalyzesOnlyDefinitionsContainingChangedLabelAgain() {
+        final Term affected = Generator.generateTermWithId();
+        affected.setDefinition(MultilingualString.create("Plan of the metropolitan area.", Environment.LANGUAGE));
+        final Term unaffected = Generator.generateTermWithId();
+        unaffected.setDefinition(MultilingualString.create("Building permit.", Environment.LANGUAGE));
+        final List<Term> terms = Arrays.asList(affected, unaffected);
+        mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        mockServer.expect(ExpectedCount.once(), requestTo(config.getTextAnalysis().getUrl()))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+        sut.analyzeTermDefinitions(terms, vocabulary.getUri());
+        mockServer.verify();
+
+        final Term original = Generator.generateTermWithId();
+        original.setLabel(MultilingualString.create("Metropolitan plan", Environment.LANGUAGE));
+        final Term update = new Term(original.getUri());
+        update.setLabel(MultilingualString.create("Metropolitan area plan", Environment.LANGUAGE));
+        sut.termLabelChanged(original, update);
+
+        mockServer.reset();
+        mockServer.expect(ExpectedCount.once(), requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(content().string(containsString(affected.getUri().toString())))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+        final TextAnalysisProgress result = sut.analyzeTermDefinitions(terms, vocabulary.getUri());
+        mockServer.verify();
+        assertEquals(1, result.getTotal());
+    }
+
+    @Test
+    void analyzeTermDefinitionsAnalyzesDefinitionsContainingOccurrencesOfTermWithChangedLabelAgain() {
+        final Term affected = Generator.generateTermWithId();
+        affected.setDefinition(MultilingualString.create("Plan of the capital.", Environment.LANGUAGE));
+        final Term unaffected = Generator.generateTermWithId();
+        unaffected.setDefinition(MultilingualString.create("Building permit.", Environment.LANGUAGE));
+        final List<Term> terms = Arrays.asList(affected, unaffected);
+        mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        mockServer.expect(ExpectedCount.once(), requestTo(config.getTextAnalysis().getUrl()))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+        sut.analyzeTermDefinitions(terms, vocabulary.getUri());
+        mockServer.verify();
+
+        // The definition of the affected term contains an occurrence of the original label in a different form
+        final Term original = Generator.generateTermWithId();
+        original.setLabel(MultilingualString.create("Capital city", Environment.LANGUAGE));
+        final Term update = new Term(original.getUri());
+        update.setLabel(MultilingualString.create("Metropolis", Environment.LANGUAGE));
+        when(termOccurrenceDao.findDefinitionsContainingOccurrencesOf(original.getUri()))
+                .thenReturn(Collections.singletonList(affected.getUri()));
+        sut.termLabelChanged(original, update);
+
+        mockServer.reset();
+        mockServer.expect(ExpectedCount.once(), requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(content().string(containsString(affected.getUri().toString())))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+        final TextAnalysisProgress result = sut.analyzeTermDefinitions(terms, vocabulary.getUri());
+        mockServer.verify();
+        assertEquals(1, result.getTotal());
+    }
+
+    @Test
+    void getTermDefinitionsAnalysisProgressReturnsProgressOfLatestAnalysisUsingSpecifiedVocabulary() {
+        assertFalse(sut.getTermDefinitionsAnalysisProgress(vocabulary.getUri()).isPresent());
+        final TextAnalysisProgress progress = sut.analyzeTermDefinitions(Collections.emptyList(), vocabulary.getUri());
+        assertEquals(Optional.of(progress), sut.getTermDefinitionsAnalysisProgress(vocabulary.getUri()));
+    }
 }
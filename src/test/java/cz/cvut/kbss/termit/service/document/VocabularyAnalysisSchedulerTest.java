@@ -0,0 +1,94 @@
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.config.TaskExecutorConfig;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VocabularyAnalysisSchedulerTest {
+
+    private final URI vocabulary = Generator.generateUri();
+
+    private ThreadPoolTaskScheduler scheduler;
+
+    private VocabularyAnalysisScheduler sut;
+
+    @BeforeEach
+    void setUp() {
+        final Configuration config = new Configuration();
+        config.getTextAnalysis().setQuietPeriod(Duration.ofMillis(100));
+        this.scheduler = new TaskExecutorConfig().vocabularyAnalysisTaskScheduler(config);
+        scheduler.initialize();
+        this.sut = new VocabularyAnalysisScheduler(config, scheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void scheduleMergesRequestsForSameVocabularyArrivingWithinQuietPeriod() throws Exception {
+        final List<Integer> executed = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        for (int i = 0; i < 5; i++) {
+            final int index = i;
+            sut.schedule(vocabulary, superseded -> {
+                executed.add(index);
+                latch.countDown();
+            });
+        }
+        assertEquals(1, sut.getQueueDepth());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals(List.of(4), executed);
+        assertEquals(4, sut.getCoalescedCount());
+        assertEquals(0, sut.getQueueDepth());
+    }
+
+    @Test
+    void scheduleDoesNotMergeRequestsForDifferentVocabularies() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(2);
+        sut.schedule(vocabulary, superseded -> latch.countDown());
+        sut.schedule(Generator.generateUri(), superseded -> latch.countDown());
+        assertEquals(2, sut.getQueueDepth());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, sut.getCoalescedCount());
+    }
+
+    @Test
+    void scheduleMarksRunningAnalysisAsSupersededAndExecutesNewOneAfterItFinishes() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean firstSuperseded = new AtomicBoolean();
+        final CountDownLatch secondExecuted = new CountDownLatch(1);
+        sut.schedule(vocabulary, superseded -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            firstSuperseded.set(superseded.getAsBoolean());
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        sut.schedule(vocabulary, superseded -> secondExecuted.countDown());
+        assertEquals(1, sut.getRunningCount());
+        release.countDown();
+        assertTrue(secondExecuted.await(5, TimeUnit.SECONDS));
+        assertTrue(firstSuperseded.get());
+    }
+}
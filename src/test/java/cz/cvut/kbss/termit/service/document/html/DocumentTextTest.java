@@ -0,0 +1,59 @@
+package cz.cvut.kbss.termit.service.document.html;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DocumentTextTest {
+
+    @Test
+    void ofIndexesTextOfWholeDocumentInDocumentOrder() {
+        final Document document = Jsoup.parse(
+                "<html><head><title>Title</title></head><body><h1>Heading</h1><p>Paragraph with <span id=\"elem\">" +
+                        "MATCH</span> inside.<!-- comment --></p></body></html>");
+        final DocumentText sut = DocumentText.of(document.getElementById("elem"));
+        assertEquals(document.wholeText(), sut.substring(0, sut.length()));
+    }
+
+    @Test
+    void startOfAndEndOfReturnOffsetsOfElementTextContent() {
+        final Document document = Jsoup.parse("<div><h1>Title</h1><p>Paragraph with <span id=\"elem\"><b>MA</b>TCH" +
+                                                      "</span>.</p></div>");
+        final Element element = document.getElementById("elem");
+        final DocumentText sut = DocumentText.of(document);
+        final int expectedStart = "TitleParagraph with ".length();
+        assertEquals(expectedStart, sut.startOf(element));
+        assertEquals(expectedStart + "MATCH".length(), sut.endOf(element));
+        assertEquals(element.wholeText(), sut.substring(sut.startOf(element), sut.endOf(element)));
+    }
+
+    @Test
+    void ofRepresentsLineBreaksConsistentlyWithWholeText() {
+        final Document document = Jsoup.parse("<div id=\"div\">First line<br>Second <span id=\"elem\">line</span></div>");
+        final Element div = document.getElementById("div");
+        final Element element = document.getElementById("elem");
+        final DocumentText sut = DocumentText.of(document);
+        assertEquals(div.wholeText(), sut.substring(sut.startOf(div), sut.endOf(div)));
+        assertEquals("First line\nSecond ".length(), sut.startOf(element));
+    }
+
+    @Test
+    void substringTrimsOffsetsToTextBounds() {
+        final Document document = Jsoup.parse("<p>Short text</p>");
+        final DocumentText sut = DocumentText.of(document);
+        assertEquals("Short", sut.substring(-10, 5));
+        assertEquals("text", sut.substring(6, 100));
+        assertEquals("", sut.substring(5, 5));
+    }
+
+    @Test
+    void startOfThrowsIllegalArgumentExceptionForElementFromAnotherDocument() {
+        final DocumentText sut = DocumentText.of(Jsoup.parse("<p>Text</p>"));
+        final Element other = Jsoup.parse("<p id=\"other\">Other</p>").getElementById("other");
+        assertThrows(IllegalArgumentException.class, () -> sut.startOf(other));
+    }
+}
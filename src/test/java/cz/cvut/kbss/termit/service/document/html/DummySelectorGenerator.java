@@ -29,7 +29,7 @@ import org.jsoup.nodes.Element;
 public class DummySelectorGenerator implements SelectorGenerator {
 
     @Override
-    public Selector generateSelector(Element... elements) {
+    public Selector generateSelector(DocumentText text, Element... elements) {
         assert elements.length > 0;
         return new TextQuoteSelector(elements[0].wholeText());
     }
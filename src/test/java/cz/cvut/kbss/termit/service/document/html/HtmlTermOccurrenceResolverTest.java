@@ -13,13 +13,17 @@ package cz.cvut.kbss.termit.service.document.html;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.exception.AnnotationGenerationException;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.environment.PropertyMockingApplicationContextInitializer;
+import cz.cvut.kbss.termit.model.AbstractTerm;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.selector.TextPositionSelector;
+import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
 import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -30,15 +34,23 @@ import org.springframework.mock.env.MockEnvironment;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.*;
 
 @ContextConfiguration(initializers = PropertyMockingApplicationContextInitializer.class)
@@ -149,8 +161,93 @@ class HtmlTermOccurrenceResolverTest extends BaseServiceTestRunner {
         result.forEach(to -> assertNull(to.getScore()));
     }
 
+    @Test
+    void findTermOccurrencesThrowsAnnotationGenerationExceptionForUnknownTerm() {
+        final File file = new File();
+        file.setLabel("rdfa-simple.html");
+        final InputStream is = cz.cvut.kbss.termit.environment.Environment.loadFile("data/rdfa-simple.html");
+        sut.parseContent(is, file);
+        assertThrows(AnnotationGenerationException.class, () -> sut.findTermOccurrences());
+    }
+
     @Test
     void supportsReturnsTrueForTerm() {
         assertTrue(sut.supports(Generator.generateTermWithId()));
     }
+
+    @Test
+    void findDefinitionOccurrencesResolvesOccurrencesSeparatelyForEachWrappedDefinition() {
+        createTerm();
+        final Term first = new Term(URI.create("http://onto.fel.cvut.cz/ontologies/mpp/domains/metropolitni-plan"));
+        final Term second = new Term(URI.create("http://onto.fel.cvut.cz/ontologies/mpp/domains/zmena-planu"));
+        final InputStream is = cz.cvut.kbss.termit.environment.Environment.loadFile("data/rdfa-definitions.html");
+        final Map<AbstractTerm, List<TermOccurrence>> result = sut.findDefinitionOccurrences(is,
+                                                                                             Arrays.asList(first,
+                                                                                                           second));
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(first).size());
+        assertEquals(first.getUri(), result.get(first).get(0).getTarget().getSource());
+        assertEquals(1, result.get(second).size());
+        assertEquals(second.getUri(), result.get(second).get(0).getTarget().getSource());
+        final TextPositionSelector position = result.get(second).get(0).getTarget().getSelectors().stream()
+                                                    .filter(TextPositionSelector.class::isInstance)
+                                                    .map(TextPositionSelector.class::cast).findFirst()
+                                                    .orElseThrow(AssertionError::new);
+        // Position is relative to the definition, not to the whole document
+        assertEquals("Změna, kterou se mění ".length(), position.getStart());
+    }
+
+    @Test
+    void findTermOccurrencesWithContentConsumerResolvesOccurrencesWhileContentIsConsumed() throws Exception {
+        createTerm();
+        final File file = new File();
+        file.setLabel("rdfa-simple.html");
+        final byte[] content = cz.cvut.kbss.termit.environment.Environment.loadFile("data/rdfa-simple.html")
+                                                                          .readAllBytes();
+        final ByteArrayOutputStream consumed = new ByteArrayOutputStream();
+        final List<TermOccurrence> result = sut.findTermOccurrences(new ByteArrayInputStream(content), file,
+                                                                    copyTo(consumed));
+        assertArrayEquals(content, consumed.toByteArray());
+        assertEquals(1, result.size());
+        assertEquals(URI.create("http://onto.fel.cvut.cz/ontologies/mpp/domains/uzemni-plan"),
+                     result.get(0).getTerm());
+        assertEquals(1.0, result.get(0).getScore());
+        final TextQuoteSelector quote = result.get(0).getTarget().getSelectors().stream()
+                                              .filter(TextQuoteSelector.class::isInstance)
+                                              .map(TextQuoteSelector.class::cast).findFirst()
+                                              .orElseThrow(AssertionError::new);
+        assertEquals("Územní plán", quote.getExactMatch());
+        assertThat(quote.getSuffix(), startsWith(" hlavního města Prahy."));
+    }
+
+    @Test
+    void findTermOccurrencesWithContentConsumerThrowsAnnotationGenerationExceptionForUnknownTerm() {
+        final File file = new File();
+        file.setLabel("rdfa-simple.html");
+        final InputStream is = cz.cvut.kbss.termit.environment.Environment.loadFile("data/rdfa-simple.html");
+        assertThrows(AnnotationGenerationException.class,
+                     () -> sut.findTermOccurrences(is, file, copyTo(OutputStream.nullOutputStream())));
+    }
+
+    @Test
+    void findTermOccurrencesWithContentConsumerDoesNotPassContentToConsumerWhenTermIsUnknown() {
+        final File file = new File();
+        file.setLabel("rdfa-simple.html");
+        final InputStream is = cz.cvut.kbss.termit.environment.Environment.loadFile("data/rdfa-simple.html");
+        final ByteArrayOutputStream consumed = new ByteArrayOutputStream();
+        assertThrows(AnnotationGenerationException.class,
+                     () -> sut.findTermOccurrences(is, file, copyTo(consumed)));
+        assertEquals(0, consumed.size());
+    }
+
+    private static Consumer<InputStream> copyTo(OutputStream out) {
+        return input -> {
+            try {
+                input.transferTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
 }
+
@@ -0,0 +1,109 @@
+package cz.cvut.kbss.termit.service.document.html;
+
+import cz.cvut.kbss.termit.environment.Environment;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static cz.cvut.kbss.termit.service.document.html.TextQuoteSelectorGenerator.CONTEXT_LENGTH;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingRdfaTokenizerTest {
+
+    private static final String PREFIX =
+            "prefix=\"termit: http://onto.fel.cvut.cz/ontologies/application/termit/pojem/\"";
+
+    private static final String OCCURRENCE_ATTRIBUTES =
+            "typeof=\"termit:výskyt-termu\" score=\"1.0\" resource=\"termit:";
+
+    private final List<StreamingRdfaTokenizer.Annotation> annotations = new ArrayList<>();
+
+    private byte[] tokenize(byte[] content) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final InputStream in = new TokenizingInputStream(new ByteArrayInputStream(content),
+                                                              new StreamingRdfaTokenizer(annotations::add))) {
+            // Small buffer to split characters and markup between reads
+            final byte[] buffer = new byte[5];
+            int count;
+            while ((count = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, count);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void tokenizingPassesContentUnchanged() throws Exception {
+        final byte[] content = Environment.loadFile("data/rdfa-large.html").readAllBytes();
+        assertArrayEquals(content, tokenize(content));
+    }
+
+    @Test
+    void tokenizingReportsAnnotationsConsistentWithDocumentText() throws Exception {
+        final byte[] content = Environment.loadFile("data/rdfa-large.html").readAllBytes();
+        tokenize(content);
+        final Document document = Jsoup.parse(new ByteArrayInputStream(content), StandardCharsets.UTF_8.name(), "");
+        final DocumentText text = DocumentText.of(document);
+        // One of the annotated elements has neither resource nor content
+        assertEquals(3, annotations.size());
+        for (StreamingRdfaTokenizer.Annotation annotation : annotations) {
+            final Element element = document.getElementsByAttributeValue("about", annotation.getAbout()).first();
+            final int start = text.startOf(element);
+            final int end = text.endOf(element);
+            assertEquals(start, annotation.getStart());
+            assertEquals(element.wholeText(), annotation.getExact());
+            assertEquals(text.substring(start - CONTEXT_LENGTH, start), annotation.getPrefix());
+            assertEquals(text.substring(end, end + CONTEXT_LENGTH), annotation.getSuffix());
+        }
+    }
+
+    @Test
+    void tokenizingMergesElementsRepresentingOverlappingAnnotations() throws Exception {
+        tokenize(Environment.loadFile("data/rdfa-overlapping.html").readAllBytes());
+        assertEquals(2, annotations.size());
+        final StreamingRdfaTokenizer.Annotation merged = annotations.stream().filter(a -> a.getAbout().equals("_:1"))
+                                                                    .findFirst().orElseThrow();
+        assertEquals("http://onto.fel.cvut.cz/ontologies/mpp/domains/uzemni-plan-praha", merged.getTerm());
+        assertTrue(merged.getExact().endsWith("Územní plánhlavního města Prahy"));
+        assertEquals(".", merged.getSuffix().trim());
+    }
+
+    @Test
+    void tokenizingIgnoresScriptsCommentsAndElementsNotRepresentingTermOccurrences() throws Exception {
+        final String html = "<html><head><script>var s = \"<span about='_:3'>\";</script></head><body " + PREFIX +
+                ">Before<!-- <span about=\"_:4\" " + OCCURRENCE_ATTRIBUTES + "b\">Comment</span> --> " +
+                "<span about=\"_:2\" typeof=\"termit:slovník\" resource=\"termit:c\">Vocabulary</span> text &amp; " +
+                "<span about=\"_:1\" " + OCCURRENCE_ATTRIBUTES + "a\">Term</span> after</body></html>";
+        tokenize(html.getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, annotations.size());
+        final StreamingRdfaTokenizer.Annotation result = annotations.get(0);
+        assertEquals("_:1", result.getAbout());
+        assertEquals("http://onto.fel.cvut.cz/ontologies/application/termit/pojem/a", result.getTerm());
+        assertEquals("1.0", result.getScore());
+        assertEquals("Term", result.getExact());
+        assertEquals("Before Vocabulary text & ", result.getPrefix());
+        assertEquals(" after", result.getSuffix());
+        assertEquals(result.getPrefix().length(), result.getStart());
+    }
+
+    @Test
+    void tokenizingRepresentsLineBreaksAsNewlines() throws Exception {
+        final String html = "<html><body " + PREFIX + "><p>First<br>line<br/><span about=\"_:1\" " +
+                OCCURRENCE_ATTRIBUTES + "a\">Term<br>two</span></p></body></html>";
+        tokenize(html.getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, annotations.size());
+        assertEquals("First\nline\n".length(), annotations.get(0).getStart());
+        assertEquals("Term\ntwo", annotations.get(0).getExact());
+    }
+}
@@ -89,4 +89,20 @@ class TextPositionSelectorGeneratorTest {
         assertEquals(prefix.length(), result.getStart().intValue());
         assertEquals(prefix.length() + MATCH.length(), result.getEnd().intValue());
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateSelectorWithSharedDocumentTextGeneratesSameSelectorsAsSeparateGeneration() {
+        document.html("<div><h1>Title</h1><p>First <span>MATCH</span> and <b>second <span>MATCH</span></b>.</p>" +
+                              "<p>Third <span>MATCH</span>.</p></div>");
+        final DocumentText text = DocumentText.of(document);
+        final Elements elements = document.getElementsByTag("span");
+        final int[] expectedStarts = {"TitleFirst ".length(), "TitleFirst MATCH and second ".length(),
+                                      "TitleFirst MATCH and second MATCH.Third ".length()};
+        for (int i = 0; i < elements.size(); i++) {
+            final TextPositionSelector result = sut.generateSelector(text, elements.get(i));
+            assertEquals(sut.generateSelector(elements.get(i)), result);
+            assertEquals(expectedStarts[i], result.getStart().intValue());
+            assertEquals(expectedStarts[i] + MATCH.length(), result.getEnd().intValue());
+        }
+    }
+}
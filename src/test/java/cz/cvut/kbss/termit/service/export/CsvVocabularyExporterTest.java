@@ -17,24 +17,32 @@ package cz.cvut.kbss.termit.service.export;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
+import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.TypeAwareResource;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
-import java.util.Collections;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 
@@ -44,14 +52,20 @@ class CsvVocabularyExporterTest {
     @Mock
     private TermRepositoryService termService;
 
-    @InjectMocks
     private CsvVocabularyExporter sut;
 
+    private final Configuration config = new Configuration();
+
     private final Vocabulary vocabulary = Generator.generateVocabularyWithId();
 
+    @BeforeEach
+    void setUp() {
+        this.sut = new CsvVocabularyExporter(termService, config);
+    }
+
     @Test
     void exportVocabularyGlossaryOutputsHeaderContainingColumnNamesIntoResult() throws Exception {
-        when(termService.findAllFull(vocabulary)).thenReturn(Collections.emptyList());
+        when(termService.findAllFull(vocabulary, config.getExport().getChunkSize())).thenReturn(Stream.empty());
         final Resource result = sut.exportGlossary(vocabulary);
         try (final BufferedReader reader = new BufferedReader(new InputStreamReader(result.getInputStream()))) {
             final String header = reader.readLine();
@@ -63,7 +77,7 @@ class CsvVocabularyExporterTest {
     void exportVocabularyGlossaryOutputsTermsContainedInVocabularyAsCsv() throws Exception {
         final List<Term> terms = IntStream.range(0, 10).mapToObj(i -> Generator.generateTermWithId()).collect(
                 Collectors.toList());
-        when(termService.findAllFull(vocabulary)).thenReturn(terms);
+        when(termService.findAllFull(vocabulary, config.getExport().getChunkSize())).thenReturn(terms.stream());
         final Resource result = sut.exportGlossary(vocabulary);
         try (final BufferedReader reader = new BufferedReader(new InputStreamReader(result.getInputStream()))) {
             final List<String> lines = reader.lines().collect(Collectors.toList());
@@ -77,6 +91,22 @@ class CsvVocabularyExporterTest {
         }
     }
 
+    @Test
+    void exportVocabularyGlossaryWritesTermsDirectlyIntoOutputStream() throws Exception {
+        final List<Term> terms = IntStream.range(0, 10).mapToObj(i -> Generator.generateTermWithId()).collect(
+                Collectors.toList());
+        when(termService.findAllFull(vocabulary, config.getExport().getChunkSize())).thenReturn(terms.stream());
+        final TypeAwareResource result = sut.exportGlossary(vocabulary);
+        assertThat(result, instanceOf(TypeAwareStreamingResource.class));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((TypeAwareStreamingResource) result).writeTo(out);
+        final List<String> lines = Arrays.asList(out.toString(StandardCharsets.UTF_8).split("\n"));
+        assertEquals(String.join(",", Term.EXPORT_COLUMNS), lines.get(0));
+        for (int i = 0; i < terms.size(); i++) {
+            assertEquals(terms.get(i).toCsv(), lines.get(i + 1));
+        }
+    }
+
     @Test
     void supportsReturnsTrueForCsvMediaType() {
         assertTrue(sut.supports(Constants.MediaType.CSV));
@@ -20,25 +20,32 @@ package cz.cvut.kbss.termit.service.export;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
+import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 
-import java.util.Collections;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static cz.cvut.kbss.termit.service.export.ExcelVocabularyExporter.SHEET_NAME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 
@@ -48,14 +55,20 @@ class ExcelVocabularyExporterTest {
     @Mock
     private TermRepositoryService termService;
 
-    @InjectMocks
     private ExcelVocabularyExporter sut;
 
+    private final Configuration config = new Configuration();
+
     private final Vocabulary vocabulary = Generator.generateVocabularyWithId();
 
+    @BeforeEach
+    void setUp() {
+        this.sut = new ExcelVocabularyExporter(termService, config);
+    }
+
     @Test
     void exportVocabularyGlossaryOutputsExcelWorkbookWithSingleSheet() throws Exception {
-        when(termService.findAllFull(vocabulary)).thenReturn(Collections.emptyList());
+        when(termService.findAllFull(vocabulary, config.getExport().getChunkSize())).thenReturn(Stream.empty());
         final Resource result = sut.exportGlossary(vocabulary);
         assertNotNull(result);
         final XSSFWorkbook wb = new XSSFWorkbook(result.getInputStream());
@@ -67,7 +80,7 @@ class ExcelVocabularyExporterTest {
     void exportVocabularyGlossaryOutputsHeaderRowWithColumnNamesIntoSheet() throws Exception {
         final List<Term> terms = IntStream.range(0, 10).mapToObj(i -> Generator.generateTermWithId()).collect(
                 Collectors.toList());
-        when(termService.findAllFull(vocabulary)).thenReturn(terms);
+        when(termService.findAllFull(vocabulary, config.getExport().getChunkSize())).thenReturn(terms.stream());
         final Resource result = sut.exportGlossary(vocabulary);
         final XSSFWorkbook wb = new XSSFWorkbook(result.getInputStream());
         final XSSFSheet sheet = wb.getSheet(SHEET_NAME);
@@ -83,7 +96,7 @@ class ExcelVocabularyExporterTest {
     void exportVocabularyGlossaryOutputsGlossaryTermsIntoSheet() throws Exception {
         final List<Term> terms = IntStream.range(0, 10).mapToObj(i -> Generator.generateTermWithId()).collect(
                 Collectors.toList());
-        when(termService.findAllFull(vocabulary)).thenReturn(terms);
+        when(termService.findAllFull(vocabulary, config.getExport().getChunkSize())).thenReturn(terms.stream());
         final Resource result = sut.exportGlossary(vocabulary);
         final XSSFWorkbook wb = new XSSFWorkbook(result.getInputStream());
         final XSSFSheet sheet = wb.getSheet(SHEET_NAME);
@@ -97,6 +110,24 @@ class ExcelVocabularyExporterTest {
         }
     }
 
+    @Test
+    void exportVocabularyGlossaryOutputsAllTermsWhenTheyExceedRowWindow() throws Exception {
+        config.getExport().setExcelRowWindow(5);
+        final List<Term> terms = IntStream.range(0, 20).mapToObj(i -> Generator.generateTermWithId()).collect(
+                Collectors.toList());
+        when(termService.findAllFull(vocabulary, config.getExport().getChunkSize())).thenReturn(terms.stream());
+        final TypeAwareResource result = sut.exportGlossary(vocabulary);
+        assertThat(result, instanceOf(TypeAwareStreamingResource.class));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((TypeAwareStreamingResource) result).writeTo(out);
+        final XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        final XSSFSheet sheet = wb.getSheet(SHEET_NAME);
+        assertEquals(terms.size(), sheet.getLastRowNum());
+        for (int i = 0; i < terms.size(); i++) {
+            assertEquals(terms.get(i).getUri().toString(), sheet.getRow(i + 1).getCell(0).getStringCellValue());
+        }
+    }
+
     @Test
     void supportsReturnsTrueForExcelMediaType() {
         assertTrue(sut.supports(Constants.MediaType.EXCEL));
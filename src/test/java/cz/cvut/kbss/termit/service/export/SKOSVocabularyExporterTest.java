@@ -14,6 +14,7 @@ import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
@@ -30,7 +31,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.MediaType;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -38,6 +42,7 @@ import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -145,6 +150,27 @@ class SKOSVocabularyExporterTest extends BaseServiceTestRunner {
         assertTrue(model.contains(glossaryIri(vocabulary), vf.createIRI("http://purl.org/ontology/bibo/status"), null));
     }
 
+    @Test
+    void exportGlossaryDeclaresNamespacePrefixPreferredByGlossary() throws IOException {
+        transactional(() -> {
+            final Repository repo = em.unwrap(Repository.class);
+            try (final RepositoryConnection conn = repo.getConnection()) {
+                conn.begin();
+                conn.add(glossaryIri(vocabulary), vf.createIRI("http://purl.org/vocab/vann/preferredNamespacePrefix"),
+                        vf.createLiteral("test"));
+                conn.add(glossaryIri(vocabulary), vf.createIRI("http://purl.org/vocab/vann/preferredNamespaceUri"),
+                        vf.createLiteral(Environment.BASE_URI + "/"));
+                conn.commit();
+            }
+        });
+
+        final TypeAwareResource result = sut.exportGlossary(vocabulary);
+        final Model model = Rio.parse(result.getInputStream(), "", RDFFormat.TURTLE);
+        assertTrue(model.getNamespace("test").isPresent());
+        assertEquals(Environment.BASE_URI + "/", model.getNamespace("test").get().getName());
+        assertTrue(model.getNamespace(SKOS.PREFIX).isPresent());
+    }
+
     private void insertAdditionalGlossaryData() {
         transactional(() -> {
             final Repository repo = em.unwrap(Repository.class);
@@ -242,6 +268,36 @@ class SKOSVocabularyExporterTest extends BaseServiceTestRunner {
         });
     }
 
+    @Test
+    void exportGlossaryDoesNotWriteStatementProducedByNonAdjacentQuerySolutionsRepeatedly() throws Exception {
+        final List<Term> terms = generateTerms(vocabulary);
+        // Alternative labels combined with related terms make each relationship appear in multiple query solutions
+        terms.forEach(this::insertAltLabels);
+        transactional(() -> {
+            final Repository repo = em.unwrap(Repository.class);
+            try (final RepositoryConnection conn = repo.getConnection()) {
+                conn.begin();
+                for (int i = 0; i < terms.size(); i++) {
+                    final IRI iri = vf.createIRI(terms.get(i).getUri().toString());
+                    conn.add(iri, SKOS.RELATED, vf.createIRI(terms.get((i + 1) % terms.size()).getUri().toString()));
+                    conn.add(iri, SKOS.RELATED, vf.createIRI(terms.get((i + 2) % terms.size()).getUri().toString()));
+                }
+                conn.commit();
+            }
+        });
+
+        final TypeAwareResource result = sut.exportGlossary(vocabulary);
+        final List<Statement> written = new ArrayList<>();
+        final RDFParser parser = Rio.createParser(RDFFormat.TURTLE);
+        parser.setRDFHandler(new StatementCollector(written));
+        parser.parse(result.getInputStream(), "");
+        assertEquals(new HashSet<>(written).size(), written.size());
+        for (Term t : terms) {
+            assertEquals(2, written.stream().filter(st -> st.getSubject().stringValue().equals(t.getUri().toString())
+                    && st.getPredicate().equals(SKOS.RELATED)).count());
+        }
+    }
+
     @Test
     void exportGlossaryExportsHierarchicalStructureOfTerms() throws Exception {
         final List<Term> terms = generateTerms(vocabulary);
@@ -449,6 +505,21 @@ class SKOSVocabularyExporterTest extends BaseServiceTestRunner {
         return referencedTerms;
     }
 
+    @Test
+    void exportGlossaryWithReferencesDoesNotWriteTermsReferencedFromSameGlossaryAgain() throws Exception {
+        final List<Term> terms = generateTerms(vocabulary);
+        final IRI property = REFERENCING_PROPERTIES[Generator.randomIndex(REFERENCING_PROPERTIES)];
+        generateReferences(terms, terms, property);
+
+        final TypeAwareResource result = sut.exportGlossaryWithReferences(vocabulary,
+                Collections.singleton(property.stringValue()));
+        final List<Statement> written = new ArrayList<>();
+        final RDFParser parser = Rio.createParser(RDFFormat.TURTLE);
+        parser.setRDFHandler(new StatementCollector(written));
+        parser.parse(result.getInputStream(), "");
+        assertEquals(new HashSet<>(written).size(), written.size());
+    }
+
     @Test
     void exportGlossaryWithReferencesExportsGlossariesOfReferencedTerms() throws Exception {
         final List<Term> terms = generateTerms(vocabulary);
@@ -463,4 +534,65 @@ class SKOSVocabularyExporterTest extends BaseServiceTestRunner {
         assertThat(model, hasItem(vf.createStatement(vf.createIRI(anotherVocabulary.getGlossary().getUri()
                                                                                    .toString()), RDF.TYPE, SKOS.CONCEPT_SCHEME)));
     }
+
+    @Test
+    void exportGlossaryWithReferencesExportsReferencedTermsInParallelBatches() throws Exception {
+        final Configuration.Export exportConfig = config.getExport();
+        final int originalBatchSize = exportConfig.getReferenceBatchSize();
+        final int originalParallelism = exportConfig.getReferenceParallelism();
+        exportConfig.setReferenceBatchSize(2);
+        exportConfig.setReferenceParallelism(3);
+        try {
+            final List<Term> terms = generateTerms(vocabulary);
+            final Vocabulary anotherVocabulary = Generator.generateVocabularyWithId();
+            transactional(
+                    () -> em.persist(anotherVocabulary, descriptorFactory.vocabularyDescriptor(anotherVocabulary)));
+            final List<Term> externalTerms = generateTerms(anotherVocabulary);
+            final IRI property = REFERENCING_PROPERTIES[Generator.randomIndex(REFERENCING_PROPERTIES)];
+            final Set<Term> referencedExternal = generateReferences(terms, externalTerms, property);
+
+            final TypeAwareResource result = sut.exportGlossaryWithReferences(vocabulary,
+                    Collections.singleton(property.stringValue()));
+            final Model model = loadAsModel(result);
+            referencedExternal.forEach(rt -> assertThat(model,
+                    hasItem(vf.createStatement(vf.createIRI(rt.getUri().toString()), RDF.TYPE, SKOS.CONCEPT))));
+            assertThat(model, hasItem(vf.createStatement(vf.createIRI(anotherVocabulary.getGlossary().getUri()
+                                                                                       .toString()), RDF.TYPE, SKOS.CONCEPT_SCHEME)));
+        } finally {
+            exportConfig.setReferenceBatchSize(originalBatchSize);
+            exportConfig.setReferenceParallelism(originalParallelism);
+        }
+    }
+    @Test
+    void exportGlossaryWithReferencesWritesEachReferencedTermAsSingleGroupWhenBatchesAreEvaluatedInParallel()
+            throws Exception {
+        final Configuration.Export exportConfig = config.getExport();
+        final int originalBatchSize = exportConfig.getReferenceBatchSize();
+        final int originalParallelism = exportConfig.getReferenceParallelism();
+        exportConfig.setReferenceBatchSize(2);
+        exportConfig.setReferenceParallelism(3);
+        try {
+            final List<Term> terms = generateTerms(vocabulary);
+            final Vocabulary anotherVocabulary = Generator.generateVocabularyWithId();
+            transactional(
+                    () -> em.persist(anotherVocabulary, descriptorFactory.vocabularyDescriptor(anotherVocabulary)));
+            final List<Term> externalTerms = generateTerms(anotherVocabulary);
+            final IRI property = REFERENCING_PROPERTIES[Generator.randomIndex(REFERENCING_PROPERTIES)];
+            final Set<Term> referencedExternal = generateReferences(terms, externalTerms, property);
+
+            final TypeAwareResource result = sut.exportGlossaryWithReferences(vocabulary,
+                    Collections.singleton(property.stringValue()));
+            final List<String> lines;
+            try (final BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(result.getInputStream(), StandardCharsets.UTF_8))) {
+                lines = reader.lines().collect(Collectors.toList());
+            }
+            // Turtle writer starts a new subject group on a new line, so each term must start exactly one line
+            referencedExternal.forEach(rt -> assertEquals(1, lines.stream().filter(
+                    l -> l.startsWith("<" + rt.getUri() + ">")).count()));
+        } finally {
+            exportConfig.setReferenceBatchSize(originalBatchSize);
+            exportConfig.setReferenceParallelism(originalParallelism);
+        }
+    }
 }
@@ -17,6 +17,10 @@ package cz.cvut.kbss.termit.service.jmx;
 import cz.cvut.kbss.termit.event.EvictCacheEvent;
 import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
 import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.persistence.dao.util.CacheMonitor;
+import cz.cvut.kbss.termit.persistence.dao.util.CacheStatistics;
+import cz.cvut.kbss.termit.persistence.dao.util.FullTextIndex;
+import cz.cvut.kbss.termit.service.document.VocabularyAnalysisScheduler;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -26,9 +30,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.Mockito.atLeastOnce;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class AppAdminBeanTest {
@@ -36,6 +40,15 @@ class AppAdminBeanTest {
     @Mock
     private ApplicationEventPublisher eventPublisherMock;
 
+    @Mock
+    private CacheMonitor cacheMonitor;
+
+    @Mock
+    private VocabularyAnalysisScheduler analysisScheduler;
+
+    @Mock
+    private FullTextIndex fullTextIndex;
+
     @InjectMocks
     private AppAdminBean sut;
 
@@ -62,4 +75,30 @@ class AppAdminBeanTest {
         verify(eventPublisherMock, atLeastOnce()).publishEvent(captor.capture());
         assertTrue(captor.getAllValues().stream().anyMatch(VocabularyContentModified.class::isInstance));
     }
+
+    @Test
+    void rebuildFullTextIndexRebuildsIndex() {
+        sut.rebuildFullTextIndex();
+        verify(fullTextIndex).rebuild();
+    }
+
+    @Test
+    void cacheStatisticsAttributesReturnValuesAggregatedByCacheMonitor() {
+        when(cacheMonitor.getStatistics()).thenReturn(new CacheStatistics(3, 1, 2, 5));
+        assertEquals(3, sut.getCacheHitCount());
+        assertEquals(1, sut.getCacheMissCount());
+        assertEquals(0.75, sut.getCacheHitRatio());
+        assertEquals(2, sut.getCacheEvictionCount());
+        assertEquals(5, sut.getCacheSize());
+    }
+
+    @Test
+    void textAnalysisAttributesReturnValuesFromVocabularyAnalysisScheduler() {
+        when(analysisScheduler.getQueueDepth()).thenReturn(4);
+        when(analysisScheduler.getRunningCount()).thenReturn(1);
+        when(analysisScheduler.getCoalescedCount()).thenReturn(49L);
+        assertEquals(4, sut.getTextAnalysisQueueDepth());
+        assertEquals(1, sut.getTextAnalysisRunningCount());
+        assertEquals(49, sut.getTextAnalysisCoalescedCount());
+    }
 }
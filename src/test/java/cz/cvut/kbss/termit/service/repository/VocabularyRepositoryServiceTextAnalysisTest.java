@@ -6,9 +6,11 @@ import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
 import cz.cvut.kbss.termit.service.business.TermService;
+import cz.cvut.kbss.termit.service.document.VocabularyAnalysisScheduler;
 import cz.cvut.kbss.termit.util.Configuration;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -16,8 +18,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 import static cz.cvut.kbss.termit.environment.Environment.termsToDtos;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,6 +43,9 @@ class VocabularyRepositoryServiceTextAnalysisTest {
     @Mock
     private VocabularyDao vocabularyDao;
 
+    @Mock
+    private VocabularyAnalysisScheduler analysisScheduler;
+
     @Test
     void runTextAnalysisOnAllTermsInvokesTextAnalysisOnAllTermsInVocabulary() {
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
@@ -46,8 +55,11 @@ class VocabularyRepositoryServiceTextAnalysisTest {
         when(termService.findAll(vocabulary)).thenReturn(terms);
         when(vocabularyDao.getTransitivelyImportedVocabularies(vocabulary)).thenReturn(Collections.emptyList());
         sut.runTextAnalysisOnAllTerms(vocabulary);
-        verify(termService).analyzeTermDefinition(termOne, vocabulary.getUri());
-        verify(termService).analyzeTermDefinition(termTwo, vocabulary.getUri());
+        final ArgumentCaptor<Consumer<BooleanSupplier>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(analysisScheduler).schedule(eq(vocabulary.getUri()), captor.capture());
+        final BooleanSupplier superseded = () -> false;
+        captor.getValue().accept(superseded);
+        verify(termService).analyzeTermDefinitions(terms, vocabulary.getUri(), superseded);
     }
 
     @Test
@@ -55,8 +67,9 @@ class VocabularyRepositoryServiceTextAnalysisTest {
         final List<Vocabulary> vocabularies = Collections.singletonList(Generator.generateVocabularyWithId());
         final Term term = Generator.generateTermWithId();
         when(vocabularyDao.findAll()).thenReturn(vocabularies);
-        when(termService.findAll(vocabularies.get(0))).thenReturn(Collections.singletonList(new TermDto(term)));
+        final List<TermDto> terms = Collections.singletonList(new TermDto(term));
+        when(termService.findAll(vocabularies.get(0))).thenReturn(terms);
         sut.runTextAnalysisOnAllVocabularies();
-        verify(termService).analyzeTermDefinition(term, vocabularies.get(0).getUri());
+        verify(termService).analyzeTermDefinitions(eq(terms), eq(vocabularies.get(0).getUri()), any());
     }
 }
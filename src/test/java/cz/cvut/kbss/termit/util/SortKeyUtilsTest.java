@@ -0,0 +1,51 @@
+package cz.cvut.kbss.termit.util;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortKeyUtilsTest {
+
+    @Test
+    void sortKeyOrdersValuesUsingCollationRulesOfSpecifiedLanguage() {
+        final List<String> values = List.of("Španělsko", "Sýrie", "Německo", "Čína", "Chorvatsko", "Cypr", "Hon");
+
+        final List<String> result = values.stream().sorted((a, b) -> SortKeyUtils.sortKey(a, "cs")
+                                                                                 .compareTo(SortKeyUtils.sortKey(b, "cs")))
+                                          .collect(Collectors.toList());
+        assertEquals(List.of("Cypr", "Čína", "Hon", "Chorvatsko", "Německo", "Sýrie", "Španělsko"), result);
+    }
+
+    @Test
+    void sortKeyIgnoresCaseDifferencesBeforeLetterDifferences() {
+        assertTrue(SortKeyUtils.sortKey("apple", "en").compareTo(SortKeyUtils.sortKey("Banana", "en")) < 0);
+        assertTrue(SortKeyUtils.sortKey("Apple", "en").compareTo(SortKeyUtils.sortKey("banana", "en")) < 0);
+    }
+
+    @Test
+    void sortKeySupportsValuesWithoutLanguage() {
+        assertTrue(SortKeyUtils.sortKey("a", null).compareTo(SortKeyUtils.sortKey("b", null)) < 0);
+    }
+
+    @Test
+    void sortKeysComputesSortKeyOfEachTranslationUsingItsLanguage() {
+        final MultilingualString label = MultilingualString.create("Chata", "cs");
+        label.set("en", "Cottage");
+
+        final MultilingualString result = SortKeyUtils.sortKeys(label);
+        assertEquals(Map.of("cs", SortKeyUtils.sortKey("Chata", "cs"), "en", SortKeyUtils.sortKey("Cottage", "en")),
+                     result.getValue());
+        // Czech treats ch as a separate letter following h
+        assertNotEquals(SortKeyUtils.sortKey("Chata", "en"), result.get("cs"));
+    }
+
+    @Test
+    void sortKeysReturnsNullForNullLabel() {
+        assertNull(SortKeyUtils.sortKeys(null));
+    }
+}